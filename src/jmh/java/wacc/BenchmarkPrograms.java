@@ -0,0 +1,146 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import antlr.WACCParser.ProgContext;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import wacc.ast.ASTBuilder;
+import wacc.ast.ASTProgramNode;
+import wacc.error.WACCErrorHandler;
+
+/**
+ * Source programs for the benchmarks, and the front end run on them
+ */
+final class BenchmarkPrograms {
+
+  private BenchmarkPrograms() {
+  }
+
+  /**
+   * A program of count functions, each with arithmetic, an if, a while, a
+   * print and a call to the function before it
+   */
+  static String manyFunctions(int count) {
+    StringBuilder sb = new StringBuilder("begin\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  int f").append(i).append("(int x) is\n")
+        .append("    int y = x * 2 + ").append(i).append(" ;\n")
+        .append("    if y > 10 then\n")
+        .append("      y = y - 10\n")
+        .append("    else\n")
+        .append("      y = y + 3\n")
+        .append("    fi ;\n")
+        .append("    while y > 0 do\n")
+        .append("      y = y / 2\n")
+        .append("    done ;\n")
+        .append("    println y ;\n");
+      if (i > 0) {
+        sb.append("    int z = call f").append(i - 1).append("(y) ;\n")
+          .append("    return z + x\n");
+      } else {
+        sb.append("    return y + x\n");
+      }
+      sb.append("  end\n");
+    }
+    sb.append("  int r = call f").append(count - 1).append("(7) ;\n")
+      .append("  println r\n")
+      .append("end\n");
+    return sb.toString();
+  }
+
+  /**
+   * A program whose body nests depth ifs and whiles inside each other,
+   * alternating between them, with a statement before each one
+   */
+  static String nested(int depth) {
+    StringBuilder sb = new StringBuilder("begin\n  int x = 0 ;\n");
+    for (int i = depth; i > 0; i--) {
+      sb.append("  x = x + 1 ;\n");
+      sb.append(i % 2 == 0 ? "  if x > 0 then\n" : "  while x < 0 do\n");
+    }
+    sb.append("  println x\n");
+    for (int i = 1; i <= depth; i++) {
+      sb.append(i % 2 == 0 ? "  else\n    skip\n  fi\n" : "  done\n");
+    }
+    return sb.append("end\n").toString();
+  }
+
+  /**
+   * A program of count print statements of strings, ints, bools and
+   * pairs, with checked arithmetic and array accesses in between
+   */
+  static String printHeavy(int count) {
+    StringBuilder sb = new StringBuilder("begin\n")
+        .append("  int[] a = [1, 2, 3] ;\n")
+        .append("  pair(int, int) p = newpair(1, 2) ;\n")
+        .append("  int x = 0 ;\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  x = x + a[").append(i % 3).append("] * 2 ;\n")
+        .append("  println \"line ").append(i).append("\" ;\n")
+        .append("  print x ;\n")
+        .append("  println x > ").append(i).append(" ;\n")
+        .append("  println p ;\n");
+    }
+    return sb.append("  free p\nend\n").toString();
+  }
+
+  /**
+   * A program of count boolean declarations, each comparing two long
+   * arithmetic expressions and combining the result with more comparisons
+   */
+  static String expressionHeavy(int count) {
+    StringBuilder sb = new StringBuilder("begin\n")
+        .append("  int x = 3 ;\n")
+        .append("  int y = 5 ;\n");
+    for (int i = 0; i < count; i++) {
+      sb.append("  bool b").append(i).append(" = ");
+      appendSum(sb, i, 12);
+      sb.append(i % 2 == 0 ? " <= " : " == ");
+      appendSum(sb, i + 1, 8);
+      sb.append(" && x * ").append(i).append(" + y != ").append(i)
+        .append(" || (x - y) > ").append(i).append(" ;\n");
+    }
+    return sb.append("  println x\nend\n").toString();
+  }
+
+  private static void appendSum(StringBuilder sb, int seed, int terms) {
+    sb.append("x");
+    for (int t = 0; t < terms; t++) {
+      sb.append(t % 2 == 0 ? " + " : " - ")
+        .append("(y * ").append(seed + t).append(" / (x + 1))");
+    }
+  }
+
+  /**
+   * A parse tree together with the symbol table filled in for it and the
+   * AST it is lowered to
+   */
+  static class Analysed {
+    final ProgContext tree;
+    final SymbolTable<String, Binding> top;
+    final ASTProgramNode ast;
+
+    Analysed(ProgContext tree, SymbolTable<String, Binding> top) {
+      this.tree = tree;
+      this.top = top;
+      this.ast = ASTBuilder.build(tree, top);
+    }
+  }
+
+  static Analysed analyse(String source) {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    CommonTokenStream tokens = new CommonTokenStream(lexer);
+    ProgContext tree = new WACCParser(tokens).prog();
+
+    SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+    WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+    new WACCTypeChecker(top, errorHandler).visit(tree);
+    if (errorHandler.hasSyntaxErrors() || errorHandler.hasSemanticErrors()) {
+      throw new IllegalArgumentException(errorHandler.toString());
+    }
+    return new Analysed(tree, top);
+  }
+
+}
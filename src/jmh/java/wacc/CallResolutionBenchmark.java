@@ -0,0 +1,58 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wacc.error.WACCErrorHandler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling the symbol table and type checking a program of many functions,
+ * each of which calls the one before it, with the program parsed beforehand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallResolutionBenchmark {
+
+  @Param({"1000", "10000"})
+  private int functions;
+
+  private ParseTree tree;
+  private CommonTokenStream tokens;
+
+  @Setup
+  public void setUp() {
+    String source = BenchmarkPrograms.manyFunctions(functions);
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    tokens = new CommonTokenStream(lexer);
+    tree = new WACCParser(tokens).prog();
+  }
+
+  @Benchmark
+  public SymbolTable<String, Binding> analyse() {
+    SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+    WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+    new WACCTypeChecker(top, errorHandler).visit(tree);
+    return top;
+  }
+
+}
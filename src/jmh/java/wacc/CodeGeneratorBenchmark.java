@@ -0,0 +1,51 @@
+package wacc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Code generation (including rendering the assembly) of a program with many
+ * functions, with the functions generated one after another or concurrently
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+  @Param({"1000"})
+  private int functions;
+
+  @Param({"sequential", "parallel"})
+  private String mode;
+
+  private BenchmarkPrograms.Analysed program;
+  private int parallelThreshold;
+
+  @Setup
+  public void setUp() {
+    program = BenchmarkPrograms.analyse(
+        BenchmarkPrograms.manyFunctions(functions));
+    parallelThreshold = mode.equals("parallel") ? 1 : Integer.MAX_VALUE;
+  }
+
+  @Benchmark
+  public String generate() {
+    return new CodeGenerator(parallelThreshold).visitProgram(program.ast)
+        .toString();
+  }
+
+}
@@ -0,0 +1,101 @@
+package wacc;
+
+import antlr.WACCLexer;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing a generated program from a file, with the generated WACCLexer
+ * over an ANTLRInputStream and with the hand-written WACCScanner over the
+ * file's bytes
+ * The megabytes counter gives the throughput of each in MB/s
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+  @Param({"2000"})
+  private int functions;
+
+  private Path file;
+  private double megabytes;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("lexer-benchmark", ".wacc");
+    Files.write(file, BenchmarkPrograms.manyFunctions(functions)
+                          .getBytes(StandardCharsets.US_ASCII));
+    megabytes = Files.size(file) / 1e6;
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public int generatedLexer(Throughput throughput) throws IOException {
+    try (Reader reader = Files.newBufferedReader(file)) {
+      WACCLexer lexer = new WACCLexer(new ANTLRInputStream(reader));
+      throughput.megabytes += megabytes;
+      return countTokens(lexer);
+    }
+  }
+
+  @Benchmark
+  public int scanner(Throughput throughput) throws IOException {
+    WACCScanner scanner
+        = new WACCScanner((AsciiCharStream) AsciiCharStream.open(file));
+    throughput.megabytes += megabytes;
+    return countTokens(scanner);
+  }
+
+  private static int countTokens(TokenSource lexer) {
+    int count = 0;
+    while (lexer.nextToken().getType() != Token.EOF) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Megabytes of source lexed, which JMH reports per second
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Throughput {
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing and parsing a program of long arithmetic and boolean expressions,
+ * with SLL prediction as the compiler parses and with full LL prediction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"100", "1000"})
+  private int statements;
+
+  @Param({"SLL", "LL"})
+  private PredictionMode prediction;
+
+  private String source;
+
+  @Setup
+  public void setUp() {
+    source = BenchmarkPrograms.expressionHeavy(statements);
+  }
+
+  @Benchmark
+  public ParseTree parse() {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    WACCParser parser = new WACCParser(new CommonTokenStream(lexer));
+    parser.getInterpreter().setPredictionMode(prediction);
+    return parser.prog();
+  }
+
+}
@@ -0,0 +1,106 @@
+package wacc;
+
+import antlr.WACCParser;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parsing one short program with the parser's DFAs empty, as on a cold
+ * start, with them loaded from a snapshot of the valid examples first, and
+ * with them already warm
+ * The hash table is one of the examples the snapshot was taken from, the
+ * generated program is not
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserWarmupBenchmark {
+
+  private static final Path VALID
+      = Paths.get("src/test/resources/examples/valid");
+
+  @Param({"hashTable", "generated"})
+  private String program;
+
+  private String source;
+  private Path snapshot;
+
+  @Setup
+  public void setUp() throws IOException {
+    if (program.equals("generated")) {
+      source = BenchmarkPrograms.manyFunctions(20);
+    } else {
+      source = new String(Files.readAllBytes(
+          VALID.resolve("advanced/" + program + ".wacc")));
+    }
+
+    WACCCompiler compiler = new WACCCompiler();
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(VALID)) {
+      files = walk.filter(file -> file.toString().endsWith(".wacc"))
+                  .collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      compiler.compile(new String(Files.readAllBytes(file)));
+    }
+    snapshot = Files.createTempFile("parser", ".dfa");
+    DfaSnapshot.save(snapshot);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(snapshot);
+  }
+
+  @Benchmark
+  public ParseTree cold() {
+    WACCParser._ATN.clearDFA();
+    return parse();
+  }
+
+  @Benchmark
+  public ParseTree snapshot() {
+    WACCParser._ATN.clearDFA();
+    DfaSnapshot.load(snapshot);
+    return parse();
+  }
+
+  @Benchmark
+  public ParseTree warm() {
+    return parse();
+  }
+
+  private ParseTree parse() {
+    WACCScanner scanner
+        = new WACCScanner((AsciiCharStream) AsciiCharStream.of(source));
+    WACCParser parser = new WACCParser(new CommonTokenStream(scanner));
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    return parser.prog();
+  }
+
+}
@@ -0,0 +1,212 @@
+package wacc;
+
+import antlr.WACCParser;
+import antlr.WACCParser.ProgContext;
+import arm11.InstructionList;
+import bindings.Binding;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import wacc.ast.ASTBuilder;
+import wacc.ast.ASTProgramNode;
+import wacc.error.WACCErrorHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Each phase of the compiler on its own, and the whole compiler, over the
+ * valid examples of one directory, with the input of each phase prepared
+ * beforehand
+ * One operation runs a phase over every program of the directory, and the
+ * allocatedMB counter gives the megabytes each phase allocates per second
+ * The type check includes declaring the signatures, which it needs fresh
+ * symbol tables for, and code generation starts from the lowered AST
+ * mvn -P benchmark compile exec:exec -Djmh.args="PhaseBenchmark"
+ * adding -prof gc to the arguments also gives the bytes per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseBenchmark {
+
+  private static final Path VALID
+      = Paths.get("src/test/resources/examples/valid");
+
+  @Param({"advanced", "function", "array"})
+  private String directory;
+
+  private final List<Program> programs = new ArrayList<>();
+  private final WACCParser parser = new WACCParser(null);
+  private final WACCCompiler compiler = new WACCCompiler();
+
+  @Setup
+  public void setUp() throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(VALID.resolve(directory))) {
+      files = walk.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      programs.add(new Program(new String(Files.readAllBytes(file))));
+    }
+  }
+
+  @Benchmark
+  public int lex(Allocation allocation) {
+    int tokens = 0;
+    for (Program program : programs) {
+      WACCScanner scanner = new WACCScanner(
+          (AsciiCharStream) AsciiCharStream.of(program.source));
+      while (scanner.nextToken().getType() != Token.EOF) {
+        tokens++;
+      }
+    }
+    return tokens;
+  }
+
+  @Benchmark
+  public int parse(Allocation allocation) {
+    int nodes = 0;
+    for (Program program : programs) {
+      parser.setInputStream(
+          new CommonTokenStream(new ListTokenSource(program.tokenList)));
+      nodes += WACCCompiler.parseProgram(
+          parser, ConsoleErrorListener.INSTANCE).getChildCount();
+    }
+    return nodes;
+  }
+
+  @Benchmark
+  public int declare(Allocation allocation) {
+    int symbols = 0;
+    for (Program program : programs) {
+      SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+      program.checker(top).declare(program.tree);
+      symbols += top.size();
+    }
+    return symbols;
+  }
+
+  @Benchmark
+  public int typeCheck(Allocation allocation) {
+    int symbols = 0;
+    for (Program program : programs) {
+      SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+      WACCTypeChecker checker = program.checker(top);
+      checker.declare(program.tree);
+      checker.check(program.tree);
+      symbols += top.size();
+    }
+    return symbols;
+  }
+
+  @Benchmark
+  public List<InstructionList> generate(Allocation allocation) {
+    List<InstructionList> code = new ArrayList<>();
+    for (Program program : programs) {
+      code.add(new CodeGenerator().visitProgram(program.ast));
+    }
+    return code;
+  }
+
+  @Benchmark
+  public int emit(Allocation allocation) {
+    int length = 0;
+    for (Program program : programs) {
+      length += (program.code + "\n").length();
+    }
+    return length;
+  }
+
+  @Benchmark
+  public int compile(Allocation allocation) {
+    int length = 0;
+    for (Program program : programs) {
+      length += compiler.compile(program.source).getAssembly().length();
+    }
+    return length;
+  }
+
+  /**
+   * A source program with the result of each phase on it
+   */
+  private static class Program {
+    private final String source;
+    private final List<Token> tokenList;
+    private final CommonTokenStream tokens;
+    private final ProgContext tree;
+    private final ASTProgramNode ast;
+    private final InstructionList code;
+
+    Program(String source) {
+      this.source = source;
+      tokens = new CommonTokenStream(new WACCScanner(
+          (AsciiCharStream) AsciiCharStream.of(source)));
+      tokens.fill();
+      tokenList = new ArrayList<>(tokens.getTokens());
+      tree = WACCCompiler.parseProgram(
+          new WACCParser(tokens), ConsoleErrorListener.INSTANCE);
+      SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+      checker(top).visit(tree);
+      ast = ASTBuilder.build(tree, top);
+      code = new CodeGenerator().visitProgram(ast);
+    }
+
+    WACCTypeChecker checker(SymbolTable<String, Binding> top) {
+      return new WACCTypeChecker(top, new WACCErrorHandler(tokens));
+    }
+  }
+
+  /**
+   * Megabytes allocated by the benchmark thread, which JMH reports per
+   * second
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Allocation {
+    public double allocatedMB;
+    private long start;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      allocatedMB = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void start() {
+      start = CompileStats.allocatedBytes();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+      allocatedMB += (CompileStats.allocatedBytes() - start) / 1e6;
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+package wacc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Code generation (including rendering the assembly) of a program made
+ * mostly of prints and checked operations, each of which needs a runtime
+ * helper routine
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintHeavyCodeGeneratorBenchmark {
+
+  @Param({"2000"})
+  private int prints;
+
+  private BenchmarkPrograms.Analysed program;
+
+  @Setup
+  public void setUp() {
+    program = BenchmarkPrograms.analyse(BenchmarkPrograms.printHeavy(prints));
+  }
+
+  @Benchmark
+  public String generate() {
+    return new CodeGenerator().visitProgram(program.ast).toString();
+  }
+
+}
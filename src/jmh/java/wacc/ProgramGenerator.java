@@ -0,0 +1,385 @@
+package wacc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates valid, type-correct programs whose size grows along one axis
+ * at a time, always the same program for the same seed and axes
+ * Each block holds a number of statements, one of which opens the next
+ * nested block, and only the then branch of an if nests further, so the
+ * program grows linearly along every axis
+ * Expressions nest to the expression depth as a chain, not a full tree,
+ * for the same reason
+ * The programs are for the compiler only: their loops need not end and
+ * their arithmetic may overflow
+ */
+final class ProgramGenerator {
+
+  private static final String[] SCALARS = {"int", "bool", "char", "string"};
+  private static final int STATEMENT_KINDS = 7;
+
+  private final Random random;
+  private int functions = 10;
+  private int overloads = 1;
+  private int depth = 2;
+  private int statements = 5;
+  private int expressionDepth = 2;
+  private int arrayDimensions = 1;
+  private int pairDepth = 1;
+
+  private final StringBuilder sb = new StringBuilder();
+  private final List<List<Variable>> scopes = new ArrayList<>();
+  private int names;
+  private int callable;
+
+  ProgramGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  ProgramGenerator functions(int count) {
+    functions = count;
+    return this;
+  }
+
+  /**
+   * The number of functions that share each function name, differing in
+   * the types of their parameters
+   */
+  ProgramGenerator overloads(int count) {
+    overloads = count;
+    return this;
+  }
+
+  /**
+   * How deep blocks nest inside each function body and main
+   */
+  ProgramGenerator depth(int levels) {
+    depth = levels;
+    return this;
+  }
+
+  ProgramGenerator statements(int perBlock) {
+    statements = perBlock;
+    return this;
+  }
+
+  ProgramGenerator expressionDepth(int levels) {
+    expressionDepth = levels;
+    return this;
+  }
+
+  /**
+   * The number of dimensions of the deepest array each array declaration
+   * builds up to
+   */
+  ProgramGenerator arrayDimensions(int dimensions) {
+    arrayDimensions = dimensions;
+    return this;
+  }
+
+  /**
+   * How many pairs deep the pairs each pair declaration builds up to nest
+   */
+  ProgramGenerator pairDepth(int levels) {
+    pairDepth = levels;
+    return this;
+  }
+
+  String generate() {
+    sb.append("begin\n");
+    for (int i = 0; i < functions; i++) {
+      for (int k = 0; k < overloads; k++) {
+        function(i, k);
+      }
+      callable = i + 1;
+    }
+    scopes.add(new ArrayList<>());
+    block(depth, 1);
+    return sb.append("\nend\n").toString();
+  }
+
+  private void function(int index, int overload) {
+    List<String> types = signature(overload);
+    List<Variable> parameters = new ArrayList<>();
+    sb.append("  int f").append(index).append('(');
+    for (int i = 0; i < types.size(); i++) {
+      Variable parameter = new Variable(fresh(), types.get(i));
+      parameters.add(parameter);
+      sb.append(i == 0 ? "" : ", ").append(parameter.type).append(' ')
+        .append(parameter.name);
+    }
+    sb.append(") is\n");
+    scopes.add(parameters);
+    block(depth, 2);
+    sb.append(" ;\n");
+    indent(2).append("return ").append(intExpr(expressionDepth))
+             .append("\n  end\n");
+    scopes.remove(scopes.size() - 1);
+  }
+
+  /**
+   * The parameter types of an overload, as the digits of its number in
+   * base four over the scalar types, so that no two overloads clash
+   */
+  private static List<String> signature(int overload) {
+    List<String> types = new ArrayList<>();
+    int remaining = overload;
+    do {
+      types.add(SCALARS[remaining % SCALARS.length]);
+      remaining /= SCALARS.length;
+    } while (remaining > 0);
+    return types;
+  }
+
+  /**
+   * Writes the statements of a block, without a trailing separator
+   */
+  private void block(int levels, int indent) {
+    int nested = levels > 0 ? random.nextInt(statements) : -1;
+    for (int i = 0; i < statements; i++) {
+      if (i > 0) {
+        sb.append(" ;\n");
+      }
+      if (i == nested) {
+        nestedBlock(levels - 1, indent);
+      } else {
+        statement(indent);
+      }
+    }
+  }
+
+  private void nestedBlock(int levels, int indent) {
+    scopes.add(new ArrayList<>());
+    switch (random.nextInt(3)) {
+      case 0:
+        indent(indent).append("if ").append(boolExpr(expressionDepth))
+                      .append(" then\n");
+        block(levels, indent + 1);
+        scopes.set(scopes.size() - 1, new ArrayList<>());
+        sb.append('\n');
+        indent(indent).append("else\n");
+        block(0, indent + 1);
+        sb.append('\n');
+        indent(indent).append("fi");
+        break;
+      case 1:
+        indent(indent).append("while ").append(boolExpr(expressionDepth))
+                      .append(" do\n");
+        block(levels, indent + 1);
+        sb.append('\n');
+        indent(indent).append("done");
+        break;
+      default:
+        indent(indent).append("begin\n");
+        block(levels, indent + 1);
+        sb.append('\n');
+        indent(indent).append("end");
+        break;
+    }
+    scopes.remove(scopes.size() - 1);
+  }
+
+  private void statement(int indent) {
+    switch (random.nextInt(STATEMENT_KINDS)) {
+      case 0:
+        Variable target = pick("int");
+        if (target != null) {
+          indent(indent).append(target.name).append(" = ")
+                        .append(intExpr(expressionDepth));
+          return;
+        }
+        break;
+      case 1:
+        indent(indent).append(random.nextBoolean() ? "println " : "print ")
+                      .append(intExpr(expressionDepth));
+        return;
+      case 2:
+        if (callable > 0) {
+          call(indent);
+          return;
+        }
+        break;
+      case 3:
+        arrays(indent);
+        return;
+      case 4:
+        pairs(indent);
+        return;
+      default:
+        break;
+    }
+    String type = SCALARS[random.nextInt(SCALARS.length)];
+    declare(indent, type, expr(type));
+  }
+
+  private void declare(int indent, String type, String value) {
+    Variable variable = new Variable(fresh(), type);
+    indent(indent).append(type).append(' ').append(variable.name)
+                  .append(" = ").append(value);
+    scopes.get(scopes.size() - 1).add(variable);
+  }
+
+  /**
+   * Calls one of the overloads of a function declared earlier
+   */
+  private void call(int indent) {
+    StringBuilder call = new StringBuilder("call f")
+        .append(random.nextInt(callable)).append('(');
+    List<String> types = signature(random.nextInt(overloads));
+    for (int i = 0; i < types.size(); i++) {
+      call.append(i == 0 ? "" : ", ").append(expr(types.get(i)));
+    }
+    declare(indent, "int", call.append(')').toString());
+  }
+
+  /**
+   * Declares arrays of one dimension more than the last, up to the array
+   * dimensionality, each holding the one before it
+   */
+  private void arrays(int indent) {
+    String type = "int[]";
+    declare(indent, type, "[" + intExpr(expressionDepth) + ", "
+                          + intExpr(0) + "]");
+    for (int i = 1; i < arrayDimensions; i++) {
+      String element = last().name;
+      type += "[]";
+      sb.append(" ;\n");
+      declare(indent, type, "[" + element + ", " + element + "]");
+    }
+  }
+
+  /**
+   * Declares pairs that each hold the one before them, up to the pair
+   * depth, then takes the innermost pair back out of the outermost
+   */
+  private void pairs(int indent) {
+    String type = "pair(int, bool)";
+    declare(indent, type, "newpair(" + intExpr(expressionDepth) + ", "
+                          + boolExpr(0) + ")");
+    for (int i = 1; i < pairDepth; i++) {
+      String element = last().name;
+      String inner = type;
+      type = "pair(int, " + type + ")";
+      sb.append(" ;\n");
+      declare(indent, type, "newpair(" + intExpr(0) + ", " + element + ")");
+      if (i == pairDepth - 1) {
+        sb.append(" ;\n");
+        declare(indent, inner, "snd " + last().name);
+      }
+    }
+  }
+
+  private String expr(String type) {
+    switch (type) {
+      case "int":
+        return intExpr(expressionDepth);
+      case "bool":
+        return boolExpr(expressionDepth);
+      case "char":
+        Variable c = pick(type);
+        return c != null ? c.name : "'" + (char) ('a' + random.nextInt(26))
+                                   + "'";
+      default:
+        Variable s = pick(type);
+        return s != null ? s.name : "\"s" + random.nextInt(100) + "\"";
+    }
+  }
+
+  private String intExpr(int levels) {
+    if (levels == 0) {
+      return intLeaf();
+    }
+    String op = "+-*".charAt(random.nextInt(3)) + "";
+    return "(" + intExpr(levels - 1) + " " + op + " " + intLeaf() + ")";
+  }
+
+  private String intLeaf() {
+    Variable array = random.nextInt(4) == 0 ? pickArray() : null;
+    if (array != null) {
+      StringBuilder element = new StringBuilder(array.name);
+      for (int i = array.type.indexOf('['); i >= 0;
+           i = array.type.indexOf('[', i + 1)) {
+        element.append("[0]");
+      }
+      return element.toString();
+    }
+    Variable variable = pick("int");
+    if (variable != null && random.nextBoolean()) {
+      return variable.name;
+    }
+    return Integer.toString(random.nextInt(1000));
+  }
+
+  private String boolExpr(int levels) {
+    if (levels == 0) {
+      Variable variable = pick("bool");
+      if (variable != null && random.nextBoolean()) {
+        return variable.name;
+      }
+      return random.nextBoolean() ? "true" : "false";
+    }
+    if (random.nextBoolean()) {
+      return intExpr(levels - 1) + " < " + intLeaf();
+    }
+    String op = random.nextBoolean() ? " && " : " || ";
+    return "(" + boolExpr(levels - 1) + op + boolExpr(0) + ")";
+  }
+
+  /**
+   * A random variable of type visible from the current scope, from any
+   * scope enclosing it, or null if there is none
+   */
+  private Variable pick(String type) {
+    List<Variable> candidates = new ArrayList<>();
+    for (List<Variable> scope : scopes) {
+      for (Variable variable : scope) {
+        if (variable.type.equals(type)) {
+          candidates.add(variable);
+        }
+      }
+    }
+    return candidates.isEmpty() ? null
+        : candidates.get(random.nextInt(candidates.size()));
+  }
+
+  private Variable pickArray() {
+    Variable deepest = null;
+    for (List<Variable> scope : scopes) {
+      for (Variable variable : scope) {
+        if (variable.type.startsWith("int[")) {
+          deepest = variable;
+        }
+      }
+    }
+    return deepest;
+  }
+
+  private Variable last() {
+    List<Variable> scope = scopes.get(scopes.size() - 1);
+    return scope.get(scope.size() - 1);
+  }
+
+  private String fresh() {
+    return "v" + names++;
+  }
+
+  private StringBuilder indent(int levels) {
+    for (int i = 0; i < levels; i++) {
+      sb.append("  ");
+    }
+    return sb;
+  }
+
+  private static final class Variable {
+    private final String name;
+    private final String type;
+
+    Variable(String name, String type) {
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+package wacc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiling generated programs that grow along one axis at a time, with
+ * every other axis left at the generator's default
+ * Each step of scale multiplies the axis by four, starting from a size
+ * typical of the example programs
+ * Run with -prof gc to see how the memory allocated per compilation grows
+ * along with the time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+
+  @Param({"functions", "overloads", "depth", "statements",
+          "expressionDepth", "arrayDimensions", "pairDepth"})
+  private String axis;
+
+  @Param({"1", "4", "16", "64"})
+  private int scale;
+
+  @Param({"42"})
+  private long seed;
+
+  private final WACCCompiler compiler = new WACCCompiler();
+  private String source;
+
+  @Setup
+  public void setUp() {
+    source = generator().generate();
+    CompileResult result = compiler.compile(source);
+    if (!result.isSuccess()) {
+      throw new IllegalStateException(result.getDiagnostics());
+    }
+  }
+
+  private ProgramGenerator generator() {
+    ProgramGenerator generator = new ProgramGenerator(seed);
+    switch (axis) {
+      case "functions":
+        return generator.functions(16 * scale);
+      case "overloads":
+        return generator.overloads(scale);
+      case "depth":
+        return generator.depth(4 * scale);
+      case "statements":
+        return generator.statements(8 * scale);
+      case "expressionDepth":
+        return generator.expressionDepth(4 * scale);
+      case "arrayDimensions":
+        return generator.arrayDimensions(scale);
+      case "pairDepth":
+        return generator.pairDepth(scale);
+      default:
+        throw new IllegalArgumentException(axis);
+    }
+  }
+
+  @Benchmark
+  public CompileResult compile() {
+    return compiler.compile(source);
+  }
+
+}
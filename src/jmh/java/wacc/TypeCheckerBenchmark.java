@@ -0,0 +1,92 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wacc.error.WACCErrorHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Semantic analysis of every example program that parses, with the parse
+ * trees built beforehand and the symbol tables built by each analysis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeCheckerBenchmark {
+
+  private static final Path EXAMPLES = Paths.get("src/test/resources/examples");
+
+  private final List<Parsed> programs = new ArrayList<>();
+
+  @Setup
+  public void setUp() throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(EXAMPLES)) {
+      files = walk.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      String source = new String(Files.readAllBytes(file));
+      WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+      CommonTokenStream tokens = new CommonTokenStream(lexer);
+      WACCParser parser = new WACCParser(tokens);
+      parser.removeErrorListeners();
+      ParseTree tree = parser.prog();
+      if (parser.getNumberOfSyntaxErrors() == 0) {
+        programs.add(new Parsed(tree, tokens));
+      }
+    }
+  }
+
+  @Benchmark
+  public int analyse() {
+    int errors = 0;
+    for (Parsed program : programs) {
+      SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+      WACCErrorHandler errorHandler = new WACCErrorHandler(program.tokens);
+      new WACCTypeChecker(top, errorHandler).visit(program.tree);
+      errors += errorHandler.hasSemanticErrors() ? 1 : 0;
+    }
+    return errors;
+  }
+
+  /**
+   * A parse tree and the tokens it was parsed from
+   */
+  private static class Parsed {
+    private final ParseTree tree;
+    private final CommonTokenStream tokens;
+
+    Parsed(ParseTree tree, CommonTokenStream tokens) {
+      this.tree = tree;
+      this.tokens = tokens;
+    }
+  }
+
+}
@@ -0,0 +1,19 @@
+parser grammar WACCDiagnosticParser;
+
+/*
+ * WACCParser with comparisons split into ordering and equality again, as
+ * they were before comparisonOper was left-factored. Picking between the
+ * two needs lookahead over the whole left operand, so it is only used to
+ * report the syntax errors of programs WACCParser has rejected, in the
+ * words they were always reported in.
+ */
+
+options {
+  tokenVocab=WACCLexer;
+}
+
+import WACCRules;
+
+comparisonOper: orderingOper | equalityOper;
+orderingOper: first=addOper ((GT | GE | LT | LE) second=addOper)?;
+equalityOper: first=addOper ((EQ | NE) second=addOper)?;
@@ -1,11 +1,37 @@
 package arm11;
 
+import java.util.Objects;
+
+/**
+ * Memory operand: a base register, an immediate offset that is left out
+ * when it is zero, and whether the base is written back
+ */
 public class Address extends Operand {
 
-  private Register reg;
+  private final Register reg;
+  private final Immediate offset;
+  private final boolean writeBack;
 
   public Address(Register reg) {
+    this(reg, Immediate.of(0L), false);
+  }
+
+  public Address(Register reg, Immediate offset, boolean writeBack) {
     this.reg = reg;
+    this.offset = offset;
+    this.writeBack = writeBack;
+  }
+
+  public Register getRegister() {
+    return reg;
+  }
+
+  public Immediate getOffset() {
+    return offset;
+  }
+
+  public boolean isWriteBack() {
+    return writeBack;
   }
 
   @Override
@@ -13,9 +39,28 @@ public class Address extends Operand {
     return true;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Address)) {
+      return false;
+    }
+    Address that = (Address) o;
+    return reg.equals(that.reg) && offset.equals(that.offset)
+        && writeBack == that.writeBack;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(reg, offset, writeBack);
+  }
+
   @Override
   public String toString() {
-    return "[" + reg.toString() + "]";
+    String addOffset = !offset.toString().equals("0") ? ", #" + offset : "";
+    return "[" + reg + addOffset + "]" + (writeBack ? "!" : "");
   }
 
-}
\ No newline at end of file
+}
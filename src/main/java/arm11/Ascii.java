@@ -2,7 +2,7 @@ package arm11;
 
 public class Ascii extends Operand {
 
-  private String ascii;
+  private final String ascii;
 
   public Ascii(String ascii) {
     this.ascii = ascii;
@@ -13,6 +13,19 @@ public class Ascii extends Operand {
     return true;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Ascii && ascii.equals(((Ascii) o).ascii);
+  }
+
+  @Override
+  public int hashCode() {
+    return ascii.hashCode();
+  }
+
   @Override
   public String toString() {
     return ascii.replace("\0", "\\0");
@@ -0,0 +1,27 @@
+package arm11;
+
+/**
+ * Condition code of an instruction, printed as a suffix of its opcode
+ */
+public enum Condition {
+  AL(""),
+  EQ("EQ"),
+  NE("NE"),
+  GT("GT"),
+  GE("GE"),
+  LT("LT"),
+  LE("LE"),
+  VS("VS"),
+  CS("CS");
+
+  private final String suffix;
+
+  Condition(String suffix) {
+    this.suffix = suffix;
+  }
+
+  @Override
+  public String toString() {
+    return suffix;
+  }
+}
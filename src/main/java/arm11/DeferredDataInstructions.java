@@ -0,0 +1,130 @@
+package arm11;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data section for code that is generated out of order
+ * Every request gets a placeholder label and is recorded; replaying the
+ * requests onto the real data section (in the order the code would have
+ * been generated sequentially) gives each placeholder its final msg_ label
+ */
+public class DeferredDataInstructions extends DataInstructions {
+
+  /**
+   * The kinds of entry a request adds to the data section
+   */
+  public enum Kind {
+    UNIQUE_STRING, PRINT_FORMATTER, CONST_STRING
+  }
+
+  private final List<Request> requests = new ArrayList<>();
+  private final Map<String, DeferredLabel> messages = new HashMap<>();
+  private final Map<IOFormatters, DeferredLabel> formatters
+      = new HashMap<>();
+
+  @Override
+  public Label addUniqueString(String message) {
+    return messages.computeIfAbsent(message, m -> record(
+        Kind.UNIQUE_STRING, m));
+  }
+
+  @Override
+  public Label addPrintFormatter(IOFormatters printFormatter) {
+    return formatters.computeIfAbsent(printFormatter, f -> record(
+        Kind.PRINT_FORMATTER, f.name()));
+  }
+
+  @Override
+  public Label addConstString(String string) {
+    return record(Kind.CONST_STRING, string);
+  }
+
+  /**
+   * Makes a request recorded by another deferred data section again
+   */
+  public Label request(Kind kind, String value) {
+    return add(this, kind, value);
+  }
+
+  /**
+   * The requests recorded so far, in order
+   */
+  public List<Request> getRequests() {
+    return Collections.unmodifiableList(requests);
+  }
+
+  /**
+   * The label of the request at index, a placeholder until replayed
+   */
+  public Label getLabel(int index) {
+    return requests.get(index).label;
+  }
+
+  /**
+   * Adds the recorded requests to data and resolves their labels
+   */
+  public void replayOnto(DataInstructions data) {
+    for (Request request : requests) {
+      request.label.target = add(data, request.kind, request.value);
+    }
+  }
+
+  private DeferredLabel record(Kind kind, String value) {
+    DeferredLabel label = new DeferredLabel(requests.size());
+    requests.add(new Request(kind, value, label));
+    return label;
+  }
+
+  private static Label add(DataInstructions data, Kind kind, String value) {
+    switch (kind) {
+      case UNIQUE_STRING:
+        return data.addUniqueString(value);
+      case PRINT_FORMATTER:
+        return data.addPrintFormatter(IOFormatters.valueOf(value));
+      default:
+        return data.addConstString(value);
+    }
+  }
+
+  /**
+   * A request for an entry of the data section: its kind, and the message,
+   * formatter name or string it was made with
+   */
+  public static final class Request {
+    private final Kind kind;
+    private final String value;
+    private final DeferredLabel label;
+
+    private Request(Kind kind, String value, DeferredLabel label) {
+      this.kind = kind;
+      this.value = value;
+      this.label = label;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    public String getValue() {
+      return value;
+    }
+  }
+
+  private static class DeferredLabel extends Label {
+    private Label target;
+
+    DeferredLabel(int index) {
+      super("msg_deferred_" + index);
+    }
+
+    @Override
+    public String toString() {
+      return target != null ? target.toString() : super.toString();
+    }
+  }
+
+}
@@ -0,0 +1,306 @@
+package arm11;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The basic blocks of the code of a function or main and the edges
+ * between them
+ * Blocks start at labels and after branches; calls return and so do not
+ * end one, and a pop into pc or a branch to a label outside the code
+ * leaves it
+ */
+final class FlowGraph {
+
+  private final List<Instruction> code;
+  private final List<Integer> starts = new ArrayList<>();
+  private final List<List<Integer>> successors = new ArrayList<>();
+
+  FlowGraph(List<Instruction> code) {
+    this.code = code;
+    findBlocks();
+    linkBlocks();
+  }
+
+  int size() {
+    return starts.size();
+  }
+
+  /**
+   * Index of the first instruction of block
+   */
+  int start(int block) {
+    return starts.get(block);
+  }
+
+  /**
+   * Index just past the last instruction of block
+   */
+  int end(int block) {
+    return block + 1 < starts.size() ? starts.get(block + 1) : code.size();
+  }
+
+  List<Integer> successors(int block) {
+    return successors.get(block);
+  }
+
+  Instruction get(int index) {
+    return code.get(index);
+  }
+
+  private void findBlocks() {
+    boolean leader = true;
+    for (int i = 0; i < code.size(); i++) {
+      Instruction instruction = code.get(i);
+      if (leader || instruction.getOpcode() == InstructionType.LABEL) {
+        starts.add(i);
+      }
+      leader = instruction.getOpcode() == InstructionType.B
+          || leavesCode(instruction);
+    }
+  }
+
+  private void linkBlocks() {
+    Map<Operand, Integer> labels = new HashMap<>();
+    for (int block = 0; block < size(); block++) {
+      Instruction first = code.get(start(block));
+      if (first.getOpcode() == InstructionType.LABEL) {
+        labels.put(first.getOperands().get(0), block);
+      }
+    }
+    for (int block = 0; block < size(); block++) {
+      List<Integer> next = new ArrayList<>();
+      Instruction last = code.get(end(block) - 1);
+      if (last.getOpcode() == InstructionType.B) {
+        Integer target = labels.get(last.getOperands().get(0));
+        if (target != null) {
+          next.add(target);
+        }
+      }
+      if (fallsThrough(last) && block + 1 < size()) {
+        next.add(block + 1);
+      }
+      successors.add(Collections.unmodifiableList(next));
+    }
+  }
+
+  /**
+   * How many bytes the stack has grown by since the start of the code
+   * before every instruction, following the edges so that the code after
+   * a return starts from the depth of the branches to it
+   * Code no edge reaches carries on from the block before it
+   */
+  int[] stackDepths() {
+    Integer[] entry = new Integer[size()];
+    entry[0] = 0;
+    Deque<Integer> work = new ArrayDeque<>(Collections.singleton(0));
+    while (!work.isEmpty()) {
+      int block = work.pop();
+      int exit = walkDepths(block, entry[block], null);
+      for (int next : successors(block)) {
+        if (entry[next] == null) {
+          entry[next] = exit;
+          work.push(next);
+        }
+      }
+    }
+    int[] depths = new int[code.size()];
+    int exit = 0;
+    for (int block = 0; block < size(); block++) {
+      exit = walkDepths(block, entry[block] == null ? exit : entry[block],
+                        depths);
+    }
+    return depths;
+  }
+
+  private int walkDepths(int block, int depth, int[] depths) {
+    for (int i = start(block); i < end(block); i++) {
+      if (depths != null) {
+        depths[i] = depth;
+      }
+      depth += growth(code.get(i));
+    }
+    return depth;
+  }
+
+  /**
+   * How many bytes instruction pushes onto the stack, negative when it
+   * pops them
+   */
+  static int growth(Instruction instruction) {
+    List<Operand> operands = instruction.getOperands();
+    switch (instruction.getOpcode()) {
+      case PUSH:
+        return 4 * operands.size();
+      case POP:
+        return -4 * operands.size();
+      case SUB:
+      case ADD:
+        if (!operands.get(0).equals(ARM11Registers.SP)
+            || !operands.get(1).equals(ARM11Registers.SP)) {
+          return 0;
+        }
+        int bytes = (int) ((Immediate) operands.get(2)).getValue();
+        return instruction.getOpcode() == InstructionType.SUB ? bytes : -bytes;
+      case STR:
+      case STRB:
+        Address address = (Address) operands.get(1);
+        boolean pushes = address.isWriteBack()
+            && address.getRegister().equals(ARM11Registers.SP);
+        return pushes ? -(int) address.getOffset().getValue() : 0;
+      default:
+        return 0;
+    }
+  }
+
+  private static boolean fallsThrough(Instruction instruction) {
+    boolean jumps = instruction.getOpcode() == InstructionType.B
+        && instruction.getCondition() == Condition.AL;
+    return !jumps && !leavesCode(instruction);
+  }
+
+  /**
+   * Whether instruction returns from the code, which gives back r0
+   */
+  static boolean leavesCode(Instruction instruction) {
+    return instruction.getOpcode() == InstructionType.POP
+        && instruction.getOperands().contains(ARM11Registers.PC);
+  }
+
+  /**
+   * The virtual registers instruction writes
+   */
+  static List<VirtualRegister> defs(Instruction instruction) {
+    List<VirtualRegister> defs = new ArrayList<>();
+    forWritten(instruction, operand -> addVirtual(defs, operand));
+    return defs;
+  }
+
+  /**
+   * The virtual registers instruction reads, including those it writes
+   * under a condition, as they keep their value when it does not hold
+   */
+  static List<VirtualRegister> uses(Instruction instruction) {
+    List<VirtualRegister> uses = new ArrayList<>();
+    forRead(instruction, operand -> addVirtual(uses, operand));
+    return uses;
+  }
+
+  /**
+   * The machine registers instruction names as ones it writes, leaving out
+   * those a call changes
+   */
+  static List<Register> machineDefs(Instruction instruction) {
+    List<Register> defs = new ArrayList<>();
+    forWritten(instruction, operand -> addMachine(defs, operand));
+    return defs;
+  }
+
+  /**
+   * The machine registers instruction names as ones it reads, as uses
+   * does, leaving out the arguments of a call and the result a return
+   * gives back
+   */
+  static List<Register> machineUses(Instruction instruction) {
+    List<Register> uses = new ArrayList<>();
+    forRead(instruction, operand -> addMachine(uses, operand));
+    return uses;
+  }
+
+  private static void forWritten(Instruction instruction,
+                                 Consumer<Operand> action) {
+    List<Operand> operands = instruction.getOperands();
+    int writes = Math.min(writes(instruction.getOpcode()), operands.size());
+    for (int i = 0; i < writes; i++) {
+      action.accept(operands.get(i));
+    }
+  }
+
+  private static void forRead(Instruction instruction,
+                              Consumer<Operand> action) {
+    List<Operand> operands = instruction.getOperands();
+    int from = instruction.getCondition() == Condition.AL
+        ? writes(instruction.getOpcode()) : 0;
+    for (int i = from; i < operands.size(); i++) {
+      Operand operand = operands.get(i);
+      if (operand instanceof Address) {
+        operand = ((Address) operand).getRegister();
+      }
+      action.accept(operand);
+    }
+  }
+
+  /**
+   * instruction with the virtual registers it writes replaced as defs
+   * gives and those it reads as uses does, a register that is both read
+   * and written under a condition being replaced as a use
+   */
+  static Instruction rename(Instruction instruction,
+                            Function<VirtualRegister, Register> defs,
+                            Function<VirtualRegister, Register> uses) {
+    List<Operand> operands = instruction.getOperands();
+    Operand[] renamed = operands.toArray(new Operand[operands.size()]);
+    int writes = instruction.getCondition() == Condition.AL
+        ? writes(instruction.getOpcode()) : 0;
+    for (int i = 0; i < renamed.length; i++) {
+      Function<VirtualRegister, Register> names = i < writes ? defs : uses;
+      Operand operand = renamed[i];
+      if (operand instanceof VirtualRegister) {
+        renamed[i] = names.apply((VirtualRegister) operand);
+      } else if (operand instanceof Address
+                 && ((Address) operand).getRegister().isVirtual()) {
+        Address address = (Address) operand;
+        renamed[i] = new Address(
+            names.apply((VirtualRegister) address.getRegister()),
+            address.getOffset(), address.isWriteBack());
+      }
+    }
+    return new Instruction(instruction.getOpcode(),
+                           instruction.getCondition(), renamed);
+  }
+
+  private static void addVirtual(List<VirtualRegister> registers,
+                                 Operand operand) {
+    if (operand instanceof VirtualRegister
+        && !registers.contains(operand)) {
+      registers.add((VirtualRegister) operand);
+    }
+  }
+
+  private static void addMachine(List<Register> registers,
+                                 Operand operand) {
+    if (operand instanceof Register && !((Register) operand).isVirtual()
+        && !registers.contains(operand)) {
+      registers.add((Register) operand);
+    }
+  }
+
+  /**
+   * How many of its leading operands an instruction writes
+   */
+  private static int writes(InstructionType opcode) {
+    switch (opcode) {
+      case SMULL:
+        return 2;
+      case STR:
+      case STRB:
+      case CMP:
+      case PUSH:
+      case B:
+      case BL:
+      case LABEL:
+      case LTORG:
+        return 0;
+      default:
+        return 1;
+    }
+  }
+
+}
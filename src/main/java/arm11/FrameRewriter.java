@@ -0,0 +1,209 @@
+package arm11;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static arm11.ARM11Registers.LR;
+import static arm11.ARM11Registers.PC;
+import static arm11.ARM11Registers.SP;
+
+/**
+ * Puts machine registers in place of the virtual registers of a function
+ * or main once they have been allocated, and makes room in its stack frame
+ * for the registers that were spilled
+ * The registers to save are pushed along with lr and popped along with pc,
+ * and the slots go just below them and are given back before every
+ * return, so the offsets of the arguments, which are above lr, grow by
+ * their size, while those of the variables, which are below the slots,
+ * stay the same
+ */
+final class FrameRewriter {
+
+  private final FlowGraph graph;
+  private final Map<VirtualRegister, Register> assigned;
+  private final Map<VirtualRegister, Integer> slots;
+  private final Map<VirtualRegister, Instruction> rematerialized;
+  private final List<Register> scratch;
+  private final List<Register> saved;
+  private final int spillSize;
+  private final int frameGrowth;
+  private int frameTop = -1;
+
+  FrameRewriter(FlowGraph graph, Map<VirtualRegister, Register> assigned,
+                Map<VirtualRegister, Integer> slots,
+                Map<VirtualRegister, Instruction> rematerialized,
+                List<Register> scratch, List<Register> saved) {
+    this.graph = graph;
+    this.assigned = assigned;
+    this.slots = slots;
+    this.rematerialized = rematerialized;
+    this.scratch = scratch;
+    this.saved = saved;
+    this.spillSize = slots.values().stream()
+        .mapToInt(slot -> slot + Integer.BYTES).max().orElse(0);
+    this.frameGrowth = spillSize + Integer.BYTES * saved.size();
+  }
+
+  InstructionList rewrite() {
+    InstructionList list = new InstructionList();
+    int size = graph.end(graph.size() - 1);
+    int[] depths = frameGrowth > 0 ? graph.stackDepths() : new int[size];
+    for (int i = 0; i < size; i++) {
+      Instruction instruction = graph.get(i);
+      if (frameTop >= 0 && isReturn(instruction)) {
+        list.add(resizeFrame(InstructionType.ADD))
+            .add(InstructionFactory.createPop(withSaved(PC)));
+      } else if (frameTop < 0 && isEntry(instruction)) {
+        frameTop = depths[i] + FlowGraph.growth(instruction);
+        list.add(InstructionFactory.createPush(withSaved(LR)))
+            .add(resizeFrame(InstructionType.SUB));
+      } else {
+        rewrite(list, instruction, depths[i]);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * The registers to save followed by link, which is lr or pc
+   */
+  private Register[] withSaved(Register link) {
+    Register[] registers = saved.toArray(new Register[saved.size() + 1]);
+    registers[saved.size()] = link;
+    return registers;
+  }
+
+  private InstructionList resizeFrame(InstructionType type) {
+    InstructionList list = new InstructionList();
+    if (spillSize > 0) {
+      list.add(InstructionFactory.mutateStackPointer(
+          type, Immediate.of(spillSize)));
+    }
+    return list;
+  }
+
+  private static boolean isEntry(Instruction instruction) {
+    return instruction.getOpcode() == InstructionType.PUSH
+        && instruction.getOperands().contains(LR);
+  }
+
+  private static boolean isReturn(Instruction instruction) {
+    return instruction.getOpcode() == InstructionType.POP
+        && instruction.getOperands().contains(PC);
+  }
+
+  /**
+   * Adds instruction with its registers replaced, between the loads of the
+   * spilled registers it reads and the stores of those it writes
+   * The constants of spilled registers are only given where they are read
+   */
+  private void rewrite(InstructionList list, Instruction instruction,
+                       int depth) {
+    List<VirtualRegister> uses = FlowGraph.uses(instruction);
+    List<VirtualRegister> defs = FlowGraph.defs(instruction);
+    if (uses.isEmpty() && defs.isEmpty() && frameGrowth == 0) {
+      list.add(instruction);
+      return;
+    }
+    if (defs.size() == 1 && rematerialized.containsKey(defs.get(0))) {
+      return;
+    }
+    Map<VirtualRegister, Register> spilled = new HashMap<>();
+    for (VirtualRegister use : uses) {
+      list.add(reload(use, spilled, depth));
+    }
+    defs.forEach(def -> {
+      if (slots.containsKey(def)) {
+        scratchFor(def, spilled);
+      }
+    });
+    list.add(replace(instruction, spilled, depth));
+    int after = depth + FlowGraph.growth(instruction);
+    for (VirtualRegister def : defs) {
+      if (slots.containsKey(def)) {
+        list.add(InstructionFactory.createStore(
+            spilled.get(def), SP, slotOffset(def, after)));
+      }
+    }
+  }
+
+  /**
+   * Loads a spilled register into its scratch register, or gives the
+   * scratch register its constant again
+   */
+  private InstructionList reload(VirtualRegister register,
+                                 Map<VirtualRegister, Register> spilled,
+                                 int depth) {
+    InstructionList list = new InstructionList();
+    if (slots.containsKey(register)) {
+      list.add(InstructionFactory.createLoad(
+          scratchFor(register, spilled), SP, slotOffset(register, depth)));
+    } else if (rematerialized.containsKey(register)) {
+      Register reg = scratchFor(register, spilled);
+      list.add(FlowGraph.rename(rematerialized.get(register), def -> reg,
+                                null));
+    }
+    return list;
+  }
+
+  private Register scratchFor(VirtualRegister register,
+                              Map<VirtualRegister, Register> spilled) {
+    Register reg = spilled.get(register);
+    if (reg == null) {
+      if (spilled.size() == scratch.size()) {
+        throw new IllegalStateException("too many spilled registers in one "
+                                        + "instruction");
+      }
+      reg = scratch.get(spilled.size());
+      spilled.put(register, reg);
+    }
+    return reg;
+  }
+
+  private Immediate slotOffset(VirtualRegister register, int depth) {
+    return Immediate.of(depth - frameTop + slots.get(register));
+  }
+
+  private Instruction replace(Instruction instruction,
+                              Map<VirtualRegister, Register> spilled,
+                              int depth) {
+    Function<VirtualRegister, Register> machine
+        = register -> assigned.getOrDefault(register, spilled.get(register));
+    Instruction replaced = FlowGraph.rename(instruction, machine, machine);
+    if (frameGrowth == 0) {
+      return replaced;
+    }
+    List<Operand> operands = replaced.getOperands();
+    Operand[] moved = operands.toArray(new Operand[operands.size()]);
+    boolean addressOfVariable = replaced.getOpcode() == InstructionType.ADD
+        && !operands.get(0).equals(SP) && operands.get(1).equals(SP);
+    for (int i = 0; i < moved.length; i++) {
+      if (moved[i] instanceof Address) {
+        Address address = (Address) moved[i];
+        if (address.getRegister().equals(SP) && !address.isWriteBack()) {
+          moved[i] = new Address(SP, moveArgument(address.getOffset(), depth),
+                                 false);
+        }
+      } else if (addressOfVariable && i == 2) {
+        moved[i] = moveArgument((Immediate) moved[i], depth);
+      }
+    }
+    return new Instruction(replaced.getOpcode(), replaced.getCondition(),
+                           moved);
+  }
+
+  /**
+   * The offset from sp of what offset addressed before the frame grew,
+   * which has moved if it is above lr
+   */
+  private Immediate moveArgument(Immediate offset, int depth) {
+    if (frameGrowth == 0 || frameTop < 0
+        || offset.getValue() < depth - frameTop) {
+      return offset;
+    }
+    return Immediate.of(offset.getValue() + frameGrowth);
+  }
+
+}
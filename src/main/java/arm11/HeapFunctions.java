@@ -14,7 +14,7 @@ public class HeapFunctions {
 
     list.add(createLabel(new Label("p_free_pair")))
         .add(createPush(ARM11Registers.LR))
-        .add(createCompare(ARM11Registers.R0, new Immediate(0L)))
+        .add(createCompare(ARM11Registers.R0, Immediate.of(0L)))
         .add(createLoadEqual(ARM11Registers.R0, errMessage))
         .add(createBranchEqual(throwRuntimeError))
         .add(createPush(ARM11Registers.R0))
@@ -22,7 +22,7 @@ public class HeapFunctions {
         .add(createBranchLink(new Label("free")))
         .add(createLoad(ARM11Registers.R0, new Address(ARM11Registers.SP)))
         .add(createLoad(ARM11Registers.R0, ARM11Registers.R0,
-            new Immediate(4L)))
+            Immediate.of(4L)))
         .add(createBranchLink(new Label("free")))
         .add(createPop(ARM11Registers.R0))
         .add(createBranchLink(new Label("free")))
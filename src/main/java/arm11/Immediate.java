@@ -1,19 +1,55 @@
 package arm11;
 
+import java.util.Objects;
+
 public class Immediate extends Operand {
 
-  private Long value;
+  private static final long MIN_CACHED = -128L;
+  private static final long MAX_CACHED = 1024L;
+  private static final Immediate[] CACHE
+      = new Immediate[(int) (MAX_CACHED - MIN_CACHED + 1)];
+
+  static {
+    for (int i = 0; i < CACHE.length; i++) {
+      CACHE[i] = new Immediate(MIN_CACHED + i);
+    }
+  }
+
+  private final long value;
 
-  private String chr;
-  public Immediate(Long value) {
+  /**
+   * The character literal this immediate is written as, or null when it is
+   * a number
+   */
+  private final String chr;
+
+  private Immediate(long value) {
     this.value = value;
+    this.chr = null;
   }
 
   public Immediate(String chr) {
-    this.chr = chr;
+    this.value = 0L;
+    this.chr = Objects.requireNonNull(chr);
+  }
+
+  /**
+   * Gets the immediate for value, shared for small values
+   */
+  public static Immediate of(long value) {
+    if (value >= MIN_CACHED && value <= MAX_CACHED) {
+      return CACHE[(int) (value - MIN_CACHED)];
+    }
+    return new Immediate(value);
   }
 
-  public Long getValue() {
+  /**
+   * Gets the number this immediate holds, which a character literal has not
+   */
+  public long getValue() {
+    if (chr != null) {
+      throw new IllegalStateException("Character immediate " + chr);
+    }
     return value;
   }
 
@@ -22,8 +58,25 @@ public class Immediate extends Operand {
     return true;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Immediate)) {
+      return false;
+    }
+    Immediate that = (Immediate) o;
+    return value == that.value && Objects.equals(chr, that.chr);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(value, chr);
+  }
+
   @Override
   public String toString() {
-    return (value != null) ? value.toString() : chr;
+    return (chr == null) ? Long.toString(value) : chr;
   }
 }
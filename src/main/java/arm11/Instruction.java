@@ -1,5 +1,105 @@
 package arm11;
 
-public interface Instruction {
-  String printInstruction();
-}
\ No newline at end of file
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single instruction or directive: its opcode, condition code and
+ * operands. Instructions are immutable and compare by value
+ */
+public final class Instruction {
+
+  private final InstructionType opcode;
+  private final Condition condition;
+  private final List<Operand> operands;
+
+  public Instruction(InstructionType opcode, Operand... operands) {
+    this(opcode, Condition.AL, operands);
+  }
+
+  public Instruction(InstructionType opcode, Condition condition,
+                     Operand... operands) {
+    this.opcode = opcode;
+    this.condition = condition;
+    this.operands = Collections.unmodifiableList(Arrays.asList(operands));
+  }
+
+  public InstructionType getOpcode() {
+    return opcode;
+  }
+
+  public Condition getCondition() {
+    return condition;
+  }
+
+  public List<Operand> getOperands() {
+    return operands;
+  }
+
+  public String printInstruction() {
+    if (opcode == InstructionType.LABEL) {
+      return operands.get(0) + ":";
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append(opcode).append(condition);
+    if (opcode == InstructionType.PUSH || opcode == InstructionType.POP) {
+      return sb.append(" {").append(printRegisterList()).append('}')
+               .toString();
+    }
+    String separator = " ";
+    for (Operand operand : operands) {
+      sb.append(separator).append(print(operand));
+      separator = ", ";
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The registers pushed or popped, which all go in a single list
+   */
+  private String printRegisterList() {
+    StringBuilder sb = new StringBuilder();
+    String separator = "";
+    for (Operand operand : operands) {
+      sb.append(separator).append(operand);
+      separator = ", ";
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Immediates are marked with # (or = when loaded from the literal pool,
+   * as are labels)
+   */
+  private String print(Operand operand) {
+    if (opcode.isLoad() && (operand.isImmediate() || operand.isLabel())) {
+      return "=" + operand;
+    }
+    return operand.isImmediate() ? "#" + operand : operand.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Instruction)) {
+      return false;
+    }
+    Instruction that = (Instruction) o;
+    return opcode == that.opcode && condition == that.condition
+        && operands.equals(that.operands);
+  }
+
+  @Override
+  public int hashCode() {
+    return (opcode.ordinal() * 31 + condition.ordinal()) * 31
+        + operands.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return printInstruction();
+  }
+}
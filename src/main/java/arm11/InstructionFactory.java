@@ -8,243 +8,224 @@ public class InstructionFactory {
   public static final String AEABI_IDIV = "__aeabi_idiv";
   private static final String AEABI_IDIVMOD = AEABI_IDIV + "mod";
 
-  private static String getOptionalHash(Operand op) {
-    return op.isImmediate() ? "#" : "";
+  private static final Label DIV_LABEL = new Label(AEABI_IDIV);
+  private static final Label MOD_LABEL = new Label(AEABI_IDIVMOD);
+  private static final Instruction LTORG_INSTRUCTION = new Instruction(LTORG);
+  private static final Instruction TEXT_INSTRUCTION = new Instruction(TEXT);
+  private static final Instruction DATA_INSTRUCTION = new Instruction(DATA);
+
+  private static Address offsetAddress(Register base, Operand offset,
+                                       boolean writeBackIfNegative) {
+    Immediate imm = offset instanceof Immediate ? (Immediate) offset
+        : Immediate.of(Long.parseLong(offset.toString()));
+    boolean writeBack = writeBackIfNegative
+        && Integer.parseInt(imm.toString()) < 0;
+    return new Address(base, imm, writeBack);
   }
 
   public static Instruction createLoad(Register dst,  Operand op) {
-    return () -> LDR + " " + dst + ", " + (op instanceof Immediate || op
-                 instanceof Label ? "=" : "") + op;
+    return new Instruction(LDR, dst, op);
   }
 
   public static Instruction createBranch(Label label) {
-    return () -> B + " " + label;
+    return new Instruction(B, label);
   }
 
   public static Instruction createBranchLink(Label label) {
-    return () -> BL + " " + label;
+    return new Instruction(BL, label);
   }
 
   public static Instruction createBranchEqual(Label label) {
-    return () -> BEQ + " " + label;
+    return new Instruction(B, Condition.EQ, label);
   }
 
   public static Instruction createLabel(Label label) {
-    return () -> label + ":";
+    return new Instruction(LABEL, label);
   }
 
-  public static Instruction createPush(Register register) {
-    return () -> PUSH + " {" + register + "}";
+  public static Instruction createPush(Register... registers) {
+    return new Instruction(PUSH, registers);
   }
 
-  public static Instruction createPop(Register register) {
-    return () -> POP + " {" + register + "}";
+  public static Instruction createPop(Register... registers) {
+    return new Instruction(POP, registers);
   }
 
   public static Instruction createLTORG() {
-    return LTORG::toString;
+    return LTORG_INSTRUCTION;
   }
 
   public static Instruction createText() {
-    return TEXT::toString;
+    return TEXT_INSTRUCTION;
   }
 
   public static Instruction createGlobal(Label mainLabel) {
-    return () -> GLOBAL + " " + mainLabel;
+    return new Instruction(GLOBAL, mainLabel);
   }
 
   public static Instruction createSub(Register dst, Register rn, Operand imm) {
-    return () -> SUB + " " + dst + ", " + rn + ", #" + imm;
+    return new Instruction(SUB, dst, rn, imm);
   }
 
   public static Instruction createMove(Register dst, Operand op) {
-    return () -> MOV + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, dst, op);
   }
 
   public static Instruction createAdd(Register dst, Register src, Operand op) {
-    return () -> ADD + " " + dst + ", " + src + ", " + getOptionalHash(op) + op;
+    return new Instruction(ADD, dst, src, op);
   }
 
   public static Instruction createCompare(Register reg, Operand op) {
-    return () -> CMP + " " + reg + ", " + getOptionalHash(op) + op;
+    return new Instruction(CMP, reg, op);
   }
 
   public static Instruction createCompare(Register reg, Operand op1,
                                           Operand op2) {
-    return () -> CMP + " " + reg + ", " + getOptionalHash(op1) + op1 + ", "
-                 + op2;
+    return new Instruction(CMP, reg, op1, op2);
   }
 
   public static Instruction createLoadNotEqual(Register register,
                                                 Label label) {
-    return () -> LDRNE + " " + register + ", =" + label;
+    return new Instruction(LDR, Condition.NE, register, label);
   }
 
   public static Instruction createLoadEqual(Register register,
                                              Label label) {
-    return () -> LDREQ + " " + register + ", =" + label;
+    return new Instruction(LDR, Condition.EQ, register, label);
   }
 
   public static Instruction createWord(int length) {
-    return () -> WORD + " " + new Word(length);
+    return new Instruction(WORD, new Word(length));
   }
 
   public static Instruction createAscii(String ascii) {
-    return () -> ASCII + " " + new Ascii(ascii);
+    return new Instruction(ASCII, new Ascii(ascii));
   }
 
   public static Instruction createStore(Register src, Register base,
                                         Operand offset) {
-    return () -> {
-      int offsetValue = Integer.parseInt(offset.toString());
-      String forceIncrement = offsetValue < 0 ? "!" : "";
-      String addOffset = offsetValue != 0 ? ", #" + offset : "";
-      return STR + " " + src + ", [" + base
-          + addOffset + "]" + forceIncrement;
-    };
+    return new Instruction(STR, src, offsetAddress(base, offset, true));
   }
 
   public static Instruction createStoreByte(Register src, Register base,
                                              Operand offset) {
-    return () -> {
-      int offsetValue = Integer.parseInt(offset.toString());
-      String forceIncrement = offsetValue < 0 ? "!" : "";
-      String addOffset = offsetValue != 0 ? ", #" + offset : "";
-      return STRB + " " + src + ", [" + base
-          + addOffset + "]" + forceIncrement;
-    };
+    return new Instruction(STRB, src, offsetAddress(base, offset, true));
   }
 
   public static Instruction createData() {
-    return DATA::toString;
+    return DATA_INSTRUCTION;
   }
 
   public static Instruction createLoad(Register dst, Register base,
                                         Immediate offset) {
-    return () -> {
-      String addOffset = !offset.toString().equals("0") ? ", #" + offset : "";
-      return LDR + " " + dst + ", [" + base + addOffset + "]";
-    };
+    return new Instruction(LDR, dst, offsetAddress(base, offset, false));
   }
 
-  // TODO: check this out
   public static Instruction createLoadStoredByte(Register dst, Register base,
                                                   Immediate offset) {
-    return () -> {
-      String addOffset = !offset.toString().equals("0") ? ", #" + offset : "";
-      return LDRSB + " " + dst + ", [" + base + addOffset + "]";
-    };
+    return new Instruction(LDRSB, dst, offsetAddress(base, offset, false));
   }
 
   public static Instruction createEOR(Register dst, Register src,
                                        Operand imm) {
-    return () -> EOR + " " + dst + ", " + src + ", #" + imm;
+    return new Instruction(EOR, dst, src, imm);
   }
 
   public static Instruction createRSBS(Register dst,
                                         Register src,
                                         Operand imm) {
-    return () -> RSBS + " " + dst + ", " + src + ", #" + imm;
+    return new Instruction(RSBS, dst, src, imm);
   }
 
   public static Instruction createAdds(Register dst, Register src,
                                         Operand op) {
-    return () -> ADDS + " " + dst + ", " + src + ", "
-        + getOptionalHash(op) + op;
+    return new Instruction(ADDS, dst, src, op);
   }
 
   public static Instruction createMovEq(Register dst,  Operand op) {
-    return () -> MOVEQ + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.EQ, dst, op);
   }
 
   public static Instruction createMovNe(Register dst,  Operand op) {
-    return () -> MOVNE + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.NE, dst, op);
   }
 
   public static Instruction createMovGt(Register dst,  Operand op) {
-    return () -> MOVGT + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.GT, dst, op);
   }
 
   public static Instruction createMovLe(Register dst,  Operand op) {
-    return () -> MOVLE + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.LE, dst, op);
   }
 
   public static Instruction createMovGe(Register dst,  Operand op) {
-    return () -> MOVGE + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.GE, dst, op);
   }
 
   public static Instruction createMovLt(Register dst,  Operand op) {
-    return () -> MOVLT + " " + dst + ", " + getOptionalHash(op) + op;
+    return new Instruction(MOV, Condition.LT, dst, op);
   }
 
   public static Instruction createAnd(Register dst,  Register src1,
                                        Register src2) {
-    return () -> AND + " " + dst + ", " + src1 + ", " + src2;
+    return new Instruction(AND, dst, src1, src2);
   }
 
   public static Instruction createOrr(Register dst, Register src1,
                                        Register src2) {
-    return () -> ORR + " " + dst + ", " + src1 + ", " + src2;
+    return new Instruction(ORR, dst, src1, src2);
   }
 
   public static Instruction createSubs(Register dst,  Register src,
                                         Operand op) {
-    return () -> SUBS + " " + dst + ", " + src + ", "
-        + getOptionalHash(op) + op;
+    return new Instruction(SUBS, dst, src, op);
   }
 
   public static Instruction createSmull(Register dst1, Register dst2,
                                          Register src1, Register src2) {
-    return () -> SMULL + " " + dst1 + ", " + dst2 + ", " + src1 + ", " + src2;
+    return new Instruction(SMULL, dst1, dst2, src1, src2);
   }
 
   public static Instruction createDiv() {
-    return () -> BL + " " + AEABI_IDIV;
+    return new Instruction(BL, DIV_LABEL);
   }
 
   public static Instruction createMod() {
-    return () -> BL + " " + AEABI_IDIVMOD;
+    return new Instruction(BL, MOD_LABEL);
   }
 
   public static Instruction createBranchLinkEqual(Label label) {
-
-    return () -> BLEQ + " " + label;
+    return new Instruction(BL, Condition.EQ, label);
   }
 
   public static Instruction createBranchLinkVS(Label label) {
-
-    return () -> BLVS + " " + label;
+    return new Instruction(BL, Condition.VS, label);
   }
 
   public static Instruction createBranchLinkNotEqual(Label label) {
-
-    return () -> BLNE + " " + label;
+    return new Instruction(BL, Condition.NE, label);
   }
 
   public static Instruction createAdd(Register dst,
                                       Register src1,
                                       Register src2, Operand op) {
-    return () -> ADD + " " + dst + ", " + src1 + ", " + src2 + ", " + op;
+    return new Instruction(ADD, dst, src1, src2, op);
   }
 
   public static Instruction createLoadLessThan(Register dst, Label label) {
-
-    return () -> LDRLT + " " + dst + ", =" + label;
+    return new Instruction(LDR, Condition.LT, dst, label);
   }
 
   public static Instruction createLoadCS(Register dst, Label label) {
-
-    return () -> LDRCS + " " + dst + ", =" + label;
+    return new Instruction(LDR, Condition.CS, dst, label);
   }
 
   public static Instruction createBranchLinkLT(Label label) {
-
-    return () -> BLLT + " " + label;
+    return new Instruction(BL, Condition.LT, label);
   }
 
   public static Instruction createBranchLinkCS(Label label) {
-
-    return () -> BLCS + " " + label;
+    return new Instruction(BL, Condition.CS, label);
   }
 
   public static Instruction getAddInstruction(boolean isStoredByte,
@@ -253,7 +234,7 @@ public class InstructionFactory {
     if (isStoredByte) {
       return InstructionFactory.createAdd(result, result, helper);
     } else {
-      Shift shift = new Shift(Shift.Shifts.LSL, 2);
+      Shift shift = Shift.of(Shift.Shifts.LSL, 2);
       return InstructionFactory.createAdd(result, result, helper, shift);
     }
   }
@@ -275,9 +256,9 @@ public class InstructionFactory {
                                                       long offset) {
     if (isStoredByte) {
       return InstructionFactory.createLoadStoredByte(dst, src,
-          new Immediate(offset));
+          Immediate.of(offset));
     } else {
-      return InstructionFactory.createLoad(dst, src, new Immediate(offset));
+      return InstructionFactory.createLoad(dst, src, Immediate.of(offset));
     }
   }
 
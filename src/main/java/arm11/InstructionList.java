@@ -1,41 +1,91 @@
 package arm11;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-public class InstructionList  {
+/**
+ * Sequence of instructions that is concatenated in constant time
+ * Instructions added one by one go into a tail chunk; adding a list links
+ * the frozen part of its rope into this one, so the instructions of a
+ * child are never copied into all of its parents and are only walked once,
+ * when the program is written out. Only the child's unfrozen tail is copied,
+ * and linked nodes are never mutated, so adding to either list afterwards
+ * does not affect the other, and a list may be added from several threads
+ */
+public class InstructionList implements Iterable<Instruction> {
 
-  private List<Instruction> instructions;
+  private Node frozen;
+  private List<Instruction> tail;
 
   public InstructionList() {
-    this.instructions = new ArrayList<>();
+    this.frozen = Chunk.EMPTY;
+    this.tail = new ArrayList<>();
   }
 
   public InstructionList add(Instruction instruction) {
-    instructions.add(instruction);
+    tail.add(instruction);
     return this;
   }
 
   public InstructionList add(InstructionList instructionList) {
     if (instructionList != null) {
-      this.instructions.addAll(instructionList.getInstructions());
+      freezeTail();
+      frozen = Concat.of(frozen, instructionList.snapshot());
     }
     return this;
   }
 
-  private List<Instruction> getInstructions() {
-    return instructions;
+  private Node snapshot() {
+    if (tail.isEmpty()) {
+      return frozen;
+    }
+    return Concat.of(frozen, new Chunk(new ArrayList<>(tail)));
+  }
+
+  private void freezeTail() {
+    if (!tail.isEmpty()) {
+      frozen = Concat.of(frozen, new Chunk(tail));
+      tail = new ArrayList<>();
+    }
+  }
+
+  /**
+   * Walks the rope from left to right, without recursion so that deeply
+   * nested code cannot overflow the stack
+   */
+  @Override
+  public Iterator<Instruction> iterator() {
+    return new RopeIterator(Concat.of(frozen, new Chunk(tail)));
+  }
+
+  /**
+   * Writes the instructions to out, one per line, as toString would
+   */
+  public void writeTo(Appendable out) throws IOException {
+    for (Instruction instruction : this) {
+      out.append(instruction.printInstruction()).append('\n');
+    }
   }
 
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
-    for (Instruction instruction : instructions) {
+    for (Instruction instruction : this) {
       sb.append(instruction.printInstruction()).append("\n");
     }
     return sb.toString();
   }
 
+  /**
+   * Lists are equal when they hold equal instructions in the same order,
+   * however they were put together
+   */
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -45,12 +95,96 @@ public class InstructionList  {
       return false;
     }
 
-    InstructionList that = (InstructionList) o;
-    return this.toString().equals(that.toString());
+    Iterator<Instruction> these = iterator();
+    Iterator<Instruction> those = ((InstructionList) o).iterator();
+    while (these.hasNext() && those.hasNext()) {
+      if (!these.next().equals(those.next())) {
+        return false;
+      }
+    }
+    return !these.hasNext() && !those.hasNext();
   }
 
   @Override
   public int hashCode() {
-    return this.toString().hashCode();
+    int hash = 1;
+    for (Instruction instruction : this) {
+      hash = 31 * hash + instruction.hashCode();
+    }
+    return hash;
   }
+
+  private interface Node {
+    boolean isEmpty();
+  }
+
+  private static final class Chunk implements Node {
+    private static final Chunk EMPTY
+        = new Chunk(Collections.<Instruction>emptyList());
+
+    private final List<Instruction> instructions;
+
+    Chunk(List<Instruction> instructions) {
+      this.instructions = instructions;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return instructions.isEmpty();
+    }
+  }
+
+  private static final class Concat implements Node {
+    private final Node left;
+    private final Node right;
+
+    private Concat(Node left, Node right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    static Node of(Node left, Node right) {
+      if (left.isEmpty()) {
+        return right;
+      }
+      return right.isEmpty() ? left : new Concat(left, right);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return false;
+    }
+  }
+
+  private static final class RopeIterator implements Iterator<Instruction> {
+    private final Deque<Node> pending = new ArrayDeque<>();
+    private Iterator<Instruction> chunk = Collections.emptyIterator();
+
+    RopeIterator(Node root) {
+      pending.push(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!chunk.hasNext() && !pending.isEmpty()) {
+        Node node = pending.pop();
+        if (node instanceof Concat) {
+          pending.push(((Concat) node).right);
+          pending.push(((Concat) node).left);
+        } else {
+          chunk = ((Chunk) node).instructions.iterator();
+        }
+      }
+      return chunk.hasNext();
+    }
+
+    @Override
+    public Instruction next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return chunk.next();
+    }
+  }
+
 }
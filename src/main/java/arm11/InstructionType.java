@@ -10,30 +10,13 @@ public enum InstructionType {
 
   B("B"),
   BL("BL"),
-  BEQ("BEQ"),
-  BNE("BNE"),
-  BLEQ("BLEQ"),
-  BLNE("BLNE"),
-  BLVS("BLVS"),
-  BLCS("BLCS"),
-  BLLT("BLLT"),
 
   LABEL("label"),
 
   MOV("MOV"),
-  MOVEQ("MOVEQ"),
-  MOVNE("MOVNE"),
-  MOVGT("MOVGT"),
-  MOVGE("MOVGE"),
-  MOVLT("MOVLT"),
-  MOVLE("MOVLE"),
 
   LDR("LDR"),
   LDRSB("LDRSB"),
-  LDRNE("LDRNE"),
-  LDREQ("LDREQ"),
-  LDRLT("LDRLT"),
-  LDRCS("LDRCS"),
 
   STR("STR"),
   STRB("STRB"),
@@ -94,26 +77,13 @@ public enum InstructionType {
 
 
   public boolean isMove() {
-    switch (this) {
-      case MOV:
-      case MOVEQ:
-      case MOVGE:
-      case MOVGT:
-      case MOVLE:
-      case MOVLT:
-      case MOVNE:
-        return true;
-      default:
-        return false;
-    }
+    return this == MOV;
   }
 
 
   public boolean isLoad() {
     switch (this) {
       case LDR:
-      case LDREQ:
-      case LDRNE:
       case LDRSB:
         return true;
       default:
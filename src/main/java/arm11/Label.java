@@ -13,6 +13,23 @@ public class Label extends Operand {
     return true;
   }
 
+  /**
+   * Labels are equal when they print the same, so that a label whose name
+   * is only decided later compares as the label it resolves to
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Label && toString().equals(o.toString());
+  }
+
+  @Override
+  public int hashCode() {
+    return toString().hashCode();
+  }
+
   @Override
   public String toString() {
     return value;
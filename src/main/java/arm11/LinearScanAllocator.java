@@ -0,0 +1,337 @@
+package arm11;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static arm11.ARM11Registers.*;
+
+/**
+ * Gives the virtual registers of a function or main machine registers,
+ * scanning their live intervals in order of their starts as Poletto and
+ * Sarkar do
+ * When more intervals are live than there are registers, the one that
+ * ends last is spilled to a slot in the stack frame, loaded
+ * into a scratch register before every instruction that reads it and
+ * stored after every one that writes it, unless it only ever holds a
+ * constant, which is given to the scratch register again instead
+ * An interval no call is made in is given r12 or one of r0 to r3 if it
+ * can be, as a call may change them but they need not be saved; r0 to r3
+ * only where the code does not hold an argument, result or return value
+ * in them itself
+ * The other registers given out are saved on entry and restored on
+ * return, so they keep their values across calls
+ */
+public final class LinearScanAllocator {
+
+  private static final List<Register> CALLER_SAVED
+      = Arrays.asList(R12, R3, R2, R1, R0);
+  private static final List<Register> ARGUMENTS = Arrays.asList(R0, R1, R2, R3);
+  private static final List<Register> RESULTS = Arrays.asList(R0, R1);
+  private static final List<Register> REGISTERS = Collections.unmodifiableList(
+      Arrays.asList(R12, R3, R2, R1, R0, R4, R5, R6, R7, R8, R9, R10, R11));
+  private static final List<Register> SCRATCH = Arrays.asList(R11, R12);
+  private static final List<Register> SPILLING_REGISTERS = REGISTERS.stream()
+      .filter(register -> !SCRATCH.contains(register))
+      .collect(Collectors.toList());
+  private static final int WORD = 4;
+
+  private final FlowGraph graph;
+  private final int[] calls;
+  private final Map<Register, List<int[]>> held;
+  private final Map<VirtualRegister, Register> assigned = new HashMap<>();
+  private final Map<VirtualRegister, Integer> slots = new HashMap<>();
+  private final Map<VirtualRegister, Instruction> constants;
+  private final Map<VirtualRegister, Instruction> rematerialized
+      = new HashMap<>();
+
+  private LinearScanAllocator(FlowGraph graph) {
+    int size = graph.end(graph.size() - 1);
+    this.graph = graph;
+    calls = IntStream.range(0, size)
+        .filter(i -> returns(graph.get(i)))
+        .toArray();
+    held = held(graph);
+    constants = constants(graph);
+  }
+
+  /**
+   * The code of a function or main, which starts by pushing lr, with its
+   * virtual registers replaced by machine ones
+   * Spilling reserves the scratch registers, so intervals are only
+   * allocated without them once they do not all fit
+   */
+  public static InstructionList allocate(InstructionList unit) {
+    List<Instruction> code = new ArrayList<>();
+    unit.forEach(code::add);
+    FlowGraph split = new FlowGraph(LocalRanges.split(new FlowGraph(code)));
+    FlowGraph graph = new FlowGraph(LocalCopies.coalesce(split));
+    List<LiveInterval> intervals = LiveInterval.of(graph);
+    if (intervals.isEmpty()) {
+      return unit;
+    }
+    LinearScanAllocator allocator = new LinearScanAllocator(graph);
+    List<LiveInterval> spilled = allocator.scan(intervals, REGISTERS);
+    if (!spilled.isEmpty()) {
+      allocator.assigned.clear();
+      allocator.spill(allocator.scan(intervals, SPILLING_REGISTERS));
+    }
+    return new FrameRewriter(graph, allocator.assigned, allocator.slots,
+                             allocator.rematerialized, SCRATCH,
+                             allocator.saved()).rewrite();
+  }
+
+  /**
+   * The callee-saved registers the code uses, in order, counting the
+   * scratch registers once anything is spilled
+   */
+  private List<Register> saved() {
+    boolean spilling = !slots.isEmpty() || !rematerialized.isEmpty();
+    List<Register> saved = new ArrayList<>();
+    for (Register register : REGISTERS) {
+      boolean used = assigned.containsValue(register)
+          || spilling && SCRATCH.contains(register);
+      if (used && !CALLER_SAVED.contains(register)) {
+        saved.add(register);
+      }
+    }
+    saved.sort(Comparator.comparingInt(REGISTERS::indexOf));
+    return saved;
+  }
+
+  /**
+   * Where each of r0 to r3 holds a value the code put there, from the
+   * instruction that writes it to the last that reads it, every write
+   * holding it at least where it is made
+   * A call reads whatever was written to them before it and, unless it
+   * exits, writes its results to r0 and r1; a return reads r0
+   */
+  private static Map<Register, List<int[]>> held(FlowGraph graph) {
+    Map<Register, List<int[]>> held = new HashMap<>();
+    Map<Register, Integer> written = new HashMap<>();
+    for (int i = 0; i < graph.end(graph.size() - 1); i++) {
+      Instruction instruction = graph.get(i);
+      boolean call = instruction.getOpcode() == InstructionType.BL;
+      List<Register> reads = call ? new ArrayList<>(written.keySet())
+                                  : FlowGraph.machineUses(instruction);
+      if (FlowGraph.leavesCode(instruction)) {
+        reads.add(R0);
+      }
+      for (Register register : reads) {
+        hold(held, register, written.getOrDefault(register, 0), i);
+      }
+      if (returns(instruction)) {
+        written.clear();
+      }
+      for (Register register : writes(instruction)) {
+        if (hold(held, register, i, i)) {
+          written.put(register, i);
+        }
+      }
+    }
+    return held;
+  }
+
+  /**
+   * Whether instruction is a call that comes back, having changed the
+   * registers the callee need not save
+   */
+  private static boolean returns(Instruction instruction) {
+    return instruction.getOpcode() == InstructionType.BL
+        && !RuntimeErrorFunctions.EXITING.contains(
+            instruction.getOperands().get(0));
+  }
+
+  private static List<Register> writes(Instruction instruction) {
+    if (instruction.getOpcode() != InstructionType.BL) {
+      return FlowGraph.machineDefs(instruction);
+    }
+    return returns(instruction) ? RESULTS : Collections.emptyList();
+  }
+
+  private static boolean hold(Map<Register, List<int[]>> held,
+                              Register register, int first, int last) {
+    if (!ARGUMENTS.contains(register)) {
+      return false;
+    }
+    held.computeIfAbsent(register, r -> new ArrayList<>())
+        .add(new int[] {first, last});
+    return true;
+  }
+
+  /**
+   * The registers only ever given a constant, by a single load or move,
+   * which when spilled are given it again wherever they are read instead
+   */
+  private static Map<VirtualRegister, Instruction> constants(FlowGraph graph) {
+    Map<VirtualRegister, Instruction> constants = new HashMap<>();
+    Set<VirtualRegister> variables = new HashSet<>();
+    for (int i = 0; i < graph.end(graph.size() - 1); i++) {
+      Instruction instruction = graph.get(i);
+      for (VirtualRegister def : FlowGraph.defs(instruction)) {
+        if (!isConstant(instruction)
+            || constants.put(def, instruction) != null) {
+          variables.add(def);
+        }
+      }
+    }
+    constants.keySet().removeAll(variables);
+    return constants;
+  }
+
+  private static boolean isConstant(Instruction instruction) {
+    InstructionType opcode = instruction.getOpcode();
+    List<Operand> operands = instruction.getOperands();
+    return (opcode == InstructionType.LDR || opcode == InstructionType.MOV)
+        && instruction.getCondition() == Condition.AL
+        && (operands.get(1).isImmediate() || operands.get(1).isLabel());
+  }
+
+  /**
+   * Assigns registers to as many intervals as fit, giving back the ones
+   * that did not
+   */
+  private List<LiveInterval> scan(List<LiveInterval> intervals,
+                                  List<Register> registers) {
+    List<LiveInterval> active = new ArrayList<>();
+    List<LiveInterval> spilled = new ArrayList<>();
+    List<Register> free = new ArrayList<>(registers);
+    for (LiveInterval interval : intervals) {
+      expire(active, free, interval.getStart());
+      Register register = firstAllowed(free, interval);
+      if (register != null) {
+        free.remove(register);
+        assign(active, interval, register);
+      } else {
+        spilled.add(spillFurthest(active, interval));
+      }
+    }
+    return spilled;
+  }
+
+  private void expire(List<LiveInterval> active, List<Register> free,
+                      int start) {
+    while (!active.isEmpty() && active.get(0).getEnd() < start) {
+      Register register = assigned.get(active.remove(0).getRegister());
+      free.add(register);
+    }
+    free.sort(Comparator.comparingInt(REGISTERS::indexOf));
+  }
+
+  private Register firstAllowed(List<Register> free, LiveInterval interval) {
+    for (Register register : free) {
+      if (allows(register, interval)) {
+        return register;
+      }
+    }
+    return null;
+  }
+
+  private boolean allows(Register register, LiveInterval interval) {
+    if (CALLER_SAVED.contains(register) && spansCall(interval)) {
+      return false;
+    }
+    for (int[] range : held.getOrDefault(register, Collections.emptyList())) {
+      if (clashes(range[0], range[1], register, interval)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether register holding what the code put there from first to last
+   * stops it holding interval, which it need not where one is read by the
+   * instruction that writes the other
+   */
+  private boolean clashes(int first, int last, Register register,
+                          LiveInterval interval) {
+    int start = interval.getStart();
+    int end = interval.getEnd();
+    VirtualRegister value = interval.getRegister();
+    if (last < start || end < first) {
+      return false;
+    }
+    Instruction at = graph.get(last == start ? start : end);
+    if (last == start) {
+      return !FlowGraph.defs(at).contains(value)
+          || FlowGraph.uses(at).contains(value)
+          || FlowGraph.machineDefs(at).contains(register)
+          || at.getOpcode() == InstructionType.BL;
+    }
+    return first != end || FlowGraph.defs(at).contains(value)
+        || FlowGraph.machineUses(at).contains(register)
+        || at.getOpcode() == InstructionType.BL;
+  }
+
+  private boolean spansCall(LiveInterval interval) {
+    int next = Arrays.binarySearch(calls, interval.getStart() + 1);
+    next = next < 0 ? -next - 1 : next;
+    return next < calls.length && calls[next] < interval.getEnd();
+  }
+
+  private void assign(List<LiveInterval> active, LiveInterval interval,
+                      Register register) {
+    assigned.put(interval.getRegister(), register);
+    int at = Collections.binarySearch(active, interval, LiveInterval.BY_END);
+    active.add(at < 0 ? -at - 1 : at, interval);
+  }
+
+  /**
+   * Spills whichever of interval and the active intervals whose register
+   * it could take ends last
+   */
+  private LiveInterval spillFurthest(List<LiveInterval> active,
+                                     LiveInterval interval) {
+    for (int i = active.size() - 1; i >= 0; i--) {
+      LiveInterval furthest = active.get(i);
+      Register register = assigned.get(furthest.getRegister());
+      if (furthest.getEnd() <= interval.getEnd()) {
+        break;
+      }
+      if (allows(register, interval)) {
+        assigned.remove(active.remove(i).getRegister());
+        assign(active, interval, register);
+        return furthest;
+      }
+    }
+    return interval;
+  }
+
+  /**
+   * Gives every spilled interval a slot, sharing slots between intervals
+   * that do not overlap, unless it holds a constant that can be given to
+   * its scratch register again
+   */
+  private void spill(List<LiveInterval> spilled) {
+    spilled.sort(LiveInterval.BY_START);
+    List<Integer> slotEnds = new ArrayList<>();
+    for (LiveInterval interval : spilled) {
+      Instruction constant = constants.get(interval.getRegister());
+      if (constant != null) {
+        rematerialized.put(interval.getRegister(), constant);
+        continue;
+      }
+      int slot = 0;
+      while (slot < slotEnds.size()
+             && slotEnds.get(slot) >= interval.getStart()) {
+        slot++;
+      }
+      if (slot == slotEnds.size()) {
+        slotEnds.add(interval.getEnd());
+      } else {
+        slotEnds.set(slot, interval.getEnd());
+      }
+      slots.put(interval.getRegister(), slot * WORD);
+    }
+  }
+
+}
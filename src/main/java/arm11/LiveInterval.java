@@ -0,0 +1,151 @@
+package arm11;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The instructions from the first at which a virtual register is live to
+ * the last, both included
+ * Intervals are found by solving for the registers live out of every
+ * block, so a register that is live around a loop spans all of it
+ */
+final class LiveInterval {
+
+  static final Comparator<LiveInterval> BY_START
+      = Comparator.comparingInt(LiveInterval::getStart);
+  static final Comparator<LiveInterval> BY_END
+      = Comparator.comparingInt(LiveInterval::getEnd);
+
+  private final VirtualRegister register;
+  private int start = Integer.MAX_VALUE;
+  private int end = -1;
+
+  private LiveInterval(VirtualRegister register) {
+    this.register = register;
+  }
+
+  VirtualRegister getRegister() {
+    return register;
+  }
+
+  int getStart() {
+    return start;
+  }
+
+  int getEnd() {
+    return end;
+  }
+
+  private void extendTo(int index) {
+    start = Math.min(start, index);
+    end = Math.max(end, index);
+  }
+
+  /**
+   * The interval of every virtual register of the code of graph, in order
+   * of their starts
+   */
+  static List<LiveInterval> of(FlowGraph graph) {
+    Map<VirtualRegister, Integer> numbers = new HashMap<>();
+    List<LiveInterval> intervals = new ArrayList<>();
+    BitSet[] used = new BitSet[graph.size()];
+    BitSet[] defined = new BitSet[graph.size()];
+    for (int block = 0; block < graph.size(); block++) {
+      used[block] = new BitSet();
+      defined[block] = new BitSet();
+      for (int i = graph.start(block); i < graph.end(block); i++) {
+        Instruction instruction = graph.get(i);
+        for (VirtualRegister use : FlowGraph.uses(instruction)) {
+          int number = number(use, numbers, intervals);
+          if (!defined[block].get(number)) {
+            used[block].set(number);
+          }
+        }
+        for (VirtualRegister def : FlowGraph.defs(instruction)) {
+          defined[block].set(number(def, numbers, intervals));
+        }
+      }
+    }
+
+    BitSet[] liveOut = liveOut(graph, used, defined);
+    for (int block = 0; block < graph.size(); block++) {
+      extend(graph, block, liveOut[block], numbers, intervals);
+    }
+    intervals.sort(BY_START);
+    return intervals;
+  }
+
+  private static int number(VirtualRegister register,
+                            Map<VirtualRegister, Integer> numbers,
+                            List<LiveInterval> intervals) {
+    Integer number = numbers.get(register);
+    if (number == null) {
+      number = intervals.size();
+      numbers.put(register, number);
+      intervals.add(new LiveInterval(register));
+    }
+    return number;
+  }
+
+  /**
+   * The registers live on leaving every block, iterating backwards over
+   * the blocks until nothing changes
+   */
+  private static BitSet[] liveOut(FlowGraph graph, BitSet[] used,
+                                  BitSet[] defined) {
+    BitSet[] liveIn = new BitSet[graph.size()];
+    BitSet[] liveOut = new BitSet[graph.size()];
+    for (int block = 0; block < graph.size(); block++) {
+      liveIn[block] = (BitSet) used[block].clone();
+      liveOut[block] = new BitSet();
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int block = graph.size() - 1; block >= 0; block--) {
+        for (int next : graph.successors(block)) {
+          liveOut[block].or(liveIn[next]);
+        }
+        BitSet in = (BitSet) liveOut[block].clone();
+        in.andNot(defined[block]);
+        in.or(used[block]);
+        if (!in.equals(liveIn[block])) {
+          liveIn[block] = in;
+          changed = true;
+        }
+      }
+    }
+    return liveOut;
+  }
+
+  /**
+   * Extends the intervals over the instructions of block, walking back
+   * from the registers live out of it
+   */
+  private static void extend(FlowGraph graph, int block, BitSet liveOut,
+                             Map<VirtualRegister, Integer> numbers,
+                             List<LiveInterval> intervals) {
+    BitSet live = (BitSet) liveOut.clone();
+    for (int i = graph.end(block) - 1; i >= graph.start(block); i--) {
+      for (int n = live.nextSetBit(0); n >= 0; n = live.nextSetBit(n + 1)) {
+        intervals.get(n).extendTo(i);
+      }
+      Instruction instruction = graph.get(i);
+      for (VirtualRegister def : FlowGraph.defs(instruction)) {
+        int number = numbers.get(def);
+        intervals.get(number).extendTo(i);
+        live.clear(number);
+      }
+      for (VirtualRegister use : FlowGraph.uses(instruction)) {
+        int number = numbers.get(use);
+        intervals.get(number).extendTo(i);
+        live.set(number);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+package arm11;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the moves between virtual registers that code generation leaves
+ * around the registers variables are kept in, as it copies a variable into
+ * a register of its own before working on it and copies a result into the
+ * variable afterwards
+ * A copy is only removed when the register it makes is used in a single
+ * block and neither register is written while both would be needed
+ */
+final class LocalCopies {
+
+  private final Instruction[] code;
+  private final Set<VirtualRegister> shared;
+
+  private LocalCopies(FlowGraph graph) {
+    this.code = new Instruction[graph.end(graph.size() - 1)];
+    for (int i = 0; i < code.length; i++) {
+      code[i] = graph.get(i);
+    }
+    this.shared = LocalRanges.shared(graph);
+  }
+
+  /**
+   * The code of graph, whose registers used in a single block each hold a
+   * single value, without the copies that can be removed
+   */
+  static List<Instruction> coalesce(FlowGraph graph) {
+    LocalCopies copies = new LocalCopies(graph);
+    for (int block = 0; block < graph.size(); block++) {
+      for (int i = graph.start(block); i < graph.end(block); i++) {
+        copies.forward(i, graph.end(block));
+      }
+      for (int i = graph.start(block); i < graph.end(block); i++) {
+        copies.backward(graph.start(block), i, graph.end(block));
+      }
+    }
+    return Arrays.stream(copies.code).filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Reads the source of the copy at index in place of its destination
+   * wherever that is read, up to end
+   */
+  private void forward(int index, int end) {
+    VirtualRegister[] copy = copyAt(index);
+    if (copy == null || shared.contains(copy[0])) {
+      return;
+    }
+    VirtualRegister destination = copy[0];
+    VirtualRegister source = copy[1];
+    int last = lastUse(destination, index + 1, end);
+    for (int i = index + 1; i <= last; i++) {
+      List<VirtualRegister> defs = defs(i);
+      if (defs.contains(destination) || i < last && defs.contains(source)) {
+        return;
+      }
+    }
+    for (int i = index + 1; i <= last; i++) {
+      replace(i, destination, source);
+    }
+    code[index] = null;
+  }
+
+  /**
+   * Gives the value copied at index straight to the destination of the
+   * copy, from the instruction that works it out on, when the source is
+   * not read after the copy before end
+   */
+  private void backward(int start, int index, int end) {
+    VirtualRegister[] copy = copyAt(index);
+    if (copy == null || shared.contains(copy[1])
+        || lastUse(copy[1], index + 1, end) >= 0) {
+      return;
+    }
+    VirtualRegister destination = copy[0];
+    VirtualRegister source = copy[1];
+    int def = index - 1;
+    while (def >= start && !isDefinedAt(def, source)) {
+      if (defs(def).contains(destination)
+          || uses(def).contains(destination)) {
+        return;
+      }
+      def--;
+    }
+    if (def < start || defs(def).contains(destination)) {
+      return;
+    }
+    for (int i = def; i < index; i++) {
+      replace(i, source, destination);
+    }
+    code[index] = null;
+  }
+
+  /**
+   * The destination and source of the move at index if it copies one
+   * virtual register, used in a single block, from another
+   */
+  private VirtualRegister[] copyAt(int index) {
+    Instruction instruction = code[index];
+    if (instruction == null
+        || instruction.getOpcode() != InstructionType.MOV
+        || instruction.getCondition() != Condition.AL
+        || instruction.getOperands().size() != 2) {
+      return null;
+    }
+    Operand destination = instruction.getOperands().get(0);
+    Operand source = instruction.getOperands().get(1);
+    if (!(destination instanceof VirtualRegister)
+        || !(source instanceof VirtualRegister)
+        || destination.equals(source)) {
+      return null;
+    }
+    return new VirtualRegister[] {
+        (VirtualRegister) destination, (VirtualRegister) source};
+  }
+
+  private boolean isDefinedAt(int index, VirtualRegister register) {
+    return code[index] != null
+        && code[index].getCondition() == Condition.AL
+        && defs(index).contains(register);
+  }
+
+  /**
+   * The last index before end at which register is read, or -1
+   */
+  private int lastUse(VirtualRegister register, int from, int end) {
+    int last = -1;
+    for (int i = from; i < end; i++) {
+      if (code[i] != null && uses(i).contains(register)) {
+        last = i;
+      }
+    }
+    return last;
+  }
+
+  private List<VirtualRegister> defs(int index) {
+    return code[index] == null ? new ArrayList<>()
+                               : FlowGraph.defs(code[index]);
+  }
+
+  private List<VirtualRegister> uses(int index) {
+    return code[index] == null ? new ArrayList<>()
+                               : FlowGraph.uses(code[index]);
+  }
+
+  private void replace(int index, VirtualRegister from, Register to) {
+    if (code[index] != null) {
+      code[index] = FlowGraph.rename(code[index],
+                                     def -> def.equals(from) ? to : def,
+                                     use -> use.equals(from) ? to : use);
+    }
+  }
+
+}
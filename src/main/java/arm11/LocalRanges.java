@@ -0,0 +1,98 @@
+package arm11;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits the virtual registers that live in a single block at every value
+ * they are given, as code generation leaves the result of an operation in
+ * the register of its left operand
+ * Each value then has an interval of its own, so that spilling one does
+ * not spill the values the register goes on to hold
+ */
+final class LocalRanges {
+
+  private final FlowGraph graph;
+  private final Set<VirtualRegister> shared = new HashSet<>();
+  private int count;
+
+  private LocalRanges(FlowGraph graph) {
+    this.graph = graph;
+  }
+
+  /**
+   * The code of graph with every value of a register used in a single
+   * block, that is written there before it is read, in a register of its
+   * own
+   */
+  static List<Instruction> split(FlowGraph graph) {
+    LocalRanges ranges = new LocalRanges(graph);
+    ranges.findShared();
+    List<Instruction> code = new ArrayList<>();
+    for (int block = 0; block < graph.size(); block++) {
+      ranges.split(block, code);
+    }
+    return code;
+  }
+
+  /**
+   * The registers of graph used in more than one block, or read in a block
+   * before they are written there
+   */
+  static Set<VirtualRegister> shared(FlowGraph graph) {
+    LocalRanges ranges = new LocalRanges(graph);
+    ranges.findShared();
+    return ranges.shared;
+  }
+
+  /**
+   * Finds the registers used in more than one block, or read in a block
+   * before they are written there
+   */
+  private void findShared() {
+    Map<VirtualRegister, Integer> blocks = new HashMap<>();
+    for (int block = 0; block < graph.size(); block++) {
+      for (int i = graph.start(block); i < graph.end(block); i++) {
+        Instruction instruction = graph.get(i);
+        for (VirtualRegister use : FlowGraph.uses(instruction)) {
+          count = Math.max(count, use.getNumber() + 1);
+          if (blocks.putIfAbsent(use, block) == null
+              || blocks.get(use) != block) {
+            shared.add(use);
+          }
+        }
+        for (VirtualRegister def : FlowGraph.defs(instruction)) {
+          count = Math.max(count, def.getNumber() + 1);
+          if (blocks.putIfAbsent(def, block) != null
+              && blocks.get(def) != block) {
+            shared.add(def);
+          }
+        }
+      }
+    }
+  }
+
+  private void split(int block, List<Instruction> code) {
+    Map<VirtualRegister, Register> current = new HashMap<>();
+    for (int i = graph.start(block); i < graph.end(block); i++) {
+      Instruction instruction = graph.get(i);
+      Map<VirtualRegister, Register> values = new HashMap<>();
+      for (VirtualRegister def : FlowGraph.defs(instruction)) {
+        boolean unconditional = instruction.getCondition() == Condition.AL;
+        if (unconditional && !shared.contains(def)) {
+          values.put(def, current.containsKey(def)
+                          ? new VirtualRegister(count++) : def);
+        }
+      }
+      code.add(FlowGraph.rename(instruction,
+                                def -> values.getOrDefault(def, def),
+                                use -> current.getOrDefault(use, use)));
+      current.putAll(values);
+    }
+  }
+
+}
@@ -5,7 +5,7 @@ public class PrintFunctions {
   private static void printAsciiAndFlush(InstructionList list, String print) {
     list.add(InstructionFactory.createBranchLink(new Label(print)))
         .add(InstructionFactory.createMove(ARM11Registers.R0,
-                                          new Immediate(0L)))
+                                          Immediate.of(0L)))
         .add(InstructionFactory.createBranchLink(new Label("fflush")));
   }
 
@@ -28,7 +28,7 @@ public class PrintFunctions {
         .add(InstructionFactory.createLoad(ARM11Registers.R0,
                                            intFormatterLabel))
         .add(InstructionFactory.createAdd(ARM11Registers.R0, ARM11Registers.R0,
-                                          new Immediate(4L)));
+                                          Immediate.of(4L)));
     printAsciiAndFlush(list, "printf");
     list.add(InstructionFactory.createPop(ARM11Registers.PC));
 
@@ -47,12 +47,12 @@ public class PrintFunctions {
                                            new Address(ARM11Registers.R0)))
         .add(InstructionFactory.createAdd(ARM11Registers.R2,
                                           ARM11Registers.R0,
-                                          new Immediate(4L)))
+                                          Immediate.of(4L)))
         .add(InstructionFactory.createLoad(ARM11Registers.R0,
                                            stringFormatterLabel))
         .add(InstructionFactory.createAdd(ARM11Registers.R0,
                                           ARM11Registers.R0,
-                                          new Immediate(4L)));
+                                          Immediate.of(4L)));
     printAsciiAndFlush(list, "printf");
     list.add(InstructionFactory.createPop(ARM11Registers.PC));
 
@@ -69,7 +69,7 @@ public class PrintFunctions {
                                            lnFormatterLabel))
         .add(InstructionFactory.createAdd(ARM11Registers.R0,
                                           ARM11Registers.R0,
-                                          new Immediate(4L)));
+                                          Immediate.of(4L)));
     printAsciiAndFlush(list, "puts");
     list.add(InstructionFactory.createPop(ARM11Registers.PC));
 
@@ -86,15 +86,15 @@ public class PrintFunctions {
         = data.addPrintFormatter(IOFormatters.BOOL_FALSE_FORMATTER);
 
     saveLinkRegister(list, printLabel);
-    list.add(InstructionFactory.createCompare(ARM11Registers.R0, new
-      Immediate(0L)));
+    list.add(InstructionFactory.createCompare(ARM11Registers.R0,
+      Immediate.of(0L)));
     list.add(InstructionFactory.createLoadNotEqual(ARM11Registers.R0,
                                                    trueFormatterLabel));
     list.add(InstructionFactory.createLoadEqual(ARM11Registers.R0,
                                                 falseFormatterLabel));
     list.add(InstructionFactory.createAdd(ARM11Registers.R0,
                                           ARM11Registers.R0,
-                                          new Immediate(4L)));
+                                          Immediate.of(4L)));
     printAsciiAndFlush(list, "printf");
     list.add(InstructionFactory.createPop(ARM11Registers.PC));
 
@@ -115,7 +115,7 @@ public class PrintFunctions {
                                            referenceFormatterLabel))
         .add(InstructionFactory.createAdd(ARM11Registers.R0,
                                           ARM11Registers.R0,
-                                          new Immediate(4L)));
+                                          Immediate.of(4L)));
     printAsciiAndFlush(list, "printf");
     list.add(InstructionFactory.createPop(ARM11Registers.PC));
 
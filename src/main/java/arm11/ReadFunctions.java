@@ -11,7 +11,7 @@ public class ReadFunctions {
             ARM11Registers.R0))
         .add(InstructionFactory.createLoad(ARM11Registers.R0, formatterLabel))
         .add(InstructionFactory.createAdd(ARM11Registers.R0, ARM11Registers.R0,
-            new Immediate(4L)))
+            Immediate.of(4L)))
         .add(InstructionFactory.createBranchLink(new Label("scanf")));
   }
 
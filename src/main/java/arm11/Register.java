@@ -10,11 +10,39 @@ public class Register extends Operand {
     this.name = name;
   }
 
+  /**
+   * A register that is not one of the machine's, for VirtualRegister
+   */
+  Register(String name) {
+    this(null, name);
+  }
+
   @Override
   boolean isRegister() {
     return true;
   }
 
+  /**
+   * True for a register that still has to be given a machine register
+   */
+  public boolean isVirtual() {
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Register && register != null
+        && register == ((Register) o).register;
+  }
+
+  @Override
+  public int hashCode() {
+    return register.ordinal();
+  }
+
   @Override
   public String toString() {
     return this.name;
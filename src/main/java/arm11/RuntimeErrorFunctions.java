@@ -1,11 +1,20 @@
 package arm11;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class RuntimeErrorFunctions {
 
     public static final Label P_PRINT_STRING_LABEL
             = new Label("p_print_string");
     public static final Label EXIT_LABEL = new Label("exit");
 
+    /**
+     * The labels a call to which exits instead of coming back
+     */
+    static final List<Label> EXITING = Arrays.asList(EXIT_LABEL,
+        Error.THROW_RUNTIME_ERROR.label, Error.THROW_OVERFLOW_ERROR.label);
+
     public enum Error {
         DIVIDE_BY_ZERO_ERROR("p_check_divide_by_zero",
                 "\"DivideByZeroError: divide or modulo by zero\\n\\0\""),
@@ -36,7 +45,7 @@ public class RuntimeErrorFunctions {
     list.add(InstructionFactory.createLabel(Error.DIVIDE_BY_ZERO_ERROR.label))
         .add(InstructionFactory.createPush(ARM11Registers.LR))
         .add(InstructionFactory.createCompare(ARM11Registers.R1,
-                                              new Immediate(0L)))
+                                              Immediate.of(0L)))
         .add(InstructionFactory.createLoadEqual(ARM11Registers.R0, message))
             .add(InstructionFactory.createBranchLinkEqual(
                 Error.THROW_RUNTIME_ERROR.label))
@@ -70,7 +79,7 @@ public class RuntimeErrorFunctions {
             Error.CHECK_ARRAY_BOUNDS_NEG_ERROR.label))
         .add(InstructionFactory.createPush(ARM11Registers.LR))
         .add(InstructionFactory.createCompare(ARM11Registers.R0,
-                                              new Immediate(0L)))
+                                              Immediate.of(0L)))
         .add(InstructionFactory.createLoadLessThan(ARM11Registers.R0,
                                                    negErrMessage))
         .add(InstructionFactory.createBranchLinkLT(
@@ -92,7 +101,7 @@ public class RuntimeErrorFunctions {
     InstructionList list = new InstructionList();
     data.addPrintFormatter(IOFormatters.STRING_FORMATTER);
 
-    Immediate exitCode = new Immediate(-1L);
+    Immediate exitCode = Immediate.of(-1L);
 
     list.add(InstructionFactory.createLabel(Error.THROW_RUNTIME_ERROR.label))
          .add(InstructionFactory.createBranchLink(P_PRINT_STRING_LABEL))
@@ -113,7 +122,7 @@ public class RuntimeErrorFunctions {
             Error.CHECK_NULL_POINTER_ERROR.label))
         .add(InstructionFactory.createPush(ARM11Registers.LR))
         .add(InstructionFactory.createCompare(ARM11Registers.R0,
-                                              new Immediate(0L)))
+                                              Immediate.of(0L)))
         .add(InstructionFactory.createLoadEqual(ARM11Registers.R0, errMessage))
         .add(InstructionFactory.createBranchEqual(
                 Error.THROW_RUNTIME_ERROR.label))
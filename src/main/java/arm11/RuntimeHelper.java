@@ -0,0 +1,36 @@
+package arm11;
+
+import java.util.function.Function;
+
+/**
+ * Runtime routines that generated code calls, in the order they are
+ * emitted at the end of the program
+ */
+public enum RuntimeHelper {
+  PRINT_STRING(PrintFunctions::printString),
+  PRINT_INT(PrintFunctions::printInt),
+  PRINT_BOOL(PrintFunctions::printBool),
+  PRINT_REFERENCE(PrintFunctions::printReference),
+  PRINT_LN(PrintFunctions::printLn),
+  READ_INT(ReadFunctions::readInt),
+  READ_CHAR(ReadFunctions::readChar),
+  FREE_PAIR(HeapFunctions::freePair),
+  CHECK_NULL_POINTER(RuntimeErrorFunctions::checkNullPointer),
+  CHECK_ARRAY_BOUNDS(RuntimeErrorFunctions::checkArrayBounds),
+  CHECK_DIVIDE_BY_ZERO(RuntimeErrorFunctions::divideByZero),
+  THROW_OVERFLOW_ERROR(RuntimeErrorFunctions::overflowError),
+  THROW_RUNTIME_ERROR(RuntimeErrorFunctions::throwRuntimeError);
+
+  private final Function<DataInstructions, InstructionList> builder;
+
+  RuntimeHelper(Function<DataInstructions, InstructionList> builder) {
+    this.builder = builder;
+  }
+
+  /**
+   * Builds the routine, adding the messages it uses to data
+   */
+  InstructionList build(DataInstructions data) {
+    return builder.apply(data);
+  }
+}
@@ -0,0 +1,42 @@
+package arm11;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The runtime routines used by a program
+ * Each routine is built once, the first time it is required, so its
+ * messages take their place in the data section at that point; the
+ * routines are emitted in the order of RuntimeHelper
+ */
+public class RuntimeHelpers {
+
+  private final Map<RuntimeHelper, InstructionList> helpers
+      = new EnumMap<>(RuntimeHelper.class);
+
+  public void require(RuntimeHelper helper, DataInstructions data) {
+    if (!helpers.containsKey(helper)) {
+      helpers.put(helper, helper.build(data));
+    }
+  }
+
+  /**
+   * Adds the routines of other that this does not have yet
+   */
+  public void addAll(RuntimeHelpers other) {
+    other.helpers.forEach(helpers::putIfAbsent);
+  }
+
+  public Set<RuntimeHelper> getRequired() {
+    return Collections.unmodifiableSet(helpers.keySet());
+  }
+
+  public InstructionList getInstructionList() {
+    InstructionList list = new InstructionList();
+    helpers.values().forEach(list::add);
+    return list;
+  }
+
+}
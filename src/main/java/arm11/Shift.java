@@ -2,40 +2,75 @@ package arm11;
 
 public class Shift extends Operand {
 
+  private static final int MAX_AMOUNT = 32;
+  private static final Shift[][] CACHE
+      = new Shift[Shifts.values().length][MAX_AMOUNT];
+
+  static {
+    for (Shifts shift : Shifts.values()) {
+      for (int amount = 0; amount < MAX_AMOUNT; amount++) {
+        CACHE[shift.ordinal()][amount] = new Shift(shift, amount);
+      }
+    }
+  }
+
   public enum Shifts {
-    ASR("ASR", 0), LSL("LSL", 0);
+    ASR("ASR"), LSL("LSL");
 
-    private String name;
-    private int value;
+    private final String name;
 
-    Shifts(String name, int value) {
+    Shifts(String name) {
       this.name = name;
-      this.value = value;
     }
 
     public String getName() {
       return name;
     }
 
-    public int getValue() {
-      return value;
-    }
+  }
+
+  private final Shifts shift;
+  private final int amount;
 
-    public void setValue(int value) {
-      this.value = value;
+  private Shift(Shifts shift, int amount) {
+    this.shift = shift;
+    this.amount = amount;
+  }
+
+  /**
+   * Gets the shared shift of the given type and amount
+   */
+  public static Shift of(Shifts shift, int amount) {
+    if (amount < 0 || amount >= MAX_AMOUNT) {
+      throw new IllegalArgumentException("Shift amount out of range: "
+          + amount);
     }
+    return CACHE[shift.ordinal()][amount];
+  }
 
+  public int getAmount() {
+    return amount;
   }
 
-  private Shifts shift;
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Shift)) {
+      return false;
+    }
+    Shift that = (Shift) o;
+    return shift == that.shift && amount == that.amount;
+  }
 
-  public Shift(Shifts shift, int value) {
-    this.shift = shift;
-    this.shift.setValue(value);
+  @Override
+  public int hashCode() {
+    return shift.ordinal() * 31 + amount;
   }
 
   @Override
   public String toString() {
-    return shift.getName() + " #" + shift.getValue();
+    return shift.getName() + " #" + amount;
   }
 }
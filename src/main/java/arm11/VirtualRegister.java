@@ -0,0 +1,36 @@
+package arm11;
+
+/**
+ * A register code is generated with before registers are allocated, of
+ * which a unit may use as many as it likes
+ * Every virtual register is distinct, whatever its number
+ */
+public final class VirtualRegister extends Register {
+
+  private final int number;
+
+  VirtualRegister(int number) {
+    super("v" + number);
+    this.number = number;
+  }
+
+  public int getNumber() {
+    return number;
+  }
+
+  @Override
+  public boolean isVirtual() {
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode() {
+    return number;
+  }
+
+}
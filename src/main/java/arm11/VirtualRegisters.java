@@ -0,0 +1,35 @@
+package arm11;
+
+/**
+ * Hands out a fresh virtual register for every value code is generated
+ * for, which LinearScanAllocator later maps onto the machine's registers
+ * The register peeked is the one the next take gives, so a parent can
+ * name the register its child will leave its value in before visiting it
+ */
+public class VirtualRegisters {
+
+  private int count;
+  private VirtualRegister next;
+
+  public Register peekRegister() {
+    if (next == null) {
+      next = new VirtualRegister(count++);
+    }
+    return next;
+  }
+
+  public Register takeRegister() {
+    Register register = peekRegister();
+    next = null;
+    return register;
+  }
+
+  /**
+   * A register of its own for a variable, which leaves the register
+   * peeked as it is
+   */
+  public Register newRegister() {
+    return new VirtualRegister(count++);
+  }
+
+}
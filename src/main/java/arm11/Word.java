@@ -2,7 +2,7 @@ package arm11;
 
 public class Word extends Operand {
 
-  private int word;
+  private final int word;
 
   public Word(int word) {
     this.word = word;
@@ -13,6 +13,19 @@ public class Word extends Operand {
     return true;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Word && ((Word) o).word == word;
+  }
+
+  @Override
+  public int hashCode() {
+    return word;
+  }
+
   @Override
   public String toString() {
     return "" + word;
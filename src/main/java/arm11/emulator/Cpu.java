@@ -0,0 +1,322 @@
+package arm11.emulator;
+
+import arm11.emulator.Op.Addressing;
+
+/**
+ * The registers and flags of one run of a program, executing its decoded
+ * instructions one at a time
+ * Reads of pc are not modelled, as generated code only ever writes it,
+ * and neither is the carry out of shifts, as no generated instruction
+ * both shifts and sets the flags
+ */
+final class Cpu {
+
+  static final int SP = 13;
+  static final int LR = 14;
+  static final int PC = 15;
+
+  /**
+   * The return address main starts with, returning to which exits with the
+   * low byte of r0 as the exit code
+   */
+  private static final int EXIT_ADDRESS = 0;
+
+  private final Op[] code;
+  private final Memory memory;
+  private final LibC libc;
+  private final int[] r = new int[16];
+  private boolean n;
+  private boolean z;
+  private boolean c;
+  private boolean v;
+  private int pc;
+  private long instructions;
+
+  Cpu(Program program, String input) {
+    this.code = program.getCode();
+    this.memory = new Memory(program.getData());
+    this.libc = new LibC(memory, input);
+    this.pc = program.getEntry();
+    r[SP] = Memory.STACK_TOP;
+    r[LR] = EXIT_ADDRESS;
+  }
+
+  /**
+   * Runs until the program returns from main and gives its exit code, or
+   * throws Termination if it ends any other way, including by executing
+   * more than limit instructions
+   */
+  int run(long limit) {
+    while (pc >= 0) {
+      if (pc >= code.length) {
+        throw new Memory.Fault(Program.TEXT_BASE + 4 * pc);
+      }
+      if (instructions == limit) {
+        throw new LimitReached(limit);
+      }
+      Op op = code[pc++];
+      instructions++;
+      if (op.cond == Op.Cond.AL || op.cond.holds(n, z, c, v)) {
+        execute(op);
+      }
+    }
+    return r[0] & 0xff;
+  }
+
+  long getInstructions() {
+    return instructions;
+  }
+
+  long getLoads() {
+    return memory.getLoads();
+  }
+
+  long getStores() {
+    return memory.getStores();
+  }
+
+  String getOutput() {
+    return libc.getOutput();
+  }
+
+  private void execute(Op op) {
+    switch (op.opcode) {
+      case MOV:
+        set(op.rd, logical(op, operand2(op)));
+        break;
+      case MVN:
+        set(op.rd, logical(op, ~operand2(op)));
+        break;
+      case ADD:
+        set(op.rd, add(r[op.rn], operand2(op), op.setFlags));
+        break;
+      case SUB:
+        set(op.rd, subtract(r[op.rn], operand2(op), op.setFlags));
+        break;
+      case RSB:
+        set(op.rd, subtract(operand2(op), r[op.rn], op.setFlags));
+        break;
+      case CMP:
+        subtract(r[op.rn], operand2(op), true);
+        break;
+      case CMN:
+        add(r[op.rn], operand2(op), true);
+        break;
+      default:
+        executeLogical(op);
+        break;
+    }
+  }
+
+  private void executeLogical(Op op) {
+    switch (op.opcode) {
+      case AND:
+        set(op.rd, logical(op, r[op.rn] & operand2(op)));
+        break;
+      case ORR:
+        set(op.rd, logical(op, r[op.rn] | operand2(op)));
+        break;
+      case EOR:
+        set(op.rd, logical(op, r[op.rn] ^ operand2(op)));
+        break;
+      case TST:
+        logical(op, r[op.rn] & operand2(op));
+        break;
+      case TEQ:
+        logical(op, r[op.rn] ^ operand2(op));
+        break;
+      case MUL:
+        set(op.rd, logical(op, r[op.rm] * r[op.rs]));
+        break;
+      default:
+        executeOther(op);
+        break;
+    }
+  }
+
+  private void executeOther(Op op) {
+    switch (op.opcode) {
+      case SMULL:
+        smull(op);
+        break;
+      case PUSH:
+        push(op.registers);
+        break;
+      case POP:
+        pop(op.registers);
+        break;
+      case B:
+      case BL:
+        branch(op);
+        break;
+      default:
+        transfer(op);
+        break;
+    }
+  }
+
+  private int operand2(Op op) {
+    if (op.rm < 0) {
+      return op.immediate;
+    }
+    int value = r[op.rm];
+    switch (op.shift) {
+      case LSR:
+        return value >>> op.shiftAmount;
+      case ASR:
+        return value >> op.shiftAmount;
+      case ROR:
+        return Integer.rotateRight(value, op.shiftAmount);
+      default:
+        return value << op.shiftAmount;
+    }
+  }
+
+  private int add(int a, int b, boolean setFlags) {
+    int result = a + b;
+    if (setFlags) {
+      n = result < 0;
+      z = result == 0;
+      c = Integer.compareUnsigned(result, a) < 0;
+      v = ((a ^ result) & (b ^ result)) < 0;
+    }
+    return result;
+  }
+
+  private int subtract(int a, int b, boolean setFlags) {
+    int result = a - b;
+    if (setFlags) {
+      n = result < 0;
+      z = result == 0;
+      c = Integer.compareUnsigned(a, b) >= 0;
+      v = ((a ^ b) & (a ^ result)) < 0;
+    }
+    return result;
+  }
+
+  private int logical(Op op, int result) {
+    if (op.setFlags) {
+      n = result < 0;
+      z = result == 0;
+    }
+    return result;
+  }
+
+  private void smull(Op op) {
+    long product = (long) r[op.rm] * r[op.rs];
+    r[op.rd] = (int) product;
+    r[op.rn] = (int) (product >>> 32);
+    if (op.setFlags) {
+      n = product < 0;
+      z = product == 0;
+    }
+  }
+
+  /**
+   * Loads or stores a word or byte, LDRSB extending the sign of its byte
+   */
+  private void transfer(Op op) {
+    if (op.addressing == Addressing.LITERAL) {
+      set(op.rd, memory.loadLiteral(op.immediate));
+      return;
+    }
+    int base = r[op.rn];
+    int address = op.addressing == Addressing.POST_INDEXED
+        ? base : base + op.immediate;
+    switch (op.opcode) {
+      case LDR:
+        set(op.rd, memory.loadWord(address));
+        break;
+      case LDRB:
+        set(op.rd, memory.loadByte(address));
+        break;
+      case LDRSB:
+        set(op.rd, (byte) memory.loadByte(address));
+        break;
+      case STR:
+        memory.storeWord(address, r[op.rd]);
+        break;
+      default:
+        memory.storeByte(address, r[op.rd]);
+        break;
+    }
+    if (op.addressing != Addressing.OFFSET) {
+      r[op.rn] = base + op.immediate;
+    }
+  }
+
+  /**
+   * Stores the registers of mask below sp, the lowest numbered at the
+   * lowest address, as STMDB sp! does
+   */
+  private void push(int mask) {
+    int address = r[SP] - 4 * Integer.bitCount(mask);
+    r[SP] = address;
+    for (int i = 0; i < r.length; i++) {
+      if ((mask & 1 << i) != 0) {
+        memory.storeWord(address, r[i]);
+        address += 4;
+      }
+    }
+  }
+
+  private void pop(int mask) {
+    int address = r[SP];
+    r[SP] += 4 * Integer.bitCount(mask);
+    for (int i = 0; i < r.length; i++) {
+      if ((mask & 1 << i) != 0) {
+        set(i, memory.loadWord(address));
+        address += 4;
+      }
+    }
+  }
+
+  /**
+   * Branches within the program, or calls the C library and, for a branch
+   * without link, returns from there to lr as a tail call would
+   */
+  private void branch(Op op) {
+    if (op.opcode == Op.Opcode.BL) {
+      r[LR] = Program.TEXT_BASE + 4 * pc;
+    }
+    if (op.target >= 0) {
+      pc = op.target;
+      return;
+    }
+    libc.call(op.function, r, r[SP]);
+    if (op.opcode == Op.Opcode.B) {
+      jump(r[LR]);
+    }
+  }
+
+  private void set(int rd, int value) {
+    if (rd == PC) {
+      jump(value);
+    } else {
+      r[rd] = value;
+    }
+  }
+
+  private void jump(int address) {
+    if (address == EXIT_ADDRESS) {
+      pc = -1;
+      return;
+    }
+    int index = (address - Program.TEXT_BASE) / 4;
+    if (address % 4 != 0 || index < 0 || index >= code.length) {
+      throw new Memory.Fault(address);
+    }
+    pc = index;
+  }
+
+  /**
+   * Stops a program that has run for as many instructions as it may, with
+   * the exit code timeout gives
+   */
+  static class LimitReached extends Termination {
+    LimitReached(long limit) {
+      super(124, "Stopped after " + limit + " instructions");
+    }
+  }
+
+}
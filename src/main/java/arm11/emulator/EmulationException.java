@@ -0,0 +1,18 @@
+package arm11.emulator;
+
+/**
+ * Assembly that the emulator cannot load: a line it cannot parse, an
+ * instruction outside the subset it emulates or a call to a function that
+ * is neither defined nor one of its C library stubs
+ */
+public class EmulationException extends RuntimeException {
+
+  public EmulationException(String message) {
+    super(message);
+  }
+
+  EmulationException(int line, String message) {
+    super("line " + line + ": " + message);
+  }
+
+}
@@ -0,0 +1,43 @@
+package arm11.emulator;
+
+/**
+ * Runs the ARM11 assembly that the compiler emits without an ARM machine,
+ * covering the data processing, LDR, STR, LDRSB, PUSH, POP, branch and
+ * SMULL instructions under every condition code, and the C library calls
+ * of the runtime helpers through stubs
+ * The assembly is loaded once and can then be run any number of times,
+ * each run starting from fresh memory
+ */
+public final class Emulator {
+
+  /**
+   * Enough for every example program many times over, while still
+   * stopping one that loops forever within seconds
+   */
+  public static final long DEFAULT_INSTRUCTION_LIMIT = 200_000_000L;
+
+  private final Program program;
+  private final long instructionLimit;
+
+  public Emulator(String assembly) {
+    this(assembly, DEFAULT_INSTRUCTION_LIMIT);
+  }
+
+  public Emulator(String assembly, long instructionLimit) {
+    this.program = Program.load(assembly);
+    this.instructionLimit = instructionLimit;
+  }
+
+  /**
+   * Runs the program from main with input as its standard input
+   */
+  public Execution run(String input) {
+    Cpu cpu = new Cpu(program, input);
+    try {
+      return new Execution(cpu, cpu.run(instructionLimit), null);
+    } catch (Termination e) {
+      return new Execution(cpu, e.getExitCode(), e);
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+package arm11.emulator;
+
+/**
+ * The outcome of one run of a program: what it printed, how it ended and
+ * how much work it did on the way
+ */
+public final class Execution {
+
+  private final String output;
+  private final int exitCode;
+  private final String error;
+  private final boolean stopped;
+  private final long instructions;
+  private final long loads;
+  private final long stores;
+
+  Execution(Cpu cpu, int exitCode, Termination termination) {
+    this.output = cpu.getOutput();
+    this.exitCode = exitCode;
+    this.error = termination == null ? null : termination.getMessage();
+    this.stopped = termination instanceof Cpu.LimitReached;
+    this.instructions = cpu.getInstructions();
+    this.loads = cpu.getLoads();
+    this.stores = cpu.getStores();
+  }
+
+  /**
+   * Everything the program wrote to standard output
+   */
+  public String getOutput() {
+    return output;
+  }
+
+  /**
+   * The exit code a shell would see, 128 plus the signal for a program
+   * that faulted or aborted
+   */
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * Why the program stopped, if it did not exit by itself: a segmentation
+   * fault, an abort in free or the instruction limit, otherwise null
+   */
+  public String getError() {
+    return error;
+  }
+
+  /**
+   * Whether the program was stopped by the instruction limit before it
+   * could end by itself
+   */
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * The instructions executed, including those whose condition failed and
+   * one for each call to the C library
+   */
+  public long getInstructions() {
+    return instructions;
+  }
+
+  /**
+   * The loads of the program, one per word or byte, counting LDR = and
+   * each register popped
+   */
+  public long getLoads() {
+    return loads;
+  }
+
+  /**
+   * The stores of the program, one per word or byte, counting each
+   * register pushed
+   */
+  public long getStores() {
+    return stores;
+  }
+
+}
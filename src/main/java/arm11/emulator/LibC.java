@@ -0,0 +1,350 @@
+package arm11.emulator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stubs of the C library and EABI functions that generated code calls,
+ * taking their arguments from r0 to r3 and the stack and returning their
+ * results in r0 and r1
+ * Like real callees they leave garbage in the rest of r0 to r3 and r12,
+ * which the caller may not rely on after a call, so that code keeping a
+ * value there across a call goes wrong here too
+ * malloc hands out chunks the way glibc's does on the ARM11, starting at
+ * the bottom of the heap and reusing freed chunks of the same size last in
+ * first out, so that printed addresses match those of a real run
+ * The memory the stubs read and write is not counted as loads and stores
+ * of the program
+ */
+final class LibC {
+
+  enum Function {
+    PRINTF("printf"),
+    PUTS("puts"),
+    PUTCHAR("putchar"),
+    SCANF("scanf"),
+    FFLUSH("fflush"),
+    MALLOC("malloc"),
+    FREE("free"),
+    EXIT("exit"),
+    IDIV("__aeabi_idiv"),
+    IDIVMOD("__aeabi_idivmod");
+
+    private final String symbol;
+
+    Function(String symbol) {
+      this.symbol = symbol;
+    }
+
+    /**
+     * The function a symbol names, or null if it is not one of the stubs
+     */
+    static Function of(String symbol) {
+      for (Function function : values()) {
+        if (function.symbol.equals(symbol)) {
+          return function;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final int ABORT_EXIT_CODE = 128 + 6;
+  private static final int[] CALLER_SAVED = {0, 1, 2, 3, 12};
+  private static final int CLOBBERED = 0xdeadbeef;
+  private static final int CHUNK_HEADER = 8;
+  private static final int MIN_CHUNK = 16;
+  private static final int IN_USE = 1;
+  private static final int EOF = -1;
+  private static final Pattern CONVERSION
+      = Pattern.compile("%([-+ #0]*)(\\*|\\d*)(?:\\.(\\*|\\d*))?([a-z%])");
+
+  private final Memory memory;
+  private final String input;
+  private int inputAt;
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  private int heapTop;
+
+  /**
+   * The chunk of each size freed last, the first of a list
+   */
+  private final Map<Integer, Integer> freed = new HashMap<>();
+
+  LibC(Memory memory, String input) {
+    this.memory = memory;
+    this.input = input;
+    this.heapTop = memory.getHeapBase();
+  }
+
+  String getOutput() {
+    return new String(output.toByteArray(), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Calls function with the arguments in registers and sp, leaving its
+   * results in registers
+   */
+  void call(Function function, int[] registers, int sp) {
+    int results = compute(function, registers, sp);
+    for (int register : CALLER_SAVED) {
+      if (register >= results) {
+        registers[register] = CLOBBERED;
+      }
+    }
+  }
+
+  /**
+   * Leaves the results of function in the first registers and gives how
+   * many there are
+   */
+  private int compute(Function function, int[] registers, int sp) {
+    int r0 = registers[0];
+    int r1 = registers[1];
+    switch (function) {
+      case MALLOC:
+        registers[0] = malloc(r0);
+        return 1;
+      case FREE:
+        free(r0);
+        return 0;
+      case EXIT:
+        throw new Termination(r0 & 0xff, null);
+      case IDIV:
+        registers[0] = r1 == 0 ? 0 : r0 / r1;
+        return 1;
+      case IDIVMOD:
+        registers[0] = r1 == 0 ? 0 : r0 / r1;
+        registers[1] = r1 == 0 ? 0 : r0 % r1;
+        return 2;
+      default:
+        registers[0] = callIo(function, registers, sp);
+        return 1;
+    }
+  }
+
+  private int callIo(Function function, int[] registers, int sp) {
+    int r0 = registers[0];
+    switch (function) {
+      case PRINTF:
+        return print(format(memory.readString(r0, -1),
+                            new Arguments(registers, sp)));
+      case PUTS:
+        return print(memory.readString(r0, -1) + "\n");
+      case PUTCHAR:
+        output.write(r0);
+        return r0 & 0xff;
+      case SCANF:
+        return scan(memory.readString(r0, -1), new Arguments(registers, sp));
+      default:
+        return 0;
+    }
+  }
+
+  private int print(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+    output.write(bytes, 0, bytes.length);
+    return bytes.length;
+  }
+
+  /**
+   * Formats the %d, %i, %u, %x, %c, %s, %p and %% conversions of printf,
+   * with their flags, widths and precisions, including * for either
+   */
+  private String format(String format, Arguments arguments) {
+    StringBuilder sb = new StringBuilder();
+    Matcher matcher = CONVERSION.matcher(format);
+    int end = 0;
+    while (matcher.find()) {
+      sb.append(format, end, matcher.start());
+      int width = size(matcher.group(2), arguments);
+      int precision = matcher.group(3) == null
+          ? -1 : size(matcher.group(3), arguments);
+      sb.append(pad(convert(matcher.group(4).charAt(0), precision,
+                            arguments),
+                    matcher.group(1).indexOf('-') >= 0, width));
+      end = matcher.end();
+    }
+    return sb.append(format.substring(end)).toString();
+  }
+
+  private static int size(String size, Arguments arguments) {
+    return size.equals("*") ? arguments.next()
+        : size.isEmpty() ? 0 : Integer.parseInt(size);
+  }
+
+  private String convert(char conversion, int precision,
+                         Arguments arguments) {
+    switch (conversion) {
+      case 'd':
+      case 'i':
+        return Integer.toString(arguments.next());
+      case 'u':
+        return Integer.toUnsignedString(arguments.next());
+      case 'x':
+        return Integer.toHexString(arguments.next());
+      case 'c':
+        return String.valueOf((char) (arguments.next() & 0xff));
+      case 's':
+        return memory.readString(arguments.next(), precision);
+      case 'p':
+        int pointer = arguments.next();
+        return pointer == 0 ? "(nil)" : "0x" + Integer.toHexString(pointer);
+      default:
+        return String.valueOf(conversion);
+    }
+  }
+
+  private static String pad(String text, boolean left, int width) {
+    StringBuilder sb = new StringBuilder(text);
+    while (sb.length() < width) {
+      if (left) {
+        sb.append(' ');
+      } else {
+        sb.insert(0, ' ');
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Reads the %d and %c conversions of scanf from the input, skipping
+   * whitespace where the format has some and before numbers
+   * Returns the number of conversions stored, or EOF if the input ended
+   * before the first
+   */
+  private int scan(String format, Arguments arguments) {
+    int stored = 0;
+    for (int i = 0; i < format.length(); i++) {
+      char ch = format.charAt(i);
+      if (Character.isWhitespace(ch)) {
+        skipWhitespace();
+      } else if (ch == '%' && i + 1 < format.length()) {
+        char conversion = format.charAt(++i);
+        if (conversion == 'd') {
+          skipWhitespace();
+        }
+        if (inputAt == input.length()) {
+          return stored == 0 ? EOF : stored;
+        }
+        if (!store(conversion, arguments.next())) {
+          return stored;
+        }
+        stored++;
+      } else if (inputAt < input.length() && input.charAt(inputAt) == ch) {
+        inputAt++;
+      } else {
+        return stored;
+      }
+    }
+    return stored;
+  }
+
+  /**
+   * Reads a conversion from the input into address, unless the input does
+   * not match it
+   */
+  private boolean store(char conversion, int address) {
+    if (conversion != 'd') {
+      memory.writeByte(address, input.charAt(inputAt++));
+      return true;
+    }
+    Integer value = scanInt();
+    if (value != null) {
+      memory.writeWord(address, value);
+    }
+    return value != null;
+  }
+
+  private Integer scanInt() {
+    int start = inputAt;
+    if (input.charAt(inputAt) == '-' || input.charAt(inputAt) == '+') {
+      inputAt++;
+    }
+    int digits = inputAt;
+    while (inputAt < input.length()
+           && Character.isDigit(input.charAt(inputAt))) {
+      inputAt++;
+    }
+    if (inputAt == digits) {
+      inputAt = start;
+      return null;
+    }
+    return (int) Long.parseLong(input.substring(start, inputAt));
+  }
+
+  private void skipWhitespace() {
+    while (inputAt < input.length()
+           && Character.isWhitespace(input.charAt(inputAt))) {
+      inputAt++;
+    }
+  }
+
+  /**
+   * Reuses the chunk of the right size freed last, or takes a new one from
+   * the top of the heap, marking it in use in the size word of its header
+   */
+  private int malloc(int size) {
+    int chunkSize = Math.max(MIN_CHUNK, (size + 4 + 7) & ~7);
+    int chunk = freed.getOrDefault(chunkSize, 0);
+    if (chunk != 0) {
+      freed.put(chunkSize, memory.readWord(chunk + CHUNK_HEADER));
+    } else {
+      chunk = heapTop;
+      heapTop += chunkSize;
+      memory.growTo(heapTop + 4);
+    }
+    memory.writeWord(chunk + 4, chunkSize | IN_USE);
+    return chunk + CHUNK_HEADER;
+  }
+
+  /**
+   * Frees the chunk of pointer onto the list of freed chunks of its size,
+   * linking it to the next through its first word as glibc's fast bins do,
+   * or aborts as glibc would if malloc did not return pointer or its chunk
+   * is not in use
+   */
+  private void free(int pointer) {
+    if (pointer == 0) {
+      return;
+    }
+    int chunk = pointer - CHUNK_HEADER;
+    int header = chunk < memory.getHeapBase() || chunk >= heapTop
+                 || (chunk - memory.getHeapBase()) % 8 != 0
+                 ? 0 : memory.readWord(chunk + 4);
+    if ((header & IN_USE) == 0) {
+      throw new Termination(ABORT_EXIT_CODE, String.format(
+          "free(): double free or invalid pointer 0x%x", pointer));
+    }
+    int chunkSize = header & ~IN_USE;
+    memory.writeWord(chunk + 4, chunkSize);
+    memory.writeWord(pointer, freed.getOrDefault(chunkSize, 0));
+    freed.put(chunkSize, chunk);
+  }
+
+  /**
+   * The variable arguments of a call, which follow the first argument in
+   * r1 to r3 and then on the stack
+   */
+  private final class Arguments {
+    private final int[] registers;
+    private final int sp;
+    private int index = 1;
+
+    Arguments(int[] registers, int sp) {
+      this.registers = registers;
+      this.sp = sp;
+    }
+
+    int next() {
+      int argument = index < 4 ? registers[index]
+          : memory.readWord(sp + 4 * (index - 4));
+      index++;
+      return argument;
+    }
+  }
+
+}
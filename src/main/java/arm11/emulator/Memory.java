@@ -0,0 +1,159 @@
+package arm11.emulator;
+
+import java.util.Arrays;
+
+/**
+ * Little-endian, byte-addressed memory of an emulated program: its data
+ * section followed by the heap, which grows upwards, and its stack, which
+ * grows downwards from STACK_TOP
+ * Words need not be aligned, as the ARM11 allows
+ * Every load and store of the program is counted, one per word or byte
+ */
+class Memory {
+
+  static final int DATA_BASE = 0x11000;
+  private static final int HEAP_BASE = 0x12000;
+  static final int STACK_TOP = 0x7f000000;
+  private static final int STACK_SIZE = 8 << 20;
+  private static final int STACK_BASE = STACK_TOP - STACK_SIZE;
+  private static final int PAGE = 0x1000;
+  private static final int SEGMENTATION_FAULT_EXIT_CODE = 128 + 11;
+
+  private byte[] heap;
+  private final int heapBase;
+  private int heapTop;
+  private final byte[] stack = new byte[STACK_SIZE];
+  private long loads;
+  private long stores;
+
+  Memory(byte[] data) {
+    heap = Arrays.copyOf(data, 2 * PAGE + data.length);
+    heapBase = Math.max(HEAP_BASE,
+                        (DATA_BASE + data.length + PAGE - 1) / PAGE * PAGE);
+    heapTop = heapBase;
+  }
+
+  int getHeapBase() {
+    return heapBase;
+  }
+
+  /**
+   * Grows the heap, with bytes that start out zero, so that it ends at end
+   * or later, as sbrk does
+   */
+  void growTo(int end) {
+    heapTop = Math.max(heapTop, end);
+    if (heapTop - DATA_BASE > heap.length) {
+      heap = Arrays.copyOf(heap, Math.max(heapTop - DATA_BASE,
+                                          heap.length * 2));
+    }
+  }
+
+  int loadWord(int address) {
+    loads++;
+    return readWord(address);
+  }
+
+  /**
+   * Counts the load of a word from the literal pool, which holds the
+   * operand of LDR =, and returns the word
+   */
+  int loadLiteral(int value) {
+    loads++;
+    return value;
+  }
+
+  int loadByte(int address) {
+    loads++;
+    return read(address) & 0xff;
+  }
+
+  void storeWord(int address, int value) {
+    stores++;
+    write(address, (byte) value);
+    write(address + 1, (byte) (value >> 8));
+    write(address + 2, (byte) (value >> 16));
+    write(address + 3, (byte) (value >> 24));
+  }
+
+  void storeByte(int address, int value) {
+    stores++;
+    write(address, (byte) value);
+  }
+
+  /**
+   * Reads the bytes from address up to the first zero, as C strings are,
+   * or up to limit bytes if limit is not negative, without counting them
+   * as loads of the program
+   */
+  String readString(int address, int limit) {
+    StringBuilder sb = new StringBuilder();
+    for (int at = address; sb.length() != limit && read(at) != 0; at++) {
+      sb.append((char) (read(at) & 0xff));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Reads a word on behalf of the C library, without counting it as a load
+   * of the program
+   */
+  int readWord(int address) {
+    return (read(address) & 0xff) | (read(address + 1) & 0xff) << 8
+        | (read(address + 2) & 0xff) << 16 | read(address + 3) << 24;
+  }
+
+  /**
+   * Writes a word on behalf of the C library, without counting it as a
+   * store of the program
+   */
+  void writeWord(int address, int value) {
+    for (int i = 0; i < 4; i++) {
+      write(address + i, (byte) (value >> (8 * i)));
+    }
+  }
+
+  void writeByte(int address, int value) {
+    write(address, (byte) value);
+  }
+
+  long getLoads() {
+    return loads;
+  }
+
+  long getStores() {
+    return stores;
+  }
+
+  private byte read(int address) {
+    if (address >= STACK_BASE && address < STACK_TOP) {
+      return stack[address - STACK_BASE];
+    }
+    if (address >= DATA_BASE && address < heapTop) {
+      return heap[address - DATA_BASE];
+    }
+    throw new Fault(address);
+  }
+
+  private void write(int address, byte value) {
+    if (address >= STACK_BASE && address < STACK_TOP) {
+      stack[address - STACK_BASE] = value;
+    } else if (address >= DATA_BASE && address < heapTop) {
+      heap[address - DATA_BASE] = value;
+    } else {
+      throw new Fault(address);
+    }
+  }
+
+  /**
+   * An access outside the data section, heap and stack, which ends the
+   * program as a segmentation fault would
+   */
+  static class Fault extends Termination {
+    Fault(int address) {
+      super(SEGMENTATION_FAULT_EXIT_CODE,
+            String.format("Segmentation fault at 0x%x", address));
+    }
+  }
+
+}
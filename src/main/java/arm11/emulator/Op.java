@@ -0,0 +1,109 @@
+package arm11.emulator;
+
+/**
+ * One decoded instruction of the text section
+ * Which fields mean anything depends on the opcode: rd, rn and the second
+ * operand for data processing, rd and the address for loads and stores,
+ * the register mask for PUSH and POP and the target for branches
+ */
+final class Op {
+
+  enum Opcode {
+    MOV, MVN, ADD, SUB, RSB, AND, ORR, EOR, CMP, CMN, TST, TEQ, MUL, SMULL,
+    LDR, LDRB, LDRSB, STR, STRB, PUSH, POP, B, BL
+  }
+
+  enum Shift {
+    LSL, LSR, ASR, ROR
+  }
+
+  /**
+   * Where a load or store goes: the base register plus the offset, or the
+   * literal for LDR =
+   */
+  enum Addressing {
+    OFFSET, PRE_INDEXED, POST_INDEXED, LITERAL
+  }
+
+  final Opcode opcode;
+  final Cond cond;
+  final boolean setFlags;
+  final int line;
+
+  int rd;
+  int rn;
+
+  /**
+   * The register of the second operand, or -1 if it is the immediate
+   */
+  int rm = -1;
+  int rs;
+  int immediate;
+  Shift shift = Shift.LSL;
+  int shiftAmount;
+
+  Addressing addressing;
+  int registers;
+
+  /**
+   * The index of the instruction a branch goes to, or -1 if it calls the C
+   * library instead
+   */
+  int target = -1;
+  LibC.Function function;
+
+  Op(Opcode opcode, Cond cond, boolean setFlags, int line) {
+    this.opcode = opcode;
+    this.cond = cond;
+    this.setFlags = setFlags;
+    this.line = line;
+  }
+
+  /**
+   * The condition under which an instruction executes, given the N, Z, C
+   * and V flags
+   */
+  enum Cond {
+    EQ, NE, CS, CC, MI, PL, VS, VC, HI, LS, GE, LT, GT, LE, AL;
+
+    boolean holds(boolean n, boolean z, boolean c, boolean v) {
+      switch (this) {
+        case EQ: return z;
+        case NE: return !z;
+        case CS: return c;
+        case CC: return !c;
+        case MI: return n;
+        case PL: return !n;
+        case VS: return v;
+        case VC: return !v;
+        case HI: return c && !z;
+        case LS: return !c || z;
+        case GE: return n == v;
+        case LT: return n != v;
+        case GT: return !z && n == v;
+        case LE: return z || n != v;
+        default: return true;
+      }
+    }
+
+    /**
+     * The condition a suffix names, including the HS and LO aliases, or
+     * null if it names none
+     */
+    static Cond of(String suffix) {
+      switch (suffix) {
+        case "": return AL;
+        case "HS": return CS;
+        case "LO": return CC;
+        default:
+          for (Cond cond : values()) {
+            if (cond.name().equals(suffix)) {
+              return cond;
+            }
+          }
+          return null;
+      }
+    }
+  }
+
+}
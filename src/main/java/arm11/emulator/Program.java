@@ -0,0 +1,412 @@
+package arm11.emulator;
+
+import arm11.emulator.Op.Addressing;
+import arm11.emulator.Op.Cond;
+import arm11.emulator.Op.Opcode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An assembly program loaded for emulation: its decoded text section, the
+ * initial contents of its data section and the index of main
+ * Loading takes two passes, the first laying out the labels of both
+ * sections and the second decoding the instructions with every label
+ * known
+ * The text section starts at TEXT_BASE, one word per instruction, and the
+ * data section at Memory.DATA_BASE
+ */
+final class Program {
+
+  static final int TEXT_BASE = 0x8000;
+
+  private static final String ENTRY = "main";
+  private static final Opcode[] LONGEST_FIRST = Opcode.values().clone();
+
+  static {
+    Arrays.sort(LONGEST_FIRST,
+        Comparator.comparingInt((Opcode opcode) -> opcode.name().length())
+                  .reversed());
+  }
+
+  private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+  private final Map<String, Integer> textLabels = new HashMap<>();
+  private final Map<String, Integer> dataLabels = new HashMap<>();
+  private final List<String> instructions = new ArrayList<>();
+  private final List<Integer> lines = new ArrayList<>();
+  private Op[] decoded;
+
+  private Program() {
+  }
+
+  /**
+   * Loads assembly as the compiler emits it, throwing EmulationException
+   * for anything outside the subset the emulator covers
+   */
+  static Program load(String assembly) {
+    Program program = new Program();
+    program.layOut(assembly.split("\n"));
+    program.decodeAll();
+    return program;
+  }
+
+  Op[] getCode() {
+    return decoded;
+  }
+
+  byte[] getData() {
+    return data.toByteArray();
+  }
+
+  int getEntry() {
+    return textLabels.get(ENTRY);
+  }
+
+  private void layOut(String[] source) {
+    boolean text = true;
+    for (int i = 0; i < source.length; i++) {
+      String line = source[i].trim();
+      if (line.isEmpty() || line.startsWith("@")) {
+        continue;
+      }
+      if (line.endsWith(":")) {
+        String label = line.substring(0, line.length() - 1);
+        if (text) {
+          textLabels.put(label, instructions.size());
+        } else {
+          dataLabels.put(label, Memory.DATA_BASE + data.size());
+        }
+      } else if (line.equals(".data") || line.equals(".text")) {
+        text = line.equals(".text");
+      } else if (line.startsWith(".")) {
+        directive(line, i + 1);
+      } else if (text) {
+        instructions.add(line);
+        lines.add(i + 1);
+      } else {
+        throw new EmulationException(i + 1, "instruction in .data: " + line);
+      }
+    }
+    if (!textLabels.containsKey(ENTRY)) {
+      throw new EmulationException("no " + ENTRY + " label");
+    }
+  }
+
+  private void directive(String line, int number) {
+    String[] parts = line.split("\\s+", 2);
+    switch (parts[0]) {
+      case ".word":
+        int word = immediate(parts[1], number);
+        for (int i = 0; i < 4; i++) {
+          data.write(word >> (8 * i));
+        }
+        break;
+      case ".ascii":
+        String ascii = parts[1].trim();
+        for (char ch : unescape(ascii.substring(1, ascii.length() - 1),
+                                number).toCharArray()) {
+          data.write(ch);
+        }
+        break;
+      case ".global":
+      case ".ltorg":
+        break;
+      default:
+        throw new EmulationException(number, "unknown directive " + line);
+    }
+  }
+
+  private void decodeAll() {
+    decoded = new Op[instructions.size()];
+    for (int i = 0; i < decoded.length; i++) {
+      decoded[i] = decode(instructions.get(i), lines.get(i));
+    }
+  }
+
+  private Op decode(String instruction, int line) {
+    String[] parts = instruction.split("\\s+", 2);
+    Op op = mnemonic(parts[0].toUpperCase(), line);
+    List<String> operands = split(parts.length > 1 ? parts[1] : "");
+    switch (op.opcode) {
+      case MUL:
+      case SMULL:
+        multiply(op, operands);
+        break;
+      case LDR:
+      case LDRB:
+      case LDRSB:
+      case STR:
+      case STRB:
+        transfer(op, operands);
+        break;
+      case PUSH:
+      case POP:
+        op.registers = registerList(operands, line);
+        break;
+      case B:
+      case BL:
+        branch(op, operands);
+        break;
+      default:
+        dataProcessing(op, operands);
+        break;
+    }
+    return op;
+  }
+
+  private static void dataProcessing(Op op, List<String> operands) {
+    int first = register(operands, 0, op.line);
+    if (op.opcode == Opcode.MOV || op.opcode == Opcode.MVN) {
+      op.rd = first;
+      operand2(op, operands, 1);
+    } else if (compares(op.opcode)) {
+      op.rn = first;
+      operand2(op, operands, 1);
+    } else {
+      op.rd = first;
+      op.rn = register(operands, 1, op.line);
+      operand2(op, operands, 2);
+    }
+  }
+
+  /**
+   * Splits a mnemonic into its opcode, S suffix and condition, trying the
+   * longest opcodes first so that BLS is B with LS but BLEQ is BL with EQ
+   */
+  private static Op mnemonic(String mnemonic, int line) {
+    for (Opcode opcode : LONGEST_FIRST) {
+      if (!mnemonic.startsWith(opcode.name())) {
+        continue;
+      }
+      String suffix = mnemonic.substring(opcode.name().length());
+      boolean setFlags = suffix.startsWith("S") && canSetFlags(opcode);
+      Cond cond = Cond.of(setFlags ? suffix.substring(1) : suffix);
+      if (cond != null) {
+        return new Op(opcode, cond, setFlags || compares(opcode), line);
+      }
+    }
+    throw new EmulationException(line, "unknown instruction " + mnemonic);
+  }
+
+  private static boolean canSetFlags(Opcode opcode) {
+    return opcode.compareTo(Opcode.SMULL) <= 0 && !compares(opcode);
+  }
+
+  private static boolean compares(Opcode opcode) {
+    return opcode == Opcode.CMP || opcode == Opcode.CMN
+        || opcode == Opcode.TST || opcode == Opcode.TEQ;
+  }
+
+  /**
+   * The immediate, or the register with an optional shift by a constant,
+   * that starts at from
+   */
+  private static void operand2(Op op, List<String> operands, int from) {
+    String first = operand(operands, from, op.line);
+    if (first.startsWith("#")) {
+      op.immediate = immediate(first.substring(1), op.line);
+      return;
+    }
+    op.rm = register(operands, from, op.line);
+    if (operands.size() > from + 1) {
+      String[] shift = operands.get(from + 1).split("\\s+");
+      if (shift.length != 2 || !shift[1].startsWith("#")) {
+        throw new EmulationException(op.line, "unsupported shift "
+                                              + operands.get(from + 1));
+      }
+      try {
+        op.shift = Op.Shift.valueOf(shift[0].toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new EmulationException(op.line, "unknown shift " + shift[0]);
+      }
+      op.shiftAmount = immediate(shift[1].substring(1), op.line);
+    }
+  }
+
+  private static void multiply(Op op, List<String> operands) {
+    op.rd = register(operands, 0, op.line);
+    if (op.opcode == Opcode.SMULL) {
+      op.rn = register(operands, 1, op.line);
+      op.rm = register(operands, 2, op.line);
+      op.rs = register(operands, 3, op.line);
+    } else {
+      op.rm = register(operands, 1, op.line);
+      op.rs = register(operands, 2, op.line);
+    }
+  }
+
+  /**
+   * The register to load or store and its address: the literal of LDR =,
+   * or a base register with an immediate offset that may be written back
+   * before or after the access
+   */
+  private void transfer(Op op, List<String> operands) {
+    op.rd = register(operands, 0, op.line);
+    String address = operand(operands, 1, op.line);
+    if (address.startsWith("=")) {
+      op.addressing = Addressing.LITERAL;
+      op.immediate = literal(address.substring(1), op.line);
+      return;
+    }
+    op.addressing = operands.size() > 2 ? Addressing.POST_INDEXED
+        : address.endsWith("!") ? Addressing.PRE_INDEXED
+        : Addressing.OFFSET;
+    if (!address.startsWith("[")) {
+      throw new EmulationException(op.line, "bad address " + address);
+    }
+    List<String> inside = split(address.substring(
+        1, address.lastIndexOf(']')));
+    op.rn = register(inside, 0, op.line);
+    String offset = op.addressing == Addressing.POST_INDEXED
+        ? operands.get(2) : inside.size() > 1 ? inside.get(1) : "#0";
+    if (!offset.startsWith("#")) {
+      throw new EmulationException(op.line, "unsupported offset " + offset);
+    }
+    op.immediate = immediate(offset.substring(1), op.line);
+  }
+
+  private int literal(String value, int line) {
+    if (dataLabels.containsKey(value)) {
+      return dataLabels.get(value);
+    }
+    if (textLabels.containsKey(value)) {
+      return TEXT_BASE + 4 * textLabels.get(value);
+    }
+    return immediate(value, line);
+  }
+
+  private void branch(Op op, List<String> operands) {
+    String label = operand(operands, 0, op.line);
+    if (textLabels.containsKey(label)) {
+      op.target = textLabels.get(label);
+    } else {
+      op.function = LibC.Function.of(label);
+      if (op.function == null) {
+        throw new EmulationException(op.line, "undefined function " + label);
+      }
+    }
+  }
+
+  private static int registerList(List<String> operands, int line) {
+    String list = String.join(",", operands).trim();
+    if (!list.startsWith("{") || !list.endsWith("}")) {
+      throw new EmulationException(line, "bad register list " + list);
+    }
+    int mask = 0;
+    List<String> names = split(list.substring(1, list.length() - 1));
+    for (int i = 0; i < names.size(); i++) {
+      mask |= 1 << register(names, i, line);
+    }
+    return mask;
+  }
+
+  private static int register(List<String> operands, int index, int line) {
+    String name = operand(operands, index, line).toLowerCase();
+    switch (name) {
+      case "fp":
+        return 11;
+      case "ip":
+        return 12;
+      case "sp":
+        return Cpu.SP;
+      case "lr":
+        return Cpu.LR;
+      case "pc":
+        return Cpu.PC;
+      default:
+        if (name.matches("r(1[0-5]|[0-9])")) {
+          return Integer.parseInt(name.substring(1));
+        }
+        throw new EmulationException(line, "bad register " + name);
+    }
+  }
+
+  private static String operand(List<String> operands, int index,
+                                int line) {
+    if (index >= operands.size()) {
+      throw new EmulationException(line, "missing operand");
+    }
+    return operands.get(index);
+  }
+
+  /**
+   * A number, decimal or hexadecimal, or a character in single quotes
+   */
+  private static int immediate(String value, int line) {
+    String trimmed = value.trim();
+    try {
+      if (trimmed.startsWith("'") && trimmed.endsWith("'")
+          && trimmed.length() > 2) {
+        String chr = unescape(trimmed.substring(1, trimmed.length() - 1),
+                              line);
+        if (chr.length() == 1) {
+          return chr.charAt(0);
+        }
+      }
+      return (int) (long) Long.decode(trimmed);
+    } catch (NumberFormatException e) {
+      throw new EmulationException(line, "bad immediate " + value);
+    }
+  }
+
+  /**
+   * Replaces the escapes of the assembler's strings and characters with
+   * the characters they stand for
+   */
+  private static String unescape(String text, int line) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      char ch = text.charAt(i);
+      if (ch != '\\') {
+        sb.append(ch);
+      } else if (++i < text.length()) {
+        int escape = "0btnfr\"'\\".indexOf(text.charAt(i));
+        if (escape < 0) {
+          throw new EmulationException(line, "bad escape in " + text);
+        }
+        sb.append("\0\b\t\n\f\r\"'\\".charAt(escape));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Splits operands at the commas that are not inside brackets, braces or
+   * quotes, trimming each
+   */
+  private static List<String> split(String operands) {
+    List<String> parts = new ArrayList<>();
+    int depth = 0;
+    boolean quoted = false;
+    int start = 0;
+    for (int i = 0; i < operands.length(); i++) {
+      char ch = operands.charAt(i);
+      if (quoted) {
+        if (ch == '\\') {
+          i++;
+        } else if (ch == '\'') {
+          quoted = false;
+        }
+      } else if (ch == '\'') {
+        quoted = true;
+      } else if (ch == '[' || ch == '{') {
+        depth++;
+      } else if (ch == ']' || ch == '}') {
+        depth--;
+      } else if (ch == ',' && depth == 0) {
+        parts.add(operands.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    if (start < operands.length()) {
+      parts.add(operands.substring(start).trim());
+    }
+    return parts;
+  }
+
+}
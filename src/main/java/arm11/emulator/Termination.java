@@ -0,0 +1,20 @@
+package arm11.emulator;
+
+/**
+ * Ends the emulated program where it is, with the exit code a shell would
+ * see and the reason, if the program did not exit by itself
+ */
+class Termination extends RuntimeException {
+
+  private final int exitCode;
+
+  Termination(int exitCode, String reason) {
+    super(reason, null, false, false);
+    this.exitCode = exitCode;
+  }
+
+  int getExitCode() {
+    return exitCode;
+  }
+
+}
@@ -2,35 +2,43 @@ package bindings;
 
 public class ArrayType extends Type {
 
-  private Type base;
-  private int dimensionality;
-  private boolean generic = true;
+  private final Type base;
+  private final int dimensionality;
+  private final boolean generic;
+  private String string;
+
+  ArrayType(int id) {
+    super(Types.GENERIC_ARRAY_T, id);
+    this.base = null;
+    this.dimensionality = 0;
+    this.generic = true;
+  }
 
-  public ArrayType() {
-    super(Types.GENERIC_ARRAY_T);
+  ArrayType(Type base, int dimensionality, int id) {
+    super(base.getName(), id);
+    assert dimensionality > 0 : "Dimensionality must be greater than 0";
+    this.generic = false;
+    this.dimensionality = dimensionality;
+    this.base = base;
   }
 
-  public ArrayType(Type base) {
-    // Created array from type
-    // T -> T[], or T[] -> T[][]
+  /**
+   * The array of elements of type base
+   * T -> T[], or T[] -> T[][]
+   */
+  public static ArrayType of(Type base) {
+    return TypeTable.array(base, 1);
+  }
 
-    super(base.getName());
-    generic = false;
-    this.dimensionality = 1;
-    if (base instanceof ArrayType) {
-      this.dimensionality += ((ArrayType) base).getDimensionality();
-      this.base = ((ArrayType) base).base;
-    } else {
-      this.base = base;
-    }
+  public static ArrayType of(Type base, int dimensionality) {
+    return TypeTable.array(base, dimensionality);
   }
 
-  public ArrayType(Type base, int dimensionality) {
-    super(base.getName());
-    assert dimensionality > 0 : "Dimensionality must be greater than 0";
-    generic = false;
-    this.dimensionality = dimensionality;
-    this.base = base;
+  /**
+   * The type of an empty array literal, equal to every array
+   */
+  public static ArrayType generic() {
+    return (ArrayType) Type.of(Types.GENERIC_ARRAY_T);
   }
 
   public static boolean isArray(Type type) {
@@ -41,12 +49,13 @@ public class ArrayType extends Type {
   }
 
   public static boolean isCharArray(Type type) {
-    if (type == null) {
-      return false;
-    }
     return (type instanceof ArrayType) && Type.isChar(((ArrayType) type).base);
   }
 
+  boolean isGeneric() {
+    return generic;
+  }
+
   @Override
   public String toString() {
 
@@ -54,8 +63,14 @@ public class ArrayType extends Type {
       return super.toString();
     }
 
-    String brackets = new String(new char[dimensionality]).replace("\0", "[]");
-    return base.toString() + brackets;
+    if (string == null) {
+      StringBuilder sb = new StringBuilder(base.toString());
+      for (int i = 0; i < dimensionality; i++) {
+        sb.append("[]");
+      }
+      string = sb.toString();
+    }
+    return string;
   }
 
   @Override
@@ -79,7 +94,7 @@ public class ArrayType extends Type {
     if (dimensionality == 0) {
       return base;
     } else {
-      return new ArrayType(base, dimensionality);
+      return of(base, dimensionality);
     }
   }
 
@@ -93,7 +108,7 @@ public class ArrayType extends Type {
     if (this == o) {
       return true;
     }
-    if (o == null || getClass() != o.getClass()) {
+    if (!(o instanceof ArrayType)) {
       //Check if current array is a char array && object is a string
       return isCharArray(this)
           && o instanceof Type
@@ -115,9 +130,6 @@ public class ArrayType extends Type {
 
   @Override
   public int hashCode() {
-    int result = super.hashCode();
-    result = 31 * result + (base != null ? base.hashCode() : 0);
-    result = 31 * result + dimensionality;
-    return result;
+    return super.hashCode();
   }
 }
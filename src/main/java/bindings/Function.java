@@ -2,22 +2,26 @@ package bindings;
 
 import wacc.SymbolTable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Function extends NewScope {
 
   private Type type;
   private List<Variable> params;
+  private final List<Type> paramTypes;
 
   public Function(Type type, String name, List<Variable> params,
                   SymbolTable<String, Binding> symbolTable) {
     super(name, symbolTable);
     this.params = params;
     this.type = type;
-  }
-
-  public Function() {
-    super("dummy", new SymbolTable<String, Binding>());
+    List<Type> types = new ArrayList<>(params.size());
+    for (Variable param : params) {
+      types.add(param.getType());
+    }
+    this.paramTypes = Collections.unmodifiableList(types);
   }
 
   public Type getType() {
@@ -28,6 +32,13 @@ public class Function extends NewScope {
     return params;
   }
 
+  /**
+   * The types of the parameters, in order
+   */
+  public List<Type> getParamTypes() {
+    return paramTypes;
+  }
+
   @Override
   public String toString() {
 
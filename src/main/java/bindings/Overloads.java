@@ -0,0 +1,51 @@
+package bindings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every function declared with one name, in the order they were declared,
+ * and indexed by the number of parameters they take
+ */
+public class Overloads extends Binding {
+
+  private final List<Function> functions = new ArrayList<>();
+  private final Map<Integer, List<Function>> byArity = new HashMap<>();
+
+  public Overloads(String name) {
+    super(name);
+  }
+
+  /**
+   * Adds a function, replacing one declared before with the same
+   * parameter types
+   */
+  public void add(Function function) {
+    int arity = function.getParams().size();
+    List<Function> sameArity
+        = byArity.computeIfAbsent(arity, a -> new ArrayList<>());
+    for (int i = 0; i < sameArity.size(); i++) {
+      Function declared = sameArity.get(i);
+      if (declared.getName().equals(function.getName())) {
+        sameArity.set(i, function);
+        functions.set(functions.indexOf(declared), function);
+        return;
+      }
+    }
+    sameArity.add(function);
+    functions.add(function);
+  }
+
+  public List<Function> getAll() {
+    return functions;
+  }
+
+  public List<Function> withArity(int arity) {
+    List<Function> sameArity = byArity.get(arity);
+    return sameArity != null ? sameArity : Collections.emptyList();
+  }
+
+}
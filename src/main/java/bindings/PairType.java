@@ -2,31 +2,49 @@ package bindings;
 
 public class PairType extends Type {
 
-  private Type fst, snd;
-  private boolean generic = true;
-
-  public PairType() {
-    super(Types.PAIR_T);
+  private final Type fst, snd;
+  private final boolean generic;
+  private String string;
+
+  PairType(int id) {
+    super(Types.PAIR_T, id);
+    this.fst = null;
+    this.snd = null;
+    this.generic = true;
   }
 
-  public PairType(Type fst, Type snd) {
-    this();
-    generic = false;
+  PairType(Type fst, Type snd, int id) {
+    super(Types.PAIR_T, id);
+    this.generic = false;
     this.fst = fst;
     this.snd = snd;
   }
 
+  public static PairType of(Type fst, Type snd) {
+    return TypeTable.pair(fst, snd);
+  }
+
+  /**
+   * The type of null, equal to every pair
+   */
+  public static PairType generic() {
+    return (PairType) Type.of(Types.PAIR_T);
+  }
+
   @Override
   public String toString() {
     if (generic) {
       return super.toString();
     }
 
-    String fstString = fst.toString();
+    if (string == null) {
+      String fstString = fst.toString();
 
-    String sndString = snd.toString();
+      String sndString = snd.toString();
 
-    return super.toString() + "(" + fstString + ", " + sndString + ")";
+      string = super.toString() + "(" + fstString + ", " + sndString + ")";
+    }
+    return string;
   }
 
   @Override
@@ -56,7 +74,7 @@ public class PairType extends Type {
     if (this == o) {
       return true;
     }
-    if (o == null || getClass() != o.getClass()) {
+    if (!(o instanceof PairType)) {
       return false;
     }
 
@@ -2,27 +2,28 @@ package bindings;
 
 public class PointerType extends Type {
 
-  private Type base;
-  private int dimensionality;
+  private final Type base;
+  private final int dimensionality;
+  private String string;
 
-  public PointerType(Type base) {
-    super(base.getName());
-    this.dimensionality = 1;
-    if (base instanceof PointerType) {
-      this.dimensionality += ((PointerType) base).getDimensionality();
-      this.base = ((PointerType) base).base;
-    } else {
-      this.base = base;
-    }
-  }
-
-  public PointerType(Type base, int dimensionality) {
-    super(base.getName());
+  PointerType(Type base, int dimensionality, int id) {
+    super(base.getName(), id);
     assert dimensionality > 0 : "Dimensionality must be greater than 0";
     this.dimensionality = dimensionality;
     this.base = base;
   }
 
+  /**
+   * The pointer to a value of type base
+   * T -> T*, or T* -> T**
+   */
+  public static PointerType of(Type base) {
+    return TypeTable.pointer(base, 1);
+  }
+
+  public static PointerType of(Type base, int dimensionality) {
+    return TypeTable.pointer(base, dimensionality);
+  }
 
   public int getDimensionality() {
     return dimensionality;
@@ -40,14 +41,33 @@ public class PointerType extends Type {
     if (dimensionality == 0) {
       return base;
     } else {
-      return new PointerType(base, dimensionality);
+      return of(base, dimensionality);
     }
   }
 
+  /**
+   * The type of a value of type pointer dereferenced count times, or the
+   * pointer type itself if it cannot be dereferenced that often
+   */
+  public static Type dereference(Type pointer, int count) {
+    PointerType pointerType = (PointerType) pointer;
+    int totalDim = pointerType.getDimensionality();
+    if (count <= totalDim) {
+      return createPointer(pointerType.getBase(), totalDim - count);
+    }
+    return pointer;
+  }
+
   @Override
   public String toString() {
-    String asterisks = new String(new char[dimensionality]).replace("\0", "*");
-    return base.toString() + asterisks;
+    if (string == null) {
+      StringBuilder sb = new StringBuilder(base.toString());
+      for (int i = 0; i < dimensionality; i++) {
+        sb.append('*');
+      }
+      string = sb.toString();
+    }
+    return string;
   }
 
   @Override
@@ -70,9 +90,6 @@ public class PointerType extends Type {
 
   @Override
   public int hashCode() {
-    int result = super.hashCode();
-    result = 31 * result + (base != null ? base.hashCode() : 0);
-    result = 31 * result + dimensionality;
-    return result;
+    return super.hashCode();
   }
 }
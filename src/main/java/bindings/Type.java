@@ -3,25 +3,41 @@ package bindings;
 public class Type extends Binding {
 
   public static final int SIZE_OF_ADDRESS = 4;
+  private final int id;
   private Integer min, max;
 
   private int size;
 
-  protected Type(String name) {
+  Type(String name, int id) {
     super(name);
+    this.id = id;
   }
 
-  public Type(Types type) {
-    this(type.toString());
+  Type(Types type, int id) {
+    this(type.toString(), id);
     size = type.getSize();
   }
 
-  public Type(Types type, int min, int max) {
-    this(type);
+  Type(Types type, int min, int max, int id) {
+    this(type, id);
     this.min = min;
     this.max = max;
   }
 
+  /**
+   * The canonical instance of a base type
+   */
+  public static Type of(Types type) {
+    return TypeTable.base(type);
+  }
+
+  /**
+   * Small number that identifies this type among all the canonical types
+   */
+  public int getId() {
+    return id;
+  }
+
   public int getMin() {
     return min;
   }
@@ -35,23 +51,19 @@ public class Type extends Binding {
   }
 
   public static boolean isInt(Type type) {
-    return type != null && type.equals(new Type(Types.INT_T));
+    return type == of(Types.INT_T);
   }
 
   public static boolean isBool(Type type) {
-    return type != null && type.equals(new Type(Types.BOOL_T));
+    return type == of(Types.BOOL_T);
   }
 
   public static boolean isChar(Type type) {
-    return type != null && type.equals(new Type(Types.CHAR_T));
+    return type == of(Types.CHAR_T);
   }
 
   public static boolean isString(Type type) {
-    if (type == null) {
-      return false;
-    }
-    return (ArrayType.isCharArray(type)
-        || Types.STRING_T.isEqualTo(type.toString()));
+    return type == of(Types.STRING_T) || ArrayType.isCharArray(type);
   }
 
   @Override
@@ -66,24 +78,21 @@ public class Type extends Binding {
     return getName();
   }
 
+  /**
+   * Types are canonical, so distinct instances are only equal where the
+   * language lets one type stand for another, as char[] does for string
+   */
   @Override
   public boolean equals(Object o) {
-
-    if (o instanceof  Type) {
-      Type type = (Type) o;
-
-      if (isString(this) && isString(type)) {
-        return true;
-      }
+    if (this == o) {
+      return true;
     }
-
-    return super.equals(o);
-
+    return o instanceof Type && isString(this) && isString((Type) o);
   }
 
   @Override
   public int hashCode() {
-    return super.hashCode();
+    return id;
   }
 
 }
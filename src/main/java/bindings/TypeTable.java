@@ -0,0 +1,138 @@
+package bindings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * The canonical instance of every distinct type
+ * Types are only ever created here, each with a small id of its own, so
+ * two types are the same type exactly when they are the same object
+ * The table is shared by every compilation and safe to use from any
+ * number of threads
+ */
+final class TypeTable {
+
+  private static final int NONE = -1;
+
+  private static final AtomicInteger IDS = new AtomicInteger();
+  private static final Type[] BASE_TYPES = createBaseTypes();
+  private static final ConcurrentMap<Key, Type> COMPOSITE_TYPES
+      = new ConcurrentHashMap<>();
+
+  private TypeTable() {
+  }
+
+  private static Type[] createBaseTypes() {
+    Type[] types = new Type[Types.values().length];
+    for (Types type : Types.values()) {
+      types[type.ordinal()] = createBaseType(type, IDS.getAndIncrement());
+    }
+    return types;
+  }
+
+  private static Type createBaseType(Types type, int id) {
+    switch (type) {
+      case INT_T:
+        return new Type(type, Integer.MIN_VALUE, Integer.MAX_VALUE, id);
+      case BOOL_T:
+        return new Type(type, 0, 1, id);
+      case CHAR_T:
+        return new Type(type, 0, 255, id);
+      case PAIR_T:
+        return new PairType(id);
+      case GENERIC_ARRAY_T:
+        return new ArrayType(id);
+      default:
+        return new Type(type, id);
+    }
+  }
+
+  static Type base(Types type) {
+    return BASE_TYPES[type.ordinal()];
+  }
+
+  /**
+   * Arrays of arrays are flattened into a single array of the innermost
+   * base type
+   */
+  static ArrayType array(Type base, int dimensionality) {
+    if (base instanceof ArrayType && !((ArrayType) base).isGeneric()) {
+      ArrayType array = (ArrayType) base;
+      return array(array.getBase(),
+                   array.getDimensionality() + dimensionality);
+    }
+    return (ArrayType) intern(Kind.ARRAY, base, dimensionality,
+                              id -> new ArrayType(base, dimensionality, id));
+  }
+
+  static PairType pair(Type fst, Type snd) {
+    return (PairType) intern(Kind.PAIR, fst, idOf(snd),
+                             id -> new PairType(fst, snd, id));
+  }
+
+  /**
+   * Pointers to pointers are flattened into a single pointer to the
+   * innermost base type
+   */
+  static PointerType pointer(Type base, int dimensionality) {
+    if (base instanceof PointerType) {
+      PointerType pointer = (PointerType) base;
+      return pointer(pointer.getBase(),
+                     pointer.getDimensionality() + dimensionality);
+    }
+    return (PointerType) intern(Kind.POINTER, base, dimensionality,
+                                id -> new PointerType(base, dimensionality,
+                                                      id));
+  }
+
+  private static Type intern(Kind kind, Type first, int second,
+                             IntFunction<Type> create) {
+    Key key = new Key(kind, idOf(first), second);
+    Type type = COMPOSITE_TYPES.get(key);
+    if (type != null) {
+      return type;
+    }
+    return COMPOSITE_TYPES.computeIfAbsent(
+        key, k -> create.apply(IDS.getAndIncrement()));
+  }
+
+  private static int idOf(Type type) {
+    return type != null ? type.getId() : NONE;
+  }
+
+  private enum Kind {
+    ARRAY, PAIR, POINTER
+  }
+
+  /**
+   * The kind of a composite type and the ids or sizes it is made of
+   */
+  private static final class Key {
+    private final Kind kind;
+    private final int first;
+    private final int second;
+
+    Key(Kind kind, int first, int second) {
+      this.kind = kind;
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return kind == key.kind && first == key.first && second == key.second;
+    }
+
+    @Override
+    public int hashCode() {
+      return (kind.ordinal() * 31 + first) * 31 + second;
+    }
+  }
+
+}
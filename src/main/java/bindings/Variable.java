@@ -4,6 +4,7 @@ public class Variable extends Binding {
 
   private Type type;
   private boolean isParam;
+  private boolean isAddressTaken;
 
   // TODO: finalise?
   private long offset;
@@ -41,4 +42,16 @@ public class Variable extends Binding {
   public boolean isParam(){
     return isParam;
   }
+
+  /**
+   * Marks the variable as having its address taken, so that it has to be
+   * kept in its slot rather than in a register
+   */
+  public void setAddressTaken() {
+    isAddressTaken = true;
+  }
+
+  public boolean isAddressTaken() {
+    return isAddressTaken;
+  }
 }
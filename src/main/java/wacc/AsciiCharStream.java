@@ -0,0 +1,177 @@
+package wacc;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Source text held as the bytes it was read as, one character per byte,
+ * instead of being copied into a char[] the way ANTLRInputStream does
+ * Only sources that are entirely ASCII can be held this way; the factory
+ * methods give any other source as an ANTLRInputStream, decoded as it
+ * always was, which the compiler lexes with the generated WACCLexer
+ */
+public class AsciiCharStream implements CharStream {
+
+  /**
+   * Files at least this long are memory-mapped rather than read
+   */
+  static final int MAP_THRESHOLD = 64 * 1024;
+
+  private final ByteBuffer bytes;
+  private final int size;
+  private final String name;
+  private int index;
+
+  AsciiCharStream(ByteBuffer bytes, String name) {
+    this.bytes = bytes;
+    this.size = bytes.limit();
+    this.name = name;
+  }
+
+  public static CharStream open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file,
+                                                StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large to compile");
+      }
+      ByteBuffer bytes;
+      if (length >= MAP_THRESHOLD) {
+        bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      } else {
+        bytes = ByteBuffer.allocate((int) length);
+        while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+          continue;
+        }
+        bytes.flip();
+      }
+      return of(bytes, file.toString());
+    }
+  }
+
+  public static CharStream read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+      out.write(buffer, 0, n);
+    }
+    return of(ByteBuffer.wrap(out.toByteArray()), null);
+  }
+
+  public static CharStream of(byte[] source) {
+    return of(ByteBuffer.wrap(source), null);
+  }
+
+  public static CharStream of(String source) {
+    byte[] ascii = new byte[source.length()];
+    for (int i = 0; i < ascii.length; i++) {
+      char c = source.charAt(i);
+      if (c >= 0x80) {
+        return new ANTLRInputStream(source);
+      }
+      ascii[i] = (byte) c;
+    }
+    return new AsciiCharStream(ByteBuffer.wrap(ascii), null);
+  }
+
+  private static CharStream of(ByteBuffer bytes, String name) {
+    for (int i = bytes.position(); i < bytes.limit(); i++) {
+      if (bytes.get(i) < 0) {
+        byte[] copy = new byte[bytes.remaining()];
+        bytes.duplicate().get(copy);
+        ANTLRInputStream decoded = new ANTLRInputStream(
+            new String(copy, WACCCompile.OUTPUT_CHARSET));
+        decoded.name = name;
+        return decoded;
+      }
+    }
+    return new AsciiCharStream(bytes.slice(), name);
+  }
+
+  /**
+   * The character at i, which must be less than size()
+   */
+  int charAt(int i) {
+    return bytes.get(i);
+  }
+
+  @Override
+  public void consume() {
+    if (index >= size) {
+      throw new IllegalStateException("cannot consume EOF");
+    }
+    index++;
+  }
+
+  @Override
+  public int LA(int i) {
+    if (i == 0) {
+      return 0;
+    }
+    int at = i < 0 ? index + i : index + i - 1;
+    if (at < 0 || at >= size) {
+      return IntStream.EOF;
+    }
+    return bytes.get(at);
+  }
+
+  @Override
+  public int mark() {
+    return -1;
+  }
+
+  @Override
+  public void release(int marker) {
+  }
+
+  @Override
+  public int index() {
+    return index;
+  }
+
+  @Override
+  public void seek(int index) {
+    this.index = Math.min(index, size);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String getSourceName() {
+    return name == null ? IntStream.UNKNOWN_SOURCE_NAME : name;
+  }
+
+  @Override
+  public String getText(Interval interval) {
+    int start = interval.a;
+    int stop = Math.min(interval.b, size - 1);
+    if (start >= size || stop < start) {
+      return "";
+    }
+    byte[] text = new byte[stop - start + 1];
+    ByteBuffer range = bytes.duplicate();
+    range.position(start);
+    range.get(text);
+    return new String(text, StandardCharsets.US_ASCII);
+  }
+
+  @Override
+  public String toString() {
+    return getText(Interval.of(0, size - 1));
+  }
+
+}
@@ -0,0 +1,39 @@
+package wacc;
+
+import arm11.Label;
+import wacc.ast.ASTNode;
+import wacc.ast.ASTProgramNode;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static arm11.InstructionFactory.createGlobal;
+import static arm11.InstructionFactory.createText;
+
+/**
+ * Writes the assembly of a program one function at a time, so that only
+ * the instructions of the function being generated are held in memory
+ * The helpers and the data section are only complete once every function
+ * has been generated, so they come last rather than first
+ */
+class AssemblyEmitter {
+
+  private AssemblyEmitter() {
+  }
+
+  static void emit(ASTProgramNode program, CodeGenerator generator,
+                   Writer out)
+      throws IOException {
+    Label mainLabel = new Label(WACCVisitor.Scope.MAIN.toString());
+    out.append(createText().printInstruction()).append('\n')
+       .append(createGlobal(mainLabel).printInstruction()).append('\n');
+
+    for (ASTNode unit : ProgramUnits.of(program)) {
+      generator.generateUnit(unit).writeTo(out);
+    }
+
+    generator.generateRuntime().writeTo(out);
+    out.append('\n');
+  }
+
+}
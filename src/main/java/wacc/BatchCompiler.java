@@ -0,0 +1,276 @@
+package wacc;
+
+import org.antlr.v4.runtime.CharStream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles many .wacc files concurrently inside one JVM
+ * Directories are searched recursively; every file gets its own .s file
+ * (mirroring the directory layout under the output directory), its own
+ * errors and its own exit code
+ * With a DFA snapshot, the parser starts from the snapshot and the states
+ * it has built by the end are saved back to it, so compiling a corpus
+ * trains the snapshot for later runs
+ */
+public class BatchCompiler {
+
+  static final String BATCH_FLAG = "--batch";
+
+  private static final String THREADS_FLAG = "-j";
+  private static final String OUTPUT_FLAG = "-o";
+  private static final String CACHE_FLAG = "-c";
+  private static final String DFA_FLAG = "-d";
+  private static final String SOURCE_EXTENSION = ".wacc";
+  private static final String ASSEMBLY_EXTENSION = ".s";
+  private static final int INTERNAL_ERROR_EXIT_CODE = 1;
+  private static final String USAGE = "Usage: " + BATCH_FLAG + " ["
+      + THREADS_FLAG + " threads] [" + OUTPUT_FLAG + " outputDir] ["
+      + CACHE_FLAG + " cacheDir] [" + DFA_FLAG
+      + " dfaSnapshot] (file.wacc | directory)...";
+
+  private WACCCompiler compiler = new WACCCompiler();
+  private OutputCache outputCache;
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private Path outputDir = Paths.get(".");
+  private Path dfaSnapshot;
+
+  /**
+   * Compiles every source named by args and reports each file's exit code
+   * followed by the aggregate throughput
+   * Returns 1 if any file could not be compiled at all, and otherwise the
+   * highest exit code of any file
+   */
+  public int run(String[] args) throws IOException, InterruptedException {
+    List<Source> sources = parseArguments(args);
+    if (sources == null) {
+      System.err.println(USAGE);
+      return INTERNAL_ERROR_EXIT_CODE;
+    }
+
+    loadDfaSnapshot();
+    long start = System.nanoTime();
+    List<Result> results = compileAll(sources);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    saveDfaSnapshot();
+
+    int exitCode = WACCConstants.SUCCESS_EXIT_CODE;
+    long lines = 0;
+    for (Result result : results) {
+      if (!result.errors.isEmpty()) {
+        System.err.println(result.source.file + ":");
+        System.err.print(result.errors);
+      }
+      System.out.println(result.exitCode + "\t" + result.source.file);
+      exitCode = combine(exitCode, result.exitCode);
+      lines += result.lines;
+    }
+
+    printSummary(results.size(), lines, seconds);
+    return exitCode;
+  }
+
+  /**
+   * A file the compiler failed on is not hidden by the errors of another
+   */
+  static int combine(int exitCode, int fileExitCode) {
+    if (exitCode == INTERNAL_ERROR_EXIT_CODE
+        || fileExitCode == INTERNAL_ERROR_EXIT_CODE) {
+      return INTERNAL_ERROR_EXIT_CODE;
+    }
+    return Math.max(exitCode, fileExitCode);
+  }
+
+  private void loadDfaSnapshot() {
+    if (dfaSnapshot != null) {
+      DfaSnapshot.load(dfaSnapshot);
+    }
+  }
+
+  private void saveDfaSnapshot() throws IOException {
+    if (dfaSnapshot != null) {
+      DfaSnapshot.save(dfaSnapshot);
+    }
+  }
+
+  private void printSummary(int files, long lines, double seconds) {
+    System.out.println(String.format(
+        "Compiled %d files (%d lines) in %.3f s on %d threads: "
+        + "%.1f files/s, %.1f lines/s",
+        files, lines, seconds, threads, files / seconds, lines / seconds));
+    if (outputCache != null) {
+      System.out.println(String.format(
+          "Output cache: %d hits, %d misses, %d evictions",
+          outputCache.getHits(), outputCache.getMisses(),
+          outputCache.getEvictions()));
+    }
+  }
+
+  /**
+   * The sources args names, or null if it gives a flag no value or a
+   * thread count that is not a positive number
+   */
+  private List<Source> parseArguments(String[] args) throws IOException {
+    List<Path> roots = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (!args[i].startsWith("-")) {
+        roots.add(Paths.get(args[i]));
+      } else if (i + 1 == args.length || !parseFlag(args[i], args[++i])) {
+        return null;
+      }
+    }
+    if (roots.isEmpty() || threads < 1) {
+      return null;
+    }
+    return collectSources(roots);
+  }
+
+  private boolean parseFlag(String flag, String value) {
+    if (flag.equals(THREADS_FLAG)) {
+      try {
+        threads = Integer.parseInt(value);
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    } else if (flag.equals(OUTPUT_FLAG)) {
+      outputDir = Paths.get(value);
+    } else if (flag.equals(CACHE_FLAG)) {
+      outputCache = new OutputCache(Paths.get(value));
+      compiler = new WACCCompiler(null, outputCache);
+    } else if (flag.equals(DFA_FLAG)) {
+      dfaSnapshot = Paths.get(value);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private List<Source> collectSources(List<Path> roots) throws IOException {
+    List<Source> sources = new ArrayList<>();
+    for (Path root : roots) {
+      if (Files.isDirectory(root)) {
+        try (Stream<Path> files = Files.walk(root)) {
+          for (Path file : files.filter(BatchCompiler::isSource).sorted()
+                                .collect(Collectors.toList())) {
+            Path relative = root.relativize(file);
+            sources.add(new Source(file, outputDir.resolve(
+                toAssemblyName(relative.toString()))));
+          }
+        }
+      } else {
+        String name = root.getFileName().toString();
+        sources.add(new Source(root,
+                               outputDir.resolve(toAssemblyName(name))));
+      }
+    }
+    return sources;
+  }
+
+  private static boolean isSource(Path file) {
+    return Files.isRegularFile(file)
+        && file.toString().endsWith(SOURCE_EXTENSION);
+  }
+
+  private static String toAssemblyName(String sourceName) {
+    if (sourceName.endsWith(SOURCE_EXTENSION)) {
+      sourceName = sourceName.substring(
+          0, sourceName.length() - SOURCE_EXTENSION.length());
+    }
+    return sourceName + ASSEMBLY_EXTENSION;
+  }
+
+  /**
+   * Submits every source to a fixed pool of workers and collects the
+   * results in submission order
+   */
+  private List<Result> compileAll(List<Source> sources)
+      throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      for (Source source : sources) {
+        futures.add(pool.submit(() -> compileFile(source)));
+      }
+
+      List<Result> results = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          results.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          results.add(new Result(sources.get(i), INTERNAL_ERROR_EXIT_CODE,
+                                 0, e.getCause() + "\n"));
+        }
+      }
+      return results;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Reads the source as the command line compiler does, byte for byte,
+   * and writes the assembly in the charset that compiler prints it in
+   */
+  private Result compileFile(Source source) throws IOException {
+    CharStream program = AsciiCharStream.open(source.file);
+    long lines = countLines(program);
+    CompileResult result = compiler.compile(program);
+    if (result.isSuccess()) {
+      Path parent = source.output.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.write(source.output,
+                  result.getAssembly().getBytes(WACCCompile.OUTPUT_CHARSET));
+    }
+
+    return new Result(source, result.getExitCode(), lines,
+                      result.getDiagnostics());
+  }
+
+  private static long countLines(CharStream program) {
+    long lines = 0;
+    for (int i = 1; i <= program.size(); i++) {
+      if (program.LA(i) == '\n') {
+        lines++;
+      }
+    }
+    return lines;
+  }
+
+  private static class Source {
+    private final Path file;
+    private final Path output;
+
+    Source(Path file, Path output) {
+      this.file = file;
+      this.output = output;
+    }
+  }
+
+  private static class Result {
+    private final Source source;
+    private final int exitCode;
+    private final long lines;
+    private final String errors;
+
+    Result(Source source, int exitCode, long lines, String errors) {
+      this.source = source;
+      this.exitCode = exitCode;
+      this.lines = lines;
+      this.errors = errors;
+    }
+  }
+
+}
@@ -0,0 +1,146 @@
+package wacc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reading and writing the entries of the compiler's on-disk caches
+ * Entries are written to a temporary file that is then moved into place,
+ * so any number of compilers can share a directory without one ever
+ * reading an entry that another has only partly written
+ */
+final class CacheFiles {
+
+  /**
+   * Part of the key of every entry, so that no entry made by one build of
+   * the compiler is ever given back by another
+   */
+  static final String COMPILER_BUILD = identifyCompilerBuild();
+
+  private CacheFiles() {
+  }
+
+  interface Writing {
+    void writeTo(DataOutputStream out) throws IOException;
+  }
+
+  interface Reading<T> {
+    T readFrom(DataInputStream in) throws IOException;
+  }
+
+  static void write(Path file, Writing writing) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(
+        directory, file.getFileName().toString(), ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      writing.writeTo(out);
+    }
+    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+               StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Entries that cannot be read, because they were written by another
+   * version of the compiler, damaged on disk or removed while being read,
+   * count as missing and give null
+   */
+  static <T> T read(Path file, Reading<T> reading) {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      return reading.readFrom(in);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Strings are written as their length and UTF-8 bytes, since assembly
+   * can be longer than writeUTF allows
+   */
+  static void writeString(String string, DataOutputStream out)
+      throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Each string is preceded by its length, so no two sequences of strings
+   * feed the digest the same bytes
+   */
+  static void update(MessageDigest digest, String string) {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      digest.update((byte) (bytes.length >>> shift));
+    }
+    digest.update(bytes);
+  }
+
+  static String toHex(byte[] bytes) {
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xf, 16);
+      hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xf, 16);
+    }
+    return new String(hex);
+  }
+
+  /**
+   * The size and modification time of the jar or class directory the
+   * compiler was loaded from, so a rebuilt compiler never gets the output
+   * of an older build
+   */
+  private static String identifyCompilerBuild() {
+    try {
+      Path location = Paths.get(CacheFiles.class.getProtectionDomain()
+                                    .getCodeSource().getLocation().toURI());
+      long size = 0;
+      long lastModified = 0;
+      try (Stream<Path> files = Files.walk(location)) {
+        for (Path file : files.filter(Files::isRegularFile)
+                              .collect(Collectors.toList())) {
+          size += Files.size(file);
+          lastModified = Math.max(lastModified,
+                                  Files.getLastModifiedTime(file).toMillis());
+        }
+      }
+      return location + " " + size + " " + lastModified;
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      throw new IllegalStateException(
+          "cannot identify the build of the compiler", e);
+    }
+  }
+
+}
@@ -1,62 +1,71 @@
 package wacc;
 
-import antlr.WACCParser;
 import arm11.*;
 import arm11.Shift.Shifts;
 import bindings.*;
+import wacc.ast.*;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
-import static antlr.WACCParser.*;
 import static arm11.ARM11Registers.*;
-import static arm11.HeapFunctions.freePair;
 import static arm11.InstructionFactory.*;
 import static arm11.InstructionType.*;
 
-public class CodeGenerator extends WACCVisitor<InstructionList> {
+public class CodeGenerator implements ASTNodeVisitor<InstructionList> {
 
   private static final boolean DEBUGGING = false;
 
   private static final long ADDRESS_SIZE = 4L;
   private static final long PAIR_SIZE = 2 * ADDRESS_SIZE;
+  private static final int PARALLEL_FUNCTION_THRESHOLD = 8;
 
-  private AccumulatorMachine accMachine;
+  private VirtualRegisters registers;
+  private final Map<Variable, Register> promoted
+      = new IdentityHashMap<>();
   private DataInstructions data;
-  private HashSet<InstructionList> helperFunctions;
+  private RuntimeHelpers helperFunctions;
   private boolean isAssigning;
+  private long argOffset;
+  private final int parallelThreshold;
 
-  public CodeGenerator(SymbolTable<String, Binding> top) {
-    super(top);
-    this.data = new DataInstructions();
-    this.helperFunctions = new HashSet<>();
-    this.accMachine = new AccumulatorMachine();
+  /**
+   * Generator for a program lowered to its AST, whose variables have been
+   * resolved to slots
+   */
+  public CodeGenerator() {
+    this(PARALLEL_FUNCTION_THRESHOLD);
   }
 
-  @Override
-  protected InstructionList defaultResult() {
-    return new InstructionList();
+  /**
+   * Functions are generated concurrently once a program has at least
+   * parallelThreshold of them
+   */
+  CodeGenerator(int parallelThreshold) {
+    this.data = new DataInstructions();
+    this.helperFunctions = new RuntimeHelpers();
+    this.registers = new VirtualRegisters();
+    this.parallelThreshold = parallelThreshold;
   }
 
-  @Override
-  protected InstructionList aggregateResult(InstructionList aggregate,
-                                            InstructionList nextResult) {
-    aggregate.add(nextResult);
-    return aggregate;
+  private InstructionList defaultResult() {
+    return new InstructionList();
   }
 
   private InstructionList allocateSpaceForPairElem(Label malloc,
-                                                   ExprContext exprCtx,
+                                                   ASTExprNode expr,
                                                    Long size, Register next) {
     InstructionList list = defaultResult();
-    list.add(visitExpr(exprCtx))
-        .add(createLoad(R0, new Immediate(size)))
+    list.add(expr.accept(this))
+        .add(createLoad(R0, Immediate.of(size)))
         .add(createBranchLink(malloc));
 
     if (size == 1) {
-      list.add(createStoreByte(next, R0, new Immediate(0L)));
+      list.add(createStoreByte(next, R0, Immediate.of(0L)));
     } else {
-      list.add(createStore(next, R0, new Immediate(0L)));
+      list.add(createStore(next, R0, Immediate.of(0L)));
     }
 
     return list;
@@ -73,40 +82,49 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
   private void storeArrayElem(InstructionList list,
                               Register addressOfArray,
                               long offset,
-                              ExprContext elem,
+                              ASTExprNode elem,
                               Register result) {
-    Immediate imm = new Immediate(offset);
-    list.add(visitExpr(elem));
-    if (elem.returnType.getSize() == ADDRESS_SIZE) {
+    Immediate imm = Immediate.of(offset);
+    list.add(elem.accept(this));
+    if (elem.getType().getSize() == ADDRESS_SIZE) {
       list.add(createStore(result, addressOfArray, imm));
     } else {
       list.add(createStoreByte(result, addressOfArray, imm));
     }
   }
 
+  private void storeArrayElems(InstructionList list,
+                               Register addressOfArray,
+                               List<ASTExprNode> elems,
+                               long typeSize) {
+    long offset = ADDRESS_SIZE;
+    for (ASTExprNode elem : elems) {
+      Register result = registers.peekRegister();
+      storeArrayElem(list, addressOfArray, offset, elem, result);
+      offset += typeSize;
+    }
+  }
+
   /**
-   * given an offset, variable type and an AssignRHS context
+   * given an offset, variable type and the right hand side of an assignment
    * returns instructions for storing the value of the RHS to that offset
    */
   private InstructionList storeToOffset(long varOffset,
                                         Type varType,
-                                        AssignRHSContext assignRHS) {
+                                        ASTNode assignRHS) {
     InstructionList list = defaultResult();
 
-    Register reg = accMachine.peekFreeRegister();
+    Register reg = registers.peekRegister();
 
-    list.add(visitAssignRHS(assignRHS));
+    list.add(assignRHS.accept(this));
 
-    InstructionList storeInstr;
-    Immediate offset = new Immediate(varOffset);
+    Immediate offset = Immediate.of(varOffset);
     if (Type.isBool(varType) || Type.isChar(varType)) {
-      storeInstr = accMachine.getInstructionList(STRB, reg, SP, offset);
+      list.add(createStoreByte(reg, SP, offset));
     } else {
-      storeInstr = accMachine.getInstructionList(STR, reg, SP, offset);
+      list.add(createStore(reg, SP, offset));
     }
 
-    list.add(storeInstr);
-    accMachine.pushFreeRegister(reg);
     return list;
   }
 
@@ -115,27 +133,69 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds instruction to move the expression to relevant register
    * Adds call for correct print procedure
    */
-  private InstructionList printExpression(ExprContext ctx,
+  private InstructionList printExpression(ASTExprNode expr,
                                           Label printLabel,
                                           Register result) {
     InstructionList list = defaultResult();
-    list.add(visitExpr(ctx))
+    list.add(expr.accept(this))
         .add(createMove(R0, result))
         .add(createBranchLink(printLabel));
     return list;
   }
 
+  /**
+   * Evaluates the right hand side of an assignment into the register a
+   * variable is kept in
+   */
+  private InstructionList storeToRegister(Register variable,
+                                          ASTNode assignRHS) {
+    InstructionList list = defaultResult();
+    Register reg = registers.peekRegister();
+    return list.add(assignRHS.accept(this))
+               .add(createMove(variable, reg));
+  }
+
+  /**
+   * The register an int, bool or char variable whose address is never
+   * taken is kept in for the whole of its function, or null if it is kept
+   * in its slot
+   */
+  private Register registerOf(ASTIdentNode ident) {
+    Variable variable = ident.getVariable();
+    Type type = variable.getType();
+    boolean scalar = Type.isInt(type) || Type.isBool(type)
+        || Type.isChar(type);
+    if (!scalar || variable.isAddressTaken()) {
+      return null;
+    }
+    return promoted.computeIfAbsent(variable, v -> registers.newRegister());
+  }
+
+  /**
+   * Loads the value of a variable from its slot
+   */
+  private InstructionList loadFromOffset(Register reg, ASTIdentNode ident) {
+    InstructionList list = defaultResult();
+    Type type = ident.getType();
+    Immediate offset = Immediate.of(offsetOf(ident));
+    if (Type.isBool(type) || Type.isChar(type)) {
+      return list.add(createLoadStoredByte(reg, SP, offset));
+    }
+    return list.add(createLoad(reg, SP, offset));
+  }
+
   /**
    * Gets instructions to call for divide by zero procedure
    * Adds Labels and relevant move instructions for a div or a mod operation
    * given src registers
    */
-  private InstructionList divMoves(Register dst1, Register dst2, String op) {
+  private InstructionList divMoves(Register dst1, Register dst2, BinaryOp op) {
     InstructionList list =  defaultResult();
     Label checkDivideByZeroLabel = new Label("p_check_divide_by_zero");
-    list.add(accMachine.getInstructionList(DIVMOD, dst1, dst2))
+    list.add(createMove(R0, dst1))
+        .add(createMove(R1, dst2))
         .add(createBranchLink(checkDivideByZeroLabel));
-    if (op.equals(Utils.getToken(DIV))){
+    if (op == BinaryOp.DIV) {
       list.add(createDiv())
           .add(createMove(dst1, R0));
     } else {
@@ -143,11 +203,18 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
           .add(createMove(dst1, R1));
     }
     Utils.addRuntimeErrorFunctionsToHelpers(
-        RuntimeErrorFunctions.divideByZero(data), data, helperFunctions);
+        RuntimeHelper.CHECK_DIVIDE_BY_ZERO, data, helperFunctions);
 
     return list;
   }
 
+  /**
+   * Offset from the stack pointer of the variable ident refers to
+   */
+  private long offsetOf(ASTIdentNode ident) {
+    return ident.getOffset() + argOffset;
+  }
+
   /**
    * Gets the instructions of its children.
    * Creates the global label
@@ -155,76 +222,108 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * use in the assembly code
    */
   @Override
-  public InstructionList visitProg(ProgContext ctx) {
-    accMachine.resetFreeRegisters();
-    String scopeName = Scope.PROG.toString();
-    changeWorkingSymbolTableTo(scopeName);
-    InstructionList program = defaultResult();
-
-    InstructionList functions = defaultResult();
-    for (FuncContext function : ctx.func()) {
-      functions.add(visitFunc(function));
+  public InstructionList visitProgram(ASTProgramNode program) {
+    InstructionList list = defaultResult();
+
+    List<InstructionList> units;
+    if (program.getFunctions().size() >= parallelThreshold) {
+      units = ParallelUnitGenerator.generate(program, this);
+    } else {
+      units = new ArrayList<>();
+      for (ASTNode unit : ProgramUnits.of(program)) {
+        units.add(generateUnit(unit));
+      }
     }
 
-    InstructionList main = visitMain(ctx.main());
-    program.add(data.getInstructionList())
-           .add(createText());
+    list.add(data.getInstructionList())
+        .add(createText());
     Label mainLabel = new Label(WACCVisitor.Scope.MAIN.toString());
-    program.add(createGlobal(mainLabel))
-           .add(functions)
-           .add(main);
+    list.add(createGlobal(mainLabel));
+    units.forEach(list::add);
+
+    list.add(helperFunctions.getInstructionList());
+
+    return list;
+  }
+
+  CodeGenerator createUnitGenerator() {
+    CodeGenerator generator = new CodeGenerator(Integer.MAX_VALUE);
+    generator.data = new DeferredDataInstructions();
+    return generator;
+  }
+
+  /**
+   * Gets the instructions of a function or main, whose registers are
+   * allocated on their own
+   */
+  InstructionList generateUnit(ASTNode unit) {
+    return unit.accept(this);
+  }
+
+  /**
+   * Gets the helpers followed by the data section used by the code
+   * generated so far
+   */
+  InstructionList generateRuntime() {
+    InstructionList runtime = defaultResult();
+    runtime.add(helperFunctions.getInstructionList());
+    return runtime.add(data.getInstructionList());
+  }
 
-    helperFunctions.forEach(program::add);
+  /**
+   * Adds the data and helpers of a unit generator to this program
+   */
+  void merge(CodeGenerator unit) {
+    ((DeferredDataInstructions) unit.data).replayOnto(data);
+    helperFunctions.addAll(unit.helperFunctions);
+  }
 
-    goUpWorkingSymbolTable();
-    return program;
+  /**
+   * The data section, deferred for a unit generator
+   */
+  DataInstructions getData() {
+    return data;
+  }
+
+  RuntimeHelpers getHelpers() {
+    return helperFunctions;
   }
 
   /**
    * Sets up stack frame
    * Add instructions of its body
    * Sets exit code to 0
+   * Allocates registers once the whole of main is generated
    */
   @Override
-  public InstructionList visitMain(MainContext ctx) {
+  public InstructionList visitMain(ASTMainNode main) {
     InstructionList list = defaultResult();
-    String scopeName = Scope.MAIN.toString();
+    ASTStatListNode body = main.getBody();
+    promoted.clear();
 
-    changeWorkingSymbolTableTo(scopeName);
-    pushEmptyVariableSet();
-    list.add(createLabel(new Label(Scope.MAIN.toString())))
+    list.add(createLabel(new Label(WACCVisitor.Scope.MAIN.toString())))
         .add(createPush(LR))
-        .add(Utils.allocateSpaceOnStack(workingSymbolTable))
-        .add(visitChildren(ctx))
-        .add(Utils.deallocateSpaceOnStack(workingSymbolTable))
-        .add(createLoad(R0, new Immediate(0L)))
+        .add(Utils.allocateSpaceOnStack(body.getStackSpace()))
+        .add(visitStatList(body))
+        .add(Utils.deallocateSpaceOnStack(body.getStackSpace()))
+        .add(createLoad(R0, Immediate.of(0L)))
         .add(createPop(PC))
         .add(createLTORG());
-    goUpWorkingSymbolTable();
-    popCurrentScopeVariableSet();
 
-    return list;
+    return LinearScanAllocator.allocate(list);
   }
 
   /**
    * Sets up stack frame
-   * Gets instructions for each param
+   * Loads the parameters kept in registers
    * Adds instructions of body
+   * Allocates registers once the whole function is generated
    */
   @Override
-  public InstructionList visitFunc(FuncContext ctx) {
+  public InstructionList visitFunc(ASTFuncNode func) {
     InstructionList list = defaultResult();
-    List<Variable> params = Utils.getParamList(ctx, new WACCTypeCreator(top));
-    String funcName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText()
-            + Utils.getFuncParamTypeSuffix(params);
-    changeWorkingSymbolTableTo(funcName);
-    pushEmptyVariableSet();
-
-    Label functionLabel = new Label(funcName);
-
-    if (ctx.paramList() != null) {
-      visitParamList(ctx.paramList());
-    }
+    Label functionLabel = new Label(func.getLabel());
+    promoted.clear();
 
     if (DEBUGGING) {
       System.err.println(functionLabel);
@@ -232,104 +331,108 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
 
     list.add(createLabel(functionLabel));
     list.add(createPush(LR))
-        .add(Utils.allocateSpaceOnStack(workingSymbolTable))
-        .add(visitStatList(ctx.statList()))
+        .add(Utils.allocateSpaceOnStack(func.getBody().getStackSpace()));
+    for (ASTIdentNode param : func.getParams()) {
+      Register variable = registerOf(param);
+      if (variable != null) {
+        list.add(loadFromOffset(variable, param));
+      }
+    }
+    list.add(visitStatList(func.getBody()))
         .add(createPop(PC))
         .add(createLTORG());
-    popCurrentScopeVariableSet();
-    goUpWorkingSymbolTable();
 
+    return LinearScanAllocator.allocate(list);
+  }
+
+  @Override
+  public InstructionList visitStatList(ASTStatListNode statList) {
+    InstructionList list = defaultResult();
+    for (ASTStatNode stat : statList.getStatements()) {
+      list.add(stat.accept(this));
+    }
     return list;
   }
 
   /**
-   * Sets internal boolean (that informs us if a variable is a parameter) to
-   * true
+   * Sets up the stack frame of a scope around its body
    */
+  private InstructionList visitScope(ASTStatListNode body) {
+    InstructionList list = defaultResult();
+    list.add(Utils.allocateSpaceOnStack(body.getStackSpace()))
+        .add(visitStatList(body))
+        .add(Utils.deallocateSpaceOnStack(body.getStackSpace()));
+    return list;
+  }
+
   @Override
-  public InstructionList visitParam(ParamContext ctx) {
-    String name = ctx.name.getText();
-    addVariableToCurrentScope(name);
-    Variable var = (Variable) workingSymbolTable.lookupAll(name);
-    var.setAsParam();
-    return null;
+  public InstructionList visitSkipStat(ASTSkipStatNode stat) {
+    return defaultResult();
   }
 
   /**
-   * Gets offset for initialised Variable
-   * Adds instructions for storing to the variable
-   * Includes variable name to Variables declared in the scope
+   * Adds instructions for storing to the initialised variable
    */
   @Override
-  public InstructionList visitInitStat(InitStatContext ctx) {
-    String varName = ctx.ident().getText();
-    Variable var = (Variable) workingSymbolTable.get(varName);
-    long varOffset = var.getOffset();
-
-    InstructionList list = storeToOffset(varOffset, var.getType(),
-                                         ctx.assignRHS());
-    addVariableToCurrentScope(varName);
-    return list;
+  public InstructionList visitInitStat(ASTInitStatNode stat) {
+    ASTIdentNode ident = stat.getIdent();
+    Register variable = registerOf(ident);
+    if (variable != null) {
+      return storeToRegister(variable, stat.getAssignRHS());
+    }
+    return storeToOffset(ident.getOffset(), ident.getType(),
+                         stat.getAssignRHS());
   }
 
   @Override
-  public InstructionList visitAssignStat(AssignStatContext ctx) {
+  public InstructionList visitAssignStat(ASTAssignStatNode stat) {
     InstructionList list = defaultResult();
-    if (ctx.assignLHS().ident() != null) {
-      String varName = ctx.assignLHS().ident().getText();
-      Variable var = getMostRecentBindingForVariable(varName);
-      long varOffset = getAccumulativeOffsetForVariable(varName);
-      return storeToOffset(varOffset, var.getType(), ctx.assignRHS());
+    if (stat.getAssignLHS() instanceof ASTIdentNode) {
+      ASTIdentNode ident = (ASTIdentNode) stat.getAssignLHS();
+      Register variable = registerOf(ident);
+      if (variable != null) {
+        return storeToRegister(variable, stat.getAssignRHS());
+      }
+      return storeToOffset(offsetOf(ident), ident.getType(),
+                           stat.getAssignRHS());
     } else {
-      Register result = accMachine.peekFreeRegister();
-      list.add(visitAssignRHS(ctx.assignRHS()));
-      Register addr = accMachine.peekFreeRegister();
+      Register result = registers.peekRegister();
+      list.add(stat.getAssignRHS().accept(this));
+      Register addr = registers.peekRegister();
 
-      list.add(visitAssignLHS(ctx.assignLHS()));
-      Type varType = (Type) ctx.assignLHS().returnType;
+      isAssigning = true;
+      list.add(stat.getAssignLHS().accept(this));
+      isAssigning = false;
+      Type varType = stat.getType();
 
       if (Type.isBool(varType) || Type.isChar(varType)) {
-        list.add(accMachine.getInstructionList(STRB, result, addr));
+        list.add(createStoreByte(result, addr, Immediate.of(0L)));
       } else {
-        list.add(accMachine.getInstructionList(STR, result, addr));
+        list.add(createStore(result, addr, Immediate.of(0L)));
       }
-
-      accMachine.pushFreeRegister(addr);
-      accMachine.pushFreeRegister(result);
     }
 
     return list;
   }
 
   @Override
-  public InstructionList visitAssignLHS(AssignLHSContext ctx) {
-    InstructionList list = defaultResult();
-    isAssigning = true;
-    list.add(visitChildren(ctx));
-    isAssigning = false;
-    return list;
-  }
-
-  @Override
-  public InstructionList visitPointer(PointerContext ctx) {
+  public InstructionList visitPointer(ASTPointerNode pointer) {
     InstructionList list = defaultResult();
-    Immediate offset = new Immediate(getAccumulativeOffsetForVariable(
-        ctx.ident().getText()));
-    Register result = accMachine.popFreeRegister();
-    Register value = accMachine.popFreeRegister();
+    Immediate offset = Immediate.of(offsetOf(pointer.getIdent()));
+    Register result = registers.takeRegister();
+    Register value = registers.takeRegister();
 
     if (isAssigning) {
       list.add(createAdd(value, SP, offset));
-      list.add(accMachine.getInstructionList(MOV, result, value));
+      list.add(createMove(result, value));
     } else {
       list.add(createLoad(result, SP, offset));
     }
 
-    for (int i = 0; i < ctx.MUL().size(); i++) {
+    for (int i = 0; i < pointer.getDereferences(); i++) {
       list.add(createLoad(result, new Address(result)));
     }
 
-    accMachine.pushFreeRegister(value);
     return list;
   }
 
@@ -339,32 +442,30 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds instruction to call for correct procedure
    */
   @Override
-  public InstructionList visitReadStat(ReadStatContext ctx) {
+  public InstructionList visitReadStat(ASTReadStatNode stat) {
     InstructionList list = defaultResult();
-    Register reg = accMachine.popFreeRegister();
-
-    if (ctx.assignLHS().ident() != null) {
-      String name = ctx.assignLHS().ident().getText();
-      Long offset = getAccumulativeOffsetForVariable(name);
-      list.add(createAdd(reg, SP, new Immediate(offset)));
-    } else if (ctx.assignLHS().pairElem() != null) {
-      list.add(visitPairElem(ctx.assignLHS().pairElem()));
+    Register reg = registers.peekRegister();
+
+    if (stat.getAssignLHS() instanceof ASTIdentNode) {
+      Long offset = offsetOf((ASTIdentNode) stat.getAssignLHS());
+      list.add(createAdd(registers.takeRegister(), SP, Immediate.of(offset)));
     } else {
-      list.add(visitArrayElem(ctx.assignLHS().arrayElem()));
+      isAssigning = true;
+      list.add(stat.getAssignLHS().accept(this));
+      isAssigning = false;
     }
 
     Label readLabel;
-    if (Type.isInt((Type) ctx.assignLHS().returnType)) {
+    if (Type.isInt(stat.getType())) {
       readLabel = new Label("p_read_int");
-      helperFunctions.add(ReadFunctions.readInt(data));
+      helperFunctions.require(RuntimeHelper.READ_INT, data);
     } else {
       readLabel = new Label("p_read_char");
-      helperFunctions.add(ReadFunctions.readChar(data));
+      helperFunctions.require(RuntimeHelper.READ_CHAR, data);
     }
 
     list.add(createMove(R0, reg))
         .add(createBranchLink(readLabel));
-    accMachine.pushFreeRegister(reg);
 
     return list;
   }
@@ -375,33 +476,32 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds print new line if necessary
    */
   @Override
-  public InstructionList visitPrintStat(PrintStatContext ctx) {
+  public InstructionList visitPrintStat(ASTPrintStatNode stat) {
     InstructionList list = defaultResult();
     Label printLabel;
-    InstructionList printInstructions = null;
-    Type returnType = ctx.expr().returnType;
+    RuntimeHelper printHelper = null;
+    Type returnType = stat.getExpr().getType();
     if (Type.isString(returnType)) {
       printLabel = new Label("p_print_string");
-      printInstructions = PrintFunctions.printString(data);
+      printHelper = RuntimeHelper.PRINT_STRING;
     } else if (Type.isInt(returnType)) {
       printLabel = new Label("p_print_int");
-      printInstructions = PrintFunctions.printInt(data);
+      printHelper = RuntimeHelper.PRINT_INT;
     } else if (Type.isChar(returnType)){
       printLabel = new Label("putchar");
     } else if (Type.isBool(returnType)) {
       printLabel = new Label("p_print_bool");
-      printInstructions = PrintFunctions.printBool(data);
+      printHelper = RuntimeHelper.PRINT_BOOL;
     } else {
       printLabel = new Label("p_print_reference");
-      printInstructions = PrintFunctions.printReference(data);
+      printHelper = RuntimeHelper.PRINT_REFERENCE;
     }
-    Utils.addFunctionToHelpers(printInstructions, helperFunctions);
-    Register result = accMachine.peekFreeRegister();
-    list.add(printExpression(ctx.expr(), printLabel, result));
-    if (ctx.PRINTLN() != null) {
+    Utils.addFunctionToHelpers(printHelper, data, helperFunctions);
+    Register result = registers.peekRegister();
+    list.add(printExpression(stat.getExpr(), printLabel, result));
+    if (stat.isNewline()) {
       Utils.printNewLine(list, data, helperFunctions);
     }
-    accMachine.pushFreeRegister(result);
 
     return list;
   }
@@ -410,21 +510,20 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds instructions of the expr to free
    * Get instruction to mov the expression in R0
    * Call for free_pair procedure
+   * The freed variable keeps its value, so freeing it again aborts in free
+   * as it does in the reference compiler
    */
   @Override
-  public InstructionList visitFreeStat(FreeStatContext ctx) {
+  public InstructionList visitFreeStat(ASTFreeStatNode stat) {
     InstructionList list = defaultResult();
 
-    Register result = accMachine.peekFreeRegister();
-    list.add(visitExpr(ctx.expr()))
+    Register result = registers.peekRegister();
+    list.add(stat.getExpr().accept(this))
         .add(createMove(R0, result))
-        .add(createBranchLink(new Label("p_free_pair")))
-        .add(createMove(result, new Immediate(0L)))
-        .add(createStore(result, SP, new Immediate(0L)));
+        .add(createBranchLink(new Label("p_free_pair")));
 
     Utils.addThrowRuntimeErrorFunctionsToHelpers(data, helperFunctions);
-    helperFunctions.add(freePair(data));
-    accMachine.pushFreeRegister(result);
+    helperFunctions.require(RuntimeHelper.FREE_PAIR, data);
 
     return list;
   }
@@ -434,13 +533,12 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Calls for the exit procedure
    */
   @Override
-  public InstructionList visitExitStat(ExitStatContext ctx) {
+  public InstructionList visitExitStat(ASTExitStatNode stat) {
     InstructionList list = defaultResult();
 
-    Register result = accMachine.peekFreeRegister();
-    list.add(visitExpr(ctx.expr()));
-    accMachine.pushFreeRegister(result);
-    list.add(createMove(R0, result))
+    Register result = registers.peekRegister();
+    list.add(stat.getExpr().accept(this))
+        .add(createMove(R0, result))
         .add(createBranchLink(new Label("exit")));
 
     return list;
@@ -452,82 +550,65 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds pop PC
    */
   @Override
-  public InstructionList visitReturnStat(ReturnStatContext ctx) {
+  public InstructionList visitReturnStat(ASTReturnStatNode stat) {
     InstructionList list = defaultResult();
-    Register resultReg = accMachine.peekFreeRegister();
-    list.add(visitExpr(ctx.expr()))
+    Register resultReg = registers.peekRegister();
+    list.add(stat.getExpr().accept(this))
         .add(createMove(R0, resultReg))
-        .add(Utils.deallocateSpaceOnStackFromReturn(workingSymbolTable))
+        .add(Utils.deallocateSpaceOnStackFromReturn(stat.getStackSpace()))
         .add(createPop(PC));
-    accMachine.pushFreeRegister(resultReg);
 
     return list;
   }
 
   /**
-   * Increments while count
    * Adds instructions for body
    * Adds comparison for the condition for the while loop
    */
   @Override
-  public InstructionList visitWhileStat(WhileStatContext ctx) {
-    ++whileCount;
+  public InstructionList visitWhileStat(ASTWhileStatNode stat) {
     InstructionList list = defaultResult();
 
-    String whileScope = Scope.WHILE.toString() + whileCount;
-    changeWorkingSymbolTableTo(whileScope);
-    pushEmptyVariableSet();
-
-    Label predicate = new Label("predicate_" + whileCount);
-    Label body = new Label("while_body_" + whileCount);
-    Operand trueOp = new Immediate(1L);
+    Label predicate = new Label("predicate_" + stat.getNumber());
+    Label body = new Label("while_body_" + stat.getNumber());
+    Operand trueOp = Immediate.of(1L);
 
     list.add(createBranch(predicate))
         .add(createLabel(body))
-        .add(Utils.allocateSpaceOnStack(workingSymbolTable))
-        .add(visitStatList(ctx.statList()))
-        .add(Utils.deallocateSpaceOnStack(workingSymbolTable))
+        .add(visitScope(stat.getBody()))
         .add(createLabel(predicate));
 
-    popCurrentScopeVariableSet();
-    goUpWorkingSymbolTable();
-
-    Register result = accMachine.peekFreeRegister();
-    list.add(visitExpr(ctx.expr()))
+    Register result = registers.peekRegister();
+    list.add(stat.getCondition().accept(this))
         .add(createCompare(result, trueOp))
         .add(createBranchEqual(body));
-    accMachine.pushFreeRegister(result);
 
     return list;
   }
 
   /**
-   * Increments if count
    * Adds comparison instructions for condition
    * Adds relevant bodies and branches
    */
   @Override
-  public InstructionList visitIfStat(IfStatContext ctx) {
-    ++ifCount;
+  public InstructionList visitIfStat(ASTIfStatNode stat) {
     InstructionList list = defaultResult();
 
-    Register predicate = accMachine.peekFreeRegister();
-    list.add(visitExpr(ctx.expr()));
-    list.add(createCompare(predicate, new Immediate(0L)));
-    // predicate no longer required
-    accMachine.pushFreeRegister(predicate);
+    Register predicate = registers.peekRegister();
+    list.add(stat.getCondition().accept(this));
+    list.add(createCompare(predicate, Immediate.of(0L)));
 
-    Label elseLabel = new Label("else_" + ifCount);
-    Label continueLabel = new Label("fi_" + ifCount);
-    if (ctx.ELSE() != null) {
+    Label elseLabel = new Label("else_" + stat.getNumber());
+    Label continueLabel = new Label("fi_" + stat.getNumber());
+    if (stat.getElseBody() != null) {
       list.add(createBranchEqual(elseLabel))
-          .add(getInstructionsForIfBranch(Scope.THEN.toString(), ctx.thenStat))
+          .add(visitScope(stat.getThenBody()))
           .add(createBranch(continueLabel))
           .add(createLabel(elseLabel))
-          .add(getInstructionsForIfBranch(Scope.ELSE.toString(), ctx.elseStat));
+          .add(visitScope(stat.getElseBody()));
     } else {
       list.add(createBranchEqual(continueLabel))
-          .add(getInstructionsForIfBranch(Scope.THEN.toString(), ctx.thenStat));
+          .add(visitScope(stat.getThenBody()));
     }
     list.add(createLabel(continueLabel));
 
@@ -535,26 +616,11 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
   }
 
   /**
-   * Get instructions to set stack frame
-   * Adds instructions for body
+   * Adds instructions for body in its own stack frame
    */
   @Override
-  public InstructionList visitBeginStat(BeginStatContext ctx) {
-    ++beginCount;
-    InstructionList list = defaultResult();
-
-    String beginScope = Scope.BEGIN.toString() + beginCount;
-    changeWorkingSymbolTableTo(beginScope);
-    pushEmptyVariableSet();
-
-    list.add(Utils.allocateSpaceOnStack(workingSymbolTable))
-        .add(visitStatList(ctx.statList()))
-        .add(Utils.deallocateSpaceOnStack(workingSymbolTable));
-
-    popCurrentScopeVariableSet();
-    goUpWorkingSymbolTable();
-
-    return list;
+  public InstructionList visitBeginStat(ASTBeginStatNode stat) {
+    return visitScope(stat.getBody());
   }
 
   /**
@@ -562,21 +628,22 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Store the elements at the respective addresses in the heap
    */
   @Override
-  public InstructionList visitNewPair(NewPairContext ctx) {
+  public InstructionList visitNewPair(ASTNewPairNode newPair) {
     InstructionList list = defaultResult();
     Label malloc = new Label("malloc");
-    Register result = accMachine.popFreeRegister();
-    Immediate sizeOfObject = new Immediate(PAIR_SIZE);
+    Register result = registers.takeRegister();
+    Immediate sizeOfObject = Immediate.of(PAIR_SIZE);
     list.add(allocateSpaceForNewPair(malloc, sizeOfObject));
-    list.add(accMachine.getInstructionList(MOV, result, R0));
+    list.add(createMove(result, R0));
     Long accSize = 0L;
 
-    for (ExprContext exprCtx : ctx.expr()) {
-      Long size = (long) exprCtx.returnType.getSize();
-      Register next = accMachine.peekFreeRegister();
-      list.add(allocateSpaceForPairElem(malloc, exprCtx, size, next));
-      accMachine.pushFreeRegister(next);
-      list.add(createStore(R0, result, new Immediate(accSize)));
+    ASTExprNode[] elems = {newPair.getFirst(), newPair.getSecond()};
+    for (ASTExprNode elem : elems) {
+      Long size = (long) elem.getType().getSize();
+      Register next = registers.peekRegister();
+      list.add(allocateSpaceForPairElem(malloc, elem, size, next));
+
+      list.add(createStore(R0, result, Immediate.of(accSize)));
       accSize += ADDRESS_SIZE;
     }
 
@@ -584,26 +651,26 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
   }
 
   /**
-   * Gets instructions for argList
+   * Gets instructions for the arguments
+   * Adds a branch to the overload the type checker resolved the call to
    * Adds instruction to create space on the stack for the args
    */
   @Override
-  public InstructionList visitCall(CallContext ctx) {
+  public InstructionList visitCall(ASTCallNode call) {
     InstructionList list = defaultResult();
-    String functionName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText()
-            + Utils.getArgString(ctx.argTypes);
-    Label functionLabel = new Label(functionName);
+    Label functionLabel = new Label(call.getLabel());
+    List<ASTExprNode> arguments = call.getArguments();
 
-    if (ctx.argList() != null) {
-      list.add(visitArgList(ctx.argList()));
+    Register result = registers.takeRegister();
+    if (!arguments.isEmpty()) {
+      list.add(pushArguments(arguments));
     }
     list.add(createBranchLink(functionLabel));
-    Register result = accMachine.popFreeRegister();
-    if (ctx.argList() != null) {
-      Operand size = new Immediate(Utils.totalListSize(ctx.argList().expr()));
+    if (!arguments.isEmpty()) {
+      Operand size = Immediate.of(Utils.totalListSize(arguments));
       list.add(createAdd(SP, SP, size));
     }
-    list.add(accMachine.getInstructionList(MOV, result, R0));
+    list.add(createMove(result, R0));
 
     return list;
   }
@@ -611,22 +678,21 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
   /**
    * Gets instructions to store args on stack
    */
-  @Override
-  public InstructionList visitArgList(ArgListContext ctx) {
+  private InstructionList pushArguments(List<ASTExprNode> arguments) {
     InstructionList list = defaultResult();
 
-    for (int i = ctx.expr().size() - 1; i >= 0; i--) {
-      ExprContext exprCtx = ctx.expr(i);
-      Register result = accMachine.peekFreeRegister();
-      Long varSize = (long) -exprCtx.returnType.getSize();
-      Operand size = new Immediate(varSize);
-      list.add(visitExpr(exprCtx));
+    for (int i = arguments.size() - 1; i >= 0; i--) {
+      ASTExprNode argument = arguments.get(i);
+      Register result = registers.peekRegister();
+      Long varSize = (long) -argument.getType().getSize();
+      Operand size = Immediate.of(varSize);
+      list.add(argument.accept(this));
       if (varSize == -ADDRESS_SIZE) {
         list.add(createStore(result, SP, size));
       } else {
         list.add(createStoreByte(result, SP, size));
       }
-      accMachine.pushFreeRegister(result);
+
       argOffset -= varSize;
     }
     argOffset = 0L;
@@ -635,266 +701,173 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
   }
 
   /**
-   * Sets up stack frame for body
-   * Adds instructions for body
+   * Gets instructions for the left operand, then for the right one into
+   * the next register, and combines them
+   * Only 2 registers are used up however long a chain of operations is, as
+   * chains nest to the left
    */
-  private InstructionList getInstructionsForIfBranch(String branchName,
-                                                     StatListContext ctx) {
+  @Override
+  public InstructionList visitBinaryOp(ASTBinaryOpNode expr) {
     InstructionList list = defaultResult();
-
-    String branchScope = branchName + ifCount;
-    changeWorkingSymbolTableTo(branchScope);
-    pushEmptyVariableSet();
-    list.add(Utils.allocateSpaceOnStack(workingSymbolTable))
-        .add(visitStatList(ctx))
-        .add(Utils.deallocateSpaceOnStack(workingSymbolTable));
-    popCurrentScopeVariableSet();
-    goUpWorkingSymbolTable();
+    Register dst1 = registers.peekRegister();
+    list.add(expr.getLeft().accept(this));
+    Register dst2 = registers.peekRegister();
+    list.add(expr.getRight().accept(this))
+        .add(combine(expr.getOperator(), dst1, dst2));
 
     return list;
   }
 
   /**
-   * Gets instructions for first comparisonOper
-   * If there are more operands, adds instructions to place each subsequent
-   * operand and to evaluate the logical operation
+   * Applies op to the operands in dst1 and dst2, leaving the result in dst1
    */
-  @Override
-  public InstructionList visitLogicalOper(LogicalOperContext ctx) {
-    InstructionList list = defaultResult();
-    Register dst1 = accMachine.peekFreeRegister();
-    list.add(visitComparisonOper(ctx.first));
-    if (!ctx.otherExprs.isEmpty()) {
-      Register dst2;
-      // for loop used instead of visitChildren so only 2 registers used up
-      InstructionList logicalInstr;
-      for (int i = 0; i < ctx.ops.size(); i++) {
-        ComparisonOperContext otherExpr = ctx.otherExprs.get(i);
-        dst2 = accMachine.peekFreeRegister();
-
-        list.add(visitComparisonOper(otherExpr));
-
-        if (ctx.ops.get(i).getText().equals(Utils.getToken(WACCParser.AND))){
-          logicalInstr = accMachine.getInstructionList(InstructionType.AND,
-                                                       dst1, dst1, dst2);
-        } else {
-          logicalInstr = accMachine.getInstructionList(ORR, dst1, dst1, dst2);
-        }
-
-        list.add(logicalInstr);
-        accMachine.pushFreeRegister(dst2);
-      }
+  private InstructionList combine(BinaryOp op, Register dst1, Register dst2) {
+    switch (op) {
+      case AND:
+        return defaultResult().add(createAnd(dst1, dst1, dst2));
+      case OR:
+        return defaultResult().add(createOrr(dst1, dst1, dst2));
+      case PLUS:
+      case MINUS:
+        return addOrSubtract(op, dst1, dst2);
+      case MUL:
+        return multiply(dst1, dst2);
+      case DIV:
+      case MOD:
+        return divMoves(dst1, dst2, op);
+      default:
+        InstructionList list = defaultResult();
+        return list.add(createCompare(dst1, dst2))
+                   .add(setFromComparison(op, dst1));
     }
-
-    return list;
   }
 
   /**
-   * Gets instructions for first addOper
-   * If there is another operand, adds instructions to place the second
-   * operand and to evaluate the ordering operation
+   * Sets dst to 1 if the comparison just made holds, and to 0 if not
    */
-  @Override
-  public InstructionList visitOrderingOper(OrderingOperContext ctx) {
+  private InstructionList setFromComparison(BinaryOp op, Register dst) {
+    Operand trueOp = Immediate.of((long) 1);
+    Operand falseOp = Immediate.of((long) 0);
     InstructionList list = defaultResult();
-
-    Register dst1 = accMachine.peekFreeRegister();
-    list.add(visitAddOper(ctx.first));
-    if (ctx.second != null) {
-      Register dst2 = accMachine.peekFreeRegister();
-      Operand trueOp = new Immediate((long) 1);
-      Operand falseOp = new Immediate((long) 0);
-      list.add(visitAddOper(ctx.second))
-          .add(accMachine.getInstructionList(CMP, dst1, dst2));
-      if (ctx.GT() != null){
-        list.add(createMovGt(dst1, trueOp))
-            .add(createMovLe(dst1, falseOp));
-      } else if (ctx.GE() != null) {
-        list.add(createMovGe(dst1, trueOp))
-            .add(createMovLt(dst1, falseOp));
-      } else if (ctx.LT() != null) {
-        list.add(createMovLt(dst1, trueOp))
-            .add(createMovGe(dst1, falseOp));
-      } else if (ctx.LE() != null) {
-        list.add(createMovLe(dst1, trueOp))
-            .add(createMovGt(dst1, falseOp));
-      }
-
-      accMachine.pushFreeRegister(dst2);
+    switch (op) {
+      case GT:
+        return list.add(createMovGt(dst, trueOp))
+                   .add(createMovLe(dst, falseOp));
+      case GE:
+        return list.add(createMovGe(dst, trueOp))
+                   .add(createMovLt(dst, falseOp));
+      case LT:
+        return list.add(createMovLt(dst, trueOp))
+                   .add(createMovGe(dst, falseOp));
+      case LE:
+        return list.add(createMovLe(dst, trueOp))
+                   .add(createMovGt(dst, falseOp));
+      case EQ:
+        return list.add(createMovEq(dst, trueOp))
+                   .add(createMovNe(dst, falseOp));
+      default:
+        return list.add(createMovEq(dst, falseOp))
+                   .add(createMovNe(dst, trueOp));
     }
-
-    return list;
   }
 
   /**
-   * Gets instructions for first addOper
-   * If there is another operand, adds instructions to place the second
-   * operand and to evaluate the equality operation
+   * Adds or subtracts, checking for overflow
    */
-  @Override
-  public InstructionList visitEqualityOper(EqualityOperContext ctx) {
+  private InstructionList addOrSubtract(BinaryOp op, Register dst1,
+                                        Register dst2) {
     InstructionList list = defaultResult();
-    Register dst1 = accMachine.peekFreeRegister();
-    list.add(visitAddOper(ctx.first));
-    if (ctx.second != null) {
-      Register dst2 = accMachine.peekFreeRegister();
-
-      long trueLong = (ctx.EQ() != null) ? 1 : 0;
-      long falseLong = (ctx.EQ() != null) ? 0 : 1;
-      Operand trueOp = new Immediate(trueLong);
-      Operand falseOp = new Immediate(falseLong);
-      list.add(visitAddOper(ctx.second))
-          .add(accMachine.getInstructionList(CMP, dst1, dst2))
-          .add(createMovEq(dst1, trueOp))
-          .add(createMovNe(dst1, falseOp));
-      accMachine.pushFreeRegister(dst2);
+    if (op == BinaryOp.PLUS) {
+      list.add(createAdds(dst1, dst1, dst2));
+    } else {
+      list.add(createSubs(dst1, dst1, dst2));
     }
 
-    return list;
-  }
-
-  /**
-   * Gets instructions for first multOper
-   * If there are more operands, adds instructions to place each subsequent
-   * operand and to evaluate the addition (or subtraction) operation
-   */
-  @Override
-  public InstructionList visitAddOper(AddOperContext ctx) {
-    Register dst1 = accMachine.peekFreeRegister();
-    InstructionList list = defaultResult().add(visitMultOper(ctx.first));
-    if (!ctx.otherExprs.isEmpty()) {
-      Register dst2;
-      // for loop used instead of visitChildren so only 2 registers used up
-      for (int i = 0; i < ctx.ops.size(); i++) {
-        MultOperContext otherExpr = ctx.otherExprs.get(i);
-        dst2 = accMachine.peekFreeRegister();
-        String op = ctx.ops.get(i).getText();
-        list.add(visitMultOper(otherExpr));
-        InstructionType opEnum;
-        opEnum = (op.equals(Utils.getToken(PLUS)) ? ADDS : SUBS);
-        list.add(accMachine.getInstructionList(opEnum, dst1, dst1, dst2));
-
-        Label throwOverflowError = new Label("p_throw_overflow_error");
-        list.add(createBranchLinkVS(throwOverflowError));
-
-        Utils.addRuntimeErrorFunctionsToHelpers(
-          RuntimeErrorFunctions.overflowError(data), data, helperFunctions);
-
-        accMachine.pushFreeRegister(dst2);
-      }
-    }
+    Label throwOverflowError = new Label("p_throw_overflow_error");
+    list.add(createBranchLinkVS(throwOverflowError));
 
+    Utils.addRuntimeErrorFunctionsToHelpers(
+      RuntimeHelper.THROW_OVERFLOW_ERROR, data, helperFunctions);
     return list;
   }
 
   /**
-   * Gets instructions for first atom
-   * If there are more operands, adds instructions to place each subsequent
-   * operand and to evaluate the multiplication (or div/ mod) operation
+   * Multiplies, checking for overflow
    */
-  @Override
-  public InstructionList visitMultOper(MultOperContext ctx) {
+  private InstructionList multiply(Register dst1, Register dst2) {
     InstructionList list = defaultResult();
-    Register dst1 = accMachine.peekFreeRegister();
-    list.add(visitAtom(ctx.first));
-    if (!ctx.otherExprs.isEmpty()) {
-      Register dst2;
-      // for loop used instead of visitChildren so only 2 registers used up
-      for (int i = 0; i < ctx.ops.size(); i++) {
-        AtomContext otherExpr = ctx.otherExprs.get(i);
-        dst2 = accMachine.peekFreeRegister();
-        String op = ctx.ops.get(i).getText();
-        list.add(visitAtom(otherExpr));
-        if (op.equals(Utils.getToken(MUL))){
-          Label overflowError = new Label("p_throw_overflow_error");
-          list.add(
-            accMachine.getInstructionList(SMULL, dst1, dst2))
-              .add(accMachine.getInstructionList(CMP, dst2, dst1,
-                                                 new Shift(Shifts.ASR, 31)))
-              .add(createBranchLinkNotEqual(overflowError));
-          Utils.addRuntimeErrorFunctionsToHelpers(
-            RuntimeErrorFunctions.overflowError(data), data, helperFunctions);
-        } else {
-          list.add(divMoves(dst1, dst2, op));
-        }
-        accMachine.pushFreeRegister(dst2);
-      }
-    }
+    Label overflowError = new Label("p_throw_overflow_error");
+    list.add(createSmull(dst1, dst2, dst1, dst2))
+        .add(createCompare(dst2, dst1, Shift.of(Shifts.ASR, 31)))
+        .add(createBranchLinkNotEqual(overflowError));
+    Utils.addRuntimeErrorFunctionsToHelpers(
+      RuntimeHelper.THROW_OVERFLOW_ERROR, data, helperFunctions);
     return list;
   }
 
   /**
    * Gets instructions to get the expression/ variable value
    * Adds the instructions for operations and possible runtime error calls
+   * ord and chr only change the type of their operand
    */
   @Override
-  public InstructionList visitUnaryOper(UnaryOperContext ctx) {
+  public InstructionList visitUnaryOp(ASTUnaryOpNode expr) {
     InstructionList list = defaultResult();
-    Register dst = accMachine.peekFreeRegister();
-    if (ctx.pointer() != null) {
-      list.add(visitPointer(ctx.pointer()));
-    } else if (ctx.ident() != null) {
-      if (ctx.ADDR() != null) {
-        list.add(visitAddress(ctx));
-      } else {
-        list.add(visitIdent(ctx.ident()));
-      }
-    } else if (ctx.expr() != null) {
-      list.add(visitExpr(ctx.expr()));
-    }
-    if (ctx.NOT() != null) {
-      list.add(createEOR(dst, dst, new Immediate(1L)));
-    } else if (ctx.MINUS() != null) {
-      Label throwOverflowError = new Label("p_throw_overflow_error");
-      list.add(createRSBS(dst, dst, new Immediate(0L)))
-          .add(createBranchLinkVS(throwOverflowError));
+    Register dst = registers.peekRegister();
+    list.add(expr.getOperand().accept(this));
+    switch (expr.getOperator()) {
+      case NOT:
+        list.add(createEOR(dst, dst, Immediate.of(1L)));
+        break;
+      case MINUS:
+        Label throwOverflowError = new Label("p_throw_overflow_error");
+        list.add(createRSBS(dst, dst, Immediate.of(0L)))
+            .add(createBranchLinkVS(throwOverflowError));
 
-      Utils.addRuntimeErrorFunctionsToHelpers(
-        RuntimeErrorFunctions.overflowError(data), data, helperFunctions);
-    } else if (ctx.LEN() != null) {
-      list.add(createLoad(dst, dst, new Immediate(0L)));
+        Utils.addRuntimeErrorFunctionsToHelpers(
+          RuntimeHelper.THROW_OVERFLOW_ERROR, data, helperFunctions);
+        break;
+      case LEN:
+        list.add(createLoad(dst, dst, Immediate.of(0L)));
+        break;
+      default:
+        break;
     }
 
     return list;
   }
 
-  private InstructionList visitAddress(UnaryOperContext ctx) {
+  @Override
+  public InstructionList visitAddress(ASTAddressNode address) {
     InstructionList list = defaultResult();
-    Immediate offset = new Immediate(getAccumulativeOffsetForVariable(
-        ctx.ident().getText()));
-    Register result = accMachine.popFreeRegister();
-    Register value = accMachine.popFreeRegister();
+    Immediate offset = Immediate.of(offsetOf(address.getIdent()));
+    Register result = registers.takeRegister();
+    Register value = registers.takeRegister();
 
     list.add(createAdd(value, SP, offset));
-    list.add(accMachine.getInstructionList(MOV, result, value));
-
-    accMachine.pushFreeRegister(value);
+    list.add(createMove(result, value));
 
     return list;
   }
 
   /**
-   * returns instruction to move the integer to the register
+   * returns instruction to move the integer, or the character with that
+   * code, to the register
    */
   @Override
-  public InstructionList visitInteger(IntegerContext ctx) {
+  public InstructionList visitIntLiteral(ASTIntLiteralNode literal) {
     InstructionList list = defaultResult();
     Immediate op;
     InstructionList loadOrMove = defaultResult();
-    Register reg = accMachine.popFreeRegister();
-    SignContext sign = ctx.sign();
-    String digits = (sign != null && sign.MINUS() != null) ? "-" : "";
-    digits += ctx.INTEGER();
-    long value = Long.parseLong(digits);
-    if (ctx.CHR() != null){
+    Register reg = registers.takeRegister();
+    long value = literal.getValue();
+    if (Type.isChar(literal.getType())){
       String chr = "\'" + (char) ((int) value) + "\'";
       op = new Immediate(chr);
-      loadOrMove.add(accMachine.getInstructionList(MOV, reg,
-                                                   op));
+      loadOrMove.add(createMove(reg, op));
     } else {
-      op = new Immediate(value);
-      loadOrMove.add(accMachine.getInstructionList(LDR, reg,
-          op));
+      op = Immediate.of(value);
+      loadOrMove.add(createLoad(reg, op));
     }
 
     return list.add(loadOrMove);
@@ -904,149 +877,99 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Gets instruction to store bool value
    */
   @Override
-  public InstructionList visitBool(BoolContext ctx) {
+  public InstructionList visitBoolLiteral(ASTBoolLiteralNode literal) {
     InstructionList list = defaultResult();
-    Operand op;
-
-    Register reg = accMachine.popFreeRegister();
-    String boolLitr = ctx.boolLitr().getText();
-    long value = boolLitr.equals("false") ? 0 : 1;
-    if (ctx.NOT() != null){
-      op = new Immediate(value^1);
-    } else {
-      op = new Immediate(value);
-    }
-
-    return list.add(accMachine.getInstructionList(MOV, reg, op));
+    Register reg = registers.takeRegister();
+    Operand op = Immediate.of(literal.getValue() ? 1L : 0L);
+    return list.add(createMove(reg, op));
   }
 
   /**
    * Gets instruction to store char value
    */
   @Override
-  public InstructionList visitCharacter(CharacterContext ctx) {
+  public InstructionList visitCharacterLiteral(
+      ASTCharacterLiteralNode literal) {
     InstructionList list = defaultResult();
     Operand op;
-    InstructionList loadOrMove;
-
-    Register reg = accMachine.popFreeRegister();
-    String chr = ctx.CHARACTER().getText();
-    if (ctx.ORD() != null){
-      long value = (int) chr.charAt(1);
-      op = new Immediate(value);
-      loadOrMove = accMachine.getInstructionList(LDR, reg, op);
+
+    Register reg = registers.takeRegister();
+    String chr = literal.getText();
+    if (chr.equals("'\\0'")) {
+      op = Immediate.of(0L);
     } else {
-      if (chr.equals("'\\0'")) {
-        op = new Immediate(0L);
-      } else {
-        op = new Immediate(chr);
-      }
-      loadOrMove = accMachine.getInstructionList(MOV, reg, op);
+      op = new Immediate(chr);
     }
 
-    return list.add(loadOrMove);
+    return list.add(createMove(reg, op));
   }
 
   /**
-   * Gets instruction to store string value or length of string (int)
+   * Gets instruction to store string value
    */
   @Override
-  public InstructionList visitString(StringContext ctx) {
+  public InstructionList visitStringLiteral(ASTStringLiteralNode literal) {
     InstructionList list = defaultResult();
 
-    Register reg = accMachine.popFreeRegister();
-    String text = ctx.STRING().getText();
-    Operand op = data.addConstString(text);
-    list.add(accMachine.getInstructionList(LDR, reg, op));
-
-    if (ctx.LEN() != null) {
-      list.add(createLoad(reg, reg, new Immediate(0L)));
-    }
+    Register reg = registers.takeRegister();
+    Operand op = data.addConstString(literal.getText());
+    list.add(createLoad(reg, op));
 
     return list;
   }
 
   /**
-   * Get instructions to load the value of a variable
+   * Get instructions to copy the value of a variable from its register, or
+   * to load it from its slot
    */
   @Override
-  public InstructionList visitIdent(IdentContext ctx) {
+  public InstructionList visitIdent(ASTIdentNode ident) {
     InstructionList list = defaultResult();
-    Variable variable = getMostRecentBindingForVariable(ctx.getText());
-
-    Immediate offset
-        = new Immediate(getAccumulativeOffsetForVariable(ctx.getText()));
-    Register reg = accMachine.popFreeRegister();
-    Register sp = SP;
-
-    if (Type.isBool(variable.getType()) || Type.isChar(variable.getType())) {
-      list.add(accMachine.getInstructionList(LDRSB, reg, sp, offset));
-    } else {
-      list.add(accMachine.getInstructionList(LDR, reg, sp, offset));
+    Register reg = registers.takeRegister();
+    Register variable = registerOf(ident);
+    if (variable != null) {
+      return list.add(createMove(reg, variable));
     }
-
-    return list;
+    return loadFromOffset(reg, ident);
   }
 
   /**
    * Gets instruction to load null into the required register
    */
   @Override
-  public InstructionList visitPairLitr(PairLitrContext ctx) {
+  public InstructionList visitNullPairLiteral(ASTNullPairLiteralNode literal) {
     InstructionList list = defaultResult();
-    Register result = accMachine.popFreeRegister();
-    Operand nullOp = new Immediate(0L);
-    return list.add(accMachine.getInstructionList(LDR, result, nullOp));
+    Register result = registers.takeRegister();
+    Operand nullOp = Immediate.of(0L);
+    return list.add(createLoad(result, nullOp));
   }
 
   /**
-   * Gets instructions of pair elems
+   * Gets instructions of the pair
    * Adds instruction to call for check_null_pointer procedure
    * Adds instruction to load elem in correct address (depending on fst or snd)
    */
   @Override
-  public InstructionList visitPairElem(PairElemContext ctx) {
+  public InstructionList visitPairElem(ASTPairElemNode pairElem) {
     InstructionList list = defaultResult();
-    Register result = accMachine.peekFreeRegister();
-    list.add(visitChildren(ctx));
-    if (ctx.pointer() != null && isAssigning) {
+    Register result = registers.peekRegister();
+    ASTExprNode pair = pairElem.getPair();
+    list.add(pair.accept(this));
+    if (pair instanceof ASTPointerNode && isAssigning) {
       list.add(createLoad(result, new Address(result)));
     }
     list.add(createMove(R0, result))
         .add(createBranchLink(new Label("p_check_null_pointer")));
 
     Utils.addRuntimeErrorFunctionsToHelpers(
-      RuntimeErrorFunctions.checkNullPointer(data), data, helperFunctions);
+      RuntimeHelper.CHECK_NULL_POINTER, data, helperFunctions);
 
-    String varName;
-    if (ctx.ident() != null) {
-      varName = ctx.ident().getText();
+    Type elemType = pairElem.getType();
+    boolean isStoredByte = Type.isBool(elemType) || Type.isChar(elemType);
+    if (pairElem.isFirst()) {
+      list.add(createLoad(result, result, Immediate.of(0L)));
     } else {
-      varName = ctx.pointer().ident().getText();
-    }
-
-    Variable variable = getMostRecentBindingForVariable(varName);
-
-    Type exprType = variable.getType();
-
-    if (ctx.pointer() != null) {
-      PointerType pointerType = (PointerType) exprType;
-      int totalDim = pointerType.getDimensionality();
-      int wantedDim = ctx.pointer().MUL().size();
-      if (wantedDim <= totalDim) {
-        int returnDim = totalDim - wantedDim;
-        exprType = PointerType.createPointer(pointerType.getBase(), returnDim);
-      }
-    }
-
-    PairType pairT = (PairType) exprType;
-    boolean isStoredByte;
-    if (ctx.FST() != null) {
-      list.add(createLoad(result, result, new Immediate(0L)));
-      isStoredByte = Type.isBool(pairT.getFst()) || Type.isChar(pairT.getFst());
-    } else {
-      list.add(createLoad(result, result, new Immediate(ADDRESS_SIZE)));
-      isStoredByte = Type.isBool(pairT.getSnd()) || Type.isChar(pairT.getSnd());
+      list.add(createLoad(result, result, Immediate.of(ADDRESS_SIZE)));
     }
 
     if (!isAssigning) {
@@ -1062,33 +985,27 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds instructions to store length of array
    */
   @Override
-  public InstructionList visitArrayLitr(ArrayLitrContext ctx) {
+  public InstructionList visitArrayLiteral(ASTArrayLiteralNode arrayLiteral) {
     InstructionList list = defaultResult();
+    List<ASTExprNode> elems = arrayLiteral.getElems();
     long bytesToAllocate = ADDRESS_SIZE;
     long typeSize = 0;
-    long numberOfElems = ctx.expr().size();
+    long numberOfElems = elems.size();
 
     if (numberOfElems != 0) {
-      typeSize = Utils.getTypeSize(ctx);
+      typeSize = elems.get(0).getType().getSize();
       bytesToAllocate += typeSize * numberOfElems;
     }
 
     Label malloc = new Label("malloc");
-    Register addressOfArray = accMachine.popFreeRegister();
-    list.add(Utils.allocateArrayAddress(bytesToAllocate, malloc, addressOfArray,
-                                        accMachine));
-    long offset = ADDRESS_SIZE;
-    for (ExprContext elem : ctx.expr()) {
-      Register result = accMachine.peekFreeRegister();
-      storeArrayElem(list, addressOfArray, offset, elem, result);
-      offset += typeSize;
-      accMachine.pushFreeRegister(result);
-    }
+    Register addressOfArray = registers.takeRegister();
+    list.add(Utils.allocateArrayAddress(bytesToAllocate, malloc,
+                                        addressOfArray));
+    storeArrayElems(list, addressOfArray, elems, typeSize);
 
-    Register lengthOfArray = accMachine.popFreeRegister();
+    Register lengthOfArray = registers.takeRegister();
     list.add(Utils.storeLengthOfArray(numberOfElems, addressOfArray,
                                       lengthOfArray));
-    accMachine.pushFreeRegister(lengthOfArray);
 
     return list;
   }
@@ -1099,30 +1016,29 @@ public class CodeGenerator extends WACCVisitor<InstructionList> {
    * Adds instruction to store element in register
    */
   @Override
-  public InstructionList visitArrayElem(ArrayElemContext ctx) {
+  public InstructionList visitArrayElem(ASTArrayElemNode arrayElem) {
     InstructionList list = defaultResult();
-    Register result = accMachine.peekFreeRegister();
+    Register result = registers.peekRegister();
+    Type elemType = arrayElem.getType();
 
-    list.add(visitIdent(ctx.ident()));
-    for (ExprContext exprCtx : ctx.expr()) {
-      Register helper = accMachine.peekFreeRegister();
+    list.add(visitIdent(arrayElem.getIdent()));
+    for (ASTExprNode index : arrayElem.getIndices()) {
+      Register helper = registers.peekRegister();
       Label checkArrayBounds = new Label("p_check_array_bounds");
-      list.add(visitExpr(exprCtx))
+      list.add(index.accept(this))
           .add(createMove(R0, helper))
           .add(createMove(R1, result))
           .add(createBranchLink(checkArrayBounds))
-          .add(createAdd(result, result, new Immediate(ADDRESS_SIZE)));
+          .add(createAdd(result, result, Immediate.of(ADDRESS_SIZE)));
 
-      boolean isStoredByte
-        = Type.isChar(ctx.returnType) || Type.isBool(ctx.returnType);
+      boolean isStoredByte = Type.isChar(elemType) || Type.isBool(elemType);
       list.add(getAddInstruction(isStoredByte, result, helper));
       if (!isAssigning) {
         list.add(getLoadInstructionForElem(isStoredByte, result, result, 0L));
       }
 
       Utils.addRuntimeErrorFunctionsToHelpers(
-        RuntimeErrorFunctions.checkArrayBounds(data), data, helperFunctions);
-      accMachine.pushFreeRegister(helper);
+        RuntimeHelper.CHECK_ARRAY_BOUNDS, data, helperFunctions);
     }
     return list;
   }
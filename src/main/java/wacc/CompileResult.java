@@ -0,0 +1,99 @@
+package wacc;
+
+import wacc.error.CompileError;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of compiling one program with WACCCompiler
+ */
+public class CompileResult {
+
+  /**
+   * Phases of a compilation, in the order they run
+   */
+  public enum Phase {
+    LEX, PARSE, SYMBOL_TABLE, TYPE_CHECK, CODE_GENERATION, EMISSION
+  }
+
+  private final int exitCode;
+  private final String assembly;
+  private final List<CompileError> errors;
+  private final String diagnostics;
+  private final Map<Phase, Long> timings;
+  private final CompileStats stats;
+
+  CompileResult(int exitCode, String assembly, List<CompileError> errors,
+                String diagnostics, EnumMap<Phase, Long> timings) {
+    this(exitCode, assembly, errors, diagnostics, timings, null);
+  }
+
+  CompileResult(int exitCode, String assembly, List<CompileError> errors,
+                String diagnostics, EnumMap<Phase, Long> timings,
+                CompileStats stats) {
+    this.exitCode = exitCode;
+    this.assembly = assembly;
+    this.errors = Collections.unmodifiableList(errors);
+    this.diagnostics = diagnostics;
+    this.timings = Collections.unmodifiableMap(timings);
+    this.stats = stats;
+  }
+
+  /**
+   * The same result with other assembly
+   */
+  CompileResult withAssembly(String otherAssembly) {
+    EnumMap<Phase, Long> phaseTimings = new EnumMap<>(Phase.class);
+    phaseTimings.putAll(timings);
+    return new CompileResult(exitCode, otherAssembly, errors, diagnostics,
+                             phaseTimings, stats);
+  }
+
+  /**
+   * 0 on success, 100 for syntax errors and 200 for semantic errors
+   */
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  public boolean isSuccess() {
+    return exitCode == WACCConstants.SUCCESS_EXIT_CODE;
+  }
+
+  /**
+   * The contents of the .s file, or null if compilation failed
+   */
+  public String getAssembly() {
+    return assembly;
+  }
+
+  public List<CompileError> getErrors() {
+    return errors;
+  }
+
+  /**
+   * The error report exactly as the command line compiler prints it
+   */
+  public String getDiagnostics() {
+    return diagnostics;
+  }
+
+  /**
+   * Wall clock nanoseconds spent in each phase that ran
+   */
+  public Map<Phase, Long> getPhaseTimings() {
+    return timings;
+  }
+
+  /**
+   * The measurements of a compiler made withStats, or null from any other
+   * compiler or when the result came from the output cache
+   */
+  public CompileStats getStats() {
+    return stats;
+  }
+
+}
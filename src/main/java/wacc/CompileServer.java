@@ -0,0 +1,242 @@
+package wacc;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long lived compiler listening on a loopback socket, so that every
+ * compilation after the first skips JVM startup, runs JIT compiled code and
+ * shares the ANTLR ATN and DFA caches built by earlier requests
+ *
+ * Each connection carries one request, given as an ASCII header line:
+ *   COMPILE n    followed by n bytes of source
+ *   STATS        latency percentiles of the requests served so far
+ *   SHUTDOWN     stops the server
+ * and is answered with the header line "exitCode outLength errLength"
+ * followed by outLength bytes of standard output and errLength bytes of
+ * standard error, both in UTF-8
+ * The assembly is streamed as the command line compiler streams it, so
+ * ./compile writes the same file whether or not a server is running
+ * A source longer than MAX_SOURCE_LENGTH, or a length that is not a
+ * number, is answered as a bad request without reading the source
+ * A connection that sends nothing for the timeout is closed, so idle
+ * clients cannot hold on to the threads that serve requests
+ */
+public class CompileServer {
+
+  static final String SERVER_FLAG = "--server";
+  static final int DEFAULT_PORT = 7412;
+
+  private static final String THREADS_FLAG = "-j";
+  private static final String PORT_FLAG = "-p";
+  private static final String DFA_FLAG = "-d";
+  private static final String TIMEOUT_FLAG = "-t";
+  private static final String COMPILE = "COMPILE";
+  private static final String STATS = "STATS";
+  private static final String SHUTDOWN = "SHUTDOWN";
+  private static final int MAX_HEADER_LENGTH = 64;
+  static final int MAX_SOURCE_LENGTH = 16 * 1024 * 1024;
+  private static final int DEFAULT_TIMEOUT_SECONDS = 10;
+  private static final int BAD_REQUEST_EXIT_CODE = 1;
+  private static final Charset CHARSET = WACCCompile.OUTPUT_CHARSET;
+  private static final String USAGE = "Usage: " + SERVER_FLAG + " ["
+      + THREADS_FLAG + " threads] [" + PORT_FLAG + " port] [" + DFA_FLAG
+      + " dfaSnapshot] [" + TIMEOUT_FLAG + " timeoutSeconds]";
+
+  private final WACCCompiler compiler = new WACCCompiler();
+  private final LatencyStats latencies = new LatencyStats();
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int port = DEFAULT_PORT;
+  private Path dfaSnapshot;
+  private int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+  private volatile ServerSocket serverSocket;
+
+  /**
+   * Serves requests until a SHUTDOWN request arrives
+   * With a DFA snapshot, the parser starts from the snapshot and the states
+   * it has built by then are saved back to it, once every request accepted
+   * before SHUTDOWN has been answered
+   */
+  public int run(String[] args) throws IOException {
+    if (!parseArguments(args)) {
+      System.err.println(USAGE);
+      return BAD_REQUEST_EXIT_CODE;
+    }
+
+    loadDfaSnapshot();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try (ServerSocket socket = new ServerSocket(port, 0,
+                                        InetAddress.getLoopbackAddress())) {
+      serverSocket = socket;
+      System.err.println("Listening on " + socket.getLocalSocketAddress()
+                         + " with " + threads + " threads");
+      acceptAll(socket, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    awaitRequests(pool);
+    saveDfaSnapshot();
+    System.err.println(latencies);
+    return WACCConstants.SUCCESS_EXIT_CODE;
+  }
+
+  private void acceptAll(ServerSocket socket, ExecutorService pool)
+      throws IOException {
+    while (!socket.isClosed()) {
+      try {
+        Socket client = socket.accept();
+        pool.execute(() -> serve(client));
+      } catch (SocketException e) {
+        // Closing the socket on SHUTDOWN interrupts the pending accept
+        if (!socket.isClosed()) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private static void awaitRequests(ExecutorService pool)
+      throws InterruptedIOException {
+    try {
+      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for requests");
+    }
+  }
+
+  private void loadDfaSnapshot() {
+    if (dfaSnapshot != null) {
+      DfaSnapshot.load(dfaSnapshot);
+    }
+  }
+
+  private void saveDfaSnapshot() throws IOException {
+    if (dfaSnapshot != null) {
+      DfaSnapshot.save(dfaSnapshot);
+    }
+  }
+
+  private boolean parseArguments(String[] args) {
+    try {
+      return parseFlags(args);
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private boolean parseFlags(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals(THREADS_FLAG) && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (args[i].equals(PORT_FLAG) && i + 1 < args.length) {
+        port = Integer.parseInt(args[++i]);
+      } else if (args[i].equals(DFA_FLAG) && i + 1 < args.length) {
+        dfaSnapshot = Paths.get(args[++i]);
+      } else if (args[i].equals(TIMEOUT_FLAG) && i + 1 < args.length) {
+        timeoutSeconds = Integer.parseInt(args[++i]);
+      } else {
+        return false;
+      }
+    }
+    return threads > 0 && timeoutSeconds > 0;
+  }
+
+  private void serve(Socket client) {
+    try (Socket socket = client) {
+      socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(timeoutSeconds));
+      DataInputStream in = new DataInputStream(
+          new BufferedInputStream(socket.getInputStream()));
+      OutputStream out = socket.getOutputStream();
+      String[] header = readHeader(in).split(" ");
+
+      int length = header[0].equals(COMPILE) && header.length == 2
+          ? sourceLength(header[1]) : -1;
+      if (length >= 0) {
+        byte[] source = new byte[length];
+        in.readFully(source);
+        compile(source, out);
+      } else if (header[0].equals(STATS)) {
+        respond(out, WACCConstants.SUCCESS_EXIT_CODE,
+                (latencies + "\n").getBytes(CHARSET), new byte[0]);
+      } else if (header[0].equals(SHUTDOWN)) {
+        respond(out, WACCConstants.SUCCESS_EXIT_CODE, new byte[0],
+                new byte[0]);
+        serverSocket.close();
+      } else {
+        respond(out, BAD_REQUEST_EXIT_CODE, new byte[0],
+                ("Bad request\n").getBytes(CHARSET));
+      }
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Request failed: " + e);
+    }
+  }
+
+  /**
+   * The length a COMPILE request gives its source, or -1 if it is not a
+   * number from 0 to MAX_SOURCE_LENGTH
+   */
+  private static int sourceLength(String length) {
+    try {
+      int bytes = Integer.parseInt(length);
+      return bytes >= 0 && bytes <= MAX_SOURCE_LENGTH ? bytes : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private void compile(byte[] source, OutputStream out) throws IOException {
+    long start = System.nanoTime();
+    StringWriter assembly = new StringWriter();
+    CompileResult result
+        = compiler.compile(AsciiCharStream.of(source), assembly);
+
+    respond(out, result.getExitCode(), assembly.toString().getBytes(CHARSET),
+            result.getDiagnostics().getBytes(CHARSET));
+    latencies.record(System.nanoTime() - start);
+  }
+
+  private static void respond(OutputStream out, int exitCode, byte[] stdout,
+                              byte[] stderr) throws IOException {
+    String header = exitCode + " " + stdout.length + " " + stderr.length
+        + "\n";
+    out.write(header.getBytes(StandardCharsets.US_ASCII));
+    out.write(stdout);
+    out.write(stderr);
+    out.flush();
+  }
+
+  private static String readHeader(InputStream in) throws IOException {
+    StringBuilder header = new StringBuilder();
+    int c;
+    while ((c = in.read()) != '\n') {
+      if (c == -1) {
+        throw new EOFException("Connection closed before request header");
+      }
+      if (header.length() == MAX_HEADER_LENGTH) {
+        throw new IOException("Request header too long");
+      }
+      header.append((char) c);
+    }
+    return header.toString().trim();
+  }
+
+}
@@ -0,0 +1,296 @@
+package wacc;
+
+import bindings.Binding;
+import bindings.NewScope;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.antlr.v4.runtime.tree.ParseTree;
+import wacc.CompileResult.Phase;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Where the time and memory of one compilation went, phase by phase, with
+ * the size of what each phase produced
+ * Times and allocations are those of the compiling thread, so the work the
+ * parallel type checker and code generator hand to other threads only
+ * counts as the time spent waiting for it
+ * A measurement the JVM does not support is -1
+ * The stats watch the JVM's collectors until they are closed, which a
+ * compilation does however it ends
+ */
+public class CompileStats implements AutoCloseable {
+
+  /**
+   * What a compilation counts
+   */
+  public enum Count {
+    TOKENS, PARSE_TREE_NODES, SYMBOL_TABLES, INSTRUCTIONS, HELPERS
+  }
+
+  private static final ThreadMXBean THREADS
+      = ManagementFactory.getThreadMXBean();
+  private static final double MILLION = 1e6;
+  private static final double KILOBYTE = 1024;
+  private static final Set<String> HEAP_POOLS
+      = ManagementFactory.getMemoryPoolMXBeans().stream()
+          .filter(pool -> pool.getType() == MemoryType.HEAP)
+          .map(MemoryPoolMXBean::getName).collect(Collectors.toSet());
+
+  private final Map<Phase, Long> wallTimes = new EnumMap<>(Phase.class);
+  private final Map<Phase, Long> cpuTimes = new EnumMap<>(Phase.class);
+  private final Map<Phase, Long> allocations = new EnumMap<>(Phase.class);
+  private final Map<Count, Long> counts = new EnumMap<>(Count.class);
+  private final AtomicLong heapBeforeCollections = new AtomicLong();
+  private final NotificationListener collections = this::collected;
+  private long peakHeap = -1;
+  private boolean watching = true;
+  private long cpuStart;
+  private long allocationStart;
+
+  CompileStats() {
+    for (GarbageCollectorMXBean collector
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter) {
+        ((NotificationEmitter) collector)
+            .addNotificationListener(collections, null, null);
+      }
+    }
+    startPhase();
+  }
+
+  /**
+   * Starts measuring the next phase from now, leaving out anything done
+   * since the last one ended
+   */
+  void startPhase() {
+    cpuStart = cpuTime();
+    allocationStart = allocatedBytes();
+  }
+
+  void endPhase(Phase phase, long wallTime) {
+    long cpuEnd = cpuTime();
+    long allocationEnd = allocatedBytes();
+    wallTimes.put(phase, wallTime);
+    cpuTimes.put(phase, difference(cpuStart, cpuEnd));
+    allocations.put(phase, difference(allocationStart, allocationEnd));
+    cpuStart = cpuEnd;
+    allocationStart = allocationEnd;
+  }
+
+  void count(Count count, long value) {
+    counts.put(count, value);
+  }
+
+  /**
+   * Records the largest the heap has been during the compilation, which is
+   * either what it held just before one of the collections made since the
+   * stats were created or what it holds now, and stops watching collections
+   */
+  void recordPeakHeap() {
+    close();
+    peakHeap = Math.max(heapBeforeCollections.get(),
+                        ManagementFactory.getMemoryMXBean()
+                            .getHeapMemoryUsage().getUsed());
+  }
+
+  /**
+   * Stops watching collections, after which the peak heap only counts
+   * those made so far
+   */
+  @Override
+  public void close() {
+    if (!watching) {
+      return;
+    }
+    watching = false;
+    for (GarbageCollectorMXBean collector
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter) {
+        try {
+          ((NotificationEmitter) collector)
+              .removeNotificationListener(collections);
+        } catch (ListenerNotFoundException e) {
+          throw new IllegalStateException("Collections not watched", e);
+        }
+      }
+    }
+  }
+
+  private void collected(Notification notification, Object handback) {
+    if (!notification.getType().equals(
+        GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+      return;
+    }
+    Map<String, MemoryUsage> before = GarbageCollectionNotificationInfo
+        .from((CompositeData) notification.getUserData())
+        .getGcInfo().getMemoryUsageBeforeGc();
+    long used = 0;
+    for (Map.Entry<String, MemoryUsage> pool : before.entrySet()) {
+      if (HEAP_POOLS.contains(pool.getKey())) {
+        used += pool.getValue().getUsed();
+      }
+    }
+    heapBeforeCollections.accumulateAndGet(used, Math::max);
+  }
+
+  /**
+   * Wall clock nanoseconds spent in each phase that ran
+   */
+  public Map<Phase, Long> getWallTimes() {
+    return wallTimes;
+  }
+
+  /**
+   * CPU nanoseconds the compiling thread spent in each phase that ran
+   */
+  public Map<Phase, Long> getCpuTimes() {
+    return cpuTimes;
+  }
+
+  /**
+   * Bytes the compiling thread allocated in each phase that ran
+   */
+  public Map<Phase, Long> getAllocations() {
+    return allocations;
+  }
+
+  public Map<Count, Long> getCounts() {
+    return counts;
+  }
+
+  public long getPeakHeap() {
+    return peakHeap;
+  }
+
+  /**
+   * A table of the phases followed by the counts, for people
+   */
+  public String toText() {
+    StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+        "%-16s %10s %10s %12s%n", "phase", "wall ms", "cpu ms",
+        "allocated KB"));
+    for (Map.Entry<Phase, Long> phase : wallTimes.entrySet()) {
+      text.append(String.format(Locale.ROOT, "%-16s %10.3f %10.3f %12.1f%n",
+          words(phase.getKey()), phase.getValue() / MILLION,
+          cpuTimes.get(phase.getKey()) / MILLION,
+          allocations.get(phase.getKey()) / KILOBYTE));
+    }
+    for (Map.Entry<Count, Long> count : counts.entrySet()) {
+      text.append(String.format(Locale.ROOT, "%-16s %10d%n",
+                                words(count.getKey()), count.getValue()));
+    }
+    return text.append(String.format(Locale.ROOT, "%-16s %10.1f MB%n",
+        "peak heap", peakHeap / KILOBYTE / KILOBYTE)).toString();
+  }
+
+  /**
+   * One JSON object of every measurement in nanoseconds and bytes, for
+   * tools
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder("{\"phases\":{");
+    String separator = "";
+    for (Map.Entry<Phase, Long> phase : wallTimes.entrySet()) {
+      json.append(separator).append('"').append(camelCase(phase.getKey()))
+          .append("\":{\"wallNanos\":").append(phase.getValue())
+          .append(",\"cpuNanos\":").append(cpuTimes.get(phase.getKey()))
+          .append(",\"allocatedBytes\":")
+          .append(allocations.get(phase.getKey())).append('}');
+      separator = ",";
+    }
+    json.append("},\"counts\":{");
+    separator = "";
+    for (Map.Entry<Count, Long> count : counts.entrySet()) {
+      json.append(separator).append('"').append(camelCase(count.getKey()))
+          .append("\":").append(count.getValue());
+      separator = ",";
+    }
+    return json.append("},\"peakHeapBytes\":").append(peakHeap).append('}')
+               .toString();
+  }
+
+  static long countNodes(ParseTree tree) {
+    long nodes = 0;
+    Deque<ParseTree> pending = new ArrayDeque<>();
+    pending.push(tree);
+    while (!pending.isEmpty()) {
+      ParseTree node = pending.pop();
+      nodes++;
+      for (int i = 0; i < node.getChildCount(); i++) {
+        pending.push(node.getChild(i));
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * The top symbol table and those of every scope nested in it
+   */
+  static long countSymbolTables(SymbolTable<String, Binding> top) {
+    long tables = 0;
+    Deque<SymbolTable<String, Binding>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      tables++;
+      for (Binding binding : pending.pop().values()) {
+        if (binding instanceof NewScope) {
+          pending.push(((NewScope) binding).getSymbolTable());
+        }
+      }
+    }
+    return tables;
+  }
+
+  private static long cpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported()
+           ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  /**
+   * Bytes allocated so far by the current thread, which only HotSpot's
+   * extension of ThreadMXBean gives
+   */
+  static long allocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) THREADS)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private static long difference(long start, long end) {
+    return start < 0 || end < 0 ? -1 : end - start;
+  }
+
+  private static String words(Enum<?> constant) {
+    return constant.name().toLowerCase(Locale.ROOT).replace('_', ' ');
+  }
+
+  private static String camelCase(Enum<?> constant) {
+    StringBuilder name = new StringBuilder();
+    for (String word : words(constant).split(" ")) {
+      name.append(name.length() == 0 ? word
+          : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+    }
+    return name.toString();
+  }
+
+}
@@ -0,0 +1,319 @@
+package wacc;
+
+import arm11.emulator.EmulationException;
+import arm11.emulator.Emulator;
+import arm11.emulator.Execution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles every valid example and runs it on the emulator, concurrently,
+ * checking what it prints against the expected output of the reference
+ * compiler and its exit code against the one its comments give
+ * Each program gets a line with the instructions it executed and the
+ * loads and stores it made, so that the runs double as a benchmark of the
+ * generated code
+ * A program reads its standard input from the .in file next to it, and its
+ * exit code is only checked if an Exit comment gives one, as the examples
+ * without comments do not all exit with 0
+ * Expected outputs are named after the program alone, so the output of a
+ * program that shares its name with another may be the other's, and only
+ * its exit code is checked
+ */
+public class CorpusEmulator {
+
+  static final String EMULATE_FLAG = "--emulate";
+
+  static final Path EXPECTED_OUTPUT
+      = Paths.get("src/test/output/expected/out");
+  static final List<Path> EXAMPLES = Arrays.asList(
+      Paths.get("src/test/resources/examples/valid"),
+      Paths.get("src/test/resources/trialFiles/valid"));
+
+  private static final String THREADS_FLAG = "-j";
+  private static final String EXPECTED_FLAG = "-e";
+  private static final String LIMIT_FLAG = "-n";
+  private static final String SOURCE_EXTENSION = ".wacc";
+  private static final String INPUT_EXTENSION = ".in";
+  private static final String OUTPUT_EXTENSION = ".out";
+  private static final Pattern EXIT_COMMENT
+      = Pattern.compile("^# Exit:\\s*\\n#\\s*(\\d+)", Pattern.MULTILINE);
+  private static final int FAILURE_EXIT_CODE = 1;
+  private static final String USAGE = "Usage: " + EMULATE_FLAG + " ["
+      + THREADS_FLAG + " threads] [" + EXPECTED_FLAG
+      + " expectedOutputDir] [" + LIMIT_FLAG
+      + " instructionLimit] [(file.wacc | directory)...]";
+
+  private final WACCCompiler compiler = new WACCCompiler();
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private Path expectedOutput = EXPECTED_OUTPUT;
+  private long instructionLimit = Emulator.DEFAULT_INSTRUCTION_LIMIT;
+
+  public CorpusEmulator() {
+  }
+
+  CorpusEmulator(int threads, long instructionLimit) {
+    this.threads = threads;
+    this.instructionLimit = instructionLimit;
+  }
+
+  /**
+   * How a program fared, STOPPED meaning that it ran into the instruction
+   * limit and so could not be checked
+   */
+  enum Status {
+    PASSED, FAILED, STOPPED, UNCHECKED
+  }
+
+  /**
+   * Emulates every program args name, or every valid example if they name
+   * none, printing a line for each and a summary
+   * Returns 1 if any program failed and 0 otherwise
+   */
+  public int run(String[] args) throws IOException, InterruptedException {
+    List<Path> roots = parseArguments(args);
+    if (roots == null) {
+      System.err.println(USAGE);
+      return FAILURE_EXIT_CODE;
+    }
+
+    long start = System.nanoTime();
+    List<Result> results = emulateAll(collectSources(roots));
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.println("status\tinstructions\tloads\tstores\tprogram");
+    int[] statuses = new int[Status.values().length];
+    for (Result result : results) {
+      if (result.status == Status.FAILED) {
+        System.err.println(result.source + ":");
+        System.err.println(result.problem);
+      }
+      System.out.println(result.status + "\t" + result.instructions + "\t"
+                         + result.loads + "\t" + result.stores + "\t"
+                         + result.source);
+      statuses[result.status.ordinal()]++;
+    }
+    printSummary(results, statuses, seconds);
+    return statuses[Status.FAILED.ordinal()] > 0
+           ? FAILURE_EXIT_CODE : WACCConstants.SUCCESS_EXIT_CODE;
+  }
+
+  private void printSummary(List<Result> results, int[] statuses,
+                            double seconds) {
+    long instructions = 0;
+    long loads = 0;
+    long stores = 0;
+    for (Result result : results) {
+      instructions += result.instructions;
+      loads += result.loads;
+      stores += result.stores;
+    }
+    System.out.println(String.format(
+        "Emulated %d programs in %.3f s on %d threads: %d passed, "
+        + "%d failed, %d stopped, %d without expected output",
+        results.size(), seconds, threads,
+        statuses[Status.PASSED.ordinal()], statuses[Status.FAILED.ordinal()],
+        statuses[Status.STOPPED.ordinal()],
+        statuses[Status.UNCHECKED.ordinal()]));
+    System.out.println(String.format(
+        "Executed %d instructions, %d loads and %d stores",
+        instructions, loads, stores));
+  }
+
+  private List<Path> parseArguments(String[] args) {
+    List<Path> roots = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals(THREADS_FLAG) && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (args[i].equals(EXPECTED_FLAG) && i + 1 < args.length) {
+        expectedOutput = Paths.get(args[++i]);
+      } else if (args[i].equals(LIMIT_FLAG) && i + 1 < args.length) {
+        instructionLimit = Long.parseLong(args[++i]);
+      } else {
+        roots.add(Paths.get(args[i]));
+      }
+    }
+    if (threads < 1 || instructionLimit < 1) {
+      return null;
+    }
+    return roots.isEmpty() ? EXAMPLES : roots;
+  }
+
+  static List<Path> collectSources(List<Path> roots) throws IOException {
+    List<Path> sources = new ArrayList<>();
+    for (Path root : roots) {
+      try (Stream<Path> files = Files.walk(root)) {
+        sources.addAll(files.filter(file -> file.toString()
+                                                .endsWith(SOURCE_EXTENSION))
+                            .sorted().collect(Collectors.toList()));
+      }
+    }
+    return sources;
+  }
+
+  /**
+   * Emulates every source on a fixed pool of workers and collects the
+   * results in submission order
+   */
+  List<Result> emulateAll(List<Path> sources) throws InterruptedException {
+    Set<Path> sharedNames = sources.stream()
+        .collect(Collectors.groupingBy(Path::getFileName,
+                                       Collectors.counting()))
+        .entrySet().stream().filter(name -> name.getValue() > 1)
+        .map(Map.Entry::getKey).collect(Collectors.toSet());
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      for (Path source : sources) {
+        boolean sharesName = sharedNames.contains(source.getFileName());
+        futures.add(pool.submit(() -> emulate(source, sharesName)));
+      }
+
+      List<Result> results = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          results.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          results.add(new Result(sources.get(i), Status.FAILED,
+                                 e.getCause().toString(), null));
+        }
+      }
+      return results;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private Result emulate(Path source, boolean sharesName)
+      throws IOException {
+    String program = read(source);
+    CompileResult compiled = compiler.compile(program);
+    if (!compiled.isSuccess()) {
+      return new Result(source, Status.FAILED, compiled.getDiagnostics(),
+                        null);
+    }
+    Execution execution;
+    try {
+      Emulator emulator
+          = new Emulator(compiled.getAssembly(), instructionLimit);
+      execution = emulator.run(read(sibling(source, INPUT_EXTENSION)));
+    } catch (EmulationException e) {
+      return new Result(source, Status.FAILED, e.getMessage(), null);
+    }
+    return check(source, program, execution, sharesName);
+  }
+
+  private Result check(Path source, String program, Execution execution,
+                       boolean sharesName) throws IOException {
+    if (execution.isStopped()) {
+      return new Result(source, Status.STOPPED, execution.getError(),
+                        execution);
+    }
+    Path expected = expectedOutput.resolve(
+        sibling(source, OUTPUT_EXTENSION).getFileName());
+    Integer exitCode = expectedExitCode(program);
+    if (!Files.exists(expected) || sharesName && exitCode == null) {
+      return new Result(source, Status.UNCHECKED, null, execution);
+    }
+    String problem = compare(sharesName ? null : read(expected), exitCode,
+                             execution);
+    return new Result(source, problem == null ? Status.PASSED
+                                              : Status.FAILED,
+                      problem, execution);
+  }
+
+  /**
+   * What differs between the expected run and the actual one, or null if
+   * nothing does, leaving out the output if it is null
+   */
+  private static String compare(String output, Integer exitCode,
+                                Execution execution) {
+    if (output != null && !execution.getOutput().equals(output)) {
+      return "expected output:\n" + output + "\nactual output:\n"
+             + execution.getOutput();
+    }
+    if (exitCode != null && execution.getExitCode() != exitCode) {
+      return "expected exit code " + exitCode + " but was "
+             + execution.getExitCode()
+             + (execution.getError() == null ? ""
+                                             : ": " + execution.getError());
+    }
+    return null;
+  }
+
+  /**
+   * The exit code the Exit comment of program gives, or null if it has
+   * none
+   */
+  static Integer expectedExitCode(String program) {
+    Matcher matcher = EXIT_COMMENT.matcher(program);
+    return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+  }
+
+  private static Path sibling(Path source, String extension) {
+    String name = source.getFileName().toString();
+    return source.resolveSibling(name.substring(
+        0, name.length() - SOURCE_EXTENSION.length()) + extension);
+  }
+
+  /**
+   * The bytes of file one character each, or nothing if it does not exist
+   */
+  private static String read(Path file) throws IOException {
+    return Files.exists(file)
+           ? new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1)
+           : "";
+  }
+
+  static final class Result {
+    private final Path source;
+    private final Status status;
+    private final String problem;
+    private final long instructions;
+    private final long loads;
+    private final long stores;
+
+    Result(Path source, Status status, String problem, Execution execution) {
+      this.source = source;
+      this.status = status;
+      this.problem = problem;
+      this.instructions = execution == null ? 0 : execution.getInstructions();
+      this.loads = execution == null ? 0 : execution.getLoads();
+      this.stores = execution == null ? 0 : execution.getStores();
+    }
+
+    Path getSource() {
+      return source;
+    }
+
+    Status getStatus() {
+      return status;
+    }
+
+    String getProblem() {
+      return problem;
+    }
+
+    long getInstructions() {
+      return instructions;
+    }
+  }
+
+}
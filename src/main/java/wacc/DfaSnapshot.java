@@ -0,0 +1,288 @@
+package wacc;
+
+import antlr.WACCParser;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saving and reloading the decision DFAs that WACCParser builds as it
+ * parses, which all parsers share
+ * A cold parser has to simulate its ATN for every lookahead it has not
+ * seen before, which makes the first programs it parses far slower than
+ * the rest; loading a snapshot taken after parsing a training corpus
+ * gives it those DFA states straight away
+ * Only the SLL start state of each decision and the states reached from
+ * it are saved, which is all the compiler's first parse uses; decisions
+ * with predicates or context-sensitive states are left to be rebuilt
+ * The snapshot records the ATN it was taken from, and is ignored by a
+ * parser built from a different grammar
+ */
+final class DfaSnapshot {
+
+  private static final int VERSION = 1;
+  private static final int ERROR_STATE = -1;
+  private static final int EMPTY_LOCAL = -1;
+  private static final int EMPTY_FULL = -2;
+  private static final String GRAMMAR = WACCParser._serializedATN;
+
+  private DfaSnapshot() {
+  }
+
+  /**
+   * Writes the DFA states built so far by every WACCParser in this JVM
+   */
+  static void save(Path file) throws IOException {
+    List<DFA> decisions = new ArrayList<>();
+    for (DFA dfa : WACCParser._ATN.decisionToDFA) {
+      if (isSaved(dfa)) {
+        decisions.add(dfa);
+      }
+    }
+    CacheFiles.write(file, out -> {
+      out.writeInt(VERSION);
+      out.writeInt(GRAMMAR.length());
+      out.writeInt(GRAMMAR.hashCode());
+      out.writeInt(decisions.size());
+      for (DFA dfa : decisions) {
+        out.writeInt(dfa.decision);
+        new Writer(out).writeDecision(dfa.s0.get());
+      }
+    });
+  }
+
+  /**
+   * Adds the states of a snapshot to the DFAs of every WACCParser in this
+   * JVM, and gives whether there was a snapshot of this grammar to load
+   */
+  static boolean load(Path file) {
+    Boolean loaded = CacheFiles.read(file, in -> {
+      if (in.readInt() != VERSION || in.readInt() != GRAMMAR.length()
+          || in.readInt() != GRAMMAR.hashCode()) {
+        return false;
+      }
+      Reader reader = new Reader(WACCParser._ATN);
+      for (int i = in.readInt(); i > 0; i--) {
+        reader.readDecision(in);
+      }
+      return true;
+    });
+    return loaded != null && loaded;
+  }
+
+  private static boolean isSaved(DFA dfa) {
+    if (dfa.s0.get() == null || dfa.isPrecedenceDfa()) {
+      return false;
+    }
+    for (DFAState state : dfa.states.values()) {
+      if (state.isContextSensitive() || state.predicates != null) {
+        return false;
+      }
+      for (ATNConfig config : state.configs) {
+        if (config.getSemanticContext() != SemanticContext.NONE) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a decision as its prediction contexts, each after its parents,
+   * then its states in the order they are reached from the start state,
+   * then their edges
+   */
+  private static final class Writer {
+    private final DataOutputStream out;
+    private final Map<PredictionContext, Integer> contexts = new HashMap<>();
+    private final Map<DFAState, Integer> states = new HashMap<>();
+    private final List<DFAState> order = new ArrayList<>();
+    private final List<PredictionContext> contextOrder = new ArrayList<>();
+
+    Writer(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void writeDecision(DFAState start) throws IOException {
+      number(start);
+      for (int i = 0; i < order.size(); i++) {
+        for (DFAState target : order.get(i).getEdgeMap().values()) {
+          if (target != ATNSimulator.ERROR) {
+            number(target);
+          }
+        }
+        for (ATNConfig config : order.get(i).configs) {
+          number(config.getContext());
+        }
+      }
+
+      out.writeInt(contextOrder.size());
+      for (PredictionContext context : contextOrder) {
+        writeContext(context);
+      }
+      out.writeInt(order.size());
+      for (DFAState state : order) {
+        writeConfigs(state.configs);
+      }
+      for (DFAState state : order) {
+        writeEdges(state);
+      }
+    }
+
+    private void number(DFAState state) {
+      if (!states.containsKey(state)) {
+        states.put(state, order.size());
+        order.add(state);
+      }
+    }
+
+    private int number(PredictionContext context) {
+      if (context == PredictionContext.EMPTY_LOCAL) {
+        return EMPTY_LOCAL;
+      } else if (context == PredictionContext.EMPTY_FULL) {
+        return EMPTY_FULL;
+      }
+      Integer number = contexts.get(context);
+      if (number == null) {
+        for (int i = 0; i < context.size(); i++) {
+          number(context.getParent(i));
+        }
+        number = contextOrder.size();
+        contexts.put(context, number);
+        contextOrder.add(context);
+      }
+      return number;
+    }
+
+    private void writeContext(PredictionContext context) throws IOException {
+      out.writeInt(context.size());
+      for (int i = 0; i < context.size(); i++) {
+        out.writeInt(number(context.getParent(i)));
+        out.writeInt(context.getReturnState(i));
+      }
+    }
+
+    private void writeConfigs(ATNConfigSet configs) throws IOException {
+      out.writeBoolean(configs.isOutermostConfigSet());
+      out.writeInt(configs.size());
+      for (ATNConfig config : configs) {
+        out.writeInt(config.getState().stateNumber);
+        out.writeInt(config.getAlt());
+        out.writeInt(config.getOuterContextDepth());
+        out.writeBoolean(config.isPrecedenceFilterSuppressed());
+        out.writeInt(number(config.getContext()));
+      }
+    }
+
+    private void writeEdges(DFAState state) throws IOException {
+      Map<Integer, DFAState> edges = state.getEdgeMap();
+      out.writeInt(edges.size());
+      for (Map.Entry<Integer, DFAState> edge : edges.entrySet()) {
+        out.writeInt(edge.getKey());
+        DFAState target = edge.getValue();
+        out.writeInt(target == ATNSimulator.ERROR
+                     ? ERROR_STATE : states.get(target));
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the states of a decision through the parser's own simulator,
+   * so that they are merged with any the DFA already has and get their
+   * predictions as if the parser had reached them
+   */
+  private static final class Reader extends ParserATNSimulator {
+    private final PredictionContextCache cache = new PredictionContextCache();
+
+    Reader(ATN atn) {
+      super(atn);
+    }
+
+    void readDecision(DataInputStream in) throws IOException {
+      DFA dfa = atn.decisionToDFA[in.readInt()];
+      List<PredictionContext> contexts = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        contexts.add(readContext(in, contexts));
+      }
+      List<DFAState> states = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        states.add(addDFAState(dfa, readConfigs(in, contexts), cache));
+      }
+      for (DFAState state : states) {
+        for (int i = in.readInt(); i > 0; i--) {
+          int symbol = in.readInt();
+          int target = in.readInt();
+          state.setTarget(symbol, target == ERROR_STATE
+                                  ? ATNSimulator.ERROR : states.get(target));
+        }
+      }
+      dfa.s0.compareAndSet(null, states.get(0));
+    }
+
+    /**
+     * A context is the join of one context per parent, each of which
+     * returns to its own state
+     */
+    private PredictionContext readContext(DataInputStream in,
+                                          List<PredictionContext> contexts)
+        throws IOException {
+      PredictionContext context = null;
+      for (int i = in.readInt(); i > 0; i--) {
+        PredictionContext parent = context(in.readInt(), contexts);
+        int returnState = in.readInt();
+        PredictionContext branch
+            = returnState == PredictionContext.EMPTY_FULL_STATE_KEY
+            ? PredictionContext.EMPTY_FULL
+            : cache.getChild(parent, returnState);
+        context = context == null ? branch : cache.join(context, branch);
+      }
+      return context;
+    }
+
+    private ATNConfigSet readConfigs(DataInputStream in,
+                                     List<PredictionContext> contexts)
+        throws IOException {
+      ATNConfigSet configs = new ATNConfigSet();
+      configs.setOutermostConfigSet(in.readBoolean());
+      for (int i = in.readInt(); i > 0; i--) {
+        int state = in.readInt();
+        int alt = in.readInt();
+        int outerContextDepth = in.readInt();
+        boolean suppressed = in.readBoolean();
+        ATNConfig config = ATNConfig.create(
+            atn.states.get(state), alt, context(in.readInt(), contexts));
+        config.setOuterContextDepth(outerContextDepth);
+        config.setPrecedenceFilterSuppressed(suppressed);
+        configs.add(config, cache);
+      }
+      return configs;
+    }
+
+    private static PredictionContext context(
+        int number, List<PredictionContext> contexts) {
+      if (number == EMPTY_LOCAL) {
+        return PredictionContext.EMPTY_LOCAL;
+      } else if (number == EMPTY_FULL) {
+        return PredictionContext.EMPTY_FULL;
+      }
+      return contexts.get(number);
+    }
+  }
+
+}
@@ -0,0 +1,285 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser.ProgContext;
+import arm11.DeferredDataInstructions;
+import arm11.Label;
+import arm11.RuntimeHelper;
+import arm11.RuntimeHelpers;
+import bindings.Binding;
+import bindings.Function;
+import bindings.NewScope;
+import bindings.Overloads;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import wacc.UnitCache.DataRequest;
+import wacc.UnitCache.Entry;
+import wacc.ast.ASTBuilder;
+import wacc.ast.ASTNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static arm11.InstructionFactory.createGlobal;
+import static arm11.InstructionFactory.createText;
+import static wacc.CacheFiles.createDigest;
+import static wacc.CacheFiles.toHex;
+import static wacc.CacheFiles.update;
+
+/**
+ * Compiles a program reusing the checked and generated code of every
+ * function, and main, that is unchanged since an earlier compilation
+ * The code of a unit depends only on its tokens, the scope counters it
+ * starts from, the signatures of the functions it calls and the build of
+ * the compiler, so these make up its fingerprint; the data section and
+ * helpers are rebuilt from what every unit asked for, in order, so the
+ * assembly is the same as that of a clean build
+ */
+class IncrementalBuild {
+
+  private static final Pattern DEFERRED_LABEL
+      = Pattern.compile("\\bmsg_deferred_(\\d+)\\b");
+
+  private final ProgContext ctx;
+  private final SymbolTable<String, Binding> top;
+  private final UnitCache cache;
+  private final List<ParserRuleContext> units;
+  private final List<int[]> counters;
+  private final List<String> keys = new ArrayList<>();
+  private final List<Entry> entries = new ArrayList<>();
+  private final Set<ParserRuleContext> dirty
+      = Collections.newSetFromMap(new IdentityHashMap<>());
+  private WACCTypeChecker checker;
+  private CodeGenerator program;
+  private List<String> code;
+
+  /**
+   * Looks up the cached code of every unit of a program whose symbol
+   * table has been filled
+   */
+  IncrementalBuild(ProgContext ctx, SymbolTable<String, Binding> top,
+                   TokenStream tokens, UnitCache cache) {
+    this.ctx = ctx;
+    this.top = top;
+    this.cache = cache;
+    this.units = ProgramUnits.of(ctx);
+    this.counters = ProgramUnits.createVisitors(
+        units, (ifs, whiles, begins) -> new int[] {ifs, whiles, begins});
+    for (int i = 0; i < units.size(); i++) {
+      String key = fingerprint(i, tokens);
+      Entry entry = cache.load(key);
+      keys.add(key);
+      entries.add(entry);
+      if (entry == null) {
+        dirty.add(units.get(i));
+      }
+    }
+  }
+
+  /**
+   * Type checks the units that have no cached code, adding their errors to
+   * those of program; the others compiled without errors before
+   */
+  void check(WACCTypeChecker program) {
+    checker = program;
+    for (ParserRuleContext unit : units) {
+      if (program.hasSignatureErrors(unit)) {
+        dirty.add(unit);
+      }
+    }
+    for (int i = 0; i < units.size(); i++) {
+      if (dirty.contains(units.get(i))) {
+        int[] start = counters.get(i);
+        WACCTypeChecker unit
+            = checker.createUnitChecker(start[0], start[1], start[2]);
+        unit.checkUnit(units.get(i));
+        checker.merge(unit);
+      }
+    }
+    checker.reportErrors();
+  }
+
+  /**
+   * Generates and caches the code of the units that have none cached
+   */
+  void generate() {
+    program = new CodeGenerator();
+    List<CodeGenerator> generators = new ArrayList<>();
+
+    List<Entry> generated = new ArrayList<>(entries);
+    for (int i = 0; i < units.size(); i++) {
+      ParserRuleContext unit = units.get(i);
+      CodeGenerator generator = program.createUnitGenerator();
+      generators.add(generator);
+      if (!dirty.contains(unit)) {
+        replay(entries.get(i), generator);
+        continue;
+      }
+      int[] start = counters.get(i);
+      ASTNode ast = new ASTBuilder(top, start[0], start[1], start[2])
+          .buildUnit(unit);
+      String unitCode = generator.generateUnit(ast).toString();
+      generated.set(i, record(unitCode, generator));
+    }
+    store(generated);
+    merge(generators, generated);
+  }
+
+  private void store(List<Entry> generated) {
+    for (int i = 0; i < units.size(); i++) {
+      if (dirty.contains(units.get(i))) {
+        cache.store(keys.get(i), generated.get(i));
+      }
+    }
+  }
+
+  /**
+   * Merges the data and helpers of every unit in order, which gives the
+   * placeholder labels in its code their final names
+   */
+  private void merge(List<CodeGenerator> generators, List<Entry> generated) {
+    code = new ArrayList<>();
+    for (int i = 0; i < units.size(); i++) {
+      program.merge(generators.get(i));
+      code.add(resolveLabels(generated.get(i).code, generators.get(i)));
+    }
+  }
+
+  /**
+   * The helpers the generated program uses
+   */
+  RuntimeHelpers getHelpers() {
+    return program.getHelpers();
+  }
+
+  /**
+   * The generated program laid out as CodeGenerator.visitProg lays it out
+   */
+  String toAssembly() {
+    StringBuilder assembly = new StringBuilder();
+    assembly.append(program.getData().getInstructionList())
+            .append(header());
+    code.forEach(assembly::append);
+    return assembly.append(program.getHelpers().getInstructionList())
+                   .append('\n').toString();
+  }
+
+  /**
+   * Writes the generated program as AssemblyEmitter writes it, with the
+   * helpers and data section last
+   */
+  void emit(Writer out) throws IOException {
+    out.append(header());
+    for (String unitCode : code) {
+      out.append(unitCode);
+    }
+    program.generateRuntime().writeTo(out);
+    out.append('\n');
+  }
+
+  private static String header() {
+    Label mainLabel = new Label(WACCVisitor.Scope.MAIN.toString());
+    return createText().printInstruction() + "\n"
+        + createGlobal(mainLabel).printInstruction() + "\n";
+  }
+
+  private static Entry record(String unitCode, CodeGenerator generator) {
+    List<DataRequest> data = new ArrayList<>();
+    DeferredDataInstructions deferred
+        = (DeferredDataInstructions) generator.getData();
+    for (DeferredDataInstructions.Request request : deferred.getRequests()) {
+      data.add(new DataRequest(request.getKind(), request.getValue()));
+    }
+    Set<RuntimeHelper> helpers = EnumSet.noneOf(RuntimeHelper.class);
+    helpers.addAll(generator.getHelpers().getRequired());
+    return new Entry(unitCode, data, helpers);
+  }
+
+  /**
+   * Makes the data requests of a cached unit again, in order, so they get
+   * the placeholders its code refers to; building its helpers afterwards
+   * only finds the messages they need already requested
+   */
+  private static void replay(Entry entry, CodeGenerator generator) {
+    DeferredDataInstructions deferred
+        = (DeferredDataInstructions) generator.getData();
+    for (DataRequest request : entry.data) {
+      deferred.request(request.kind, request.value);
+    }
+    for (RuntimeHelper helper : entry.helpers) {
+      generator.getHelpers().require(helper, deferred);
+    }
+  }
+
+  /**
+   * Replaces the placeholder data labels in the code of a unit with the
+   * labels they were given when the unit was merged
+   */
+  private static String resolveLabels(String unitCode,
+                                      CodeGenerator generator) {
+    DeferredDataInstructions deferred
+        = (DeferredDataInstructions) generator.getData();
+    Matcher matcher = DEFERRED_LABEL.matcher(unitCode);
+    StringBuffer resolved = new StringBuffer();
+    while (matcher.find()) {
+      Label label = deferred.getLabel(Integer.parseInt(matcher.group(1)));
+      matcher.appendReplacement(resolved,
+                                Matcher.quoteReplacement(label.toString()));
+    }
+    return matcher.appendTail(resolved).toString();
+  }
+
+  private String fingerprint(int index, TokenStream tokens) {
+    MessageDigest digest = createDigest();
+    update(digest, String.valueOf(UnitCache.FORMAT));
+    update(digest, CacheFiles.COMPILER_BUILD);
+    for (int count : counters.get(index)) {
+      update(digest, String.valueOf(count));
+    }
+
+    ParserRuleContext unit = units.get(index);
+    SortedSet<String> callees = new TreeSet<>();
+    int stop = unit.getStop().getTokenIndex();
+    for (int i = unit.getStart().getTokenIndex(); i <= stop; i++) {
+      Token token = tokens.get(i);
+      update(digest, token.getType() + ":" + token.getText());
+      if (token.getType() == WACCLexer.CALL && i < stop) {
+        callees.add(tokens.get(i + 1).getText());
+      }
+    }
+    for (String callee : callees) {
+      update(digest, signatures(callee));
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * The name and return type of every function declared with a name
+   */
+  private String signatures(String name) {
+    String prog = WACCVisitor.Scope.PROG.toString();
+    Binding overloads = ((NewScope) top.get(prog)).getSymbolTable()
+        .get(WACCVisitor.ScopeType.FUNCTION_SCOPE + name);
+    StringBuilder signatures = new StringBuilder(name);
+    if (overloads instanceof Overloads) {
+      for (Function function : ((Overloads) overloads).getAll()) {
+        signatures.append(' ').append(function.getName())
+                  .append(':').append(function.getType());
+      }
+    }
+    return signatures.toString();
+  }
+
+}
@@ -0,0 +1,71 @@
+package wacc;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Passes assembly through while counting its instructions, which are the
+ * lines indented by a tab other than directives; labels and section
+ * directives start at the beginning of their line
+ */
+class InstructionCountingWriter extends FilterWriter {
+
+  private long instructions;
+  private int column;
+  private boolean indented;
+
+  InstructionCountingWriter(Writer out) {
+    super(out);
+  }
+
+  static long count(CharSequence assembly) {
+    InstructionCountingWriter counter = new InstructionCountingWriter(
+        new StringWriter());
+    for (int i = 0; i < assembly.length(); i++) {
+      counter.see(assembly.charAt(i));
+    }
+    return counter.instructions;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    see((char) c);
+    out.write(c);
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int length) throws IOException {
+    for (int i = offset; i < offset + length; i++) {
+      see(chars[i]);
+    }
+    out.write(chars, offset, length);
+  }
+
+  @Override
+  public void write(String text, int offset, int length) throws IOException {
+    for (int i = offset; i < offset + length; i++) {
+      see(text.charAt(i));
+    }
+    out.write(text, offset, length);
+  }
+
+  long getInstructions() {
+    return instructions;
+  }
+
+  private void see(char c) {
+    if (c == '\n') {
+      column = 0;
+      return;
+    }
+    if (column == 0) {
+      indented = c == '\t';
+    } else if (column == 1 && indented && c != '.') {
+      instructions++;
+    }
+    column++;
+  }
+
+}
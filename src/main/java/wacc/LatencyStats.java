@@ -0,0 +1,67 @@
+package wacc;
+
+import java.util.Arrays;
+
+/**
+ * Records request latencies and reports their percentiles
+ * Only the most recent WINDOW samples are kept, so the percentiles follow
+ * the current behaviour of a long running server
+ */
+public class LatencyStats {
+
+  private static final int WINDOW = 10000;
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  private final long[] samples = new long[WINDOW];
+  private long count;
+
+  public synchronized void record(long nanos) {
+    samples[(int) (count % WINDOW)] = nanos;
+    count++;
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the latency at percentile p (0 < p <= 100) in nanoseconds,
+   * or 0 when nothing has been recorded
+   */
+  public long percentile(double p) {
+    return percentile(snapshot(), p);
+  }
+
+  private synchronized long[] snapshot() {
+    long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static long percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(p / 100 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+  }
+
+  @Override
+  public String toString() {
+    long[] sorted = snapshot();
+    StringBuilder sb = new StringBuilder();
+    sb.append("requests=").append(getCount());
+    for (double p : PERCENTILES) {
+      String name = p == Math.floor(p) ? Long.toString((long) p)
+                                       : Double.toString(p);
+      sb.append(String.format(" p%s=%.3fms", name,
+                              percentile(sorted, p) / 1e6));
+    }
+    if (sorted.length > 0) {
+      sb.append(String.format(" max=%.3fms",
+                              sorted[sorted.length - 1] / 1e6));
+    }
+    return sb.toString();
+  }
+
+}
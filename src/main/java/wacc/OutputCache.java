@@ -0,0 +1,231 @@
+package wacc;
+
+import wacc.error.CompileError;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static wacc.CacheFiles.readString;
+import static wacc.CacheFiles.update;
+import static wacc.CacheFiles.writeString;
+
+/**
+ * The results of whole compilations, kept in a directory under a hash of
+ * the source, the build of the compiler and the options it was run with
+ * A hit gives back the exit code, diagnostics and assembly without
+ * parsing the program at all
+ * Entries are touched whenever they are read, and once the directory
+ * holds more than its limit the least recently used are removed
+ */
+public class OutputCache {
+
+  /**
+   * Version of the entries, which is part of every key
+   */
+  static final int FORMAT = 1;
+
+  public static final long DEFAULT_LIMIT = 256L * 1024 * 1024;
+
+  private static final String SUFFIX = ".out";
+
+  private final Path directory;
+  private final long limit;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+  private final AtomicInteger evictions = new AtomicInteger();
+  private long size = -1;
+
+  public OutputCache(Path directory) {
+    this(directory, DEFAULT_LIMIT);
+  }
+
+  /**
+   * Cache whose entries take up no more than limit bytes in all
+   */
+  public OutputCache(Path directory, long limit) {
+    this.directory = directory;
+    this.limit = limit;
+  }
+
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int getMisses() {
+    return misses.get();
+  }
+
+  public int getEvictions() {
+    return evictions.get();
+  }
+
+  static String key(String source, String options) {
+    MessageDigest digest = CacheFiles.createDigest();
+    update(digest, String.valueOf(FORMAT));
+    update(digest, CacheFiles.COMPILER_BUILD);
+    update(digest, options);
+    update(digest, source);
+    return CacheFiles.toHex(digest.digest());
+  }
+
+  /**
+   * The result stored under key, with no phase timings since no phase
+   * ran, or null if there is none
+   */
+  CompileResult load(String key) {
+    Path file = directory.resolve(key + SUFFIX);
+    CompileResult result = CacheFiles.read(file, OutputCache::read);
+    if (result == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    touch(file);
+    return result;
+  }
+
+  /**
+   * A result that cannot be stored, because the directory cannot be
+   * written or the disk is full, is only left out of the cache
+   */
+  void store(String key, CompileResult result) {
+    Path file = directory.resolve(key + SUFFIX);
+    try {
+      CacheFiles.write(file, out -> write(result, out));
+      account(Files.size(file));
+    } catch (IOException e) {
+      System.err.println("Cannot write to the output cache: " + e);
+    }
+  }
+
+  /**
+   * Adds a stored entry of bytes to the size of the directory, which is
+   * only listed in full when it is first stored to and whenever it grows
+   * past the limit
+   */
+  private synchronized void account(long bytes) throws IOException {
+    size = size < 0 ? totalSize(listEntries()) : size + bytes;
+    if (size > limit) {
+      size = evictLeastRecentlyUsed();
+    }
+  }
+
+  /**
+   * Another compiler may remove the entry at any moment, in which case it
+   * simply stays removed
+   */
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(
+          file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      return;
+    }
+  }
+
+  /**
+   * The size of the directory once its least recently used entries are
+   * removed
+   */
+  private long evictLeastRecentlyUsed() throws IOException {
+    List<Entry> entries = listEntries();
+    long remaining = totalSize(entries);
+    entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+    for (int i = 0; remaining > limit && i < entries.size(); i++) {
+      if (Files.deleteIfExists(entries.get(i).file)) {
+        evictions.incrementAndGet();
+      }
+      remaining -= entries.get(i).size;
+    }
+    return remaining;
+  }
+
+  private static long totalSize(List<Entry> entries) {
+    long total = 0;
+    for (Entry entry : entries) {
+      total += entry.size;
+    }
+    return total;
+  }
+
+  private List<Entry> listEntries() throws IOException {
+    List<Path> files;
+    try (Stream<Path> list = Files.list(directory)) {
+      files = list.filter(file -> file.toString().endsWith(SUFFIX))
+                  .collect(Collectors.toList());
+    }
+    List<Entry> entries = new ArrayList<>();
+    for (Path file : files) {
+      try {
+        entries.add(new Entry(file, Files.size(file),
+                              Files.getLastModifiedTime(file).toMillis()));
+      } catch (IOException e) {
+        continue;
+      }
+    }
+    return entries;
+  }
+
+  private static CompileResult read(DataInputStream in) throws IOException {
+    if (in.readInt() != FORMAT) {
+      return null;
+    }
+    int exitCode = in.readInt();
+    String assembly = in.readBoolean() ? readString(in) : null;
+    String diagnostics = readString(in);
+    List<CompileError> errors = new ArrayList<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      CompileError.Kind kind = CompileError.Kind.valueOf(in.readUTF());
+      errors.add(new CompileError(kind, in.readInt(), in.readInt(),
+                                  readString(in)));
+    }
+    return new CompileResult(exitCode, assembly, errors, diagnostics,
+                             new EnumMap<>(CompileResult.Phase.class));
+  }
+
+  private static void write(CompileResult result, DataOutputStream out)
+      throws IOException {
+    out.writeInt(FORMAT);
+    out.writeInt(result.getExitCode());
+    out.writeBoolean(result.getAssembly() != null);
+    if (result.getAssembly() != null) {
+      writeString(result.getAssembly(), out);
+    }
+    writeString(result.getDiagnostics(), out);
+    out.writeInt(result.getErrors().size());
+    for (CompileError error : result.getErrors()) {
+      out.writeUTF(error.getKind().name());
+      out.writeInt(error.getLine());
+      out.writeInt(error.getColumn());
+      writeString(error.getMessage(), out);
+    }
+  }
+
+  /**
+   * A file of the cache, its size and when it was last used
+   */
+  private static final class Entry {
+    private final Path file;
+    private final long size;
+    private final long lastUsed;
+
+    Entry(Path file, long size, long lastUsed) {
+      this.file = file;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+package wacc;
+
+import antlr.WACCParser.ProgContext;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Type checks the functions and main of a program concurrently
+ * Each unit gets its own scope cursor, scope counters and error buffer; the
+ * buffers are then merged in program order, so the errors reported are the
+ * same as when visiting the units one after another
+ */
+class ParallelTypeChecker {
+
+  private ParallelTypeChecker() {
+  }
+
+  static void check(ProgContext ctx, WACCTypeChecker program) {
+    List<ParserRuleContext> units = ProgramUnits.of(ctx);
+    List<WACCTypeChecker> checkers
+        = ProgramUnits.createVisitors(units, program::createUnitChecker);
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < units.size(); i++) {
+      WACCTypeChecker checker = checkers.get(i);
+      ParserRuleContext unit = units.get(i);
+      tasks.add(() -> {
+        checker.checkUnit(unit);
+        return null;
+      });
+    }
+    ProgramUnits.runAll(tasks);
+
+    checkers.forEach(program::merge);
+  }
+
+}
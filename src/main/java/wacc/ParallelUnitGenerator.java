@@ -0,0 +1,39 @@
+package wacc;
+
+import arm11.InstructionList;
+import wacc.ast.ASTNode;
+import wacc.ast.ASTProgramNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates the functions and main of a program concurrently
+ * Each unit gets its own registers, data and helpers; the data and
+ * helpers are then merged in program order, so the result is the same as
+ * visiting the units one after another
+ */
+class ParallelUnitGenerator {
+
+  private ParallelUnitGenerator() {
+  }
+
+  /**
+   * Returns the code of every function followed by that of main
+   */
+  static List<InstructionList> generate(ASTProgramNode ast,
+                                        CodeGenerator program) {
+    List<CodeGenerator> generators = new ArrayList<>();
+    List<Callable<InstructionList>> tasks = new ArrayList<>();
+    for (ASTNode unit : ProgramUnits.of(ast)) {
+      CodeGenerator generator = program.createUnitGenerator();
+      generators.add(generator);
+      tasks.add(() -> generator.generateUnit(unit));
+    }
+    List<InstructionList> code = ProgramUnits.runAll(tasks);
+    generators.forEach(program::merge);
+    return code;
+  }
+
+}
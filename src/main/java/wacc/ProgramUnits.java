@@ -0,0 +1,99 @@
+package wacc;
+
+import antlr.WACCParser.ProgContext;
+import org.antlr.v4.runtime.ParserRuleContext;
+import wacc.ast.ASTNode;
+import wacc.ast.ASTProgramNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The functions and main of a program, visited as independent units
+ * Visitors number if, while and begin scopes with running counters, so each
+ * unit's visitor is started from the counter values that a visit of the
+ * units before it would have reached
+ */
+final class ProgramUnits {
+
+  private ProgramUnits() {
+  }
+
+  /**
+   * Makes a visitor for a unit whose scope counters start at the given values
+   */
+  interface VisitorFactory<V> {
+    V create(int ifs, int whiles, int begins);
+  }
+
+  /**
+   * Every function of the program followed by main
+   */
+  static List<ParserRuleContext> of(ProgContext ctx) {
+    List<ParserRuleContext> units = new ArrayList<>(ctx.func());
+    units.add(ctx.main());
+    return units;
+  }
+
+  /**
+   * Every function of the lowered program followed by main
+   */
+  static List<ASTNode> of(ASTProgramNode program) {
+    List<ASTNode> units = new ArrayList<>(program.getFunctions());
+    units.add(program.getMain());
+    return units;
+  }
+
+  /**
+   * One visitor for each unit, in order
+   */
+  static <V> List<V> createVisitors(List<ParserRuleContext> units,
+                                    VisitorFactory<V> factory) {
+    List<V> visitors = new ArrayList<>();
+    int ifs = 0, whiles = 0, begins = 0;
+    for (ParserRuleContext unit : units) {
+      visitors.add(factory.create(ifs, whiles, begins));
+
+      ScopeCounter counter = ScopeCounter.count(unit);
+      ifs += counter.getIfCount();
+      whiles += counter.getWhileCount();
+      begins += counter.getBeginCount();
+    }
+    return visitors;
+  }
+
+  /**
+   * Runs the tasks on the common fork-join pool and returns their results
+   * in the order of the tasks
+   */
+  static <T> List<T> runAll(List<Callable<T>> tasks) {
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> task : tasks) {
+      futures.add(ForkJoinPool.commonPool().submit(task));
+    }
+    List<T> results = new ArrayList<>();
+    for (Future<T> future : futures) {
+      results.add(join(future));
+    }
+    return results;
+  }
+
+  private static <T> T join(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+package wacc;
+
+import antlr.WACCParser;
+import antlr.WACCParserBaseVisitor;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Counts the if, while and begin statements in a subtree
+ * Visitors number these scopes with running counters, so these counts give
+ * the counter values at which each function starts, letting functions be
+ * visited independently of each other
+ */
+class ScopeCounter extends WACCParserBaseVisitor<Void> {
+
+  private int ifCount, whileCount, beginCount;
+
+  static ScopeCounter count(ParseTree tree) {
+    ScopeCounter counter = new ScopeCounter();
+    counter.visit(tree);
+    return counter;
+  }
+
+  @Override
+  public Void visitIfStat(WACCParser.IfStatContext ctx) {
+    ifCount++;
+    return visitChildren(ctx);
+  }
+
+  @Override
+  public Void visitWhileStat(WACCParser.WhileStatContext ctx) {
+    whileCount++;
+    return visitChildren(ctx);
+  }
+
+  @Override
+  public Void visitBeginStat(WACCParser.BeginStatContext ctx) {
+    beginCount++;
+    return visitChildren(ctx);
+  }
+
+  int getIfCount() {
+    return ifCount;
+  }
+
+  int getWhileCount() {
+    return whileCount;
+  }
+
+  int getBeginCount() {
+    return beginCount;
+  }
+
+}
@@ -0,0 +1,38 @@
+package wacc;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
+
+/**
+ * Shrinks the list of children of each rule to its size as the parser
+ * leaves the rule
+ * The parser grows every list from room for ten children while most rules
+ * have one to three, and those empty slots are the largest part of the
+ * parse tree, which is the largest thing the front end holds
+ */
+class TrimmingParseListener implements ParseTreeListener {
+
+  @Override
+  public void exitEveryRule(ParserRuleContext ctx) {
+    if (ctx.children instanceof ArrayList) {
+      ((ArrayList<?>) ctx.children).trimToSize();
+    }
+  }
+
+  @Override
+  public void enterEveryRule(ParserRuleContext ctx) {
+  }
+
+  @Override
+  public void visitTerminal(TerminalNode node) {
+  }
+
+  @Override
+  public void visitErrorNode(ErrorNode node) {
+  }
+
+}
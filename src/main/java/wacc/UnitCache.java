@@ -0,0 +1,134 @@
+package wacc;
+
+import arm11.DeferredDataInstructions.Kind;
+import arm11.RuntimeHelper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static wacc.CacheFiles.readString;
+import static wacc.CacheFiles.writeString;
+
+/**
+ * The code generated for single functions and mains, kept in a directory
+ * between compilations under the fingerprint of the unit it was made for
+ */
+public class UnitCache {
+
+  /**
+   * Version of the entries, which is part of every fingerprint; the code
+   * they hold is tied to the build of the compiler that generated it
+   */
+  static final int FORMAT = 4;
+
+  private static final String SUFFIX = ".unit";
+
+  private final Path directory;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  public UnitCache(Path directory) {
+    this.directory = directory;
+  }
+
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * The entry stored under key, or null if there is none that can be read
+   */
+  Entry load(String key) {
+    Entry entry = CacheFiles.read(directory.resolve(key + SUFFIX),
+                                  UnitCache::read);
+    (entry != null ? hits : misses).incrementAndGet();
+    return entry;
+  }
+
+  /**
+   * An entry that cannot be stored is only left out of the cache, as the
+   * output cache does
+   */
+  void store(String key, Entry entry) {
+    try {
+      CacheFiles.write(directory.resolve(key + SUFFIX),
+                       out -> write(entry, out));
+    } catch (IOException e) {
+      System.err.println("Cannot write to the unit cache: " + e);
+    }
+  }
+
+  private static Entry read(DataInputStream in) throws IOException {
+    if (in.readInt() != FORMAT) {
+      return null;
+    }
+    String code = readString(in);
+    List<DataRequest> data = new ArrayList<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      Kind kind = Kind.valueOf(in.readUTF());
+      data.add(new DataRequest(kind, readString(in)));
+    }
+    Set<RuntimeHelper> helpers = EnumSet.noneOf(RuntimeHelper.class);
+    for (int i = in.readInt(); i > 0; i--) {
+      helpers.add(RuntimeHelper.valueOf(in.readUTF()));
+    }
+    return new Entry(code, data, helpers);
+  }
+
+  private static void write(Entry entry, DataOutputStream out)
+      throws IOException {
+    out.writeInt(FORMAT);
+    writeString(entry.code, out);
+    out.writeInt(entry.data.size());
+    for (DataRequest request : entry.data) {
+      out.writeUTF(request.kind.name());
+      writeString(request.value, out);
+    }
+    out.writeInt(entry.helpers.size());
+    for (RuntimeHelper helper : entry.helpers) {
+      out.writeUTF(helper.name());
+    }
+  }
+
+  /**
+   * The code of a unit, with its data labels still placeholders, and the
+   * data entries and helpers it asked for while it was generated
+   */
+  static final class Entry {
+    final String code;
+    final List<DataRequest> data;
+    final Set<RuntimeHelper> helpers;
+
+    Entry(String code, List<DataRequest> data, Set<RuntimeHelper> helpers) {
+      this.code = code;
+      this.data = data;
+      this.helpers = helpers;
+    }
+  }
+
+  /**
+   * An entry of the data section asked for by a unit, in the order it
+   * was asked for
+   */
+  static final class DataRequest {
+    final Kind kind;
+    final String value;
+
+    DataRequest(Kind kind, String value) {
+      this.kind = kind;
+      this.value = value;
+    }
+  }
+
+}
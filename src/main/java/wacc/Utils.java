@@ -4,10 +4,10 @@ import antlr.WACCParser;
 import arm11.*;
 import bindings.*;
 import org.antlr.v4.runtime.ParserRuleContext;
+import wacc.ast.ASTExprNode;
 import wacc.error.*;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 import static arm11.ARM11Registers.R0;
@@ -134,11 +134,11 @@ public class Utils {
     if (stackVarSize > 0) {
       Immediate imm;
       while (stackVarSize > MAX_IMM_SIZE) {
-        imm = new Immediate(MAX_IMM_SIZE);
+        imm = Immediate.of(MAX_IMM_SIZE);
         stackVarSize -= MAX_IMM_SIZE;
         list.add(InstructionFactory.mutateStackPointer(type, imm));
       }
-      imm = new Immediate(stackVarSize);
+      imm = Immediate.of(stackVarSize);
       list.add(InstructionFactory.mutateStackPointer(type, imm));
     }
     return list;
@@ -169,9 +169,12 @@ public class Utils {
     return offset;
   }
 
-  public static InstructionList allocateSpaceOnStack(
+  /**
+   * Sets the stack space of the scope of workingSymbolTable and the offset
+   * of each of its variables
+   */
+  public static void layOutStackFrame(
                             SymbolTable<String, Binding> workingSymbolTable) {
-    InstructionList list = new InstructionList();
     List<Binding> variables = workingSymbolTable.filterByClass(Variable.class);
     long stackSpaceVarSize = 0;
 
@@ -181,7 +184,6 @@ public class Utils {
         stackSpaceVarSize += v.getType().getSize();
       }
     }
-    list.add(Utils.getAllocationInstructions(stackSpaceVarSize, SUB));
     String scopeName = workingSymbolTable.getName();
     Binding scopeB = workingSymbolTable.getEnclosingST().get(scopeName);
     NewScope scope = (NewScope) scopeB;
@@ -189,25 +191,32 @@ public class Utils {
 
     long offset = Utils.addOffsetsToVariables(variables);
     Utils.addOffsetToParams(variables, offset);
-
-    return list;
   }
 
-  public static InstructionList deallocateSpaceOnStack(
-      SymbolTable<String, Binding> workingSymbolTable) {
-    InstructionList list = new InstructionList();
+  /**
+   * The stack space of the scope of workingSymbolTable, once its frame has
+   * been laid out
+   */
+  public static long getStackSpaceSize(
+                            SymbolTable<String, Binding> workingSymbolTable) {
     String scopeName = workingSymbolTable.getName();
     Binding scopeB = workingSymbolTable.getEnclosingST().get(scopeName);
-    NewScope scope = (NewScope) scopeB;
-
-    long stackSpaceSize = scope.getStackSpaceSize();
+    return ((NewScope) scopeB).getStackSpaceSize();
+  }
 
-    list.add(Utils.getAllocationInstructions(stackSpaceSize, ADD));
+  public static InstructionList allocateSpaceOnStack(long stackSpaceSize) {
+    return Utils.getAllocationInstructions(stackSpaceSize, SUB);
+  }
 
-    return list;
+  public static InstructionList deallocateSpaceOnStack(long stackSpaceSize) {
+    return Utils.getAllocationInstructions(stackSpaceSize, ADD);
   }
 
-  private static long getAccumulativeStackSizeFromReturn(
+  /**
+   * The stack space of the scope of workingSymbolTable and of every scope
+   * around it up to that of its function
+   */
+  public static long getAccumulativeStackSizeFromReturn(
                             SymbolTable<String, Binding> workingSymbolTable) {
 
     long accumulativeStackSize = 0;
@@ -227,12 +236,10 @@ public class Utils {
   }
 
   public static InstructionList deallocateSpaceOnStackFromReturn(
-    SymbolTable<String, Binding> workingSymbolTable) {
+                                                      long stackSpaceSize) {
     InstructionList list = new InstructionList();
-    long stackSpaceSize
-      = Utils.getAccumulativeStackSizeFromReturn(workingSymbolTable);
     if (stackSpaceSize > 0) {
-      Operand imm = new Immediate(stackSpaceSize);
+      Operand imm = Immediate.of(stackSpaceSize);
       Register sp = SP;
       list.add(InstructionFactory.createAdd(sp, sp, imm));
     }
@@ -240,45 +247,42 @@ public class Utils {
     return list;
   }
 
-  public static void addFunctionToHelpers(InstructionList function,
-                                          HashSet<InstructionList>
-                                            helperFunctions) {
+  public static void addFunctionToHelpers(RuntimeHelper function,
+                                          DataInstructions data,
+                                          RuntimeHelpers helperFunctions) {
     if (function != null) {
-      helperFunctions.add(function);
+      helperFunctions.require(function, data);
     }
   }
 
 
   public static void printNewLine(InstructionList list, DataInstructions data,
-                                  HashSet<InstructionList> helperFunctions) {
+                                  RuntimeHelpers helperFunctions) {
     Label printLabel = new Label("p_print_ln");
     list.add(InstructionFactory.createBranchLink(printLabel));
-    Utils.addFunctionToHelpers(PrintFunctions.printLn(data), helperFunctions);
+    helperFunctions.require(RuntimeHelper.PRINT_LN, data);
   }
 
-  public static Long totalListSize(
-                                List<? extends WACCParser.ExprContext> exprs) {
+  public static Long totalListSize(List<? extends ASTExprNode> exprs) {
     Long totalSize = 0L;
-    for (WACCParser.ExprContext exprCtx : exprs) {
-      totalSize += exprCtx.returnType.getSize();
+    for (ASTExprNode expr : exprs) {
+      totalSize += expr.getType().getSize();
     }
     return totalSize;
   }
 
-  public static void addRuntimeErrorFunctionsToHelpers(InstructionList err,
+  public static void addRuntimeErrorFunctionsToHelpers(RuntimeHelper err,
                                                        DataInstructions data,
-                                                       HashSet<InstructionList>
+                                                       RuntimeHelpers
                                                          helperFunctions) {
-    Utils.addFunctionToHelpers(err, helperFunctions);
+    helperFunctions.require(err, data);
     addThrowRuntimeErrorFunctionsToHelpers(data, helperFunctions);
   }
 
   public static void addThrowRuntimeErrorFunctionsToHelpers(
-            DataInstructions data, HashSet<InstructionList> helperFunctions) {
-    Utils.addFunctionToHelpers(RuntimeErrorFunctions.throwRuntimeError(data),
-        helperFunctions);
-    Utils.addFunctionToHelpers(PrintFunctions.printString(data),
-                               helperFunctions);
+            DataInstructions data, RuntimeHelpers helperFunctions) {
+    helperFunctions.require(RuntimeHelper.THROW_RUNTIME_ERROR, data);
+    helperFunctions.require(RuntimeHelper.PRINT_STRING, data);
   }
 
   public static InstructionList storeLengthOfArray(long numberOfElems,
@@ -287,30 +291,23 @@ public class Utils {
 
     InstructionList list = new InstructionList();
     list.add(InstructionFactory.createLoad(lengthOfArray,
-                                           new Immediate(numberOfElems)))
+                                           Immediate.of(numberOfElems)))
         .add(InstructionFactory.createStore(lengthOfArray,
                                             addressOfArray,
-                                            new Immediate(0L)));
+                                            Immediate.of(0L)));
     return list;
   }
 
   public static InstructionList allocateArrayAddress(long bytesToAllocate,
                                                Label malloc,
-                                               Register addressOfArray,
-                                               AccumulatorMachine accMachine) {
+                                               Register addressOfArray) {
     InstructionList list = new InstructionList();
-    list.add(InstructionFactory.createLoad(R0, new Immediate(bytesToAllocate)))
+    list.add(InstructionFactory.createLoad(R0, Immediate.of(bytesToAllocate)))
         .add(InstructionFactory.createBranchLink(malloc))
-        .add(accMachine.getInstructionList(MOV, addressOfArray, R0));
+        .add(InstructionFactory.createMove(addressOfArray, R0));
     return list;
   }
 
-  public static long getTypeSize(WACCParser.ArrayLitrContext ctx) {
-    Type returnType = ctx.expr().get(0).returnType;
-    return returnType.getSize();
-  }
-
-
   public static String getPossibleTypesForOverloading(
           List<Function> overloadedFunctions) {
     StringBuilder sb = new StringBuilder();
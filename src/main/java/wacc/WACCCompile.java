@@ -1,98 +1,138 @@
 package wacc;
 
-import antlr.WACCLexer;
-import antlr.WACCParser;
-import arm11.InstructionList;
-import bindings.Binding;
-import bindings.PairType;
-import bindings.Type;
-import bindings.Types;
-import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.tree.ParseTree;
-import wacc.error.WACCErrorHandler;
-import wacc.error.WACCLexerErrorListener;
-
-import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class WACCCompile {
-  public static void main(String[] args) throws Exception {
-
-    ANTLRInputStream input = new ANTLRInputStream(System.in);
-    WACCLexer lexer = new WACCLexer(input);
-    CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-
-    WACCErrorHandler errorHandler = new WACCErrorHandler(tokenStream);
-    ParseTree tree = performLexicalAnalysis(errorHandler, tokenStream);
-
-    if (errorHandler.printLexingErrors()) {
-      System.exit(100);
-    }
-
-    SymbolTable<String, Binding> top
-        = performSemanticAnalysis(tree, errorHandler);
-
-    checkForErrors(errorHandler);
-
-    performCodeGeneration(tree, top);
-  }
-
-  private static ParseTree performLexicalAnalysis(WACCErrorHandler errorHandler,
-                     CommonTokenStream tokenStream) throws IOException {
 
-    WACCParser parser = new WACCParser(tokenStream);
-    WACCLexerErrorListener errorListener = new WACCLexerErrorListener();
+  /**
+   * Followed by a directory that keeps the code of every function between
+   * runs, so that only the functions that changed are compiled again
+   */
+  static final String CACHE_FLAG = "--cache";
+
+  /**
+   * Followed by a directory that keeps the result of every compilation, so
+   * that a program compiled before is not compiled again
+   */
+  static final String OUTPUT_CACHE_FLAG = "--output-cache";
+
+  /**
+   * Followed by a snapshot of the parser's DFAs, as saved by a batch
+   * compilation, to load before parsing
+   */
+  static final String DFA_FLAG = "--dfa";
+
+  /**
+   * Optionally followed by text, the default, or json, the format in which
+   * to report the time, allocations and counts of each phase to standard
+   * error, after any errors
+   */
+  static final String STATS_FLAG = "--stats";
+
+  /**
+   * The charset assembly is written in, which is also the one a source
+   * that is not plain ASCII is read in
+   */
+  static final Charset OUTPUT_CHARSET = StandardCharsets.UTF_8;
+
+  private static final String TEXT = "text";
+  private static final String JSON = "json";
+  private static final int USAGE_EXIT_CODE = 1;
+  private static final String USAGE = "Usage: [" + CACHE_FLAG
+      + " cacheDir] [" + OUTPUT_CACHE_FLAG + " cacheDir] [" + DFA_FLAG
+      + " dfaSnapshot] [" + STATS_FLAG + " [" + TEXT + " | " + JSON
+      + "]] < file.wacc";
+
+  private UnitCache unitCache;
+  private OutputCache outputCache;
+  private Path dfaSnapshot;
+  private String statsFormat;
 
-    parser.removeErrorListeners();
-    parser.addErrorListener(errorListener);
-    ParseTree tree = parser.prog();
-    errorHandler.complainAboutLexing(errorListener.getErrors());
-
-    return tree;
-  }
-
-  private static SymbolTable<String, Binding> performSemanticAnalysis(
-                                              ParseTree tree,
-                                              WACCErrorHandler errorHandler) {
-    SymbolTable<String, Binding> top = createTopSymbolTable();
-
-    WACCSymbolTableFiller buildSTVisitor
-        = new WACCSymbolTableFiller(top, errorHandler);
-    buildSTVisitor.visit(tree);
+  public static void main(String[] args) throws Exception {
 
-    WACCTypeChecker typeChecker = new WACCTypeChecker(top, errorHandler);
-    typeChecker.visit(tree);
+    runMode(args);
 
-    return top;
+    WACCCompile options = new WACCCompile();
+    if (!options.parseArguments(args)) {
+      System.err.println(USAGE);
+      System.exit(USAGE_EXIT_CODE);
+    }
+    WACCCompiler compiler = options.createCompiler();
+
+    Writer out = new BufferedWriter(
+        new OutputStreamWriter(System.out, OUTPUT_CHARSET));
+    CompileResult result
+        = compiler.compile(AsciiCharStream.read(System.in), out);
+    System.err.print(result.getDiagnostics());
+    if (result.getStats() != null) {
+      System.err.println(options.statsFormat.equals(JSON)
+                         ? result.getStats().toJson()
+                         : result.getStats().toText());
+    }
+    System.exit(result.getExitCode());
   }
 
-  private static SymbolTable<String, Binding> createTopSymbolTable() {
-    SymbolTable<String, Binding> top = new SymbolTable<>();
-    top.put(Types.INT_T.toString(), new Type(Types.INT_T,
-                                             WACCConstants.MIN_INT,
-                                             WACCConstants.MAX_INT));
-    top.put(Types.BOOL_T.toString(), new Type(Types.BOOL_T, 0, 1));
-    top.put(Types.CHAR_T.toString(), new Type(Types.CHAR_T, 0, 255));
-    top.put(Types.STRING_T.toString(), new Type(Types.STRING_T));
-    top.put(Types.PAIR_T.toString(), new PairType());
-    top.put(Types.UNDEFINED_T.toString(), new Type(Types.UNDEFINED_T));
-    return top;
+  /**
+   * Runs the batch compiler, the compile server or the corpus emulator if
+   * the first of args asks for one, exiting with its exit code
+   */
+  private static void runMode(String[] args) throws Exception {
+    if (args.length == 0) {
+      return;
+    }
+    String[] modeArgs = Arrays.copyOfRange(args, 1, args.length);
+    if (args[0].equals(BatchCompiler.BATCH_FLAG)) {
+      System.exit(new BatchCompiler().run(modeArgs));
+    } else if (args[0].equals(CompileServer.SERVER_FLAG)) {
+      System.exit(new CompileServer().run(modeArgs));
+    } else if (args[0].equals(CorpusEmulator.EMULATE_FLAG)) {
+      System.exit(new CorpusEmulator().run(modeArgs));
+    }
   }
 
-  private static void checkForErrors(WACCErrorHandler errorHandler) {
-    if (errorHandler.hasSyntaxErrors()) {
-      errorHandler.printSyntaxErrors();
-      System.exit(100);
-    } else if (errorHandler.hasSemanticErrors()) {
-      errorHandler.printSemanticErrors();
-      System.exit(200);
+  /**
+   * Reads the flags in args in order, returning false if any of them is
+   * not known, lacks its value or names a stats format there is not
+   */
+  private boolean parseArguments(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      boolean hasValue = i + 1 < args.length;
+      if (args[i].equals(CACHE_FLAG) && hasValue) {
+        unitCache = new UnitCache(Paths.get(args[++i]));
+      } else if (args[i].equals(OUTPUT_CACHE_FLAG) && hasValue) {
+        outputCache = new OutputCache(Paths.get(args[++i]));
+      } else if (args[i].equals(DFA_FLAG) && hasValue) {
+        dfaSnapshot = Paths.get(args[++i]);
+      } else if (args[i].equals(STATS_FLAG)) {
+        statsFormat = hasValue && !args[i + 1].startsWith("-")
+                      ? args[++i] : TEXT;
+        if (!statsFormat.equals(TEXT) && !statsFormat.equals(JSON)) {
+          return false;
+        }
+      } else {
+        return false;
+      }
     }
+    return true;
   }
 
-  private static void performCodeGeneration(ParseTree tree,
-                                            SymbolTable<String, Binding> top) {
-    CodeGenerator codeGenerator = new CodeGenerator(top);
-    InstructionList program = codeGenerator.visit(tree);
-    System.out.println(program);
+  /**
+   * A compiler with the caches named by the flags, after loading any DFA
+   * snapshot they name
+   */
+  private WACCCompiler createCompiler() {
+    if (dfaSnapshot != null) {
+      DfaSnapshot.load(dfaSnapshot);
+    }
+    WACCCompiler compiler = new WACCCompiler(unitCache, outputCache);
+    return statsFormat != null ? compiler.withStats() : compiler;
   }
 
-}
\ No newline at end of file
+}
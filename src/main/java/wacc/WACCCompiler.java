@@ -0,0 +1,451 @@
+package wacc;
+
+import antlr.WACCDiagnosticParser;
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import antlr.WACCParser.ProgContext;
+import arm11.InstructionList;
+import arm11.RuntimeHelpers;
+import bindings.Binding;
+import bindings.PairType;
+import bindings.Type;
+import bindings.Types;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import wacc.CompileResult.Phase;
+import wacc.CompileStats.Count;
+import wacc.ast.ASTBuilder;
+import wacc.ast.ASTProgramNode;
+import wacc.error.CompileError;
+import wacc.error.WACCConsoleErrorListener;
+import wacc.error.WACCErrorHandler;
+import wacc.error.WACCLexerErrorListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * In-process entry point to the compiler
+ * One instance may be shared by any number of threads: every thread keeps
+ * its own lexer and parser and rewinds them onto each new program, while
+ * all compilation state lives in the call itself
+ */
+public class WACCCompiler {
+
+  /**
+   * The options that change the output, as part of output cache keys
+   */
+  private static final String IN_MEMORY_LAYOUT = "layout=in-memory";
+  private static final String STREAMED_LAYOUT = "layout=streamed";
+
+  private final ThreadLocal<WACCLexer> lexers
+      = ThreadLocal.withInitial(() -> new WACCLexer(null));
+  private final ThreadLocal<WACCParser> parsers
+      = ThreadLocal.withInitial(WACCCompiler::createParser);
+  private final UnitCache unitCache;
+  private final OutputCache outputCache;
+  private final boolean collectingStats;
+
+  public WACCCompiler() {
+    this(null);
+  }
+
+  /**
+   * Compiler that reuses the code of every function unchanged since it was
+   * compiled into unitCache, or that compiles from scratch if it is null
+   */
+  public WACCCompiler(UnitCache unitCache) {
+    this(unitCache, null);
+  }
+
+  /**
+   * Compiler that first looks every program up in outputCache, unless it
+   * is null, and only compiles those it has not compiled before
+   */
+  public WACCCompiler(UnitCache unitCache, OutputCache outputCache) {
+    this(unitCache, outputCache, false);
+  }
+
+  private WACCCompiler(UnitCache unitCache, OutputCache outputCache,
+                       boolean collectingStats) {
+    this.unitCache = unitCache;
+    this.outputCache = outputCache;
+    this.collectingStats = collectingStats;
+  }
+
+  /**
+   * The same compiler, measuring every compilation it does not find in its
+   * output cache into the CompileStats of its result
+   */
+  public WACCCompiler withStats() {
+    return new WACCCompiler(unitCache, outputCache, true);
+  }
+
+  public CompileResult compile(String source) {
+    return compile(AsciiCharStream.of(source));
+  }
+
+  public CompileResult compile(Path file) throws IOException {
+    return compile(AsciiCharStream.open(file));
+  }
+
+  public CompileResult compile(CharStream input) {
+    if (outputCache == null) {
+      return compileUncached(input);
+    }
+    String key = OutputCache.key(textOf(input), IN_MEMORY_LAYOUT);
+    CompileResult result = outputCache.load(key);
+    if (result == null) {
+      result = compileUncached(input);
+      outputCache.store(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Compiles input, writing the assembly to out one function at a time
+   * instead of building it in memory, with the helpers and the data
+   * section at the end; the result holds no assembly of its own
+   * With an output cache the assembly is kept in memory to be stored
+   */
+  public CompileResult compile(CharStream input, Writer out)
+      throws IOException {
+    if (outputCache == null) {
+      return emitUncached(input, out);
+    }
+    String key = OutputCache.key(textOf(input), STREAMED_LAYOUT);
+    CompileResult result = outputCache.load(key);
+    if (result == null) {
+      StringWriter assembly = new StringWriter();
+      result = emitUncached(input, assembly);
+      result = result.withAssembly(
+          result.isSuccess() ? assembly.toString() : null);
+      outputCache.store(key, result);
+    }
+    if (result.getAssembly() != null) {
+      out.write(result.getAssembly());
+      out.flush();
+    }
+    return result.withAssembly(null);
+  }
+
+  private CompileResult compileUncached(CharStream input) {
+    try (Compilation compilation = new Compilation()) {
+      int exitCode = compilation.check(input);
+      if (exitCode != WACCConstants.SUCCESS_EXIT_CODE) {
+        return compilation.result(exitCode, null);
+      }
+      return compilation.result(exitCode, compilation.generate());
+    }
+  }
+
+  private CompileResult emitUncached(CharStream input, Writer out)
+      throws IOException {
+    try (Compilation compilation = new Compilation()) {
+      int exitCode = compilation.check(input);
+      if (exitCode == WACCConstants.SUCCESS_EXIT_CODE) {
+        compilation.emit(out);
+      }
+      return compilation.result(exitCode, null);
+    }
+  }
+
+  private static String textOf(CharStream input) {
+    return input.getText(Interval.of(0, input.size() - 1));
+  }
+
+  private static int checkForErrors(WACCErrorHandler errorHandler,
+                                    Compilation compilation) {
+    compilation.errors.addAll(errorHandler.getCompileErrors());
+    if (errorHandler.hasSyntaxErrors()) {
+      errorHandler.printSyntaxErrors(compilation.err);
+      return WACCConstants.SYNTAX_ERROR_EXIT_CODE;
+    } else if (errorHandler.hasSemanticErrors()) {
+      errorHandler.printSemanticErrors(compilation.err);
+      return WACCConstants.SEMANTIC_ERROR_EXIT_CODE;
+    }
+    return WACCConstants.SUCCESS_EXIT_CODE;
+  }
+
+  /**
+   * Parses in SLL mode first, which needs far less lookahead and is enough
+   * for every valid program, and only on a syntax error parses again with
+   * full LL prediction
+   * The errors are reported by WACCDiagnosticParser, which still picks
+   * between ordering and equality comparisons up front, so they read as
+   * they did before comparisonOper was left-factored
+   * Gives null once that has reported errors, as a program with syntax
+   * errors is never looked at again; only a program that merely needs LL
+   * prediction is parsed a third time, for its tree
+   */
+  static ProgContext parseProgram(WACCParser parser,
+                                  ANTLRErrorListener errors) {
+    parser.removeErrorListeners();
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    try {
+      return parser.prog();
+    } catch (ParseCancellationException e) {
+      parser.getInputStream().seek(0);
+      WACCDiagnosticParser diagnostics
+          = new WACCDiagnosticParser(parser.getInputStream());
+      diagnostics.removeErrorListeners();
+      diagnostics.addErrorListener(errors);
+      diagnostics.prog();
+      if (diagnostics.getNumberOfSyntaxErrors() > 0) {
+        return null;
+      }
+      parser.reset();
+      parser.setErrorHandler(new DefaultErrorStrategy());
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      return parser.prog();
+    }
+  }
+
+  private static WACCParser createParser() {
+    WACCParser parser = new WACCParser(null);
+    parser.addParseListener(new TrimmingParseListener());
+    return parser;
+  }
+
+  static SymbolTable<String, Binding> createTopSymbolTable() {
+    SymbolTable<String, Binding> top = new SymbolTable<>();
+    top.put(Types.INT_T.toString(), Type.of(Types.INT_T));
+    top.put(Types.BOOL_T.toString(), Type.of(Types.BOOL_T));
+    top.put(Types.CHAR_T.toString(), Type.of(Types.CHAR_T));
+    top.put(Types.STRING_T.toString(), Type.of(Types.STRING_T));
+    top.put(Types.PAIR_T.toString(), PairType.generic());
+    top.put(Types.UNDEFINED_T.toString(), Type.of(Types.UNDEFINED_T));
+    return top;
+  }
+
+  /**
+   * State of a single call to compile, which is closed however the call
+   * ends so that its stats stop watching the JVM's collectors
+   */
+  private class Compilation implements AutoCloseable {
+    private final EnumMap<Phase, Long> timings = new EnumMap<>(Phase.class);
+    private final CompileStats stats
+        = collectingStats ? new CompileStats() : null;
+    private final ByteArrayOutputStream diagnostics
+        = new ByteArrayOutputStream();
+    private final PrintStream err = new PrintStream(diagnostics);
+    private final List<CompileError> errors = new ArrayList<>();
+    private ProgContext tree;
+    private SymbolTable<String, Binding> top;
+    private CommonTokenStream tokens;
+    private IncrementalBuild incremental;
+    private long phaseStart = System.nanoTime();
+
+    /**
+     * Runs the front end and returns the exit code it decides
+     */
+    private int check(CharStream input) {
+      WACCErrorHandler errorHandler = parse(input);
+      if (errorHandler.printLexingErrors(err)) {
+        return WACCConstants.SYNTAX_ERROR_EXIT_CODE;
+      }
+      analyse(errorHandler);
+      return checkForErrors(errorHandler, this);
+    }
+
+    private WACCErrorHandler parse(CharStream input) {
+      WACCConsoleErrorListener lexerErrors
+          = new WACCConsoleErrorListener(err);
+      tokens = new CommonTokenStream(createLexer(input, lexerErrors));
+      tokens.fill();
+      endPhase(Phase.LEX);
+      if (stats != null) {
+        stats.count(Count.TOKENS, tokens.size() - 1);
+        skipPhase();
+      }
+
+      WACCLexerErrorListener parserErrors = new WACCLexerErrorListener();
+      WACCParser parser = parsers.get();
+      parser.setInputStream(tokens);
+      tree = parseProgram(parser, parserErrors);
+      release(parser);
+
+      WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+      errorHandler.complainAboutLexing(parserErrors.getErrors());
+      errors.addAll(lexerErrors.getErrors());
+      errors.addAll(parserErrors.getCompileErrors());
+      endPhase(Phase.PARSE);
+      if (stats != null) {
+        stats.count(Count.PARSE_TREE_NODES,
+                    tree == null ? 0 : CompileStats.countNodes(tree));
+        skipPhase();
+      }
+      return errorHandler;
+    }
+
+    /**
+     * The hand-written scanner for ASCII sources, and the generated lexer
+     * for any other
+     */
+    private TokenSource createLexer(CharStream input,
+                                    ANTLRErrorListener<Object> errors) {
+      if (input instanceof AsciiCharStream) {
+        WACCScanner scanner = new WACCScanner((AsciiCharStream) input);
+        scanner.addErrorListener(errors);
+        return scanner;
+      }
+      WACCLexer lexer = lexers.get();
+      lexer.setInputStream(input);
+      lexer.removeErrorListeners();
+      lexer.addErrorListener(errors);
+      return lexer;
+    }
+
+    /**
+     * Detaches this thread's parser, and its lexer if it was used, from the
+     * program, so that they do not hold on to its tokens and source until
+     * the thread compiles the next one
+     */
+    private void release(WACCParser parser) {
+      if (tokens.getTokenSource() instanceof WACCLexer) {
+        ((WACCLexer) tokens.getTokenSource()).setInputStream(null);
+      }
+      parser.setInputStream(null);
+    }
+
+    private void analyse(WACCErrorHandler errorHandler) {
+      top = createTopSymbolTable();
+
+      WACCTypeChecker typeChecker = new WACCTypeChecker(top, errorHandler);
+      typeChecker.declare(tree);
+      endPhase(Phase.SYMBOL_TABLE);
+
+      if (unitCache != null) {
+        incremental = new IncrementalBuild(tree, top, tokens, unitCache);
+        incremental.check(typeChecker);
+      } else {
+        typeChecker.check(tree);
+      }
+      endPhase(Phase.TYPE_CHECK);
+      if (stats != null) {
+        stats.count(Count.SYMBOL_TABLES, CompileStats.countSymbolTables(top));
+        skipPhase();
+      }
+    }
+
+    private String generate() {
+      if (incremental != null) {
+        incremental.generate();
+        endPhase(Phase.CODE_GENERATION);
+        String assembly = incremental.toAssembly();
+        endPhase(Phase.EMISSION);
+        countCode(InstructionCountingWriter.count(assembly),
+                  incremental.getHelpers());
+        return assembly;
+      }
+      CodeGenerator generator = new CodeGenerator();
+      InstructionList program = generator.visitProgram(lower());
+      endPhase(Phase.CODE_GENERATION);
+
+      String assembly = program + "\n";
+      endPhase(Phase.EMISSION);
+      countCode(InstructionCountingWriter.count(assembly),
+                generator.getHelpers());
+      return assembly;
+    }
+
+    /**
+     * Generation and writing are interleaved, so the time to generate and
+     * write the functions counts as code generation and only the final
+     * flush as emission
+     * Instructions are counted as they are written, which only adds to the
+     * time of code generation when collecting stats
+     */
+    private void emit(Writer out) throws IOException {
+      InstructionCountingWriter counter
+          = stats == null ? null : new InstructionCountingWriter(out);
+      Writer target = counter == null ? out : counter;
+      RuntimeHelpers helpers;
+      if (incremental != null) {
+        incremental.generate();
+        incremental.emit(target);
+        helpers = incremental.getHelpers();
+      } else {
+        CodeGenerator generator = new CodeGenerator();
+        AssemblyEmitter.emit(lower(), generator, target);
+        helpers = generator.getHelpers();
+      }
+      endPhase(Phase.CODE_GENERATION);
+
+      target.flush();
+      endPhase(Phase.EMISSION);
+      if (counter != null) {
+        countCode(counter.getInstructions(), helpers);
+      }
+    }
+
+    /**
+     * Lowers the checked program to its AST, after which nothing refers to
+     * the parse tree or the tokens any more, so they can be collected while
+     * the code is generated
+     */
+    private ASTProgramNode lower() {
+      ASTProgramNode program = ASTBuilder.build(tree, top);
+      tree = null;
+      tokens = null;
+      return program;
+    }
+
+    private void endPhase(Phase phase) {
+      long now = System.nanoTime();
+      timings.put(phase, now - phaseStart);
+      if (stats != null) {
+        stats.endPhase(phase, now - phaseStart);
+      }
+      phaseStart = now;
+    }
+
+    /**
+     * Leaves the work since the last phase, which only collects stats, out
+     * of the next phase
+     */
+    private void skipPhase() {
+      phaseStart = System.nanoTime();
+      stats.startPhase();
+    }
+
+    private void countCode(long instructions, RuntimeHelpers helpers) {
+      if (stats != null) {
+        stats.count(Count.INSTRUCTIONS, instructions);
+        stats.count(Count.HELPERS, helpers.getRequired().size());
+      }
+    }
+
+    @Override
+    public void close() {
+      if (stats != null) {
+        stats.close();
+      }
+    }
+
+    private CompileResult result(int exitCode, String assembly) {
+      err.flush();
+      if (stats != null) {
+        stats.recordPeakHeap();
+      }
+      return new CompileResult(exitCode, assembly, errors,
+                               diagnostics.toString(), timings, stats);
+    }
+  }
+
+}
@@ -2,7 +2,8 @@ package wacc;
 
 public class WACCConstants {
 
-  static final int MIN_INT = (int) -Math.pow(2, 31);
-  static final int MAX_INT = (int) (Math.pow(2, 31) - 1);
+  static final int SUCCESS_EXIT_CODE = 0;
+  static final int SYNTAX_ERROR_EXIT_CODE = 100;
+  static final int SEMANTIC_ERROR_EXIT_CODE = 200;
 
 }
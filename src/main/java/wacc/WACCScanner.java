@@ -0,0 +1,365 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Tuple;
+import org.antlr.v4.runtime.misc.Tuple2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written lexer for ASCII sources, giving the same tokens and errors
+ * as the WACCLexer generated from WACCLexer.g4 without simulating its ATN
+ * Each token is recognised from its first character; like the generated
+ * lexer it skips whitespace and comments, takes the longest match, lets
+ * a keyword win over an identifier of the same length and falls back to
+ * the single quote, double quote or hash when a character, string or
+ * comment is not closed
+ * The keywords and symbols are read from the parser's token names, so
+ * they always follow the grammar
+ */
+public class WACCScanner implements TokenSource {
+
+  private static final int SKIPPED = Token.INVALID_TYPE;
+  private static final int ASCII = 128;
+
+  private static final int[] SYMBOLS = new int[ASCII];
+  private static final int[] PAIRED_SYMBOLS = new int[ASCII * ASCII];
+  private static final Keyword[][] KEYWORDS = new Keyword[ASCII][];
+
+  static {
+    List<List<Keyword>> keywords = new ArrayList<>();
+    for (int c = 0; c < ASCII; c++) {
+      keywords.add(new ArrayList<>());
+    }
+    for (int type = 1; type < WACCParser.tokenNames.length; type++) {
+      String name = WACCParser.tokenNames[type];
+      if (name.length() < 3 || name.charAt(0) != '\'') {
+        continue;
+      }
+      String literal = name.substring(1, name.length() - 1);
+      if (isWordStart(literal.charAt(0))) {
+        keywords.get(literal.charAt(0)).add(new Keyword(literal, type));
+      } else if (literal.length() == 1) {
+        SYMBOLS[literal.charAt(0)] = type;
+      } else {
+        PAIRED_SYMBOLS[literal.charAt(0) * ASCII + literal.charAt(1)] = type;
+      }
+    }
+    for (int c = 0; c < ASCII; c++) {
+      KEYWORDS[c] = keywords.get(c).toArray(new Keyword[0]);
+    }
+  }
+
+  private final AsciiCharStream input;
+  private final Tuple2<WACCScanner, CharStream> source;
+  private final List<ANTLRErrorListener<? super Integer>> listeners
+      = new ArrayList<>();
+  private final int size;
+  private TokenFactory factory = CommonTokenFactory.DEFAULT;
+  private int index;
+  private int line = 1;
+  private int lineStart;
+
+  public WACCScanner(AsciiCharStream input) {
+    this.input = input;
+    this.source = Tuple.create(this, (CharStream) input);
+    this.size = input.size();
+  }
+
+  public void addErrorListener(ANTLRErrorListener<? super Integer> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public Token nextToken() {
+    while (index < size) {
+      int start = index;
+      int startLine = line;
+      int column = start - lineStart;
+      int type = scanToken();
+      if (type != SKIPPED) {
+        return factory.create(source, type, null, Token.DEFAULT_CHANNEL,
+                              start, index - 1, startLine, column);
+      }
+    }
+    return factory.create(source, Token.EOF, null, Token.DEFAULT_CHANNEL,
+                          index, index - 1, line, index - lineStart);
+  }
+
+  /**
+   * Moves past the token at index and gives its type, or SKIPPED for
+   * whitespace, comments and characters that start no token
+   */
+  private int scanToken() {
+    int c = input.charAt(index);
+    if (isWordStart(c)) {
+      return scanWord();
+    } else if (isDigit(c)) {
+      return scanInteger();
+    }
+    switch (c) {
+      case ' ':
+      case '\t':
+      case '\r':
+      case '\n':
+        return skipWhitespace();
+      case '#':
+        return scanComment();
+      case '\'':
+        return scanCharacter();
+      case '"':
+        return scanString();
+      default:
+        return scanSymbol(c);
+    }
+  }
+
+  private int scanWord() {
+    int start = index;
+    do {
+      index++;
+    } while (index < size && isWordPart(input.charAt(index)));
+    for (Keyword keyword : KEYWORDS[input.charAt(start)]) {
+      if (keyword.matches(input, start, index - start)) {
+        return keyword.type;
+      }
+    }
+    return WACCLexer.IDENT;
+  }
+
+  private int scanInteger() {
+    do {
+      index++;
+    } while (index < size && isDigit(input.charAt(index)));
+    return WACCLexer.INTEGER;
+  }
+
+  private int skipWhitespace() {
+    for (; index < size; index++) {
+      int c = input.charAt(index);
+      if (c == '\n') {
+        line++;
+        lineStart = index + 1;
+      } else if (c != ' ' && c != '\t' && c != '\r') {
+        break;
+      }
+    }
+    return SKIPPED;
+  }
+
+  /**
+   * A comment must end with a newline, optionally after a carriage
+   * return; otherwise the hash is a token on its own
+   */
+  private int scanComment() {
+    int end = index + 1;
+    while (end < size && !isLineBreak(input.charAt(end))) {
+      end++;
+    }
+    if (end < size && input.charAt(end) == '\r') {
+      end++;
+    }
+    if (end < size && input.charAt(end) == '\n') {
+      index = end + 1;
+      line++;
+      lineStart = index;
+      return SKIPPED;
+    }
+    index++;
+    return WACCLexer.HASH;
+  }
+
+  private int scanCharacter() {
+    int end = skipLegalCharacter(index + 1);
+    if (end > 0 && end < size && input.charAt(end) == '\'') {
+      acceptLiteral(end + 1);
+      return WACCLexer.CHARACTER;
+    }
+    index++;
+    return WACCLexer.SINGLE_QUOTE;
+  }
+
+  private int scanString() {
+    int end = index + 1;
+    for (int next = skipLegalCharacter(end); next > 0;
+         next = skipLegalCharacter(end)) {
+      end = next;
+    }
+    if (end < size && input.charAt(end) == '"') {
+      acceptLiteral(end + 1);
+      return WACCLexer.STRING;
+    }
+    index++;
+    return WACCLexer.DOUBLE_QUOTE;
+  }
+
+  /**
+   * The index after the character or escape sequence at i, or -1 if
+   * there is none there
+   */
+  private int skipLegalCharacter(int i) {
+    if (i >= size) {
+      return -1;
+    }
+    switch (input.charAt(i)) {
+      case '\'':
+      case '"':
+        return -1;
+      case '\\':
+        return i + 1 < size && isEscaped(input.charAt(i + 1)) ? i + 2 : -1;
+      default:
+        return i + 1;
+    }
+  }
+
+  private int scanSymbol(int c) {
+    if (index + 1 < size) {
+      int second = input.charAt(index + 1);
+      int type = PAIRED_SYMBOLS[c * ASCII + second];
+      if (type != 0) {
+        index += 2;
+        return type;
+      }
+    }
+    int type = SYMBOLS[c];
+    if (type != 0) {
+      index++;
+      return type;
+    }
+    return skipUnrecognised(c);
+  }
+
+  /**
+   * Reports the characters at index as the generated lexer does, which
+   * after a '|' not followed by another gives up on the next character
+   * as well and skips both
+   */
+  private int skipUnrecognised(int c) {
+    int end = Math.min(c == '|' ? index + 2 : index + 1, size);
+    String text = input.getText(Interval.of(index, end - 1));
+    String message = "token recognition error at: '" + display(text) + "'";
+    for (ANTLRErrorListener<? super Integer> listener : listeners) {
+      listener.syntaxError(null, null, line, index - lineStart, message,
+                           null);
+    }
+    advanceTo(end);
+    return SKIPPED;
+  }
+
+  /**
+   * Moves past a character or string literal that ends before end
+   * The generated lexer counts the lines inside a literal that ends the
+   * input but not the column they start, so the end of input is placed as
+   * if they were one line
+   */
+  private void acceptLiteral(int end) {
+    int literalLineStart = lineStart;
+    advanceTo(end);
+    if (end == size) {
+      lineStart = literalLineStart;
+    }
+  }
+
+  /**
+   * Moves index to end, keeping count of the lines passed
+   */
+  private void advanceTo(int end) {
+    for (; index < end; index++) {
+      if (input.charAt(index) == '\n') {
+        line++;
+        lineStart = index + 1;
+      }
+    }
+  }
+
+  private static String display(String text) {
+    return text.replace("\n", "\\n").replace("\t", "\\t")
+               .replace("\r", "\\r");
+  }
+
+  private static boolean isWordStart(int c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+  }
+
+  private static boolean isWordPart(int c) {
+    return isWordStart(c) || isDigit(c);
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isLineBreak(int c) {
+    return c == '\r' || c == '\n';
+  }
+
+  private static boolean isEscaped(int c) {
+    return "0btrnf\"'\\".indexOf(c) >= 0;
+  }
+
+  @Override
+  public int getLine() {
+    return line;
+  }
+
+  @Override
+  public int getCharPositionInLine() {
+    return index - lineStart;
+  }
+
+  @Override
+  public CharStream getInputStream() {
+    return input;
+  }
+
+  @Override
+  public String getSourceName() {
+    return input.getSourceName();
+  }
+
+  @Override
+  public void setTokenFactory(TokenFactory factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public TokenFactory getTokenFactory() {
+    return factory;
+  }
+
+  /**
+   * A keyword, kept with the others that start with the same letter
+   */
+  private static final class Keyword {
+    private final byte[] text;
+    private final int type;
+
+    Keyword(String text, int type) {
+      this.text = text.getBytes(StandardCharsets.US_ASCII);
+      this.type = type;
+    }
+
+    boolean matches(AsciiCharStream input, int start, int length) {
+      if (length != text.length) {
+        return false;
+      }
+      for (int i = 1; i < length; i++) {
+        if (input.charAt(start + i) != text[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
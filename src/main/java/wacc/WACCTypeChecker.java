@@ -1,35 +1,133 @@
 package wacc;
 
 import antlr.WACCParser;
+import antlr.WACCParser.FuncContext;
+import antlr.WACCParser.ProgContext;
 import bindings.*;
+import org.antlr.v4.runtime.ParserRuleContext;
 import wacc.error.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static wacc.Utils.incorrectType;
 
+/**
+ * Fills the symbol table of a program and type checks it in one traversal
+ * The signatures of the functions are declared first, from their headers
+ * alone, so that a body can call any function; the scopes of each body are
+ * then filled as it is checked, so a variable is looked up among those
+ * declared before it
+ * Declaration errors are kept apart from type errors and reported before
+ * them, in the order separate passes would have found them
+ */
 public class WACCTypeChecker extends WACCVisitor<Type> {
 
+  private static final int PARALLEL_FUNCTION_THRESHOLD = 8;
+
   private final WACCTypeCreator typeCreator;
+  private final int parallelThreshold;
+  private final WACCErrorHandler declarationErrors;
+  private final List<WACCTypeChecker> checkedUnits = new ArrayList<>();
+  private Map<ParserRuleContext, WACCErrorHandler> signatureErrors
+      = new HashMap<>();
   private Function currentFunction;
+  private boolean hasReturnStat, hasReturnOrExitStat;
 
   public WACCTypeChecker(SymbolTable<String, Binding> top,
                          WACCErrorHandler errorHandler) {
+    this(top, errorHandler, PARALLEL_FUNCTION_THRESHOLD);
+  }
+
+  /**
+   * Functions are checked concurrently once a program has at least
+   * parallelThreshold of them
+   */
+  WACCTypeChecker(SymbolTable<String, Binding> top,
+                  WACCErrorHandler errorHandler, int parallelThreshold) {
     super(top, errorHandler);
     typeCreator = new WACCTypeCreator(top);
+    this.parallelThreshold = parallelThreshold;
+    this.declarationErrors = errorHandler.createBuffer();
+  }
+
+  /**
+   * Checker for a single function or main whose scope counters start at
+   * the given values, and whose errors are kept to be merged
+   */
+  private WACCTypeChecker(SymbolTable<String, Binding> top,
+                          WACCErrorHandler errorBuffer, int ifCount,
+                          int whileCount, int beginCount) {
+    this(top, errorBuffer, Integer.MAX_VALUE);
+    this.ifCount = ifCount;
+    this.whileCount = whileCount;
+    this.beginCount = beginCount;
+  }
+
+  WACCTypeChecker createUnitChecker(int ifs, int whiles, int begins) {
+    WACCTypeChecker unit = new WACCTypeChecker(
+        top, errorHandler.createBuffer(), ifs, whiles, begins);
+    unit.signatureErrors = signatureErrors;
+    return unit;
+  }
+
+  /**
+   * Checks a function or main of a program whose signatures have been
+   * declared, after the errors in its own signature
+   */
+  void checkUnit(ParserRuleContext unit) {
+    WACCErrorHandler errors = signatureErrors.get(unit);
+    if (errors != null) {
+      declarationErrors.merge(errors);
+    }
+    changeWorkingSymbolTableTo(Scope.PROG.toString());
+    visit(unit);
+  }
+
+  /**
+   * Keeps the errors found by a unit checker, to be reported in the order
+   * the units are merged
+   */
+  void merge(WACCTypeChecker unit) {
+    checkedUnits.add(unit);
+  }
+
+  /**
+   * Reports the declaration errors of every merged unit, then their type
+   * errors
+   */
+  void reportErrors() {
+    for (WACCTypeChecker unit : checkedUnits) {
+      errorHandler.merge(unit.declarationErrors);
+    }
+    for (WACCTypeChecker unit : checkedUnits) {
+      errorHandler.merge(unit.errorHandler);
+    }
+    checkedUnits.clear();
+  }
+
+  /**
+   * Whether the signature of a function clashes with another, or repeats
+   * a parameter name
+   */
+  boolean hasSignatureErrors(ParserRuleContext unit) {
+    return signatureErrors.containsKey(unit);
   }
 
   /***************************** Helper Method *******************************/
 
   private Type checkAllTypesEqual(List<? extends WACCParser.ExprContext> ctxs) {
     Type firstType = visitExpr(ctxs.get(0));
-    for (WACCParser.ExprContext ctx : ctxs) {
+    boolean consistent = true;
+    for (WACCParser.ExprContext ctx : ctxs.subList(1, ctxs.size())) {
       Type currentType = visitExpr(ctx);
-      if (!currentType.equals(firstType)) {
+      if (consistent && !currentType.equals(firstType)) {
         errorHandler.complain(new TypeError(ctx, "Inconsistent array types"
                 + "of array values"));
-        return firstType;
+        consistent = false;
       }
     }
     return firstType;
@@ -61,51 +159,204 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
     List<Type> types = new ArrayList<>();
     WACCParser.ArgListContext argListContext = ctx.argList();
     if (argListContext != null) {
-      int size = argListContext.expr().size();
       for (WACCParser.ExprContext expr : argListContext.expr()) {
         types.add(visitExpr(expr));
       }
     }
     return types;
   }
-  
+
+  /**
+   * The variable a name refers to where it is used, which is declared
+   * before the use, or null if there is none
+   */
+  private Variable lookUpVariable(String name) {
+    Binding binding = workingSymbolTable.lookupAll(name);
+    return binding instanceof Variable ? (Variable) binding : null;
+  }
+
+  /**
+   * Creates the symbol table of a scope nested in the working one and
+   * makes it the working symbol table
+   */
+  private void enterNewScope(String name) {
+    SymbolTable<String, Binding> symbolTable
+        = new SymbolTable<>(name, workingSymbolTable);
+    workingSymbolTable.put(name, new NewScope(name, symbolTable));
+    setWorkingSymbolTable(symbolTable);
+  }
+
+  /**
+   * Checks a statement list in a new scope of its own
+   */
+  private Type checkInNewScope(String name,
+                               WACCParser.StatListContext statList) {
+    enterNewScope(name);
+    Type type = visitStatList(statList);
+    goUpWorkingSymbolTable();
+    return type;
+  }
+
+  /**
+   * Adds a declared variable to the working symbol table
+   * It must not be declared already in the same scope, nor in a scope the
+   * working one is a branch or a loop body of
+   */
+  private void declareVariable(WACCParser.InitStatContext ctx,
+                               Variable variable) {
+    String varName = variable.getName();
+    Binding binding = workingSymbolTable.put(varName, variable);
+    if (binding != null) {
+      String errorMsg = varName + " is already declared in current scope";
+      declarationErrors.complain(new DeclarationError(ctx, errorMsg));
+    } else {
+      checkOneWayScopeDeclaration(ctx, varName);
+    }
+  }
+
+  /**
+   * Go up scopes to check for redeclaration
+   * Stop search when regular scope is reached
+   * One way scope names begin with the digit '1'
+   */
+  private void checkOneWayScopeDeclaration(WACCParser.InitStatContext ctx,
+                                           String varName) {
+    String oneWay = ScopeType.ONE_WAY_SCOPE.toString();
+    SymbolTable<String, Binding> temp = workingSymbolTable;
+    while (temp.getName().startsWith(oneWay)) {
+      temp = temp.getEnclosingST();
+      if (temp.get(varName) != null) {
+        String errorMsg
+            = "Cannot redefine variable " + varName + " in this scope";
+        declarationErrors.complain(new DeclarationError(ctx, errorMsg));
+        break;
+      }
+    }
+  }
+
+  /************************** Declarations ****************************/
+
+  /**
+   * Creates the scope of prog with the overloads of every function name,
+   * the signature and scope of every function, holding its parameters, and
+   * the scope of main
+   * Each function keeps its signature, so nothing has to work it out from
+   * the parameter list again
+   */
+  void declare(ProgContext ctx) {
+    String progName = Scope.PROG.toString();
+    SymbolTable<String, Binding> prog = new SymbolTable<>(progName, top);
+    top.put(progName, new NewScope(progName, prog));
+
+    // Allows mutual recursion; each function joins the overloads of its
+    // name when it is declared
+    for (FuncContext func : ctx.func()) {
+      prog.computeIfAbsent(ScopeType.FUNCTION_SCOPE + func.funcName.getText(),
+                           Overloads::new);
+    }
+    for (FuncContext func : ctx.func()) {
+      func.function = declareFunction(func, prog);
+    }
+
+    String mainName = Scope.MAIN.toString();
+    prog.put(mainName,
+             new NewScope(mainName, new SymbolTable<>(mainName, prog)));
+  }
+
+  /**
+   * Creates the scope of a function with its parameters in it
+   * The scope is named after the overloaded name of the function, so that
+   * its stack space is recorded in its own Function binding rather than in
+   * the overloads of its name in prog
+   */
+  private Function declareFunction(FuncContext ctx,
+                                   SymbolTable<String, Binding> prog) {
+    List<Variable> params = Utils.getParamList(ctx, typeCreator);
+    String funcName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText()
+            + Utils.getFuncParamTypeSuffix(params);
+    SymbolTable<String, Binding> symbolTable
+        = new SymbolTable<>(funcName, prog);
+    for (Variable param : params) {
+      if (symbolTable.put(param.getName(), param) != null) {
+        String errorMsg = "parameter name " + param.getName()
+                + " already exists";
+        complainAboutSignature(ctx, new DeclarationError(ctx, errorMsg));
+      }
+    }
+
+    Type returnType = typeCreator.visitType(ctx.type());
+    Function function
+        = new Function(returnType, funcName, params, symbolTable);
+    String overloadsName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText();
+    ((Overloads) prog.get(overloadsName)).add(function);
+
+    if (prog.put(funcName, function) instanceof Function) {
+      String errorMsg = "Function " + ctx.funcName.getText()
+          + " has already been declared with these parameter types\n"
+          + Utils.listTypes(function.getParamTypes());
+      complainAboutSignature(ctx, new DeclarationError(ctx, errorMsg));
+    }
+    return function;
+  }
+
+  private void complainAboutSignature(FuncContext ctx,
+                                      IError<ParserRuleContext> error) {
+    signatureErrors.computeIfAbsent(ctx, unit -> errorHandler.createBuffer())
+                   .complain(error);
+  }
+
   /************************** Visit Functions ****************************/
 
   /**
   * prog: BEGIN func* main END EOF;
-  * change scope
-  * visit children, to type check children
+  * declare the signatures
+  * check every function, then main
   */
   @Override
-  public Type visitProg(WACCParser.ProgContext ctx) {
-    String scopeName = Scope.PROG.toString();
-    changeWorkingSymbolTableTo(scopeName);
-
-
-    visitChildren(ctx);
-    goUpWorkingSymbolTable();
+  public Type visitProg(ProgContext ctx) {
+    declare(ctx);
+    check(ctx);
     return null;
   }
 
+  /**
+   * Checks the functions and main of a program whose signatures have been
+   * declared, one after another with a single unit checker, or
+   * concurrently
+   */
+  void check(ProgContext ctx) {
+    if (ctx.func().size() >= parallelThreshold) {
+      ParallelTypeChecker.check(ctx, this);
+    } else {
+      WACCTypeChecker checker = createUnitChecker(0, 0, 0);
+      for (ParserRuleContext unit : ProgramUnits.of(ctx)) {
+        checker.checkUnit(unit);
+      }
+      merge(checker);
+    }
+    reportErrors();
+  }
+
   /**
    * main: statList;
-   * change scope to 0main
-   * push new variable scope
+   * change scope to main
    * type check children
    * revert to enclosing scope
-   * pop variable scope
+   * throw error if main contains a return
    */
   @Override
   public Type visitMain(WACCParser.MainContext ctx) {
-    String scopeName = Scope.MAIN.toString();
-    changeWorkingSymbolTableTo(scopeName);
-    pushEmptyVariableSet();
+    changeWorkingSymbolTableTo(Scope.MAIN.toString());
     currentFunction = null;
+    hasReturnStat = false;
 
     Type type = visitStatList(ctx.statList());
-    
+
     goUpWorkingSymbolTable();
-    popCurrentScopeVariableSet();
+    if (hasReturnStat) {
+      String errorMsg = "Return statement not required in body of program";
+      declarationErrors.complain(new SemanticError(ctx, errorMsg));
+    }
 
     return type;
   }
@@ -114,68 +365,44 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
 
   /**
   * func: type funcName ( (paramList)? ) IS body END;
-  * get return type of function
-  * change scope to function
-  * push new variable scope
-  * visit Params, to type check
+  * change scope to the function declared for it, holding its params
   * visit body to type check
-  * return type check is deferred
   * revert to enclosing scope
-  * pop variable scope
+  * throw error if function does not contain return or exit
   */
   @Override
-  public Type visitFunc(WACCParser.FuncContext ctx) {
-    String funcName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText()
-            + Utils.getParamString(ctx.paramTypes);
-    currentFunction = (Function) workingSymbolTable.lookupAll(funcName);
-    Type expectedReturnType = currentFunction.getType();
+  public Type visitFunc(FuncContext ctx) {
+    currentFunction = ctx.function;
+    hasReturnOrExitStat = false;
 
-    changeWorkingSymbolTableTo(funcName);
-    pushEmptyVariableSet();
-
-    if (ctx.paramList() != null) {
-      visitParamList(ctx.paramList());
-    }
+    setWorkingSymbolTable(currentFunction.getSymbolTable());
     visitStatList(ctx.statList());
-
     goUpWorkingSymbolTable();
-    popCurrentScopeVariableSet();
-
-    return expectedReturnType;
-  }
-
-  /**
-  * param: type name;
-  * look up the type in the symbol table
-  * add to current variable scope
-  * return the type
-  */
-  @Override
-  public Type visitParam(WACCParser.ParamContext ctx) {
-    Type type = Utils.lookupTypeInWorkingSymbolTable(ctx.ident().getText(),
-        workingSymbolTable);
 
-    // Add the param to the current variable scope symbol table
-    addVariableToCurrentScope(ctx.ident().getText());
+    if (!hasReturnOrExitStat) {
+      String errorMsg = "Return or exit statement required in body of "
+              + ScopeType.FUNCTION_SCOPE + ctx.funcName.getText();
+      declarationErrors.complain(new SyntaxError(ctx, errorMsg));
+    }
 
-    return type;
+    return currentFunction.getType();
   }
 
   /************************** Statements ****************************/
 
   /**
   * type varName EQUALS assignRHS
-  * get lhs & rhs types
-  * check that they are equal
+  * get rhs type, before the variable is declared
+  * declare the variable in the working scope
+  * check that the types are equal
   *  - if it is a pair, check the inner types
   */
   @Override
   public Type visitInitStat(WACCParser.InitStatContext ctx) {
-    Type lhsType = Utils.lookupTypeInWorkingSymbolTable(ctx.ident().getText(),
-        workingSymbolTable);
     Type rhsType = visitAssignRHS(ctx.assignRHS());
+    Type lhsType = typeCreator.visitType(ctx.type());
 
-    addVariableToCurrentScope(ctx.ident().getText());
+    declareVariable(ctx, new Variable(ctx.ident().getText(), lhsType));
     Utils.checkTypesEqual(ctx, lhsType, rhsType, errorHandler);
 
     return lhsType;
@@ -208,8 +435,8 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
           return ctx.returnType;
         }
       } else {
-        String name = ctx.pairElem().ident().getText();
-        ctx.returnType = getMostRecentBindingForVariable(name).getType();
+        Variable pair = lookUpVariable(ctx.pairElem().ident().getText());
+        ctx.returnType = pair != null ? pair.getType() : null;
       }
     } else if (ctx.pointer() != null) {
       if (PointerType.isPointer(returnType)) {
@@ -254,8 +481,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
 
   @Override
   public Type visitPrintStat(WACCParser.PrintStatContext ctx) {
-    ctx.expr().returnType = visitExpr(ctx.expr());
-    return super.visitPrintStat(ctx);
+    return visitExpr(ctx.expr());
   }
 
   /**
@@ -263,6 +489,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   * type check: int */
   @Override
   public Type visitExitStat(WACCParser.ExitStatContext ctx) {
+    hasReturnOrExitStat = true;
     Type exprType = visitExpr(ctx.expr());
 
     if (!Type.isInt(exprType)) {// exit codes are Integers
@@ -280,6 +507,8 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   * check both are equal */
   @Override
   public Type visitReturnStat(WACCParser.ReturnStatContext ctx) {
+    hasReturnStat = true;
+    hasReturnOrExitStat = true;
     Type actualReturnType = visitExpr(ctx.expr());
     if (currentFunction != null) {
       Type expectedReturnType = currentFunction.getType();
@@ -294,16 +523,10 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   /**
   * IF predicate THEN thenStat ELSE elseStat FI
   * type check predicate is bool
-  * change scope to thenStat
-  * push new variable scope
-  * visit thenStat
-  * reset scope to enclosing table
-  * pop variable scope
-  * change scope to elseStat
-  * push new variable scope
-  * visit elseStat
-  * reset scope to enclosing table
-  * pop variable scope */
+  * visit thenStat in a new scope
+  * visit elseStat in a new scope
+  * the if returns or exits if both branches do, or if the statements
+  * before it did */
   @Override
   public Type visitIfStat(WACCParser.IfStatContext ctx) {
     Type predicateType = visitExpr(ctx.expr());
@@ -313,20 +536,18 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
           new TypeAssignmentError(ctx, "'bool'", predicateType.getName()));
     }
 
-    String scopeName = Scope.THEN.toString() + ++ifCount;
-    changeWorkingSymbolTableTo(scopeName);
-    pushEmptyVariableSet();
-    visitStatList(ctx.thenStat);
-    goUpWorkingSymbolTable();
-    popCurrentScopeVariableSet();
+    boolean hasReturnOrExitBefore = hasReturnOrExitStat;
+    ++ifCount;
+    checkInNewScope(Scope.THEN.toString() + ifCount, ctx.thenStat);
 
     if (ctx.ELSE() != null) {
-      scopeName = Scope.ELSE.toString() + ifCount;
-      changeWorkingSymbolTableTo(scopeName);
-      pushEmptyVariableSet();
-      visitStatList(ctx.elseStat);
-      goUpWorkingSymbolTable();
-      popCurrentScopeVariableSet();
+      boolean thenHasReturnOrExit = hasReturnOrExitStat;
+      hasReturnOrExitStat = false;
+      checkInNewScope(Scope.ELSE.toString() + ifCount, ctx.elseStat);
+      hasReturnOrExitStat = thenHasReturnOrExit && hasReturnOrExitStat
+          || hasReturnOrExitBefore;
+    } else {
+      hasReturnOrExitStat = hasReturnOrExitBefore;
     }
 
     return null;
@@ -334,11 +555,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
 
   /** WHILE expr DO body DONE
   * type check predicate is bool (or evaluates to it)
-  * change scope to body
-  * push new variable scope
-  * visit body
-  * reset scope to enclosing table
-  * pop variable scope */
+  * visit body in a new scope */
   @Override
   public Type visitWhileStat(WACCParser.WhileStatContext ctx) {
     Type predicateType = visitExpr(ctx.expr());
@@ -348,39 +565,19 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
     }
 
     String scopeName = Scope.WHILE.toString() + ++whileCount;
-    changeWorkingSymbolTableTo(scopeName);
-    pushEmptyVariableSet();
-
-    visitStatList(ctx.statList());
-
-    goUpWorkingSymbolTable();
-    popCurrentScopeVariableSet();
+    checkInNewScope(scopeName, ctx.statList());
 
     return null;
   }
 
   /**
    * BEGIN body END
-   * change scope to body
-   * push new variable scope
-   * visit body
-   * reset scope to enclosing table
-   * pop variable scope
+   * visit body in a new scope
    */
   @Override
   public Type visitBeginStat(WACCParser.BeginStatContext ctx) {
-
     String scopeName = Scope.BEGIN.toString() + ++beginCount;
-    changeWorkingSymbolTableTo(scopeName);
-
-    pushEmptyVariableSet();
-
-    Type statListType = visitStatList(ctx.statList());
-    goUpWorkingSymbolTable();
-
-    popCurrentScopeVariableSet();
-
-    return statListType;
+    return checkInNewScope(scopeName, ctx.statList());
   }
 
   /**
@@ -393,46 +590,55 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   public Type visitNewPair(WACCParser.NewPairContext ctx) {
     Type fstType = visitExpr(ctx.first);
     Type sndType = visitExpr(ctx.second);
-    return new PairType(fstType, sndType);
+    return PairType.of(fstType, sndType);
   }
 
   /**
    * CALL funcName ( (argList)? )
    * type check each argument
+   * record the overload that is called, out of those with as many params as
+   * there are arguments
    * return the functions return type
    */
   @Override
   public Type visitCall(WACCParser.CallContext ctx) {
-    List<Function> overloadedFuncs = getOverloads(ctx);
+    Overloads overloads = getOverloads(ctx);
+    if (overloads == null) {
+      String errorMsg = "Function " + ctx.funcName.getText() + " not defined";
+      declarationErrors.complain(new DeclarationError(ctx, errorMsg));
+    }
     List<Type> types = getArgTypes(ctx);
-    ctx.argTypes = types;
 
     Function calledFunction = null;
-    for (Function overload : overloadedFuncs) {
-      boolean match = true;
-      if (types.size() != overload.getParams().size()) {
-        match = false;
-      } else {
-        for (int i = 0; i < types.size(); i++) {
-          Type actualType = types.get(i);
-          Type expectedType = overload.getParams().get(i).getType();
-          if (!actualType.equals(expectedType)) {
-            match = false;
-          }
+    if (overloads != null) {
+      for (Function overload : overloads.withArity(types.size())) {
+        if (paramsMatch(overload, types)) {
+          calledFunction = overload;
         }
       }
-      if (match) {
-        calledFunction = overload;
-      }
     }
     if (calledFunction == null) {
+      List<Function> overloadedFuncs = overloads != null
+          ? overloads.getAll() : Collections.emptyList();
       Utils.complainAboutOverloads(ctx, overloadedFuncs, types, errorHandler);
       return getType(Types.UNDEFINED_T);
     }
 
+    ctx.function = calledFunction;
     return calledFunction.getType();
   }
 
+  private static boolean paramsMatch(Function function, List<Type> types) {
+    for (int i = 0; i < types.size(); i++) {
+      Type actualType = types.get(i);
+      Type expectedType = function.getParamTypes().get(i);
+      if (!actualType.equals(expectedType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * if array non empty
    *   - arrayLitr: [(T, T, T, ...)?];
@@ -446,9 +652,9 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
 
     if (ctx.expr() != null && ctx.expr().size() != 0) {
       Type type = checkAllTypesEqual(ctx.expr());
-      return new ArrayType(type);
+      return ArrayType.of(type);
     }
-    return new ArrayType();
+    return ArrayType.generic();
   }
 
   /************************** Expressions ****************************/
@@ -539,7 +745,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
    */
   @Override
   public Type visitPairLitr(WACCParser.PairLitrContext ctx) {
-    return new PairType();
+    return PairType.generic();
   }
 
   /************************** Expression Helpers ****************************/
@@ -555,16 +761,16 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
    */
   @Override
 	public Type visitArrayElem(WACCParser.ArrayElemContext ctx) {
+    Type type = visitIdent(ctx.ident());
     checkArrayElemExpressions(ctx.expr());
 
-    Type type = visitIdent(ctx.ident());
     int wantedDim = ctx.OPEN_BRACKET().size();
     if (Type.isString(type)) {
       if (wantedDim != 1) {
         String errorMsg = "String is one dimensional";
         errorHandler.complain(new TypeError(ctx, errorMsg));
       } else {
-        ctx.returnType = new Type(Types.CHAR_T);
+        ctx.returnType = Type.of(Types.CHAR_T);
         return ctx.returnType;
       }
     } else if (ArrayType.isArray(type)) {
@@ -597,7 +803,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
     Type varType = visitChildren(ctx);
     Type returnType = null;
 
-    if (Utils.checkTypesEqual(ctx, new PairType(), varType, errorHandler)) {
+    if (Utils.checkTypesEqual(ctx, PairType.generic(), varType, errorHandler)) {
       PairType pairType = (PairType) varType;
 
       if (ctx.FST() != null) {
@@ -652,7 +858,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
       if (ArrayType.isArray(exprType)) {
         incorrectType(ctx, exprType, "Not Array", errorHandler);
       }
-      return new PointerType(exprType);
+      return PointerType.of(exprType);
     }
     return exprType;
   }
@@ -663,13 +869,7 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   }
 
   public Type dereferencePointer(Type exprType, int wantedDim) {
-    PointerType pointerType = (PointerType) exprType;
-      int totalDim = pointerType.getDimensionality();
-      if (wantedDim <= totalDim) {
-        int returnDim = totalDim - wantedDim;
-        return PointerType.createPointer(pointerType.getBase(), returnDim);
-      }
-    return exprType;
+    return PointerType.dereference(exprType, wantedDim);
   }
 
   /**
@@ -696,74 +896,59 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   }
 
   /**
-   * visits relevant children of comparisonOpers
+   * comparisonOper: first ((GT | GE | LT | LE | EQ | NE) second)?
+   * if there is no second
+   *  - return type of first
+   * otherwise
+   *  - check the operands of the ordering or equality operation
    */
   @Override
   public Type visitComparisonOper(WACCParser.ComparisonOperContext ctx) {
-    if (ctx.orderingOper() != null) {
-      return visitOrderingOper(ctx.orderingOper());
-    } else if (ctx.equalityOper() != null) {
-      return visitEqualityOper(ctx.equalityOper());
+    if (ctx.second == null) {
+      return visitAddOper(ctx.first);
     }
-    return null;
+    Type fstType = visitAddOper(ctx.first);
+    Type sndType = visitAddOper(ctx.second);
+    int op = ctx.op.getType();
+    if (op == WACCParser.EQ || op == WACCParser.NE) {
+      checkEquality(ctx, fstType, sndType);
+    } else {
+      checkOrdering(ctx, fstType, sndType);
+    }
+    return getType(Types.BOOL_T);
   }
 
   /**
-   * orderingOper: first ((GT | GTE | LT | LTE) second)?
-   * if there is no second
-   *  - return type of first
-   * otherwise
-   *  - check both are int(s) or both are char(s)
+   * Ordering: check both are int(s) or both are char(s)
    */
-  @Override
-  public Type visitOrderingOper(WACCParser.OrderingOperContext ctx) {
-    if (ctx.second != null) {
-      Type fstType = visitAddOper(ctx.first);
-      Type sndType = visitAddOper(ctx.second);
-
-      if (!fstType.equals(sndType)) {
-        errorHandler.complain(new TypeError(ctx.first));
-        errorHandler.complain(new TypeError(ctx.second));
-      } else if (!(Type.isInt(fstType) || Type.isChar(fstType))) {
-        String expectedType = "'int' or 'char'";
-        incorrectType(ctx.first, fstType, expectedType, errorHandler);
-        incorrectType(ctx.second, sndType, expectedType, errorHandler);
-      }
-      return getType(Types.BOOL_T);
-    } else {
-      return visitAddOper(ctx.first);
+  private void checkOrdering(WACCParser.ComparisonOperContext ctx,
+                             Type fstType, Type sndType) {
+    if (!fstType.equals(sndType)) {
+      errorHandler.complain(new TypeError(ctx.first));
+      errorHandler.complain(new TypeError(ctx.second));
+    } else if (!(Type.isInt(fstType) || Type.isChar(fstType))) {
+      String expectedType = "'int' or 'char'";
+      incorrectType(ctx.first, fstType, expectedType, errorHandler);
+      incorrectType(ctx.second, sndType, expectedType, errorHandler);
     }
   }
 
   /**
-   * equalityOper: first ((EQ | NE) second)?
-   * if there is no second
-   *  - return type of first
-   * otherwise
-   *  - check both are the same type
-   */
-  @Override
-  public Type visitEqualityOper(WACCParser.EqualityOperContext ctx) {
-    if (ctx.second != null) {
-      Type fstType = visitAddOper(ctx.first);
-      Type sndType = visitAddOper(ctx.second);
-
-      if (!fstType.equals(sndType)) {
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append("Type of ");
-        stringBuilder.append(ctx.first.getText());
-        stringBuilder.append("(").append(fstType).append(")");
-        stringBuilder.append(" and ");
-        stringBuilder.append(ctx.second.getText());
-        stringBuilder.append("(").append(sndType).append(")");
-        stringBuilder.append(" do not match");
-        String errorMsg = stringBuilder.toString();
-        errorHandler.complain(new TypeError(ctx.first, errorMsg));
-      }
-
-      return getType(Types.BOOL_T);
-    } else {
-      return visitAddOper(ctx.first);
+   * Equality: check both are the same type
+   */
+  private void checkEquality(WACCParser.ComparisonOperContext ctx,
+                             Type fstType, Type sndType) {
+    if (!fstType.equals(sndType)) {
+      StringBuilder stringBuilder = new StringBuilder();
+      stringBuilder.append("Type of ");
+      stringBuilder.append(ctx.first.getText());
+      stringBuilder.append("(").append(fstType).append(")");
+      stringBuilder.append(" and ");
+      stringBuilder.append(ctx.second.getText());
+      stringBuilder.append("(").append(sndType).append(")");
+      stringBuilder.append(" do not match");
+      String errorMsg = stringBuilder.toString();
+      errorHandler.complain(new TypeError(ctx.first, errorMsg));
     }
   }
 
@@ -845,12 +1030,19 @@ public class WACCTypeChecker extends WACCVisitor<Type> {
   /**
    * IDENT
    * lookup and return the type
+   * throw error for undeclared variable (includes when IDENT is only a
+   * function name)
    */
   @Override
   public Type visitIdent(WACCParser.IdentContext ctx) {
-    Variable variable = getMostRecentBindingForVariable(ctx.getText());
-    if (variable != null) {
-      return variable.getType();
+    String varName = ctx.getText();
+    Binding binding = workingSymbolTable.lookupAll(varName);
+    if (binding == null || binding instanceof Function) {
+      String errorMsg = "Variable " + varName + " has not been declared";
+      declarationErrors.complain(new DeclarationError(ctx, errorMsg));
+    }
+    if (binding instanceof Variable) {
+      return ((Variable) binding).getType();
     }
     return null;
   }
@@ -25,7 +25,7 @@ public class WACCTypeCreator extends WACCVisitor<Type> {
   public Type visitArrayType(WACCParser.ArrayTypeContext ctx) {
     Type base = visitNonArrayType(ctx.nonArrayType());
     int dimensionality = ctx.OPEN_BRACKET().size();
-    return new ArrayType(base, dimensionality);
+    return ArrayType.of(base, dimensionality);
   }
 
   /**
@@ -37,10 +37,10 @@ public class WACCTypeCreator extends WACCVisitor<Type> {
     Type fstType = visitPairElemType(ctx.firstType);
     Type sndType = visitPairElemType(ctx.secondType);
 
-    Type base = new PairType(fstType, sndType);
+    Type base = PairType.of(fstType, sndType);
 
     if (!ctx.MUL().isEmpty()) {
-      base = new PointerType(base, ctx.MUL().size());
+      base = PointerType.of(base, ctx.MUL().size());
     }
 
     return base;
@@ -58,7 +58,7 @@ public class WACCTypeCreator extends WACCVisitor<Type> {
     } else if (ctx.pairType() != null) {
       return visitPairType(ctx.pairType());
     } else {
-      return new PairType();
+      return PairType.generic();
     }
   }
 
@@ -79,7 +79,7 @@ public class WACCTypeCreator extends WACCVisitor<Type> {
     }
 
     if (!ctx.MUL().isEmpty()) {
-      base = new PointerType(base, ctx.MUL().size());
+      base = PointerType.of(base, ctx.MUL().size());
     }
 
     return base;
@@ -31,40 +31,27 @@ public abstract class WACCVisitor<T> extends WACCParserBaseVisitor<T> {
     variableStack = new ArrayDeque<>();
   }
 
-  protected Function getCalledFunction(WACCParser.CallContext ctx) {
+  /**
+   * The functions declared with the name a call uses, or null if there are
+   * none
+   */
+  protected Overloads getOverloads(WACCParser.CallContext ctx) {
     NewScope progScope = (NewScope) top.get(Scope.PROG.toString());
     String funcName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText();
-    Binding function = progScope.getSymbolTable().get(funcName);
-    if (function instanceof Function) {
-      return (Function) function;
+    Binding overloads = progScope.getSymbolTable().get(funcName);
+    if (overloads instanceof Overloads) {
+      return (Overloads) overloads;
     }
-    System.err.println(funcName + ": " + function.getClass());
     return null;
   }
 
-  protected List<Function> getOverloads(WACCParser.CallContext ctx) {
-    List<Function> functionScopes = new ArrayList<>();
-
-    NewScope progScope = (NewScope) top.get(Scope.PROG.toString());
-    String funcName = ScopeType.FUNCTION_SCOPE + ctx.funcName.getText();
-    List<Binding> allFunctions
-            = progScope.getSymbolTable().filterByClass(Function.class);
-    for (Binding binding : allFunctions) {
-      Function function = (Function) binding;
-      if (function.getName().startsWith(funcName + ".")) {
-        functionScopes.add(function);
-      }
-    }
-    return functionScopes;
-  }
-
   protected void setWorkingSymbolTable(
       SymbolTable<String, Binding> workingSymbolTable) {
     this.workingSymbolTable = workingSymbolTable;
   }
 
   protected Type getType(Types type) {
-    return (Type) top.get(type.toString());
+    return Type.of(type);
   }
 
   /**
@@ -0,0 +1,26 @@
+package wacc.ast;
+
+import bindings.Type;
+
+public class ASTAddressNode extends ASTExprNode {
+  final ASTIdentNode ident;
+
+  public ASTAddressNode(Type type, ASTIdentNode ident) {
+    super(type);
+    this.ident = ident;
+  }
+
+  public ASTIdentNode getIdent() {
+    return ident;
+  }
+
+  @Override
+  public String toString() {
+    return "&" + ident;
+  }
+
+  @Override
+  public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
+    return visitor.visitAddress(this);
+  }
+}
@@ -1,28 +1,39 @@
 package wacc.ast;
 
+import bindings.Type;
+
 import java.util.List;
 
 public class ASTArrayElemNode extends ASTExprNode {
   final ASTIdentNode ident;
-  final List<ASTExprNode> operands;
-
-  public ASTArrayElemNode(ASTIdentNode ident, List<ASTExprNode> operands) {
+  final List<ASTExprNode> indices;
 
+  public ASTArrayElemNode(Type type, ASTIdentNode ident,
+                          List<ASTExprNode> indices) {
+    super(type);
     this.ident = ident;
-    this.operands = operands;
+    this.indices = indices;
+  }
+
+  public ASTIdentNode getIdent() {
+    return ident;
+  }
+
+  public List<ASTExprNode> getIndices() {
+    return indices;
   }
 
   @Override
   public String toString() {
-    String string = ident.toString();
-    for (ASTExprNode operand : operands) {
-      string += "[" + operand.toString() + "]";
+    StringBuilder string = new StringBuilder(ident.toString());
+    for (ASTExprNode index : indices) {
+      string.append('[').append(index).append(']');
     }
-    return string;
+    return string.toString();
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitArrayElem(type, ident, operands);
+    return visitor.visitArrayElem(this);
   }
 }
@@ -1,14 +1,21 @@
 package wacc.ast;
 
+import bindings.Type;
+
 import java.util.List;
 
 public class ASTArrayLiteralNode extends ASTLiteralNode {
   final List<ASTExprNode> elems;
 
-  public ASTArrayLiteralNode(List<ASTExprNode> elems) {
+  public ASTArrayLiteralNode(Type type, List<ASTExprNode> elems) {
+    super(type);
     this.elems = elems;
   }
 
+  public List<ASTExprNode> getElems() {
+    return elems;
+  }
+
   @Override
   public String toString() {
     return elems.toString();
@@ -16,6 +23,6 @@ public class ASTArrayLiteralNode extends ASTLiteralNode {
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitArrayLiteral(type, elems);
+    return visitor.visitArrayLiteral(this);
   }
 }
@@ -1,22 +1,42 @@
 package wacc.ast;
 
+import bindings.Type;
+
+/**
+ * An assignment, with the type the checker gave its left hand side, which
+ * decides how the value is stored
+ */
 public class ASTAssignStatNode extends ASTStatNode {
   final ASTExprNode assignLHS;
-  final ASTExprNode assignRHS;
+  final ASTNode assignRHS;
+  final Type type;
 
-  public ASTAssignStatNode(ASTExprNode assignLHS, ASTExprNode assignRHS) {
+  public ASTAssignStatNode(ASTExprNode assignLHS, ASTNode assignRHS,
+                           Type type) {
     this.assignLHS = assignLHS;
     this.assignRHS = assignRHS;
+    this.type = type;
+  }
+
+  public ASTExprNode getAssignLHS() {
+    return assignLHS;
+  }
+
+  public ASTNode getAssignRHS() {
+    return assignRHS;
+  }
+
+  public Type getType() {
+    return type;
   }
 
   @Override
   public String toString() {
-    return assignLHS.type.toString() + " " + assignLHS.toString()
-        + " = " + assignRHS.toString();
+    return assignLHS + " = " + assignRHS;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitAssignStat(assignLHS, assignRHS);
+    return visitor.visitAssignStat(this);
   }
 }
@@ -1,21 +1,23 @@
 package wacc.ast;
 
-import java.util.List;
-
 public class ASTBeginStatNode extends ASTStatNode {
-  final List<ASTStatNode> statements;
+  final ASTStatListNode body;
+
+  public ASTBeginStatNode(ASTStatListNode body) {
+    this.body = body;
+  }
 
-  public ASTBeginStatNode(List<ASTStatNode> statements) {
-    this.statements = statements;
+  public ASTStatListNode getBody() {
+    return body;
   }
 
   @Override
   public String toString() {
-    return "begin: " + statements.toString();
+    return "begin: " + body;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitBeginStat(statements);
+    return visitor.visitBeginStat(this);
   }
 }
@@ -1,37 +1,44 @@
 package wacc.ast;
 
-import java.util.List;
+import bindings.Type;
 
+/**
+ * A binary operation; a chain of operators of the same precedence is
+ * nested to the left, as it is evaluated
+ */
 public class ASTBinaryOpNode extends ASTExprNode {
 
-  final List<BinaryOp> operators;
-  final ASTExprNode operand;
-  final List<ASTExprNode> operands;
+  final BinaryOp operator;
+  final ASTExprNode left;
+  final ASTExprNode right;
 
-  public ASTBinaryOpNode(ASTExprNode operand, List<BinaryOp> operators,
-                         List<ASTExprNode> operands) {
-    this.operators = operators;
-    this.operand = operand;
-    this.operands = operands;
+  public ASTBinaryOpNode(Type type, BinaryOp operator, ASTExprNode left,
+                         ASTExprNode right) {
+    super(type);
+    this.operator = operator;
+    this.left = left;
+    this.right = right;
+  }
+
+  public BinaryOp getOperator() {
+    return operator;
+  }
+
+  public ASTExprNode getLeft() {
+    return left;
+  }
 
-    if (operands.size() != operators.size()) {
-      throw new IllegalArgumentException("Number of operands must be "
-          + "equal to the number of operators");
-    }
+  public ASTExprNode getRight() {
+    return right;
   }
 
   @Override
   public String toString() {
-    String string = "(" + operand.toString();
-    for (int i = 0; i < operands.size(); i++) {
-      string += " " + operators.get(i) + " " + operands.get(i);
-    }
-    string += ")";
-    return string;
+    return "(" + left + " " + operator + " " + right + ")";
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitBinaryOp(type, operators, operand, operands);
+    return visitor.visitBinaryOp(this);
   }
 }
@@ -1,19 +1,26 @@
 package wacc.ast;
 
+import bindings.Type;
+
 public class ASTBoolLiteralNode extends ASTLiteralNode {
   final boolean value;
 
-  public ASTBoolLiteralNode(boolean value) {
+  public ASTBoolLiteralNode(Type type, boolean value) {
+    super(type);
     this.value = value;
   }
 
+  public boolean getValue() {
+    return value;
+  }
+
   @Override
   public String toString() {
-    return "" + value;
+    return String.valueOf(value);
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitBoolLiteral(type, value);
+    return visitor.visitBoolLiteral(this);
   }
 }
@@ -1,508 +1,449 @@
 package wacc.ast;
 
-import antlr.WACCParser;
 import bindings.*;
-import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.ParserRuleContext;
 import wacc.SymbolTable;
+import wacc.Utils;
 import wacc.WACCVisitor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static antlr.WACCParser.*;
+
+/**
+ * Lowers a checked parse tree to the AST that code is generated from
+ * Walks the scopes in the order the code generator numbers them, laying
+ * out the stack frame of each on entering it, so every identifier is
+ * resolved to its offset, every scope knows its stack space and every
+ * expression its type; nothing in the AST refers back to the parse tree or
+ * its tokens, which can be released once it is built
+ */
 public class ASTBuilder extends WACCVisitor<ASTNode> {
 
   public ASTBuilder(SymbolTable<String, Binding> top) {
     super(top);
   }
 
-  @Override
-  public ASTNode visitProg(WACCParser.ProgContext ctx) {
-    ASTStatListNode main = visitMain(ctx.main());
-    List<ASTFuncNode> functions = new ArrayList<>();
-    for (WACCParser.FuncContext func : ctx.func()) {
-      functions.add(visitFunc(func));
-    }
-    return new ASTProgramNode(main.statements, functions);
+  /**
+   * Builder for a single function or main whose scope counters start at
+   * the given values
+   */
+  public ASTBuilder(SymbolTable<String, Binding> top,
+                    int ifs, int whiles, int begins) {
+    this(top);
+    this.ifCount = ifs;
+    this.whileCount = whiles;
+    this.beginCount = begins;
   }
 
-  @Override
-  public ASTStatListNode visitMain(WACCParser.MainContext ctx) {
-    return visitStatList(ctx.statList());
+  public static ASTProgramNode build(ProgContext ctx,
+                                     SymbolTable<String, Binding> top) {
+    return new ASTBuilder(top).visitProg(ctx);
   }
 
-  @Override
-  public ASTFuncNode visitFunc(WACCParser.FuncContext ctx) {
-    ASTTypeNode type = visitType(ctx.type());
-    ASTIdentNode ident = visitIdent(ctx.ident());
-    ASTParamListNode params = visitParamList(ctx.paramList());
-    ASTStatListNode body = visitStatList(ctx.statList());
-    return new ASTFuncNode(type.type, ident, params.parameters,
-        body.statements);
+  /**
+   * Builds a function or main on its own
+   */
+  public ASTNode buildUnit(ParserRuleContext unit) {
+    changeWorkingSymbolTableTo(Scope.PROG.toString());
+    return visit(unit);
   }
 
   @Override
-  public ASTParamListNode visitParamList(WACCParser.ParamListContext ctx) {
-    List<ASTParamNode> parameters = new ArrayList<>();
-    if (ctx != null) {
-      for (WACCParser.ParamContext param : ctx.param()) {
-        parameters.add(visitParam(param));
-      }
+  public ASTProgramNode visitProg(ProgContext ctx) {
+    changeWorkingSymbolTableTo(Scope.PROG.toString());
+    List<ASTFuncNode> functions = new ArrayList<>(ctx.func().size());
+    for (FuncContext func : ctx.func()) {
+      functions.add(visitFunc(func));
     }
-    return new ASTParamListNode(parameters);
+    ASTMainNode main = visitMain(ctx.main());
+    goUpWorkingSymbolTable();
+    return new ASTProgramNode(functions, main);
   }
 
   @Override
-  public ASTStatListNode visitStatList(WACCParser.StatListContext ctx) {
-    List<ASTStatNode> statements = new ArrayList<>();
-
-    for (WACCParser.StatContext stat : ctx.stat()) {
-      ASTNode node = visitStat(stat);
-      statements.add((ASTStatNode) node);
-    }
-    return new ASTStatListNode(statements);
+  public ASTMainNode visitMain(MainContext ctx) {
+    changeWorkingSymbolTableTo(Scope.MAIN.toString());
+    return new ASTMainNode(visitScope(ctx.statList()));
   }
 
   @Override
-  public ASTArgListNode visitArgList(WACCParser.ArgListContext ctx) {
-    List<ASTExprNode> arguments = new ArrayList<>();
-    if (ctx != null) {
-      for (WACCParser.ExprContext arg : ctx.expr()) {
-        arguments.add(visitExpr(arg));
-      }
+  public ASTFuncNode visitFunc(FuncContext ctx) {
+    Function function = ctx.function;
+    workingSymbolTable = function.getSymbolTable();
+    pushEmptyVariableSet();
+    for (Variable param : function.getParams()) {
+      addVariableToCurrentScope(param.getName());
+      param.setAsParam();
     }
-    return new ASTArgListNode(arguments);
-  }
-
-  @Override
-  public ASTParamNode visitParam(WACCParser.ParamContext ctx) {
-    ASTTypeNode type = visitType(ctx.type());
-    ASTIdentNode ident = visitIdent(ctx.ident());
-    return new ASTParamNode(type.type, ident);
+    Utils.layOutStackFrame(workingSymbolTable);
+    List<ASTIdentNode> params = new ArrayList<>();
+    for (Variable param : function.getParams()) {
+      params.add(new ASTIdentNode(
+          param, getAccumulativeOffsetForVariable(param.getName())));
+    }
+    ASTStatListNode body = new ASTStatListNode(
+        visitStatements(ctx.statList()),
+        Utils.getStackSpaceSize(workingSymbolTable));
+    String label = function.getName();
+    popCurrentScopeVariableSet();
+    goUpWorkingSymbolTable();
+    return new ASTFuncNode(label, params, body);
+  }
+
+  /**
+   * Lays out the frame of the working scope and builds its body, then
+   * leaves the scope
+   */
+  private ASTStatListNode visitScope(StatListContext ctx) {
+    pushEmptyVariableSet();
+    Utils.layOutStackFrame(workingSymbolTable);
+    ASTStatListNode body = new ASTStatListNode(
+        visitStatements(ctx), Utils.getStackSpaceSize(workingSymbolTable));
+    popCurrentScopeVariableSet();
+    goUpWorkingSymbolTable();
+    return body;
+  }
+
+  private List<ASTStatNode> visitStatements(StatListContext ctx) {
+    List<ASTStatNode> statements = new ArrayList<>(ctx.stat().size());
+    for (StatContext stat : ctx.stat()) {
+      statements.add((ASTStatNode) visit(stat));
+    }
+    return statements;
   }
 
   @Override
-  public ASTStatNode visitStat(WACCParser.StatContext ctx) {
-    return (ASTStatNode) visit(ctx);
+  public ASTSkipStatNode visitSkipStat(SkipStatContext ctx) {
+    return ASTSkipStatNode.SKIP;
   }
 
+  /**
+   * The variable is only in scope after its initial value
+   */
   @Override
-  public ASTSkipStatNode visitSkipStat(WACCParser.SkipStatContext ctx) {
-    return new ASTSkipStatNode();
+  public ASTInitStatNode visitInitStat(InitStatContext ctx) {
+    ASTNode assignRHS = visitAssignRHS(ctx.assignRHS());
+    String name = ctx.ident().getText();
+    Variable variable = (Variable) workingSymbolTable.get(name);
+    addVariableToCurrentScope(name);
+    return new ASTInitStatNode(
+        new ASTIdentNode(variable, variable.getOffset()), assignRHS);
   }
 
   @Override
-  public ASTInitStatNode visitInitStat(WACCParser.InitStatContext ctx) {
-    ASTTypeNode type = visitType(ctx.type());
-    ASTIdentNode ident = visitIdent(ctx.ident());
+  public ASTAssignStatNode visitAssignStat(AssignStatContext ctx) {
+    ASTExprNode assignLHS = visitAssignLHS(ctx.assignLHS());
     ASTNode assignRHS = visitAssignRHS(ctx.assignRHS());
-    return new ASTInitStatNode(type.type, ident, assignRHS);
+    return new ASTAssignStatNode(assignLHS, assignRHS,
+                                 ctx.assignLHS().returnType);
   }
 
+  /**
+   * A variable read into is given to the read by its address
+   */
   @Override
-  public ASTAssignStatNode visitAssignStat(WACCParser.AssignStatContext ctx) {
+  public ASTReadStatNode visitReadStat(ReadStatContext ctx) {
     ASTExprNode assignLHS = visitAssignLHS(ctx.assignLHS());
-    ASTExprNode assignRHS = visitAssignRHS(ctx.assignRHS());
-    return new ASTAssignStatNode(assignLHS, assignRHS);
+    if (assignLHS instanceof ASTIdentNode) {
+      ((ASTIdentNode) assignLHS).getVariable().setAddressTaken();
+    }
+    return new ASTReadStatNode(assignLHS, ctx.assignLHS().returnType);
   }
 
   @Override
-  public ASTReadStatNode visitReadStat(WACCParser.ReadStatContext ctx) {
-    ASTNode assignLHS = visitAssignLHS(ctx.assignLHS());
-    return new ASTReadStatNode(assignLHS);
+  public ASTFreeStatNode visitFreeStat(FreeStatContext ctx) {
+    return new ASTFreeStatNode(visitExpr(ctx.expr()));
   }
 
   @Override
-  public ASTFreeStatNode visitFreeStat(WACCParser.FreeStatContext ctx) {
-    ASTExprNode expr = visitExpr(ctx.expr());
-    return new ASTFreeStatNode(expr);
+  public ASTExitStatNode visitExitStat(ExitStatContext ctx) {
+    return new ASTExitStatNode(visitExpr(ctx.expr()));
   }
 
   @Override
-  public ASTExitStatNode visitExitStat(WACCParser.ExitStatContext ctx) {
-    ASTExprNode expr = visitExpr(ctx.expr());
-    return new ASTExitStatNode(expr);
+  public ASTReturnStatNode visitReturnStat(ReturnStatContext ctx) {
+    return new ASTReturnStatNode(
+        visitExpr(ctx.expr()),
+        Utils.getAccumulativeStackSizeFromReturn(workingSymbolTable));
   }
 
   @Override
-  public ASTReturnStatNode visitReturnStat(WACCParser.ReturnStatContext ctx) {
-    ASTExprNode expr = visitExpr(ctx.expr());
-    return new ASTReturnStatNode(expr);
+  public ASTPrintStatNode visitPrintStat(PrintStatContext ctx) {
+    return new ASTPrintStatNode(visitExpr(ctx.expr()), ctx.PRINTLN() != null);
   }
 
   @Override
-  public ASTPrintStatNode visitPrintStat(WACCParser.PrintStatContext ctx) {
-    ASTExprNode expr = visitExpr(ctx.expr());
-    boolean newline = ctx.PRINTLN() != null;
-    return new ASTPrintStatNode(expr, newline);
+  public ASTIfStatNode visitIfStat(IfStatContext ctx) {
+    int number = ++ifCount;
+    ASTExprNode condition = visitExpr(ctx.expr());
+    changeWorkingSymbolTableTo(Scope.THEN.toString() + ifCount);
+    ASTStatListNode thenBody = visitScope(ctx.thenStat);
+    ASTStatListNode elseBody = null;
+    if (ctx.ELSE() != null) {
+      changeWorkingSymbolTableTo(Scope.ELSE.toString() + ifCount);
+      elseBody = visitScope(ctx.elseStat);
+    }
+    return new ASTIfStatNode(number, condition, thenBody, elseBody);
   }
 
+  /**
+   * The condition is evaluated after the body, outside of its scope
+   */
   @Override
-  public ASTIfStatNode visitIfStat(WACCParser.IfStatContext ctx) {
-    ASTExprNode condition = visitExpr(ctx.expr());
-    ASTStatListNode thenBody = visitStatList(ctx.thenStat);
-    ASTStatListNode elseBody = visitStatList(ctx.elseStat);
-    return new ASTIfStatNode(condition, thenBody.statements,
-        elseBody.statements);
+  public ASTWhileStatNode visitWhileStat(WhileStatContext ctx) {
+    int number = ++whileCount;
+    changeWorkingSymbolTableTo(Scope.WHILE.toString() + whileCount);
+    ASTStatListNode body = visitScope(ctx.statList());
+    return new ASTWhileStatNode(number, visitExpr(ctx.expr()), body);
   }
 
   @Override
-  public ASTWhileStatNode visitWhileStat(WACCParser.WhileStatContext ctx) {
-    ASTExprNode condition = visitExpr(ctx.expr());
-    ASTStatListNode body = visitStatList(ctx.statList());
-    return new ASTWhileStatNode(condition, body.statements);
+  public ASTBeginStatNode visitBeginStat(BeginStatContext ctx) {
+    ++beginCount;
+    changeWorkingSymbolTableTo(Scope.BEGIN.toString() + beginCount);
+    return new ASTBeginStatNode(visitScope(ctx.statList()));
   }
 
   @Override
-  public ASTBeginStatNode visitBeginStat(WACCParser.BeginStatContext ctx) {
-    ASTStatListNode body = visitStatList(ctx.statList());
-    return new ASTBeginStatNode(body.statements);
+  public ASTExprNode visitAssignLHS(AssignLHSContext ctx) {
+    return (ASTExprNode) visit(ctx.getChild(0));
   }
 
   @Override
-  public ASTExprNode visitAssignLHS(WACCParser.AssignLHSContext ctx) {
-    ASTExprNode lhs = (ASTExprNode) visitChildren(ctx);
-    lhs.type = ctx.returnType;
-    return lhs;
+  public ASTNode visitAssignRHS(AssignRHSContext ctx) {
+    return visit(ctx.getChild(0));
   }
 
   @Override
-  public ASTIdentNode visitIdent(WACCParser.IdentContext ctx) {
-    return new ASTIdentNode(ctx.getText());
+  public ASTNewPairNode visitNewPair(NewPairContext ctx) {
+    ASTExprNode first = visitExpr(ctx.first);
+    ASTExprNode second = visitExpr(ctx.second);
+    return new ASTNewPairNode(PairType.of(first.type, second.type),
+                              first, second);
   }
 
+  /**
+   * Calls the overload the type checker resolved the call to
+   */
   @Override
-  public ASTExprNode visitUnaryOper(WACCParser.UnaryOperContext ctx) {
-    ASTExprNode operand;
-    if (ctx.ident() != null) {
-      operand = visitIdent(ctx.ident());
-    } else {
-      operand = visitExpr(ctx.expr());
-    }
-
-    UnaryOp operator;
-
-    if (ctx.NOT() != null) {
-      operator = UnaryOp.NOT;
-    } else if (ctx.MINUS() != null) {
-      operator = UnaryOp.MINUS;
-    } else if (ctx.LEN() != null) {
-      operator = UnaryOp.LEN;
-    } else if (ctx.ORD() != null) {
-      operator = UnaryOp.ORD;
-    } else if (ctx.CHR() != null) {
-      operator = UnaryOp.CHR;
-    } else {
-      return operand;
+  public ASTCallNode visitCall(CallContext ctx) {
+    List<ASTExprNode> arguments = Collections.emptyList();
+    if (ctx.argList() != null) {
+      arguments = visitExprs(ctx.argList().expr());
     }
-
-    return new ASTUnaryOpNode(operator, operand);
+    return new ASTCallNode(ctx.function.getType(), ctx.function.getName(),
+                           arguments);
   }
 
   @Override
-  public ASTExprNode visitBinaryOper(WACCParser.BinaryOperContext ctx) {
-    return visitLogicalOper(ctx.logicalOper());
+  public ASTArrayLiteralNode visitArrayLitr(ArrayLitrContext ctx) {
+    List<ASTExprNode> elems = visitExprs(ctx.expr());
+    Type type = elems.isEmpty() ? ArrayType.generic()
+                                : ArrayType.of(elems.get(0).type);
+    return new ASTArrayLiteralNode(type, elems);
   }
 
-  @Override
-  public ASTExprNode visitLogicalOper(WACCParser.LogicalOperContext ctx) {
-    ASTExprNode operand = visitComparisonOper(ctx.first);
-
-    // If there are no operations to perform, return the first operand
-    if (ctx.ops == null || ctx.ops.size() == 0) {
-      return operand;
-    }
-
-    List<BinaryOp> operators = new ArrayList<>();
-    for (Token token : ctx.ops) {
-      operators.add(BinaryOp.fromWACCToken(token));
-    }
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    for (WACCParser.ComparisonOperContext expr : ctx.otherExprs) {
-      operands.add(visitComparisonOper(expr));
+  private List<ASTExprNode> visitExprs(List<? extends ExprContext> exprs) {
+    List<ASTExprNode> nodes = new ArrayList<>(exprs.size());
+    for (ExprContext expr : exprs) {
+      nodes.add(visitExpr(expr));
     }
-
-    return new ASTBinaryOpNode(operand, operators, operands);
+    return nodes;
   }
 
   @Override
-  public ASTExprNode visitComparisonOper(WACCParser.ComparisonOperContext ctx) {
-    return (ASTExprNode) visitChildren(ctx);
+  public ASTExprNode visitExpr(ExprContext ctx) {
+    return visitLogicalOper(ctx.binaryOper().logicalOper());
   }
 
   @Override
-  public ASTExprNode visitOrderingOper(WACCParser.OrderingOperContext ctx) {
-    ASTExprNode operand = visitAddOper(ctx.first);
-
-    // If there is no second operand, return the node of the first
-    if (ctx.second == null) {
-      return operand;
+  public ASTExprNode visitLogicalOper(LogicalOperContext ctx) {
+    ASTExprNode expr = visitComparisonOper(ctx.first);
+    for (int i = 0; i < ctx.ops.size(); i++) {
+      expr = new ASTBinaryOpNode(getType(Types.BOOL_T),
+                                 BinaryOp.fromWACCToken(ctx.ops.get(i)), expr,
+                                 visitComparisonOper(ctx.otherExprs.get(i)));
     }
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    operands.add(visitAddOper(ctx.second));
-
-    List<BinaryOp> operators = new ArrayList<>();
-    BinaryOp operator;
-
-    if (ctx.GT() != null) {
-      operator = BinaryOp.GT;
-    } else if (ctx.GE() != null) {
-      operator = BinaryOp.GE;
-    } else if (ctx.LT() != null) {
-      operator = BinaryOp.LT;
-    } else if (ctx.LE() != null) {
-      operator = BinaryOp.LE;
-    } else {
-      // If there is no operator, return the first operand
-      return operand;
-    }
-
-    operators.add(operator);
-    return new ASTBinaryOpNode(operand, operators, operands);
+    return expr;
   }
 
   @Override
-  public ASTExprNode visitEqualityOper(WACCParser.EqualityOperContext ctx) {
-    ASTExprNode operand = visitAddOper(ctx.first);
-
-    // If there is no second operand, return the node of the first
+  public ASTExprNode visitComparisonOper(ComparisonOperContext ctx) {
+    ASTExprNode first = visitAddOper(ctx.first);
     if (ctx.second == null) {
-      return operand;
-    }
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    operands.add(visitAddOper(ctx.second));
-
-    List<BinaryOp> operators = new ArrayList<>();
-    BinaryOp operator;
-
-    if (ctx.EQ() != null) {
-      operator = BinaryOp.EQ;
-    } else if (ctx.NE() != null) {
-      operator = BinaryOp.NE;
-    } else {
-      // If there is no operator, return the first operand
-      return operand;
-    }
-
-    operators.add(operator);
-    return new ASTBinaryOpNode(operand, operators, operands);
-  }
-
-  @Override
-  public ASTExprNode visitAddOper(WACCParser.AddOperContext ctx) {
-    ASTExprNode operand = visitMultOper(ctx.first);
-
-    // If there are no operations to perform, return the first operand
-    if (ctx.ops == null || ctx.ops.size() == 0) {
-      return operand;
+      return first;
     }
-
-    List<BinaryOp> operators = new ArrayList<>();
-    for (Token token : ctx.ops) {
-      operators.add(BinaryOp.fromWACCToken(token));
-    }
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    for (WACCParser.MultOperContext expr : ctx.otherExprs) {
-      operands.add(visitMultOper(expr));
+    return new ASTBinaryOpNode(getType(Types.BOOL_T),
+                               BinaryOp.fromWACCToken(ctx.op), first,
+                               visitAddOper(ctx.second));
+  }
+
+  /**
+   * Adding an int to a pointer gives a pointer
+   */
+  @Override
+  public ASTExprNode visitAddOper(AddOperContext ctx) {
+    ASTExprNode expr = visitMultOper(ctx.first);
+    for (int i = 0; i < ctx.ops.size(); i++) {
+      ASTExprNode operand = visitMultOper(ctx.otherExprs.get(i));
+      Type type = getType(Types.INT_T);
+      if (PointerType.isPointer(operand.type)) {
+        type = operand.type;
+      } else if (PointerType.isPointer(expr.type)) {
+        type = expr.type;
+      }
+      expr = new ASTBinaryOpNode(type, BinaryOp.fromWACCToken(ctx.ops.get(i)),
+                                 expr, operand);
     }
-
-    return new ASTBinaryOpNode(operand, operators, operands);
+    return expr;
   }
 
   @Override
-  public ASTExprNode visitMultOper(WACCParser.MultOperContext ctx) {
-    ASTExprNode operand = visitAtom(ctx.first);
-
-    // If there are no operations to perform, return the first operand
-    if (ctx.ops == null || ctx.ops.size() == 0) {
-      return operand;
+  public ASTExprNode visitMultOper(MultOperContext ctx) {
+    ASTExprNode expr = visitAtom(ctx.first);
+    for (int i = 0; i < ctx.ops.size(); i++) {
+      expr = new ASTBinaryOpNode(getType(Types.INT_T),
+                                 BinaryOp.fromWACCToken(ctx.ops.get(i)), expr,
+                                 visitAtom(ctx.otherExprs.get(i)));
     }
-
-    List<BinaryOp> operators = new ArrayList<>();
-    for (Token token : ctx.ops) {
-      operators.add(BinaryOp.fromWACCToken(token));
-    }
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    for (WACCParser.AtomContext atom : ctx.otherExprs) {
-      operands.add(visitAtom(atom));
-    }
-
-    return new ASTBinaryOpNode(operand, operators, operands);
-  }
-
-  @Override
-  public ASTExprNode visitAtom(WACCParser.AtomContext ctx) {
-    return (ASTExprNode) visitChildren(ctx);
+    return expr;
   }
 
   @Override
-  public ASTIntLiteralNode visitInteger(WACCParser.IntegerContext ctx) {
-    Long value = Long.parseLong(ctx.INTEGER().getText());
-    if (ctx.sign() != null && ctx.sign().MINUS() != null) {
-      value *= -1;
-    }
-    return new ASTIntLiteralNode(value);
+  public ASTExprNode visitAtom(AtomContext ctx) {
+    return (ASTExprNode) visit(ctx.getChild(0));
   }
 
+  /**
+   * chr of an integer is the character with that code
+   */
   @Override
-  public ASTExprNode visitBool(WACCParser.BoolContext ctx) {
-    ASTBoolLiteralNode bool = visitBoolLitr(ctx.boolLitr());
-    if (ctx.NOT() != null) {
-      return new ASTUnaryOpNode(UnaryOp.NOT, bool);
-    }
-    return bool;
+  public ASTIntLiteralNode visitInteger(IntegerContext ctx) {
+    SignContext sign = ctx.sign();
+    String digits = (sign != null && sign.MINUS() != null) ? "-" : "";
+    long value = Long.parseLong(digits + ctx.INTEGER().getText());
+    Types type = ctx.CHR() != null ? Types.CHAR_T : Types.INT_T;
+    return new ASTIntLiteralNode(getType(type), value);
   }
 
   @Override
-  public ASTBoolLiteralNode visitBoolLitr(WACCParser.BoolLitrContext ctx) {
-    return new ASTBoolLiteralNode((ctx.TRUE() != null));
+  public ASTBoolLiteralNode visitBool(BoolContext ctx) {
+    boolean value = ctx.boolLitr().TRUE() != null;
+    return new ASTBoolLiteralNode(getType(Types.BOOL_T),
+                                  value != (ctx.NOT() != null));
   }
 
+  /**
+   * ord of a character is the code of the character after its opening
+   * quote
+   */
   @Override
-  public ASTExprNode visitCharacter(WACCParser.CharacterContext ctx) {
-    char c = ctx.CHARACTER().getText().charAt(1); // [''','c', ''']
-    ASTCharacterLiteralNode character = new ASTCharacterLiteralNode(c);
+  public ASTLiteralNode visitCharacter(CharacterContext ctx) {
+    String text = ctx.CHARACTER().getText();
     if (ctx.ORD() != null) {
-      return new ASTUnaryOpNode(UnaryOp.ORD, character);
+      return new ASTIntLiteralNode(getType(Types.INT_T), text.charAt(1));
     }
-    return character;
+    return new ASTCharacterLiteralNode(getType(Types.CHAR_T), text);
   }
 
   @Override
-  public ASTExprNode visitString(WACCParser.StringContext ctx) {
-    ASTStringLiteralNode string
-        = new ASTStringLiteralNode(ctx.STRING().getText());
+  public ASTExprNode visitString(StringContext ctx) {
+    ASTExprNode string = new ASTStringLiteralNode(getType(Types.STRING_T),
+                                                  ctx.STRING().getText());
     if (ctx.LEN() != null) {
-      return new ASTUnaryOpNode(UnaryOp.LEN, string);
+      return new ASTUnaryOpNode(getType(Types.INT_T), UnaryOp.LEN, string);
     }
     return string;
   }
 
   @Override
-  public ASTNullPairLiteralNode visitPairLitr(WACCParser.PairLitrContext ctx) {
-    return new ASTNullPairLiteralNode();
-  }
-
-  @Override
-  public ASTExprNode visitArray(WACCParser.ArrayContext ctx) {
-    ASTArrayElemNode array = visitArrayElem(ctx.arrayElem());
+  public ASTExprNode visitArray(ArrayContext ctx) {
+    ASTArrayElemNode arrayElem = visitArrayElem(ctx.arrayElem());
     if (ctx.LEN() != null) {
-      return new ASTUnaryOpNode(UnaryOp.LEN, array);
+      return new ASTUnaryOpNode(getType(Types.INT_T), UnaryOp.LEN, arrayElem);
     }
-    return array;
+    return arrayElem;
   }
 
   @Override
-  public ASTArrayElemNode visitArrayElem(WACCParser.ArrayElemContext ctx) {
-    ASTIdentNode ident = visitIdent(ctx.ident());
-
-    List<ASTExprNode> operands = new ArrayList<>();
-    for (WACCParser.ExprContext expr : ctx.expr()) {
-      operands.add(visitExpr(expr));
-    }
-
-    ASTArrayElemNode array = new ASTArrayElemNode(ident, operands);
-    array.type = ctx.returnType;
-
-    return array;
+  public ASTNullPairLiteralNode visitPairLitr(PairLitrContext ctx) {
+    return new ASTNullPairLiteralNode(PairType.generic());
   }
 
+  /**
+   * Taking the address only applies to a variable, which is marked as
+   * having it taken
+   */
   @Override
-  public ASTArrayLiteralNode visitArrayLitr(WACCParser.ArrayLitrContext ctx) {
-
-    List<ASTExprNode> elems = new ArrayList<>();
-    for (WACCParser.ExprContext expr : ctx.expr()) {
-      elems.add(visitExpr(expr));
+  public ASTExprNode visitUnaryOper(UnaryOperContext ctx) {
+    ASTExprNode operand;
+    if (ctx.pointer() != null) {
+      operand = visitPointer(ctx.pointer());
+    } else if (ctx.ident() != null) {
+      operand = visitIdent(ctx.ident());
+      if (ctx.ADDR() != null) {
+        ((ASTIdentNode) operand).getVariable().setAddressTaken();
+        return new ASTAddressNode(PointerType.of(operand.type),
+                                  (ASTIdentNode) operand);
+      }
+    } else {
+      operand = visitExpr(ctx.expr());
     }
 
-    return new ASTArrayLiteralNode(elems);
-  }
-
-  @Override
-  public ASTExprNode visitExpr(WACCParser.ExprContext ctx) {
-    ASTExprNode expr = visitBinaryOper(ctx.binaryOper());
-    expr.type = ctx.returnType;
-    return expr;
-  }
-
-  @Override
-  public ASTNewPairNode visitNewPair(WACCParser.NewPairContext ctx) {
-    ASTExprNode first = visitExpr(ctx.first);
-    ASTExprNode second = visitExpr(ctx.second);
-    return new ASTNewPairNode(first, second);
-  }
-
-  @Override
-  public ASTExprNode visitPairElem(WACCParser.PairElemContext ctx) {
-    ASTIdentNode ident = visitIdent(ctx.ident());
-    if (ctx.FST() != null) {
-      return new ASTUnaryOpNode(UnaryOp.FST, ident);
-    } else {
-      return new ASTUnaryOpNode(UnaryOp.SND, ident);
+    if (ctx.NOT() != null) {
+      return new ASTUnaryOpNode(getType(Types.BOOL_T), UnaryOp.NOT, operand);
+    } else if (ctx.MINUS() != null) {
+      return new ASTUnaryOpNode(getType(Types.INT_T), UnaryOp.MINUS, operand);
+    } else if (ctx.LEN() != null) {
+      return new ASTUnaryOpNode(getType(Types.INT_T), UnaryOp.LEN, operand);
+    } else if (ctx.ORD() != null) {
+      return new ASTUnaryOpNode(getType(Types.INT_T), UnaryOp.ORD, operand);
+    } else if (ctx.CHR() != null) {
+      return new ASTUnaryOpNode(getType(Types.CHAR_T), UnaryOp.CHR, operand);
     }
+    return operand;
   }
 
   @Override
-  public ASTCallNode visitCall(WACCParser.CallContext ctx) {
+  public ASTPointerNode visitPointer(PointerContext ctx) {
     ASTIdentNode ident = visitIdent(ctx.ident());
-    ASTArgListNode arglist = visitArgList(ctx.argList());
-    return new ASTCallNode(ident, arglist.arguments);
+    int dereferences = ctx.MUL().size();
+    Type type = PointerType.dereference(ident.type, dereferences);
+    return new ASTPointerNode(type, ident, dereferences);
   }
 
   @Override
-  public ASTExprNode visitAssignRHS(WACCParser.AssignRHSContext ctx) {
-    return (ASTExprNode) visitChildren(ctx);
-  }
-
-  @Override
-  public ASTTypeNode visitBaseType(WACCParser.BaseTypeContext ctx) {
-    if (ctx.INT_T() != null) {
-      return new ASTTypeNode(new Type(Types.INT_T));
-    } else if (ctx.BOOL_T() != null) {
-      return new ASTTypeNode(new Type(Types.BOOL_T));
-    } else if (ctx.CHAR_T() != null) {
-      return new ASTTypeNode(new Type(Types.CHAR_T));
+  public ASTPairElemNode visitPairElem(PairElemContext ctx) {
+    ASTExprNode pair;
+    if (ctx.pointer() != null) {
+      pair = visitPointer(ctx.pointer());
     } else {
-      return new ASTTypeNode(new Type(Types.STRING_T));
+      pair = visitIdent(ctx.ident());
     }
+    PairType pairType = (PairType) pair.type;
+    boolean first = ctx.FST() != null;
+    Type type = first ? pairType.getFst() : pairType.getSnd();
+    return new ASTPairElemNode(type, first, pair);
   }
 
   @Override
-  public ASTTypeNode visitType(WACCParser.TypeContext ctx) {
-    return (ASTTypeNode) visitChildren(ctx);
-  }
-
-  @Override
-  public ASTTypeNode visitNonArrayType(WACCParser.NonArrayTypeContext ctx) {
-    return (ASTTypeNode) visitChildren(ctx);
-  }
-
-  @Override
-  public ASTTypeNode visitArrayType(WACCParser.ArrayTypeContext ctx) {
-    ASTTypeNode base = visitNonArrayType(ctx.nonArrayType());
-    int dimensionality = ctx.OPEN_BRACKET().size();
-    return new ASTTypeNode(new ArrayType(base.type, dimensionality));
+  public ASTArrayElemNode visitArrayElem(ArrayElemContext ctx) {
+    ASTIdentNode ident = visitIdent(ctx.ident());
+    return new ASTArrayElemNode(ctx.returnType, ident,
+                                visitExprs(ctx.expr()));
   }
 
+  /**
+   * The variable the identifier refers to at this point of the program
+   */
   @Override
-  public ASTTypeNode visitPairType(WACCParser.PairTypeContext ctx) {
-    ASTTypeNode first = visitPairElemType(ctx.firstType);
-    ASTTypeNode second = visitPairElemType(ctx.secondType);
-    return new ASTTypeNode(new PairType(first.type, second.type));
+  public ASTIdentNode visitIdent(IdentContext ctx) {
+    String name = ctx.getText();
+    return new ASTIdentNode(getMostRecentBindingForVariable(name),
+                            getAccumulativeOffsetForVariable(name));
   }
 
-  @Override
-  public ASTTypeNode visitPairElemType(WACCParser.PairElemTypeContext ctx) {
-    if (ctx.baseType() != null) {
-      return visitBaseType(ctx.baseType());
-    } else if (ctx.arrayType() != null) {
-      return visitArrayType(ctx.arrayType());
-    } else {
-      return new ASTTypeNode(new PairType());
-    }
-  }
 }
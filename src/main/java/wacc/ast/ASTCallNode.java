@@ -1,32 +1,37 @@
 package wacc.ast;
 
+import bindings.Type;
+
 import java.util.List;
 
+/**
+ * A call, to the label of the overload the checker resolved it to
+ */
 public class ASTCallNode extends ASTExprNode {
-  final ASTIdentNode ident;
+  final String label;
   final List<ASTExprNode> arguments;
 
-  public ASTCallNode(ASTIdentNode ident, List<ASTExprNode> arguments) {
-    this.ident = ident;
+  public ASTCallNode(Type type, String label, List<ASTExprNode> arguments) {
+    super(type);
+    this.label = label;
     this.arguments = arguments;
   }
 
+  public String getLabel() {
+    return label;
+  }
+
+  public List<ASTExprNode> getArguments() {
+    return arguments;
+  }
+
   @Override
   public String toString() {
-    if (arguments.size() == 0) {
-      return ident.toString() + "()";
-    } else {
-      String string = ident.toString() + "(";
-      for (int i = 0; i < arguments.size() - 1; i++) {
-        string += arguments.get(i).toString() + ", ";
-      }
-      string += arguments.get(arguments.size() - 1).toString() + ")";
-      return string;
-    }
+    return label + arguments;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitCall(type, ident, arguments);
+    return visitor.visitCall(this);
   }
 }
@@ -1,19 +1,29 @@
 package wacc.ast;
 
+import bindings.Type;
+
+/**
+ * A character as written in the source, quotes and escapes included
+ */
 public class ASTCharacterLiteralNode extends ASTLiteralNode {
-  final char value;
+  final String text;
+
+  public ASTCharacterLiteralNode(Type type, String text) {
+    super(type);
+    this.text = text;
+  }
 
-  public ASTCharacterLiteralNode(char value) {
-    this.value = value;
+  public String getText() {
+    return text;
   }
 
   @Override
   public String toString() {
-    return "'" + value + "'";
+    return text;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitCharacterLiteral(type, value);
+    return visitor.visitCharacterLiteral(this);
   }
 }
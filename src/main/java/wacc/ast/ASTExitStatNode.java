@@ -7,13 +7,17 @@ public class ASTExitStatNode extends ASTStatNode {
     this.expr = expr;
   }
 
+  public ASTExprNode getExpr() {
+    return expr;
+  }
+
   @Override
   public String toString() {
-    return "exit " + expr.toString();
+    return "exit " + expr;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitExitStat(expr);
+    return visitor.visitExitStat(this);
   }
 }
@@ -3,5 +3,13 @@ package wacc.ast;
 import bindings.Type;
 
 public abstract class ASTExprNode implements ASTNode {
-  public Type type;
+  final Type type;
+
+  ASTExprNode(Type type) {
+    this.type = type;
+  }
+
+  public Type getType() {
+    return type;
+  }
 }
@@ -1,19 +1,23 @@
 package wacc.ast;
 
 public class ASTFreeStatNode extends ASTStatNode {
-  public final ASTExprNode expr;
+  final ASTExprNode expr;
 
   public ASTFreeStatNode(ASTExprNode expr) {
     this.expr = expr;
   }
 
+  public ASTExprNode getExpr() {
+    return expr;
+  }
+
   @Override
   public String toString() {
-    return "free " + expr.toString();
+    return "free " + expr;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitFreeStat(expr);
+    return visitor.visitFreeStat(this);
   }
 }
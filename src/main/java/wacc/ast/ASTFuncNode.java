@@ -1,39 +1,43 @@
 package wacc.ast;
 
-import bindings.Type;
-
 import java.util.List;
 
-public class ASTFuncNode extends ASTExprNode {
-  final ASTIdentNode ident;
-  final List<ASTParamNode> parameters;
-  final List<ASTStatNode> body;
+/**
+ * A function, named by the label it is called with, which also tells
+ * apart its overloads
+ * Its parameters are resolved to their offsets on entering its body
+ */
+public class ASTFuncNode implements ASTNode {
+  final String label;
+  final List<ASTIdentNode> params;
+  final ASTStatListNode body;
 
-  public ASTFuncNode(Type type, ASTIdentNode ident,
-                     List<ASTParamNode> parameters, List<ASTStatNode> body) {
-    super.type = type;
-    this.ident = ident;
-    this.parameters = parameters;
+  public ASTFuncNode(String label, List<ASTIdentNode> params,
+                     ASTStatListNode body) {
+    this.label = label;
+    this.params = params;
     this.body = body;
   }
 
+  public String getLabel() {
+    return label;
+  }
+
+  public List<ASTIdentNode> getParams() {
+    return params;
+  }
+
+  public ASTStatListNode getBody() {
+    return body;
+  }
+
   @Override
   public String toString() {
-    String params = "(";
-    if (parameters.size() != 0) {
-      for (int i = 0; i < parameters.size() - 1; i++) {
-        params += parameters.get(i) + ", ";
-      }
-      params += parameters.get(parameters.size() - 1);
-    }
-    params += ")";
-
-    return "\n" + type.toString() + " "
-        + ident.toString() + params + "\n\t" + body;
+    return "\n" + label + "\n\t" + body;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitFuncNode(type, ident, parameters, body);
+    return visitor.visitFunc(this);
   }
 }
@@ -1,14 +1,37 @@
 package wacc.ast;
 
+import bindings.Variable;
+
+/**
+ * A use of a variable, resolved to its offset from the stack pointer,
+ * not counting any arguments pushed for a call
+ * The name is that of the variable's binding, so every use shares it, and
+ * the binding itself tells apart variables that share a name
+ */
 public class ASTIdentNode extends ASTExprNode {
 
+  final Variable variable;
   final String name;
+  final long offset;
+
+  public ASTIdentNode(Variable variable, long offset) {
+    super(variable.getType());
+    this.variable = variable;
+    this.name = variable.getName();
+    this.offset = offset;
+  }
 
-  public ASTIdentNode(String name) {
-    this.name = name;
+  public Variable getVariable() {
+    return variable;
   }
 
-  public String getName() { return name; }
+  public String getName() {
+    return name;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
 
   @Override
   public String toString() {
@@ -17,6 +40,6 @@ public class ASTIdentNode extends ASTExprNode {
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitIdentNode(name);
+    return visitor.visitIdent(this);
   }
 }
@@ -1,27 +1,46 @@
 package wacc.ast;
 
-import java.util.List;
-
+/**
+ * An if, numbered in the order ifs are reached, with no else body if it
+ * has no else branch
+ */
 public class ASTIfStatNode extends ASTStatNode {
+  final int number;
   final ASTExprNode condition;
-  final List<ASTStatNode> thenBody;
-  final List<ASTStatNode> elseBody;
+  final ASTStatListNode thenBody;
+  final ASTStatListNode elseBody;
 
-  public ASTIfStatNode(ASTExprNode condition, List<ASTStatNode> thenBody,
-                       List<ASTStatNode> elseBody) {
+  public ASTIfStatNode(int number, ASTExprNode condition,
+                       ASTStatListNode thenBody, ASTStatListNode elseBody) {
+    this.number = number;
     this.condition = condition;
     this.thenBody = thenBody;
     this.elseBody = elseBody;
   }
 
+  public int getNumber() {
+    return number;
+  }
+
+  public ASTExprNode getCondition() {
+    return condition;
+  }
+
+  public ASTStatListNode getThenBody() {
+    return thenBody;
+  }
+
+  public ASTStatListNode getElseBody() {
+    return elseBody;
+  }
+
   @Override
   public String toString() {
-    return "if (" + condition.toString() + ") then: " + thenBody.toString()
-        + " else: " + elseBody.toString();
+    return "if (" + condition + ") then: " + thenBody + " else: " + elseBody;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitIfStat(condition, thenBody, elseBody);
+    return visitor.visitIfStat(this);
   }
 }
@@ -1,26 +1,30 @@
 package wacc.ast;
 
-import bindings.Type;
-
 public class ASTInitStatNode extends ASTStatNode {
 
   final ASTIdentNode ident;
   final ASTNode assignRHS;
-  final Type type;
 
-  public ASTInitStatNode(Type type, ASTIdentNode ident, ASTNode assignRHS) {
+  public ASTInitStatNode(ASTIdentNode ident, ASTNode assignRHS) {
     this.ident = ident;
     this.assignRHS = assignRHS;
-    this.type = type;
+  }
+
+  public ASTIdentNode getIdent() {
+    return ident;
+  }
+
+  public ASTNode getAssignRHS() {
+    return assignRHS;
   }
 
   @Override
   public String toString() {
-    return ident.toString() + " = " + assignRHS.toString();
+    return ident.type + " " + ident + " = " + assignRHS;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitInitStat(ident, assignRHS, type);
+    return visitor.visitInitStat(this);
   }
 }
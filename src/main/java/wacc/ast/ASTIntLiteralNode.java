@@ -1,19 +1,29 @@
 package wacc.ast;
 
+import bindings.Type;
+
+/**
+ * An integer, or with the type char a character given by its code
+ */
 public class ASTIntLiteralNode extends ASTLiteralNode {
-  final Long value;
+  final long value;
 
-  public ASTIntLiteralNode(Long value) {
+  public ASTIntLiteralNode(Type type, long value) {
+    super(type);
     this.value = value;
   }
 
+  public long getValue() {
+    return value;
+  }
+
   @Override
   public String toString() {
-    return value.toString();
+    return String.valueOf(value);
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitIntLiteral(type, value);
+    return visitor.visitIntLiteral(this);
   }
 }
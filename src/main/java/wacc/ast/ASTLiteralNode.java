@@ -1,5 +1,10 @@
 package wacc.ast;
 
+import bindings.Type;
+
 public abstract class ASTLiteralNode extends ASTExprNode {
 
+  ASTLiteralNode(Type type) {
+    super(type);
+  }
 }
@@ -0,0 +1,23 @@
+package wacc.ast;
+
+public class ASTMainNode implements ASTNode {
+  final ASTStatListNode body;
+
+  public ASTMainNode(ASTStatListNode body) {
+    this.body = body;
+  }
+
+  public ASTStatListNode getBody() {
+    return body;
+  }
+
+  @Override
+  public String toString() {
+    return body.toString();
+  }
+
+  @Override
+  public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
+    return visitor.visitMain(this);
+  }
+}
@@ -1,23 +1,33 @@
 package wacc.ast;
 
+import bindings.Type;
+
 public class ASTNewPairNode extends ASTExprNode {
 
   final ASTExprNode first;
   final ASTExprNode second;
 
-  public ASTNewPairNode(ASTExprNode first, ASTExprNode second) {
-
+  public ASTNewPairNode(Type type, ASTExprNode first, ASTExprNode second) {
+    super(type);
     this.first = first;
     this.second = second;
   }
 
+  public ASTExprNode getFirst() {
+    return first;
+  }
+
+  public ASTExprNode getSecond() {
+    return second;
+  }
+
   @Override
   public String toString() {
-    return "newpair(" + first.toString() + ", " + second.toString() + ")";
+    return "newpair(" + first + ", " + second + ")";
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitNewPairNode(first, second);
+    return visitor.visitNewPair(this);
   }
 }
@@ -1,67 +1,64 @@
 package wacc.ast;
 
-import bindings.Type;
+public interface ASTNodeVisitor<Result> {
 
-import java.util.List;
+  Result visitProgram(ASTProgramNode program);
 
-public interface ASTNodeVisitor<Result> {
+  Result visitFunc(ASTFuncNode func);
+
+  Result visitMain(ASTMainNode main);
+
+  Result visitStatList(ASTStatListNode statList);
 
-  Result visitProgram(List<ASTStatNode> main, List<ASTFuncNode> functions);
+  Result visitSkipStat(ASTSkipStatNode stat);
 
-  Result visitAssignStat(ASTExprNode assignLHS, ASTExprNode assignRHS);
+  Result visitInitStat(ASTInitStatNode stat);
 
-  Result visitBeginStat(List<ASTStatNode> statements);
+  Result visitAssignStat(ASTAssignStatNode stat);
 
-  Result visitInitStat(ASTIdentNode ident, ASTNode assignRHS, Type type);
+  Result visitReadStat(ASTReadStatNode stat);
 
-  Result visitPrintStat(ASTExprNode expr, boolean newline);
+  Result visitFreeStat(ASTFreeStatNode stat);
 
-  Result visitExitStat(ASTExprNode expr);
+  Result visitExitStat(ASTExitStatNode stat);
 
-  Result visitFreeStat(ASTExprNode expr);
+  Result visitReturnStat(ASTReturnStatNode stat);
 
-  Result visitIfStat(ASTExprNode condition,
-                   List<ASTStatNode> thenBody,
-                   List<ASTStatNode> elseBody);
+  Result visitPrintStat(ASTPrintStatNode stat);
 
-  Result visitReadStat(ASTNode assignLHS);
+  Result visitIfStat(ASTIfStatNode stat);
 
-  Result visitReturnStat(ASTExprNode expr);
+  Result visitWhileStat(ASTWhileStatNode stat);
 
-  Result visitWhileStat(ASTExprNode condition, List<ASTStatNode> body);
+  Result visitBeginStat(ASTBeginStatNode stat);
 
-  Result visitArrayElem(Type type, ASTIdentNode ident,
-                        List<ASTExprNode> operands);
+  Result visitBinaryOp(ASTBinaryOpNode expr);
 
-  Result visitBinaryOp(Type type,
-                     List<BinaryOp> operators,
-                     ASTExprNode operand,
-                     List<ASTExprNode> operands);
+  Result visitUnaryOp(ASTUnaryOpNode expr);
 
-  Result visitCall(Type type, ASTIdentNode ident, List<ASTExprNode> arguments);
+  Result visitIdent(ASTIdentNode ident);
 
-  Result visitUnaryOp(Type type, UnaryOp operator, ASTNode operand);
+  Result visitPointer(ASTPointerNode pointer);
 
-  Result visitFuncNode(Type type,
-                     ASTIdentNode ident,
-                     List<ASTParamNode> parameters, List<ASTStatNode> body);
+  Result visitAddress(ASTAddressNode address);
 
+  Result visitArrayElem(ASTArrayElemNode arrayElem);
 
-  Result visitParamNode(Type type, ASTIdentNode ident);
+  Result visitPairElem(ASTPairElemNode pairElem);
 
-  Result visitNewPairNode(ASTExprNode first, ASTExprNode second);
+  Result visitCall(ASTCallNode call);
 
-  Result visitIdentNode(String name);
+  Result visitNewPair(ASTNewPairNode newPair);
 
-  Result visitArrayLiteral(Type type, List<ASTExprNode> elems);
+  Result visitArrayLiteral(ASTArrayLiteralNode arrayLiteral);
 
-  Result visitBoolLiteral(Type type, boolean value);
+  Result visitIntLiteral(ASTIntLiteralNode literal);
 
-  Result visitCharacterLiteral(Type type, char value);
+  Result visitBoolLiteral(ASTBoolLiteralNode literal);
 
-  Result visitIntLiteral(Type type, Long value);
+  Result visitCharacterLiteral(ASTCharacterLiteralNode literal);
 
-  Result visitNullPairLiteral();
+  Result visitStringLiteral(ASTStringLiteralNode literal);
 
-  Result visitStringLiteral(Type type, String value);
+  Result visitNullPairLiteral(ASTNullPairLiteralNode literal);
 }
@@ -1,6 +1,13 @@
 package wacc.ast;
 
+import bindings.Type;
+
 public class ASTNullPairLiteralNode extends ASTLiteralNode {
+
+  public ASTNullPairLiteralNode(Type type) {
+    super(type);
+  }
+
   @Override
   public String toString() {
     return "null";
@@ -8,6 +15,6 @@ public class ASTNullPairLiteralNode extends ASTLiteralNode {
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitNullPairLiteral();
+    return visitor.visitNullPairLiteral(this);
   }
 }
@@ -0,0 +1,36 @@
+package wacc.ast;
+
+import bindings.Type;
+
+/**
+ * The first or second element of the pair an identifier or a pointer
+ * refers to
+ */
+public class ASTPairElemNode extends ASTExprNode {
+  final boolean first;
+  final ASTExprNode pair;
+
+  public ASTPairElemNode(Type type, boolean first, ASTExprNode pair) {
+    super(type);
+    this.first = first;
+    this.pair = pair;
+  }
+
+  public boolean isFirst() {
+    return first;
+  }
+
+  public ASTExprNode getPair() {
+    return pair;
+  }
+
+  @Override
+  public String toString() {
+    return (first ? "fst " : "snd ") + pair;
+  }
+
+  @Override
+  public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
+    return visitor.visitPairElem(this);
+  }
+}
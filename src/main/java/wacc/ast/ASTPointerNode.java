@@ -0,0 +1,39 @@
+package wacc.ast;
+
+import bindings.Type;
+
+/**
+ * A variable dereferenced one or more times
+ */
+public class ASTPointerNode extends ASTExprNode {
+  final ASTIdentNode ident;
+  final int dereferences;
+
+  public ASTPointerNode(Type type, ASTIdentNode ident, int dereferences) {
+    super(type);
+    this.ident = ident;
+    this.dereferences = dereferences;
+  }
+
+  public ASTIdentNode getIdent() {
+    return ident;
+  }
+
+  public int getDereferences() {
+    return dereferences;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (int i = 0; i < dereferences; i++) {
+      string.append('*');
+    }
+    return string.append(ident).toString();
+  }
+
+  @Override
+  public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
+    return visitor.visitPointer(this);
+  }
+}
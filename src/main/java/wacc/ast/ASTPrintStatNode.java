@@ -9,13 +9,21 @@ public class ASTPrintStatNode extends ASTStatNode {
     this.newline = newline;
   }
 
+  public ASTExprNode getExpr() {
+    return expr;
+  }
+
+  public boolean isNewline() {
+    return newline;
+  }
+
   @Override
   public String toString() {
-    return (newline ? "println" : "print") + " " + expr.toString();
+    return (newline ? "println" : "print") + " " + expr;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitPrintStat(expr, newline);
+    return visitor.visitPrintStat(this);
   }
 }
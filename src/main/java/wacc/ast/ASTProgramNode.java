@@ -3,12 +3,20 @@ package wacc.ast;
 import java.util.List;
 
 public class ASTProgramNode implements ASTNode {
-  List<ASTStatNode> main;
-  List<ASTFuncNode> functions;
+  final List<ASTFuncNode> functions;
+  final ASTMainNode main;
 
-  public ASTProgramNode(List<ASTStatNode> main, List<ASTFuncNode> functions) {
-    this.main = main;
+  public ASTProgramNode(List<ASTFuncNode> functions, ASTMainNode main) {
     this.functions = functions;
+    this.main = main;
+  }
+
+  public List<ASTFuncNode> getFunctions() {
+    return functions;
+  }
+
+  public ASTMainNode getMain() {
+    return main;
   }
 
   @Override
@@ -18,8 +26,6 @@ public class ASTProgramNode implements ASTNode {
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitProgram(main, functions);
+    return visitor.visitProgram(this);
   }
-
-
-}
\ No newline at end of file
+}
@@ -1,19 +1,35 @@
 package wacc.ast;
 
+import bindings.Type;
+
+/**
+ * A read, with the type the checker gave what is read into, which decides
+ * whether an int or a char is read
+ */
 public class ASTReadStatNode extends ASTStatNode {
-  final ASTNode assignLHS;
+  final ASTExprNode assignLHS;
+  final Type type;
 
-  public ASTReadStatNode(ASTNode assignLHS) {
+  public ASTReadStatNode(ASTExprNode assignLHS, Type type) {
     this.assignLHS = assignLHS;
+    this.type = type;
+  }
+
+  public ASTExprNode getAssignLHS() {
+    return assignLHS;
+  }
+
+  public Type getType() {
+    return type;
   }
 
   @Override
   public String toString() {
-    return "read " + assignLHS.toString();
+    return "read " + assignLHS;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitReadStat(assignLHS);
+    return visitor.visitReadStat(this);
   }
 }
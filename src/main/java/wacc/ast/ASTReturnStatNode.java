@@ -1,19 +1,33 @@
 package wacc.ast;
 
+/**
+ * A return, with the stack space of every scope of the function it
+ * returns from that encloses it
+ */
 public class ASTReturnStatNode extends ASTStatNode {
   final ASTExprNode expr;
+  final long stackSpace;
 
-  public ASTReturnStatNode(ASTExprNode expr) {
+  public ASTReturnStatNode(ASTExprNode expr, long stackSpace) {
     this.expr = expr;
+    this.stackSpace = stackSpace;
+  }
+
+  public ASTExprNode getExpr() {
+    return expr;
+  }
+
+  public long getStackSpace() {
+    return stackSpace;
   }
 
   @Override
   public String toString() {
-    return "return " + expr.toString();
+    return "return " + expr;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitReturnStat(expr);
+    return visitor.visitReturnStat(this);
   }
 }
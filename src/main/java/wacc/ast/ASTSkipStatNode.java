@@ -1,6 +1,15 @@
 package wacc.ast;
 
 public class ASTSkipStatNode extends ASTStatNode {
+
+  /**
+   * Every skip is the same, so they all share one node
+   */
+  public static final ASTSkipStatNode SKIP = new ASTSkipStatNode();
+
+  private ASTSkipStatNode() {
+  }
+
   @Override
   public String toString() {
     return "skip";
@@ -8,6 +17,6 @@ public class ASTSkipStatNode extends ASTStatNode {
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return null;
+    return visitor.visitSkipStat(this);
   }
 }
@@ -2,16 +2,33 @@ package wacc.ast;
 
 import java.util.List;
 
+/**
+ * The statements of a scope, with the stack space its own variables take
+ */
 public class ASTStatListNode implements ASTNode {
+  final List<ASTStatNode> statements;
+  final long stackSpace;
 
-  public List<ASTStatNode> statements;
-
-  public ASTStatListNode(List<ASTStatNode> statements) {
+  public ASTStatListNode(List<ASTStatNode> statements, long stackSpace) {
     this.statements = statements;
+    this.stackSpace = stackSpace;
+  }
+
+  public List<ASTStatNode> getStatements() {
+    return statements;
+  }
+
+  public long getStackSpace() {
+    return stackSpace;
+  }
+
+  @Override
+  public String toString() {
+    return statements.toString();
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return null;
+    return visitor.visitStatList(this);
   }
 }
@@ -1,19 +1,29 @@
 package wacc.ast;
 
+import bindings.Type;
+
+/**
+ * A string as written in the source, quotes and escapes included
+ */
 public class ASTStringLiteralNode extends ASTLiteralNode {
-  final String value;
+  final String text;
+
+  public ASTStringLiteralNode(Type type, String text) {
+    super(type);
+    this.text = text;
+  }
 
-  public ASTStringLiteralNode(String value) {
-    this.value = value;
+  public String getText() {
+    return text;
   }
 
   @Override
   public String toString() {
-    return value;
+    return text;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitStringLiteral(type, value);
+    return visitor.visitStringLiteral(this);
   }
 }
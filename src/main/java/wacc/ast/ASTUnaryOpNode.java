@@ -1,21 +1,32 @@
 package wacc.ast;
 
+import bindings.Type;
+
 public class ASTUnaryOpNode extends ASTExprNode {
   final UnaryOp operator;
-  final ASTNode operand;
+  final ASTExprNode operand;
 
-  public ASTUnaryOpNode(UnaryOp operator, ASTNode operand) {
+  public ASTUnaryOpNode(Type type, UnaryOp operator, ASTExprNode operand) {
+    super(type);
     this.operator = operator;
     this.operand = operand;
   }
 
+  public UnaryOp getOperator() {
+    return operator;
+  }
+
+  public ASTExprNode getOperand() {
+    return operand;
+  }
+
   @Override
   public String toString() {
-    return "(" + operator.toString() + " " + operand.toString() + ")";
+    return "(" + operator + " " + operand + ")";
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitUnaryOp(type, operator, operand);
+    return visitor.visitUnaryOp(this);
   }
 }
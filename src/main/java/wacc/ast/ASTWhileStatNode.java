@@ -1,24 +1,39 @@
 package wacc.ast;
 
-import java.util.List;
-
+/**
+ * A while loop, numbered in the order loops are reached
+ */
 public class ASTWhileStatNode extends ASTStatNode {
+  final int number;
   final ASTExprNode condition;
-  final List<ASTStatNode> body;
+  final ASTStatListNode body;
 
-  public ASTWhileStatNode(ASTExprNode condition,
-                          List<ASTStatNode> body) {
+  public ASTWhileStatNode(int number, ASTExprNode condition,
+                          ASTStatListNode body) {
+    this.number = number;
     this.condition = condition;
     this.body = body;
   }
 
+  public int getNumber() {
+    return number;
+  }
+
+  public ASTExprNode getCondition() {
+    return condition;
+  }
+
+  public ASTStatListNode getBody() {
+    return body;
+  }
+
   @Override
   public String toString() {
-    return "while (" + condition.toString() + ") " + body.toString();
+    return "while (" + condition + ") " + body;
   }
 
   @Override
   public <Result> Result accept(ASTNodeVisitor<Result> visitor) {
-    return visitor.visitWhileStat(condition, body);
+    return visitor.visitWhileStat(this);
   }
 }
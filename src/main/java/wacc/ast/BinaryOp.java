@@ -2,48 +2,33 @@ package wacc.ast;
 
 import antlr.WACCParser;
 import org.antlr.v4.runtime.Token;
-import wacc.Utils;
 
 public enum BinaryOp {
-  AND,
-  OR,
-  GT,
-  GE,
-  LT,
-  LE,
-  EQ,
-  NE,
-  PLUS,
-  MINUS,
-  MUL,
-  DIV,
-  MOD;
+  AND(WACCParser.AND),
+  OR(WACCParser.OR),
+  GT(WACCParser.GT),
+  GE(WACCParser.GE),
+  LT(WACCParser.LT),
+  LE(WACCParser.LE),
+  EQ(WACCParser.EQ),
+  NE(WACCParser.NE),
+  PLUS(WACCParser.PLUS),
+  MINUS(WACCParser.MINUS),
+  MUL(WACCParser.MUL),
+  DIV(WACCParser.DIV),
+  MOD(WACCParser.MOD);
 
-  public static BinaryOp fromWACCToken(Token token) {
+  private final int tokenType;
+
+  BinaryOp(int tokenType) {
+    this.tokenType = tokenType;
+  }
 
-    String text = token.getText();
-    if (text.equals(Utils.getToken(WACCParser.AND))) {
-      return AND;
-    } else if (text.equals(Utils.getToken(WACCParser.OR))) {
-      return OR;
-    } else if (text.equals(Utils.getToken(WACCParser.GT))) {
-      return GT;
-    } else if (text.equals(Utils.getToken(WACCParser.LT))) {
-      return LT;
-    } else if (text.equals(Utils.getToken(WACCParser.LE))) {
-      return LE;
-    } else if (text.equals(Utils.getToken(WACCParser.EQ))) {
-      return NE;
-    } else if (text.equals(Utils.getToken(WACCParser.PLUS))) {
-      return PLUS;
-    } else if (text.equals(Utils.getToken(WACCParser.MINUS))) {
-      return MINUS;
-    } else if (text.equals(Utils.getToken(WACCParser.MUL))) {
-      return MUL;
-    } else if (text.equals(Utils.getToken(WACCParser.DIV))) {
-      return DIV;
-    } else if (text.equals(Utils.getToken(WACCParser.MOD))) {
-      return MOD;
+  public static BinaryOp fromWACCToken(Token token) {
+    for (BinaryOp op : values()) {
+      if (op.tokenType == token.getType()) {
+        return op;
+      }
     }
     return null;
   }
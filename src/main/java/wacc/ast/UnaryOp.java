@@ -5,8 +5,6 @@ public enum UnaryOp {
   MINUS,
   LEN,
   ORD,
-  FST,
-  SND,
   CHR;
 
   @Override
@@ -20,10 +18,6 @@ public enum UnaryOp {
         return "len";
       case ORD:
         return "ord";
-      case FST:
-        return "fst";
-      case SND:
-        return "snd";
       case CHR:
         return "chr";
       default:
@@ -0,0 +1,47 @@
+package wacc.error;
+
+/**
+ * Position and description of one error reported by the compiler, detached
+ * from the parse tree so that it can outlive the compilation
+ * Lines start at 1 and columns at 0, as in ANTLR tokens
+ */
+public class CompileError {
+
+  public enum Kind {
+    LEXICAL, SYNTAX, SEMANTIC
+  }
+
+  private final Kind kind;
+  private final int line;
+  private final int column;
+  private final String message;
+
+  public CompileError(Kind kind, int line, int column, String message) {
+    this.kind = kind;
+    this.line = line;
+    this.column = column;
+    this.message = message;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + line + ":" + column + " " + message;
+  }
+
+}
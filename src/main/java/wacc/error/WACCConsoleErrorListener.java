@@ -0,0 +1,38 @@
+package wacc.error;
+
+import org.antlr.v4.runtime.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports lexer errors in the same format as ANTLR's ConsoleErrorListener,
+ * but to a given stream so that concurrent compilations keep their
+ * diagnostics apart
+ */
+public class WACCConsoleErrorListener implements ANTLRErrorListener<Object> {
+
+  private final PrintStream err;
+  private final List<CompileError> errors = new ArrayList<>();
+
+  public WACCConsoleErrorListener(PrintStream err) {
+    this.err = err;
+  }
+
+  @Override
+  public <T> void syntaxError(Recognizer<T, ?> recognizer,
+                              T offendingSymbol, int line,
+                              int charPositionInLine,
+                              String msg,
+                              RecognitionException e) {
+    err.println("line " + line + ":" + charPositionInLine + " " + msg);
+    errors.add(new CompileError(CompileError.Kind.LEXICAL, line,
+                                charPositionInLine, msg));
+  }
+
+  public List<CompileError> getErrors() {
+    return errors;
+  }
+
+}
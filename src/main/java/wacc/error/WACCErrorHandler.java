@@ -3,6 +3,7 @@ package wacc.error;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.misc.Interval;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +30,23 @@ public class WACCErrorHandler implements ErrorHandler<ParserRuleContext> {
     }
   }
 
+  /**
+   * An empty handler for the same token stream, to collect errors apart
+   * from this one until they are merged back in
+   */
+  public WACCErrorHandler createBuffer() {
+    return new WACCErrorHandler(tokenStream);
+  }
+
+  /**
+   * Appends the errors collected by buffer after those of this handler
+   */
+  public void merge(WACCErrorHandler buffer) {
+    syntacticErrors.addAll(buffer.syntacticErrors);
+    semanticErrors.addAll(buffer.semanticErrors);
+    lexingErrors.addAll(buffer.lexingErrors);
+  }
+
   @Override
   public String toString() {
 
@@ -103,22 +121,60 @@ public class WACCErrorHandler implements ErrorHandler<ParserRuleContext> {
     return sb;
   }
 
+  /**
+   * Returns the errors that decide the outcome of the compilation: the
+   * syntax errors if there are any, otherwise the semantic errors
+   */
+  public List<CompileError> getCompileErrors() {
+    List<CompileError> errors = new ArrayList<>();
+    if (hasSyntaxErrors()) {
+      addCompileErrors(errors, syntacticErrors, CompileError.Kind.SYNTAX);
+    } else {
+      addCompileErrors(errors, semanticErrors, CompileError.Kind.SEMANTIC);
+    }
+    return errors;
+  }
+
+  private void addCompileErrors(List<CompileError> errors,
+                                List<IError<ParserRuleContext>> from,
+                                CompileError.Kind kind) {
+    for (IError<ParserRuleContext> e : from) {
+      Token firstToken
+          = tokenStream.get(e.getCtx().getSourceInterval().a);
+      errors.add(new CompileError(kind, firstToken.getLine(),
+                                  firstToken.getCharPositionInLine(),
+                                  e.toString()));
+    }
+  }
+
   public boolean printLexingErrors() {
+    return printLexingErrors(System.err);
+  }
+
+  public boolean printLexingErrors(PrintStream err) {
     for (String error : lexingErrors) {
-      System.err.println(error);
+      err.println(error);
     }
 
     return lexingErrors.size() > 0;
   }
 
   public boolean printSyntaxErrors() {
-    System.err.println(printErrors(syntacticErrors));
+    return printSyntaxErrors(System.err);
+  }
+
+  public boolean printSyntaxErrors(PrintStream err) {
+    err.println(printErrors(syntacticErrors));
     return syntacticErrors.size() > 0;
   }
 
   public void printSemanticErrors() {
+    printSemanticErrors(System.err);
+  }
+
+  public void printSemanticErrors(PrintStream err) {
     if (hasSemanticErrors()) {
-      System.err.println(printErrors(semanticErrors));
+      err.println(printErrors(semanticErrors));
     }
   }
 
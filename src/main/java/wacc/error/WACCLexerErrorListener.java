@@ -7,6 +7,7 @@ import java.util.List;
 public class WACCLexerErrorListener extends BaseErrorListener {
 
     List<String> errors = new ArrayList<>();
+    List<CompileError> compileErrors = new ArrayList<>();
 
     @Override
     public <T extends Token> void syntaxError(Recognizer<T, ?> recognizer,
@@ -21,10 +22,16 @@ public class WACCLexerErrorListener extends BaseErrorListener {
           .append(" -- ").append("Syntax Error: ")
           .append(msg);
         errors.add(message.toString());
+        compileErrors.add(new CompileError(CompileError.Kind.SYNTAX, line,
+                                           charPositionInLine, msg));
     }
 
     public List<String> getErrors() {
         return errors;
     }
 
+    public List<CompileError> getCompileErrors() {
+        return compileErrors;
+    }
+
 }
@@ -0,0 +1,56 @@
+import bindings.*;
+import org.junit.Test;
+import wacc.SymbolTable;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class OverloadsTest {
+
+  private static Function function(String name, Type... params) {
+    Variable[] variables = new Variable[params.length];
+    for (int i = 0; i < params.length; i++) {
+      variables[i] = new Variable("p" + i, params[i]);
+    }
+    return new Function(Type.of(Types.INT_T), name, Arrays.asList(variables),
+                        new SymbolTable<>(name, null));
+  }
+
+  @Test
+  public void testOverloadsAreIndexedByArity() {
+    Type intType = Type.of(Types.INT_T);
+    Overloads overloads = new Overloads("f_f");
+    Function unary = function("f_f.int.", intType);
+    Function binary = function("f_f.int.int.", intType, intType);
+    Function nullary = function("f_f.");
+    overloads.add(unary);
+    overloads.add(binary);
+    overloads.add(nullary);
+
+    assertThat(overloads.withArity(0), is(Collections.singletonList(nullary)));
+    assertThat(overloads.withArity(2), is(Collections.singletonList(binary)));
+    assertThat(overloads.withArity(3).isEmpty(), is(true));
+    assertThat(overloads.getAll(), is(Arrays.asList(unary, binary, nullary)));
+  }
+
+  @Test
+  public void testRedeclaredOverloadReplacesTheFirstInPlace() {
+    Type intType = Type.of(Types.INT_T);
+    Type charType = Type.of(Types.CHAR_T);
+    Overloads overloads = new Overloads("f_f");
+    overloads.add(function("f_f.int.", intType));
+    Function other = function("f_f.char.", charType);
+    overloads.add(other);
+    Function redeclared = function("f_f.int.", intType);
+    overloads.add(redeclared);
+
+    assertSame(redeclared, overloads.getAll().get(0));
+    assertThat(overloads.getAll().size(), is(2));
+    assertSame(redeclared, overloads.withArity(1).get(0));
+  }
+
+}
@@ -6,7 +6,7 @@ import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.junit.Test;
 import wacc.SymbolTable;
-import wacc.WACCSymbolTableFiller;
+import wacc.WACCTypeChecker;
 import wacc.error.WACCErrorHandler;
 
 import java.util.Dictionary;
@@ -16,12 +16,11 @@ public class SymbolTableValuesTest {
 
   private static SymbolTable<String, Binding> createTopSymbolTable() {
     SymbolTable<String, Binding> top = new SymbolTable<>();
-    top.put(Types.INT_T.toString(), new Type(Types.INT_T, Integer.MIN_VALUE, Integer
-        .MAX_VALUE));
-    top.put(Types.BOOL_T.toString(), new Type(Types.BOOL_T, 0, 1));
-    top.put(Types.CHAR_T.toString(), new Type(Types.CHAR_T, 0, 255));
-    top.put(Types.STRING_T.toString(), new Type(Types.STRING_T));
-    top.put(Types.PAIR_T.toString(), new PairType());
+    top.put(Types.INT_T.toString(), Type.of(Types.INT_T));
+    top.put(Types.BOOL_T.toString(), Type.of(Types.BOOL_T));
+    top.put(Types.CHAR_T.toString(), Type.of(Types.CHAR_T));
+    top.put(Types.STRING_T.toString(), Type.of(Types.STRING_T));
+    top.put(Types.PAIR_T.toString(), PairType.generic());
     return top;
   }
 
@@ -42,8 +41,8 @@ public class SymbolTableValuesTest {
 
     SymbolTable<String, Binding> top = createTopSymbolTable();
     WACCErrorHandler errorHandler = new WACCErrorHandler(parser.getInputStream());
-    WACCSymbolTableFiller buildSTVisitor
-        = new WACCSymbolTableFiller(top, errorHandler);
+    WACCTypeChecker buildSTVisitor
+        = new WACCTypeChecker(top, errorHandler);
     buildSTVisitor.visit(tree);
 
     LinkedHashMap<String, Binding> zeroMainTable =
@@ -8,87 +8,87 @@ public class TypeTest {
 
   @Test
   public void testIntType() {
-    Type intType = new Type(Types.INT_T);
+    Type intType = Type.of(Types.INT_T);
     assertThat(intType.toString(), is("int"));
   }
 
   @Test
   public void testBoolType() {
-    Type intType = new Type(Types.BOOL_T);
+    Type intType = Type.of(Types.BOOL_T);
     assertThat(intType.toString(), is("bool"));
   }
 
   @Test
   public void testCharType() {
-    Type intType = new Type(Types.CHAR_T);
+    Type intType = Type.of(Types.CHAR_T);
     assertThat(intType.toString(), is("char"));
   }
 
   @Test
   public void testStringType() {
-    Type intType = new Type(Types.STRING_T);
+    Type intType = Type.of(Types.STRING_T);
     assertThat(intType.toString(), is("string"));
   }
 
   @Test
   public void testBaseArrayType() {
-    Type baseType = new Type(Types.INT_T);
-    ArrayType arrayType = new ArrayType(baseType);
+    Type baseType = Type.of(Types.INT_T);
+    ArrayType arrayType = ArrayType.of(baseType);
     assertThat(arrayType.toString(), is("int[]"));
   }
 
   @Test
   public void testMultiArrayType() {
-    Type baseType = new Type(Types.INT_T);
-    ArrayType innerArray = new ArrayType(baseType);
-    ArrayType outerArray = new ArrayType(innerArray);
+    Type baseType = Type.of(Types.INT_T);
+    ArrayType innerArray = ArrayType.of(baseType);
+    ArrayType outerArray = ArrayType.of(innerArray);
     assertThat(outerArray.toString(), is("int[][]"));
   }
 
   @Test
   public void testMultiArrayType2() {
-    Type baseType = new Type(Types.INT_T);
-    ArrayType array = new ArrayType(baseType, 2);
+    Type baseType = Type.of(Types.INT_T);
+    ArrayType array = ArrayType.of(baseType, 2);
     assertThat(array.toString(), is("int[][]"));
   }
 
   @Test
   public void testMultiArrayType3() {
-    Type baseType = new Type(Types.INT_T);
-    ArrayType innerArray = new ArrayType(baseType);
-    ArrayType outerArray = new ArrayType(innerArray);
-    outerArray = new ArrayType(outerArray);
+    Type baseType = Type.of(Types.INT_T);
+    ArrayType innerArray = ArrayType.of(baseType);
+    ArrayType outerArray = ArrayType.of(innerArray);
+    outerArray = ArrayType.of(outerArray);
     assertThat(outerArray.toString(), is("int[][][]"));
   }
 
   @Test
   public void testPairType() {
-    Type fstType = new Type(Types.INT_T);
-    Type sndType = new Type(Types.STRING_T);
-    PairType pairType = new PairType(fstType, sndType);
+    Type fstType = Type.of(Types.INT_T);
+    Type sndType = Type.of(Types.STRING_T);
+    PairType pairType = PairType.of(fstType, sndType);
     assertThat(pairType.toString(), is("pair(int, string)"));
   }
 
   @Test
   public void testPairLitrPairType() {
-    Type pairLitr = new PairType();
-    Type baseType = new Type(Types.INT_T);
-    PairType pairType = new PairType(baseType, pairLitr);
+    Type pairLitr = PairType.generic();
+    Type baseType = Type.of(Types.INT_T);
+    PairType pairType = PairType.of(baseType, pairLitr);
     assertThat(pairType.toString(), is("pair(int, pair)"));
   }
 
   @Test
   public void testPairPairType() {
-    Type fstType = new Type(Types.INT_T);
-    Type sndType = new Type(Types.STRING_T);
+    Type fstType = Type.of(Types.INT_T);
+    Type sndType = Type.of(Types.STRING_T);
 
     PairType fstInnerPair
-        = new PairType(fstType, sndType);
+        = PairType.of(fstType, sndType);
     PairType sndInnerPair
-        = new PairType(sndType, fstType);
+        = PairType.of(sndType, fstType);
 
     PairType outerPair
-        = new PairType(fstInnerPair, sndInnerPair);
+        = PairType.of(fstInnerPair, sndInnerPair);
 
     String type = "pair(pair(int, string), pair(string, int))";
     assertThat(outerPair.toString(), is(type));
@@ -96,66 +96,86 @@ public class TypeTest {
 
   @Test
   public void testPairOfArrays() {
-    Type fstBaseType = new Type(Types.INT_T);
-    Type sndBaseType = new Type(Types.CHAR_T);
-    ArrayType fstArrayType = new ArrayType(fstBaseType);
-    ArrayType sndArrayType = new ArrayType(sndBaseType);
-    PairType pairType = new PairType(fstArrayType, sndArrayType);
+    Type fstBaseType = Type.of(Types.INT_T);
+    Type sndBaseType = Type.of(Types.CHAR_T);
+    ArrayType fstArrayType = ArrayType.of(fstBaseType);
+    ArrayType sndArrayType = ArrayType.of(sndBaseType);
+    PairType pairType = PairType.of(fstArrayType, sndArrayType);
     String type = "pair(int[], char[])";
     assertThat(pairType.toString(), is(type));
   }
 
   @Test
   public void testArrayOfPairs() {
-    Type fstBaseType = new Type(Types.INT_T);
-    Type sndBaseType = new Type(Types.CHAR_T);
-    PairType pairType = new PairType(fstBaseType, sndBaseType);
-    ArrayType arrayType = new ArrayType(pairType);
+    Type fstBaseType = Type.of(Types.INT_T);
+    Type sndBaseType = Type.of(Types.CHAR_T);
+    PairType pairType = PairType.of(fstBaseType, sndBaseType);
+    ArrayType arrayType = ArrayType.of(pairType);
     String type = "pair(int, char)[]";
     assertThat(arrayType.toString(), is(type));
   }
 
   @Test
   public void testGenericPairsAreEqual() {
-    assertEquals(new PairType(), new PairType());
+    assertEquals(PairType.generic(), PairType.generic());
   }
 
   @Test
   public void testGenericPairsAreEqualToAnyPair() {
-    Type baseType = new Type(Types.INT_T);
-    assertEquals(new PairType(), new PairType(baseType, baseType));
+    Type baseType = Type.of(Types.INT_T);
+    assertEquals(PairType.generic(), PairType.of(baseType, baseType));
   }
 
   @Test
   public void testGenericPairsAreEqualToAnyPairWithGenericSubtypes() {
-    PairType pairType = new PairType();
-    assertEquals(new PairType(), new PairType(pairType, pairType));
+    PairType pairType = PairType.generic();
+    assertEquals(PairType.generic(), PairType.of(pairType, pairType));
   }
 
   @Test
   public void testStringIsCharArray() {
-    Type charArray = new ArrayType(new Type(Types.CHAR_T));
-    Type string = new Type(Types.STRING_T);
+    Type charArray = ArrayType.of(Type.of(Types.CHAR_T));
+    Type string = Type.of(Types.STRING_T);
 
     assert string.equals(charArray);
   }
 
   @Test
   public void testCharArrayIsString() {
-    Type charArray = new ArrayType(new Type(Types.CHAR_T));
-    Type string = new Type(Types.STRING_T);
+    Type charArray = ArrayType.of(Type.of(Types.CHAR_T));
+    Type string = Type.of(Types.STRING_T);
 
     assert charArray.equals(string);
   }
 
   @Test
   public void testArrayOfGenericPairsEqualToArrayOfNonGenericPairs() {
-    PairType genericPair = new PairType();
-    Type intType = new Type(Types.INT_T);
-    ArrayType genericPairArrayType = new ArrayType(genericPair);
-    PairType intPair = new PairType(intType, intType);
-    ArrayType pairIntArrayType = new ArrayType(intPair);
+    PairType genericPair = PairType.generic();
+    Type intType = Type.of(Types.INT_T);
+    ArrayType genericPairArrayType = ArrayType.of(genericPair);
+    PairType intPair = PairType.of(intType, intType);
+    ArrayType pairIntArrayType = ArrayType.of(intPair);
     assertEquals(pairIntArrayType, genericPairArrayType);
   }
 
+  @Test
+  public void testEqualTypesAreTheSameInstance() {
+    Type intType = Type.of(Types.INT_T);
+    PairType pairType = PairType.of(ArrayType.of(intType), intType);
+    assertSame(pairType, PairType.of(ArrayType.of(intType, 1), intType));
+    assertSame(ArrayType.of(ArrayType.of(intType)), ArrayType.of(intType, 2));
+    assertSame(PointerType.of(PointerType.of(intType)),
+               PointerType.createPointer(intType, 2));
+  }
+
+  @Test
+  public void testDistinctTypesHaveDistinctIds() {
+    Type intType = Type.of(Types.INT_T);
+    Type intArray = ArrayType.of(intType);
+    Type intPointer = PointerType.of(intType);
+    assertNotEquals(intType.getId(), intArray.getId());
+    assertNotEquals(intArray.getId(), intPointer.getId());
+    assertThat(intArray.hashCode(), is(intArray.getId()));
+  }
+
 }
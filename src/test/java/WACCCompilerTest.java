@@ -0,0 +1,98 @@
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+import wacc.CompileResult;
+import wacc.WACCCompiler;
+import wacc.error.CompileError;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+public class WACCCompilerTest {
+
+  private final WACCCompiler compiler = new WACCCompiler();
+
+  @Test
+  public void testValidProgramProducesAssembly() {
+    CompileResult result = compiler.compile("begin\n  println 1\nend\n");
+    assertThat(result.getExitCode(), is(0));
+    assertThat(result.getAssembly(), containsString("main:"));
+    assertTrue(result.getErrors().isEmpty());
+    assertThat(result.getPhaseTimings().size(),
+               is(CompileResult.Phase.values().length));
+  }
+
+  @Test
+  public void testSyntaxErrorIsReported() {
+    CompileResult result = compiler.compile("begin\n  int x = \nend\n");
+    assertThat(result.getExitCode(), is(100));
+    assertNull(result.getAssembly());
+    assertThat(result.getErrors().get(0).getKind(),
+               is(CompileError.Kind.SYNTAX));
+  }
+
+  @Test
+  public void testSyntaxErrorIsReportedOnceAndParserIsReusable() {
+    CompileResult failed = compiler.compile("begin\n  int x = 1 +\nend\n");
+    assertThat(failed.getExitCode(), is(100));
+    assertThat(failed.getErrors().size(), is(1));
+
+    String program = "begin\n  bool b = 1 + 2 * 3 <= 4 && 5 == 5\nend\n";
+    assertThat(compiler.compile(program).getAssembly(),
+               is(new WACCCompiler().compile(program).getAssembly()));
+  }
+
+  @Test
+  public void testSemanticErrorIsReportedWithPosition() {
+    CompileResult result
+        = compiler.compile("begin\n  skip;\n  int x = true\nend\n");
+    assertThat(result.getExitCode(), is(200));
+    CompileError error = result.getErrors().get(0);
+    assertThat(error.getKind(), is(CompileError.Kind.SEMANTIC));
+    assertThat(error.getLine(), is(3));
+    assertThat(result.getDiagnostics(), containsString("1 Error:"));
+  }
+
+  @Test
+  public void testStreamedAssemblyPutsDataSectionLast() throws Exception {
+    String program = "begin\n  println \"hello\"\nend\n";
+    String assembly = compiler.compile(program).getAssembly();
+    int text = assembly.indexOf("\n.text");
+
+    StringWriter out = new StringWriter();
+    CompileResult result
+        = compiler.compile(new ANTLRInputStream(program), out);
+    assertThat(result.getExitCode(), is(0));
+    assertNull(result.getAssembly());
+    String dataLast = assembly.substring(text, assembly.length() - 1)
+        + assembly.substring(0, text) + "\n";
+    assertThat(out.toString(), is(dataLast));
+  }
+
+  @Test
+  public void testReusedCompilerIsThreadSafe() throws Exception {
+    String program = "begin\n  int x = 5;\n  while x > 0 do\n"
+        + "    println x;\n    x = x - 1\n  done\nend\n";
+    String expected = compiler.compile(program).getAssembly();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<CompileResult>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        results.add(pool.submit(() -> compiler.compile(program)));
+      }
+      for (Future<CompileResult> result : results) {
+        assertThat(result.get().getAssembly(), is(expected));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
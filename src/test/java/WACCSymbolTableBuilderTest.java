@@ -4,7 +4,7 @@ import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Before;
 import org.junit.Rule;
 import wacc.SymbolTable;
-import wacc.WACCSymbolTableFiller;
+import wacc.WACCTypeChecker;
 import wacc.error.WACCErrorHandler;
 public class WACCSymbolTableBuilderTest {
 
@@ -18,12 +18,12 @@ public class WACCSymbolTableBuilderTest {
   String program;
   private SymbolTable<String, Binding> top;
   WACCErrorHandler errorHandler = context.mock(WACCErrorHandler.class);
-  WACCSymbolTableFiller symbolTableBuilder;
+  WACCTypeChecker symbolTableBuilder;
 
   @Before
   public void setUpWACCSymbolTableBuilder() {
     top = new SymbolTable<>();
-    symbolTableBuilder = new WACCSymbolTableFiller(top, errorHandler);
+    symbolTableBuilder = new WACCTypeChecker(top, errorHandler);
   }
 
 //  private ParseTree parseProgram() throws IOException {
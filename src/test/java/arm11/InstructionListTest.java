@@ -0,0 +1,57 @@
+package arm11;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class InstructionListTest {
+
+  private static Instruction instruction(String text) {
+    return InstructionFactory.createLabel(new Label(text));
+  }
+
+  @Test
+  public void testConcatenationKeepsOrder() throws Exception {
+    InstructionList inner = new InstructionList().add(instruction("b"));
+    InstructionList list = new InstructionList()
+        .add(instruction("a"))
+        .add(inner)
+        .add(new InstructionList())
+        .add(instruction("c"));
+    assertEquals("a:\nb:\nc:\n", list.toString());
+  }
+
+  @Test
+  public void testAddedListIsUnaffectedByLaterChanges() throws Exception {
+    InstructionList child = new InstructionList().add(instruction("a"));
+    InstructionList parent = new InstructionList().add(child);
+    child.add(instruction("b"));
+    parent.add(instruction("c"));
+    assertEquals("a:\nc:\n", parent.toString());
+    assertEquals("a:\nb:\n", child.toString());
+  }
+
+  @Test
+  public void testListsWithSameInstructionsAreEqual() throws Exception {
+    InstructionList joined = new InstructionList()
+        .add(new InstructionList().add(instruction("a")))
+        .add(instruction("b"));
+    InstructionList flat = new InstructionList()
+        .add(instruction("a"))
+        .add(instruction("b"));
+    assertEquals(flat, joined);
+    assertEquals(flat.hashCode(), joined.hashCode());
+  }
+
+  @Test
+  public void testDeeplyNestedListIsWalkedWithoutOverflow() throws Exception {
+    InstructionList list = new InstructionList();
+    for (int i = 0; i < 100000; i++) {
+      list = new InstructionList().add(list).add(instruction("x"));
+    }
+    StringBuilder out = new StringBuilder();
+    list.writeTo(out);
+    assertEquals(300000, out.length());
+  }
+
+}
@@ -0,0 +1,54 @@
+package arm11;
+
+import org.junit.Test;
+
+import static arm11.ARM11Registers.PC;
+import static arm11.ARM11Registers.R0;
+import static arm11.ARM11Registers.R4;
+import static arm11.ARM11Registers.R5;
+import static arm11.ARM11Registers.SP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class InstructionTest {
+
+  @Test
+  public void testInstructionsPrintAsAssembly() throws Exception {
+    assertEquals("\tMOVNE r4, #1",
+        InstructionFactory.createMovNe(R4, Immediate.of(1L))
+                          .printInstruction());
+    assertEquals("\tLDR r0, =msg_0",
+        InstructionFactory.createLoad(R0, new Label("msg_0"))
+                          .printInstruction());
+    assertEquals("\tSTR r4, [sp, #-4]!",
+        InstructionFactory.createStore(R4, SP, Immediate.of(-4L))
+                          .printInstruction());
+    assertEquals("\tLDR r4, [sp]",
+        InstructionFactory.createLoad(R4, SP, Immediate.of(0L))
+                          .printInstruction());
+    assertEquals("\tPUSH {r4}",
+        InstructionFactory.createPush(R4).printInstruction());
+    assertEquals("\tPOP {r4, r5, pc}",
+        InstructionFactory.createPop(R4, R5, PC).printInstruction());
+  }
+
+  @Test
+  public void testInstructionsCompareByValue() throws Exception {
+    assertEquals(InstructionFactory.createLoad(R4, new Label("msg_1")),
+                 InstructionFactory.createLoad(R4, new Label("msg_1")));
+    assertNotEquals(InstructionFactory.createMovEq(R4, Immediate.of(1L)),
+                    InstructionFactory.createMovNe(R4, Immediate.of(1L)));
+    assertEquals(Condition.LT,
+        InstructionFactory.createBranchLinkLT(new Label("p_throw"))
+                          .getCondition());
+  }
+
+  @Test
+  public void testSmallOperandsAreShared() throws Exception {
+    assertSame(Immediate.of(4L), Immediate.of(4L));
+    assertSame(Shift.of(Shift.Shifts.LSL, 2), Shift.of(Shift.Shifts.LSL, 2));
+    assertEquals(Immediate.of(100000L), Immediate.of(100000L));
+  }
+
+}
@@ -0,0 +1,103 @@
+package arm11;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static arm11.ARM11Registers.LR;
+import static arm11.ARM11Registers.PC;
+import static arm11.ARM11Registers.R0;
+import static arm11.ARM11Registers.SP;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinearScanAllocatorTest {
+
+  private static final Pattern VIRTUAL = Pattern.compile("\\bv\\d+\\b");
+
+  /**
+   * A unit that loads or moves values into count registers and then adds them
+   * all up, so that they are all live at once
+   */
+  private static InstructionList sumOf(int count, boolean loaded) {
+    VirtualRegisters registers = new VirtualRegisters();
+    List<Register> values = new ArrayList<>();
+    InstructionList unit = new InstructionList()
+        .add(InstructionFactory.createPush(LR));
+    for (int i = 0; i < count; i++) {
+      Register value = registers.takeRegister();
+      values.add(value);
+      unit.add(loaded
+               ? InstructionFactory.createLoad(value, SP, Immediate.of(4 * i))
+               : InstructionFactory.createMove(value, Immediate.of(i)));
+    }
+    for (int i = 1; i < count; i++) {
+      unit.add(InstructionFactory.createAdd(values.get(0), values.get(0),
+                                            values.get(i)));
+    }
+    return unit.add(InstructionFactory.createMove(R0, values.get(0)))
+        .add(InstructionFactory.createPop(PC));
+  }
+
+  @Test
+  public void testFewValuesAreAllGivenRegisters() throws Exception {
+    String code = LinearScanAllocator.allocate(sumOf(5, true)).toString();
+    assertFalse(VIRTUAL.matcher(code).find());
+    assertFalse(code.contains("SUB sp, sp"));
+  }
+
+  @Test
+  public void testValuesNoCallCrossesAreNotSaved() throws Exception {
+    String code = LinearScanAllocator.allocate(sumOf(1, true)).toString();
+    assertTrue(code.contains("PUSH {lr}"));
+    assertTrue(code.contains("POP {pc}"));
+  }
+
+  @Test
+  public void testRegistersKeptAcrossCallsAreSavedWithLr() throws Exception {
+    VirtualRegisters registers = new VirtualRegisters();
+    Register value = registers.takeRegister();
+    InstructionList unit = new InstructionList()
+        .add(InstructionFactory.createPush(LR))
+        .add(InstructionFactory.createLoad(value, SP, Immediate.of(0L)))
+        .add(InstructionFactory.createBranchLink(new Label("f_callee")))
+        .add(InstructionFactory.createMove(R0, value))
+        .add(InstructionFactory.createPop(PC));
+    String code = LinearScanAllocator.allocate(unit).toString();
+    assertTrue(code.contains("PUSH {r4, lr}"));
+    assertTrue(code.contains("POP {r4, pc}"));
+  }
+
+  @Test
+  public void testCopiesWithinABlockAreRemoved() throws Exception {
+    VirtualRegisters registers = new VirtualRegisters();
+    Register value = registers.takeRegister();
+    Register copy = registers.takeRegister();
+    InstructionList unit = new InstructionList()
+        .add(InstructionFactory.createPush(LR))
+        .add(InstructionFactory.createLoad(value, SP, Immediate.of(0L)))
+        .add(InstructionFactory.createMove(copy, value))
+        .add(InstructionFactory.createMove(R0, copy))
+        .add(InstructionFactory.createPop(PC));
+    String code = LinearScanAllocator.allocate(unit).toString();
+    assertTrue(code.contains("LDR r12, [sp]\n\tMOV r0, r12\n"));
+  }
+
+  @Test
+  public void testValuesThatDoNotFitAreSpilledToTheFrame() throws Exception {
+    String code = LinearScanAllocator.allocate(sumOf(14, true)).toString();
+    assertFalse(VIRTUAL.matcher(code).find());
+    assertTrue(code.contains("SUB sp, sp, #"));
+    assertTrue(code.contains("ADD sp, sp, #"));
+  }
+
+  @Test
+  public void testSpilledConstantsAreGivenAgain() throws Exception {
+    String code = LinearScanAllocator.allocate(sumOf(14, false)).toString();
+    assertFalse(VIRTUAL.matcher(code).find());
+    assertFalse(code.contains("SUB sp, sp"));
+  }
+
+}
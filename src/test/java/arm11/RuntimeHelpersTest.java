@@ -0,0 +1,35 @@
+package arm11;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RuntimeHelpersTest {
+
+  @Test
+  public void testHelperIsBuiltOnce() throws Exception {
+    DataInstructions data = new DataInstructions();
+    RuntimeHelpers helpers = new RuntimeHelpers();
+    helpers.require(RuntimeHelper.PRINT_INT, data);
+    helpers.require(RuntimeHelper.PRINT_INT, data);
+    assertEquals(PrintFunctions.printInt(new DataInstructions()),
+                 helpers.getInstructionList());
+  }
+
+  @Test
+  public void testHelpersAreEmittedInDeclarationOrder() throws Exception {
+    DataInstructions data = new DataInstructions();
+    RuntimeHelpers helpers = new RuntimeHelpers();
+    helpers.require(RuntimeHelper.PRINT_LN, data);
+    helpers.require(RuntimeHelper.PRINT_STRING, data);
+
+    DataInstructions expectedData = new DataInstructions();
+    InstructionList printLn = PrintFunctions.printLn(expectedData);
+    InstructionList expected = new InstructionList()
+        .add(PrintFunctions.printString(expectedData))
+        .add(printLn);
+    assertEquals(expected, helpers.getInstructionList());
+    assertEquals(expectedData.toString(), data.toString());
+  }
+
+}
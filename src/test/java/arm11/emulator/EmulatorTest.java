@@ -0,0 +1,186 @@
+package arm11.emulator;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class EmulatorTest {
+
+  private static final String FORMATS = ".data\n"
+      + "msg_0:\n\t.word 3\n\t.ascii \"%p\\0\"\n"
+      + "msg_1:\n\t.word 5\n\t.ascii \"%.*s\\0\"\n"
+      + "msg_2:\n\t.word 3\n\t.ascii \"%d\\0\"\n"
+      + "msg_3:\n\t.word 6\n\t.ascii \"hi\\n\\0\"\n"
+      + "msg_4:\n\t.word 3\n\t.ascii \"%d\\0\"\n";
+
+  private static String main(String... instructions) {
+    StringBuilder sb = new StringBuilder(FORMATS)
+        .append(".text\n.global main\nmain:\n\tPUSH {lr}\n");
+    for (String instruction : instructions) {
+      sb.append('\t').append(instruction).append('\n');
+    }
+    return sb.append("\tPOP {pc}\n").toString();
+  }
+
+  private static Execution run(String... instructions) {
+    return new Emulator(main(instructions)).run("");
+  }
+
+  @Test
+  public void testMainReturnsTheLowByteOfR0() {
+    Execution execution = run("LDR r0, =300");
+
+    assertThat(execution.getExitCode(), is(300 & 0xff));
+    assertThat(execution.getError(), is(nullValue()));
+    assertThat(execution.getOutput(), is(""));
+  }
+
+  @Test
+  public void testConditionsFollowTheFlagsOfComparisons() {
+    Execution execution = run("LDR r4, =-1",
+                              "MOV r0, #0",
+                              "CMP r4, #1",
+                              "ADDLT r0, r0, #1",
+                              "ADDCS r0, r0, #2",
+                              "ADDEQ r0, r0, #4",
+                              "LDR r5, =2147483647",
+                              "ADDS r5, r5, #1",
+                              "ADDVS r0, r0, #8",
+                              "ADDMI r0, r0, #16");
+
+    assertThat(execution.getExitCode(), is(1 + 2 + 8 + 16));
+  }
+
+  @Test
+  public void testSmullGivesTheHighWordToCheckForOverflow() {
+    Execution execution = run("LDR r4, =65536",
+                              "LDR r5, =65536",
+                              "SMULL r4, r5, r4, r5",
+                              "MOV r0, #0",
+                              "CMP r5, r4, ASR #31",
+                              "MOVNE r0, #1");
+
+    assertThat(execution.getExitCode(), is(1));
+  }
+
+  @Test
+  public void testLoadsAndStoresAreCountedPerAccess() {
+    Execution execution = run("MOV r4, #'a'",
+                              "STR r4, [sp, #-4]!",
+                              "STRB r4, [sp, #1]",
+                              "LDRSB r0, [sp, #1]",
+                              "ADD sp, sp, #4");
+
+    assertThat(execution.getExitCode(), is((int) 'a'));
+    assertThat(execution.getInstructions(), is(7L));
+    assertThat(execution.getLoads(), is(2L));
+    assertThat(execution.getStores(), is(3L));
+  }
+
+  @Test
+  public void testMallocReusesFreedChunksAsGlibcDoes() {
+    Execution execution = run("LDR r0, =8",
+                              "BL malloc",
+                              "MOV r4, r0",
+                              "LDR r0, =4",
+                              "BL malloc",
+                              "MOV r1, r0",
+                              "LDR r0, =msg_0",
+                              "ADD r0, r0, #4",
+                              "BL printf",
+                              "MOV r0, r4",
+                              "BL free",
+                              "LDR r0, =12",
+                              "BL malloc",
+                              "MOV r1, r0",
+                              "LDR r0, =msg_0",
+                              "ADD r0, r0, #4",
+                              "BL printf",
+                              "MOV r0, #0");
+
+    assertThat(execution.getOutput(), is("0x120180x12008"));
+  }
+
+  @Test
+  public void testPrintfAndScanfFollowTheirFormats() {
+    String assembly = main("SUB sp, sp, #4",
+                           "MOV r1, sp",
+                           "LDR r0, =msg_4",
+                           "ADD r0, r0, #4",
+                           "BL scanf",
+                           "LDR r1, [sp]",
+                           "LDR r0, =msg_2",
+                           "ADD r0, r0, #4",
+                           "BL printf",
+                           "LDR r1, =6",
+                           "LDR r2, =msg_3",
+                           "ADD r2, r2, #4",
+                           "LDR r0, =msg_1",
+                           "ADD r0, r0, #4",
+                           "BL printf",
+                           "ADD sp, sp, #4",
+                           "MOV r0, #0");
+
+    assertThat(new Emulator(assembly).run("  -42\n").getOutput(),
+               is("-42hi\n"));
+  }
+
+  @Test
+  public void testDoubleFreeAborts() {
+    Execution execution = run("LDR r0, =8",
+                              "BL malloc",
+                              "MOV r4, r0",
+                              "BL free",
+                              "MOV r0, r4",
+                              "BL free");
+
+    assertThat(execution.getExitCode(), is(134));
+    assertThat(execution.getError(), is(notNullValue()));
+  }
+
+  @Test
+  public void testCallsLeaveGarbageInCallerSavedRegisters() {
+    Execution execution = run("MOV r4, #1",
+                              "MOV r12, #2",
+                              "MOV r0, #10",
+                              "BL putchar",
+                              "CMP r12, #2",
+                              "ADDNE r4, r4, #2",
+                              "MOV r0, r4");
+
+    assertThat(execution.getExitCode(), is(3));
+    assertThat(execution.getOutput(), is("\n"));
+  }
+
+  @Test
+  public void testAccessesOutsideMemoryFault() {
+    Execution execution = run("MOV r0, #0", "LDR r0, [r0]");
+
+    assertThat(execution.getExitCode(), is(139));
+    assertThat(execution.getError(), is("Segmentation fault at 0x0"));
+  }
+
+  @Test
+  public void testProgramsThatDoNotEndAreStopped() {
+    String assembly = main("loop:", "B loop");
+    Execution execution = new Emulator(assembly, 1000).run("");
+
+    assertTrue(execution.isStopped());
+    assertThat(execution.getInstructions(), is(1000L));
+  }
+
+  @Test(expected = EmulationException.class)
+  public void testInstructionsOutsideTheSubsetAreRejected() {
+    run("LDM r0, {r1, r2}");
+  }
+
+  @Test(expected = EmulationException.class)
+  public void testCallsToUnknownFunctionsAreRejected() {
+    run("BL strlen");
+  }
+
+}
@@ -0,0 +1,99 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import antlr.WACCParser.ProgContext;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Before;
+import org.junit.Test;
+import wacc.ast.ASTBeginStatNode;
+import wacc.ast.ASTBuilder;
+import wacc.ast.ASTExprNode;
+import wacc.ast.ASTIdentNode;
+import wacc.ast.ASTInitStatNode;
+import wacc.ast.ASTPrintStatNode;
+import wacc.ast.ASTStatNode;
+import wacc.error.WACCErrorHandler;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ASTBuilderTest {
+
+  private static final String SHADOWING
+      = "begin\n"
+      + "  int x = 1 ;\n"
+      + "  begin\n"
+      + "    int y = x ;\n"
+      + "    bool x = true ;\n"
+      + "    println x\n"
+      + "  end ;\n"
+      + "  println x\n"
+      + "end\n";
+
+  private List<ASTStatNode> outer;
+  private List<ASTStatNode> inner;
+
+  @Before
+  public void setUp() {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(SHADOWING));
+    CommonTokenStream tokens = new CommonTokenStream(lexer);
+    ProgContext tree = new WACCParser(tokens).prog();
+
+    SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+    WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+    new WACCTypeChecker(top, errorHandler).visit(tree);
+
+    outer = ASTBuilder.build(tree, top).getMain().getBody().getStatements();
+    inner = ((ASTBeginStatNode) outer.get(1)).getBody().getStatements();
+  }
+
+  @Test
+  public void testDeclarationsGetTheirOwnSlots() {
+    assertIdent(declared(outer.get(0)), "int", 0);
+    assertIdent(declared(inner.get(0)), "int", 1);
+    assertIdent(declared(inner.get(1)), "bool", 0);
+  }
+
+  @Test
+  public void testUseBeforeShadowingSkipsTheInnerFrame() {
+    assertIdent(((ASTInitStatNode) inner.get(0)).getAssignRHS(), "int", 5);
+  }
+
+  @Test
+  public void testUsesResolveToTheInnermostDeclaration() {
+    assertIdent(printed(inner.get(2)), "bool", 0);
+    assertIdent(printed(outer.get(2)), "int", 0);
+  }
+
+  @Test
+  public void testUsesShareTheBindingOfTheirDeclaration() {
+    ASTIdentNode outerX = (ASTIdentNode) printed(outer.get(2));
+    ASTIdentNode innerX = (ASTIdentNode) printed(inner.get(2));
+    assertThat(outerX.getVariable(),
+               is(sameInstance(declared(outer.get(0)).getVariable())));
+    assertThat(innerX.getVariable(),
+               is(sameInstance(declared(inner.get(1)).getVariable())));
+    assertThat(outerX.getVariable().isAddressTaken(), is(false));
+  }
+
+  private static ASTIdentNode declared(ASTStatNode stat) {
+    return ((ASTInitStatNode) stat).getIdent();
+  }
+
+  private static ASTExprNode printed(ASTStatNode stat) {
+    return ((ASTPrintStatNode) stat).getExpr();
+  }
+
+  private static void assertIdent(Object node, String type, long offset) {
+    ASTIdentNode ident = (ASTIdentNode) node;
+    assertThat(ident.getType().toString(), is(type));
+    assertThat(ident.getOffset(), is(offset));
+  }
+
+}
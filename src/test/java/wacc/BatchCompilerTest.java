@@ -0,0 +1,100 @@
+package wacc;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BatchCompilerTest {
+
+  private static final String VALID = "begin\n  println %d\nend\n";
+  private static final String SYNTAX_ERROR = "begin\n  println\nend\n";
+  private static final String SEMANTIC_ERROR = "begin\n  int x = true\nend\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path sources;
+  private Path output;
+
+  @Before
+  public void setUp() throws IOException {
+    sources = folder.newFolder("sources").toPath();
+    output = folder.newFolder("output").toPath();
+  }
+
+  @Test
+  public void testEveryFileGetsTheAssemblyOfACompile()
+      throws IOException, InterruptedException {
+    for (int i = 0; i < 4; i++) {
+      write("nested/valid" + i + ".wacc", String.format(VALID, i));
+    }
+
+    assertThat(run("-j", "3", "-o", output.toString(), sources.toString()),
+               is(WACCConstants.SUCCESS_EXIT_CODE));
+    for (int i = 0; i < 4; i++) {
+      String expected
+          = new WACCCompiler().compile(String.format(VALID, i)).getAssembly();
+      assertThat(read("nested/valid" + i + ".s"), is(expected));
+    }
+  }
+
+  @Test
+  public void testTheHighestExitCodeIsReturned()
+      throws IOException, InterruptedException {
+    write("valid.wacc", String.format(VALID, 1));
+    write("syntax.wacc", SYNTAX_ERROR);
+    write("semantic.wacc", SEMANTIC_ERROR);
+
+    assertThat(run("-j", "2", "-o", output.toString(), sources.toString()),
+               is(WACCConstants.SEMANTIC_ERROR_EXIT_CODE));
+    assertThat(Files.exists(output.resolve("valid.s")), is(true));
+    assertThat(Files.exists(output.resolve("syntax.s")), is(false));
+  }
+
+  @Test
+  public void testFilesThatCannotBeCompiledComeFirst()
+      throws IOException, InterruptedException {
+    write("semantic.wacc", SEMANTIC_ERROR);
+
+    assertThat(run("-o", output.toString(), sources.toString(),
+                   sources.resolve("missing.wacc").toString()),
+               is(1));
+  }
+
+  @Test
+  public void testBadThreadCountsPrintTheUsage()
+      throws IOException, InterruptedException {
+    write("valid.wacc", String.format(VALID, 1));
+
+    assertThat(run("-j", "x", sources.toString()), is(1));
+    assertThat(run("-j", "0", sources.toString()), is(1));
+    assertThat(run(sources.toString(), "-j"), is(1));
+    assertThat(Files.exists(output.resolve("valid.s")), is(false));
+  }
+
+  private static int run(String... args)
+      throws IOException, InterruptedException {
+    return new BatchCompiler().run(args);
+  }
+
+  private void write(String name, String source) throws IOException {
+    Path file = sources.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.write(file, source.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private String read(String name) throws IOException {
+    return new String(Files.readAllBytes(output.resolve(name)),
+                      WACCCompile.OUTPUT_CHARSET);
+  }
+
+}
@@ -0,0 +1,171 @@
+package wacc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CompileServerTest {
+
+  private static final String PROGRAM = "begin\n  println 1\nend\n";
+  private static final String INVALID = "begin\n  int x = true\nend\n";
+
+  private int port;
+  private Thread server;
+
+  @Before
+  public void setUp() throws Exception {
+    try (ServerSocket free = new ServerSocket(
+        0, 0, InetAddress.getLoopbackAddress())) {
+      port = free.getLocalPort();
+    }
+    server = new Thread(() -> {
+      try {
+        new CompileServer().run(new String[] {"-j", "2", "-p", "" + port,
+                                               "-t", "1"});
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (server.isAlive()) {
+      request("SHUTDOWN\n");
+    }
+    server.join(10000);
+  }
+
+  @Test
+  public void testCompileAnswersWithTheAssemblyTheCommandLineWrites()
+      throws Exception {
+    StringWriter streamed = new StringWriter();
+    new WACCCompiler().compile(AsciiCharStream.of(PROGRAM), streamed);
+
+    Response response = compile(PROGRAM);
+    assertThat(response.exitCode, is(WACCConstants.SUCCESS_EXIT_CODE));
+    assertThat(response.out, is(streamed.toString()));
+    assertThat(response.err, is(""));
+  }
+
+  @Test
+  public void testCompileAnswersWithTheErrors() throws Exception {
+    Response response = compile(INVALID);
+    assertThat(response.exitCode,
+               is(WACCConstants.SEMANTIC_ERROR_EXIT_CODE));
+    assertThat(response.out, is(""));
+    assertThat(response.err,
+               is(new WACCCompiler().compile(INVALID).getDiagnostics()));
+  }
+
+  @Test
+  public void testStatsCountTheCompilations() throws Exception {
+    compile(PROGRAM);
+    compile(PROGRAM);
+    // a latency is recorded once its reply has been sent
+    Response response = request("STATS\n");
+    for (int attempt = 0; attempt < 100
+         && !response.out.contains("requests=2 "); attempt++) {
+      Thread.sleep(10);
+      response = request("STATS\n");
+    }
+    assertThat(response.exitCode, is(WACCConstants.SUCCESS_EXIT_CODE));
+    assertThat(response.out, containsString("requests=2 "));
+  }
+
+  @Test
+  public void testBadLengthsAreBadRequests() throws Exception {
+    for (String length : new String[] {"-1", "x", "2147483647"}) {
+      Response response = request("COMPILE " + length + "\n");
+      assertThat(response.exitCode, is(1));
+      assertThat(response.err, is("Bad request\n"));
+    }
+    assertThat(request("HELLO\n").exitCode, is(1));
+  }
+
+  @Test(timeout = 10000)
+  public void testIdleConnectionsDoNotHoldTheThreads() throws Exception {
+    compile(PROGRAM);
+    try (Socket first = new Socket(InetAddress.getLoopbackAddress(), port);
+         Socket second = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      Response response = compile(PROGRAM);
+      assertThat(response.exitCode, is(WACCConstants.SUCCESS_EXIT_CODE));
+      assertThat(first.getInputStream().read(), is(-1));
+    }
+  }
+
+  @Test
+  public void testShutdownStopsTheServer() throws Exception {
+    assertThat(request("SHUTDOWN\n").exitCode,
+               is(WACCConstants.SUCCESS_EXIT_CODE));
+    server.join(10000);
+    assertThat(server.isAlive(), is(false));
+  }
+
+  private Response compile(String source) throws Exception {
+    return request("COMPILE " + source.length() + "\n" + source);
+  }
+
+  /**
+   * Sends request once the server is listening and reads its answer
+   */
+  private Response request(String request) throws Exception {
+    for (int attempt = 0; ; attempt++) {
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                                      port)) {
+        OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return new Response(socket.getInputStream());
+      } catch (ConnectException e) {
+        if (attempt == 100) {
+          throw e;
+        }
+        Thread.sleep(50);
+      }
+    }
+  }
+
+  private static final class Response {
+    final int exitCode;
+    final String out;
+    final String err;
+
+    Response(InputStream stream) throws IOException {
+      DataInputStream in = new DataInputStream(stream);
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      for (int c = in.read(); c != '\n'; c = in.read()) {
+        header.write(c);
+      }
+      String[] fields = header.toString("US-ASCII").split(" ");
+      exitCode = Integer.parseInt(fields[0]);
+      out = read(in, Integer.parseInt(fields[1]));
+      err = read(in, Integer.parseInt(fields[2]));
+    }
+
+    private static String read(DataInputStream in, int length)
+        throws IOException {
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+}
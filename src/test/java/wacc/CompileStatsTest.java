@@ -0,0 +1,76 @@
+package wacc;
+
+import org.junit.Test;
+import wacc.CompileResult.Phase;
+import wacc.CompileStats.Count;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.EnumSet;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CompileStatsTest {
+
+  private static final String PROGRAM = "begin\n  println 1\nend\n";
+
+  private final WACCCompiler compiler = new WACCCompiler().withStats();
+
+  @Test
+  public void testOnlyCompilersWithStatsMeasure() {
+    assertThat(new WACCCompiler().compile(PROGRAM).getStats(),
+               is(nullValue()));
+  }
+
+  @Test
+  public void testEveryPhaseIsMeasuredAndTheProgramCounted() {
+    CompileStats stats = compiler.compile(PROGRAM).getStats();
+
+    assertThat(stats.getWallTimes().keySet(),
+               is(EnumSet.allOf(Phase.class)));
+    for (Phase phase : Phase.values()) {
+      assertTrue(stats.getCpuTimes().get(phase) >= 0);
+      assertTrue(stats.getAllocations().get(phase) >= 0);
+    }
+    assertThat(stats.getCounts().get(Count.TOKENS), is(4L));
+    assertThat(stats.getCounts().get(Count.SYMBOL_TABLES), is(3L));
+    assertThat(stats.getCounts().get(Count.HELPERS), is(2L));
+    assertTrue(stats.getPeakHeap() > 0);
+  }
+
+  @Test
+  public void testInstructionsAreCountedAlikeWhenStreamed()
+      throws IOException {
+    String program = "begin\n  int x = 7 / 2;\n  print x\nend\n";
+    CompileResult inMemory = compiler.compile(program);
+    CompileResult streamed = compiler.compile(
+        AsciiCharStream.of(program), new StringWriter());
+
+    long instructions = 0;
+    for (String line : inMemory.getAssembly().split("\n")) {
+      if (line.startsWith("\t") && !line.startsWith("\t.")) {
+        instructions++;
+      }
+    }
+    assertThat(inMemory.getStats().getCounts().get(Count.INSTRUCTIONS),
+               is(instructions));
+    assertThat(streamed.getStats().getCounts(),
+               is(inMemory.getStats().getCounts()));
+  }
+
+  @Test
+  public void testFailedCompilationsStopMeasuringWithTheFrontEnd() {
+    CompileStats stats
+        = compiler.compile("begin\n  int x = \nend\n").getStats();
+
+    assertThat(stats.getWallTimes().keySet(),
+               is(EnumSet.of(Phase.LEX, Phase.PARSE)));
+    assertThat(stats.toJson(), containsString(
+        "\"counts\":{\"tokens\":5,\"parseTreeNodes\":"));
+  }
+
+}
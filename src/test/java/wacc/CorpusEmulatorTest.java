@@ -0,0 +1,75 @@
+package wacc;
+
+import org.junit.Test;
+import wacc.CorpusEmulator.Result;
+import wacc.CorpusEmulator.Status;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CorpusEmulatorTest {
+
+  /**
+   * Enough for every example but the ones that loop waiting for input or
+   * search for a long time
+   */
+  private static final long INSTRUCTION_LIMIT = 20_000_000L;
+
+  @Test
+  public void testTheExamplesPrintTheirExpectedOutput()
+      throws IOException, InterruptedException {
+    CorpusEmulator emulator = new CorpusEmulator(
+        Runtime.getRuntime().availableProcessors(), INSTRUCTION_LIMIT);
+    List<Result> results = emulator.emulateAll(
+        CorpusEmulator.collectSources(CorpusEmulator.EXAMPLES));
+
+    int passed = 0;
+    for (Result result : results) {
+      String source = result.getSource().toString();
+      if (result.getStatus() == Status.PASSED) {
+        passed++;
+      }
+      assertTrue(source + ": " + result.getProblem(),
+                 result.getStatus() != Status.FAILED);
+      assertTrue(source, result.getInstructions() > 0);
+    }
+    assertTrue(passed + " passed", passed > 180);
+  }
+
+  @Test
+  public void testOnlyTheExitCodeOfASharedNameIsChecked()
+      throws IOException, InterruptedException {
+    CorpusEmulator emulator = new CorpusEmulator(1, INSTRUCTION_LIMIT);
+    List<Result> results = emulator.emulateAll(CorpusEmulator.collectSources(
+        Arrays.asList(Paths.get("src/test/resources/examples/valid/pairs"),
+                      Paths.get("src/test/resources/examples/valid/"
+                                + "runtimeErr/doubleFrees"))));
+
+    for (Result result : results) {
+      if (result.getSource().endsWith("pairs/doubleFree.wacc")) {
+        assertThat(result.getStatus(), is(Status.UNCHECKED));
+      } else if (result.getSource().endsWith(
+          "doubleFrees/doubleFree.wacc")) {
+        assertThat(result.getProblem(), result.getStatus(),
+                   is(Status.PASSED));
+      }
+    }
+  }
+
+  @Test
+  public void testExitCodesComeFromTheExitComment() {
+    assertThat(CorpusEmulator.expectedExitCode(
+        "# Output:\n# #runtime_error#\n\n# Exit:\n# 255\n\nbegin skip end\n"),
+        is(255));
+    assertThat(CorpusEmulator.expectedExitCode("begin exit 3 end\n"),
+               is(nullValue()));
+  }
+
+}
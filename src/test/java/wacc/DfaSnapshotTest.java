@@ -0,0 +1,133 @@
+package wacc;
+
+import antlr.WACCParser;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DfaSnapshotTest {
+
+  private static final Path VALID
+      = Paths.get("src/test/resources/examples/valid");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testLoadedStatesAreThoseThatWereSaved() throws IOException {
+    WACCParser._ATN.clearDFA();
+    compileAll(VALID);
+    String trained = describeDecisions();
+    Path snapshot = folder.getRoot().toPath().resolve("parser.dfa");
+    DfaSnapshot.save(snapshot);
+
+    WACCParser._ATN.clearDFA();
+    assertThat(DfaSnapshot.load(snapshot), is(true));
+
+    assertThat(describeDecisions(), is(trained));
+  }
+
+  @Test
+  public void testLoadedStatesPredictTheTrainingCorpus() throws IOException {
+    WACCParser._ATN.clearDFA();
+    compileAll(VALID);
+    Path snapshot = folder.getRoot().toPath().resolve("parser.dfa");
+    DfaSnapshot.save(snapshot);
+
+    WACCParser._ATN.clearDFA();
+    DfaSnapshot.load(snapshot);
+    String loaded = describeDecisions();
+    compileAll(VALID);
+
+    assertThat(describeDecisions(), is(loaded));
+  }
+
+  @Test
+  public void testOtherFilesAreNotLoaded() throws IOException {
+    Path snapshot = folder.getRoot().toPath().resolve("parser.dfa");
+    assertThat(DfaSnapshot.load(snapshot), is(false));
+    Files.write(snapshot, new byte[] {0, 0, 0, 1, 0, 3, 'a', 'b', 'c'});
+    assertThat(DfaSnapshot.load(snapshot), is(false));
+  }
+
+  private static void compileAll(Path root) throws IOException {
+    WACCCompiler compiler = new WACCCompiler();
+    try (Stream<Path> files = Files.walk(root)) {
+      for (Path file : files.filter(f -> f.toString().endsWith(".wacc"))
+                            .sorted().collect(Collectors.toList())) {
+        compiler.compile(new String(Files.readAllBytes(file)));
+      }
+    }
+  }
+
+  /**
+   * The states of every decision, numbered in the order they are reached
+   * from its start state, with their configurations and edges
+   */
+  private static String describeDecisions() {
+    StringBuilder description = new StringBuilder();
+    for (DFA dfa : WACCParser._ATN.decisionToDFA) {
+      if (dfa.s0.get() == null) {
+        continue;
+      }
+      description.append("decision ").append(dfa.decision).append('\n');
+      Map<DFAState, Integer> numbers = new HashMap<>();
+      List<DFAState> order = new ArrayList<>();
+      numbers.put(dfa.s0.get(), 0);
+      order.add(dfa.s0.get());
+      for (int i = 0; i < order.size(); i++) {
+        DFAState state = order.get(i);
+        description.append(i).append(" => ").append(state.getPrediction())
+                   .append('\n');
+        for (ATNConfig config : state.configs) {
+          description.append("  ").append(config.getState().stateNumber)
+                     .append(',').append(config.getAlt()).append(',')
+                     .append(config.getOuterContextDepth()).append(',')
+                     .append(describe(config.getContext())).append('\n');
+        }
+        for (Map.Entry<Integer, DFAState> edge
+            : state.getEdgeMap().entrySet()) {
+          DFAState target = edge.getValue();
+          if (!numbers.containsKey(target)) {
+            numbers.put(target, order.size());
+            order.add(target);
+          }
+          description.append("  ").append(edge.getKey()).append(" -> ")
+                     .append(numbers.get(target)).append('\n');
+        }
+      }
+    }
+    return description.toString();
+  }
+
+  private static String describe(PredictionContext context) {
+    if (context.isEmpty()) {
+      return context == PredictionContext.EMPTY_FULL ? "$" : "*";
+    }
+    StringBuilder description = new StringBuilder("[");
+    for (int i = 0; i < context.size(); i++) {
+      description.append(context.getReturnState(i)).append(' ')
+                 .append(describe(context.getParent(i))).append(';');
+    }
+    return description.append(']').toString();
+  }
+
+}
@@ -0,0 +1,55 @@
+package wacc;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks the errors reported for every invalid example against those the
+ * compiler reported before comparisonOper was left-factored and programs
+ * were parsed in SLL mode first
+ * The only differences from that compiler are the type errors it reported
+ * twice, which the single pass type checker reports once
+ */
+public class DiagnosticsTest {
+
+  private static final Path INVALID
+      = Paths.get("src/test/resources/examples/invalid");
+  private static final Path EXPECTED
+      = Paths.get("src/test/resources/diagnostics/invalid.txt");
+
+  @Test
+  public void testInvalidExamplesReportTheSameErrors() throws IOException {
+    StringBuilder diagnostics = new StringBuilder();
+    for (Path example : examples()) {
+      CompileResult result = new WACCCompiler()
+          .compile(new String(Files.readAllBytes(example),
+                              StandardCharsets.UTF_8));
+      if (!result.getDiagnostics().isEmpty()) {
+        diagnostics.append(example).append(":\n")
+            .append(result.getDiagnostics());
+      }
+    }
+    String expected = new String(Files.readAllBytes(EXPECTED),
+                                 StandardCharsets.UTF_8);
+    assertThat(diagnostics.toString(), is(expected));
+  }
+
+  private static List<Path> examples() throws IOException {
+    try (Stream<Path> files = Files.walk(INVALID)) {
+      return files.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+package wacc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class IncrementalBuildTest {
+
+  private static final Path VALID_EXAMPLES
+      = Paths.get("src/test/resources/examples/valid");
+
+  private static final String PROGRAM = "begin\n"
+      + "  int f(int x) is\n"
+      + "    println \"%s\" ;\n"
+      + "    return x + 1\n"
+      + "  end\n"
+      + "  int g(%s x) is\n"
+      + "    if x > 0 then return x else return 0 - x fi\n"
+      + "  end\n"
+      + "  int h(int x) is\n"
+      + "    println \"h\" ;\n"
+      + "    return x * 2\n"
+      + "  end\n"
+      + "  int a = call f(1) ;\n"
+      + "  int b = call g(a) ;\n"
+      + "  int c = call h(b) ;\n"
+      + "  println c\n"
+      + "end\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCachedBuildsMatchCleanBuilds() throws IOException {
+    WACCCompiler incremental
+        = new WACCCompiler(new UnitCache(folder.getRoot().toPath()));
+    WACCCompiler clean = new WACCCompiler();
+    for (Path example : validExamples()) {
+      String source = new String(Files.readAllBytes(example));
+      String expected = clean.compile(source).getAssembly();
+      assertThat(example.toString(),
+                 incremental.compile(source).getAssembly(), is(expected));
+      assertThat(example.toString(),
+                 incremental.compile(source).getAssembly(), is(expected));
+    }
+  }
+
+  @Test
+  public void testOnlyTheEditedFunctionIsCompiledAgain() {
+    UnitCache cache = new UnitCache(folder.getRoot().toPath());
+    WACCCompiler incremental = new WACCCompiler(cache);
+    incremental.compile(String.format(PROGRAM, "f", "int"));
+
+    String edited = String.format(PROGRAM, "edited f", "int");
+    assertThat(incremental.compile(edited).getAssembly(),
+               is(new WACCCompiler().compile(edited).getAssembly()));
+    assertThat(cache.getHits(), is(3));
+    assertThat(cache.getMisses(), is(5));
+  }
+
+  @Test
+  public void testCallersOfAChangedSignatureAreCompiledAgain() {
+    UnitCache cache = new UnitCache(folder.getRoot().toPath());
+    WACCCompiler incremental = new WACCCompiler(cache);
+    incremental.compile(String.format(PROGRAM, "f", "int"));
+
+    String edited = String.format(PROGRAM, "f", "char");
+    assertThat(incremental.compile(edited).getExitCode(),
+               is(WACCConstants.SEMANTIC_ERROR_EXIT_CODE));
+    assertThat(cache.getHits(), is(2));
+    assertThat(cache.getMisses(), is(6));
+  }
+
+  private static List<Path> validExamples() throws IOException {
+    try (Stream<Path> files = Files.walk(VALID_EXAMPLES)) {
+      return files.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+  }
+
+}
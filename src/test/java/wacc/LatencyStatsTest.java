@@ -0,0 +1,43 @@
+package wacc;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class LatencyStatsTest {
+
+  @Test
+  public void testPercentilesAreNearestRank() {
+    LatencyStats stats = new LatencyStats();
+    for (long nanos = 100; nanos >= 1; nanos--) {
+      stats.record(nanos);
+    }
+    assertThat(stats.percentile(50), is(50L));
+    assertThat(stats.percentile(90), is(90L));
+    assertThat(stats.percentile(99.9), is(100L));
+    assertThat(stats.percentile(100), is(100L));
+  }
+
+  @Test
+  public void testNothingRecordedGivesZero() {
+    LatencyStats stats = new LatencyStats();
+    assertThat(stats.percentile(50), is(0L));
+    assertThat(stats.toString(), startsWith("requests=0 p50=0.000ms"));
+  }
+
+  @Test
+  public void testOnlyTheLatestWindowCounts() {
+    LatencyStats stats = new LatencyStats();
+    for (int i = 0; i < 10000; i++) {
+      stats.record(1000000);
+    }
+    for (int i = 0; i < 10000; i++) {
+      stats.record(1);
+    }
+    assertThat(stats.getCount(), is(20000L));
+    assertThat(stats.percentile(99.9), is(1L));
+  }
+
+}
@@ -0,0 +1,131 @@
+package wacc;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class OutputCacheTest {
+
+  private static final String PROGRAM = "begin\n  println \"%s\"\nend\n";
+  private static final String INVALID = "begin\n  int x = true\nend\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testHitGivesBackTheStoredResult() {
+    OutputCache cache = new OutputCache(folder.getRoot().toPath());
+    WACCCompiler compiler = new WACCCompiler(null, cache);
+    String source = String.format(PROGRAM, "hello");
+
+    CompileResult compiled = compiler.compile(source);
+    CompileResult cached = compiler.compile(source);
+
+    assertThat(cached.getAssembly(),
+               is(new WACCCompiler().compile(source).getAssembly()));
+    assertThat(cached.getAssembly(), is(compiled.getAssembly()));
+    assertThat(cached.getPhaseTimings().isEmpty(), is(true));
+    assertThat(cache.getMisses(), is(1));
+    assertThat(cache.getHits(), is(1));
+  }
+
+  @Test
+  public void testErrorsAreCachedWithTheirExitCode() {
+    OutputCache cache = new OutputCache(folder.getRoot().toPath());
+    WACCCompiler compiler = new WACCCompiler(null, cache);
+
+    CompileResult compiled = compiler.compile(INVALID);
+    CompileResult cached = compiler.compile(INVALID);
+
+    assertThat(cache.getHits(), is(1));
+    assertThat(cached.getExitCode(),
+               is(WACCConstants.SEMANTIC_ERROR_EXIT_CODE));
+    assertThat(cached.getAssembly(), is(nullValue()));
+    assertThat(cached.getDiagnostics(), is(compiled.getDiagnostics()));
+    assertThat(cached.getErrors().toString(),
+               is(compiled.getErrors().toString()));
+  }
+
+  @Test
+  public void testStreamedOutputIsCachedApart() throws IOException {
+    OutputCache cache = new OutputCache(folder.getRoot().toPath());
+    WACCCompiler compiler = new WACCCompiler(null, cache);
+    String source = String.format(PROGRAM, "hello");
+    StringWriter expected = new StringWriter();
+    new WACCCompiler().compile(new ANTLRInputStream(source), expected);
+
+    compiler.compile(source);
+    for (int i = 0; i < 2; i++) {
+      StringWriter out = new StringWriter();
+      CompileResult result
+          = compiler.compile(new ANTLRInputStream(source), out);
+      assertThat(out.toString(), is(expected.toString()));
+      assertThat(result.getAssembly(), is(nullValue()));
+    }
+    assertThat(cache.getMisses(), is(2));
+    assertThat(cache.getHits(), is(1));
+  }
+
+  @Test
+  public void testResultsThatCannotBeStoredAreStillGiven()
+      throws IOException {
+    Path notADirectory = folder.newFile().toPath();
+    WACCCompiler compiler
+        = new WACCCompiler(null, new OutputCache(notADirectory));
+    String source = String.format(PROGRAM, "hello");
+
+    assertThat(compiler.compile(source).getAssembly(),
+               is(new WACCCompiler().compile(source).getAssembly()));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    new WACCCompiler(null, new OutputCache(directory))
+        .compile(String.format(PROGRAM, "a"));
+    long entrySize = totalSize(directory);
+
+    OutputCache cache = new OutputCache(directory, entrySize * 5 / 2);
+    WACCCompiler compiler = new WACCCompiler(null, cache);
+    compiler.compile(String.format(PROGRAM, "b"));
+    setLastUsed(directory, String.format(PROGRAM, "a"), 2000);
+    setLastUsed(directory, String.format(PROGRAM, "b"), 1000);
+    compiler.compile(String.format(PROGRAM, "c"));
+
+    assertThat(cache.getEvictions(), is(1));
+    compiler.compile(String.format(PROGRAM, "a"));
+    assertThat(cache.getHits(), is(1));
+    compiler.compile(String.format(PROGRAM, "b"));
+    assertThat(cache.getMisses(), is(3));
+  }
+
+  private static void setLastUsed(Path directory, String source, long time)
+      throws IOException {
+    String key = OutputCache.key(source, "layout=in-memory");
+    Files.setLastModifiedTime(directory.resolve(key + ".out"),
+                              FileTime.fromMillis(time));
+  }
+
+  private static long totalSize(Path directory) throws IOException {
+    long size = 0;
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        size += Files.size(file);
+      }
+    }
+    return size;
+  }
+
+}
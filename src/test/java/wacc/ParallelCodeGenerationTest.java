@@ -0,0 +1,58 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import antlr.WACCParser.ProgContext;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+import wacc.ast.ASTBuilder;
+import wacc.error.WACCErrorHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParallelCodeGenerationTest {
+
+  private static final Path VALID_EXAMPLES
+      = Paths.get("src/test/resources/examples/valid");
+
+  @Test
+  public void testParallelOutputMatchesSequentialOutput() throws IOException {
+    for (Path example : validExamples()) {
+      String source = new String(Files.readAllBytes(example));
+      assertThat(example.toString(), generate(source, 1),
+                 is(generate(source, Integer.MAX_VALUE)));
+    }
+  }
+
+  private static List<Path> validExamples() throws IOException {
+    try (Stream<Path> files = Files.walk(VALID_EXAMPLES)) {
+      return files.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static String generate(String source, int parallelThreshold) {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    CommonTokenStream tokens = new CommonTokenStream(lexer);
+    ProgContext tree = new WACCParser(tokens).prog();
+
+    SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+    WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+    new WACCTypeChecker(top, errorHandler).visit(tree);
+
+    return new CodeGenerator(parallelThreshold)
+        .visitProgram(ASTBuilder.build(tree, top)).toString();
+  }
+
+}
@@ -0,0 +1,63 @@
+package wacc;
+
+import antlr.WACCLexer;
+import antlr.WACCParser;
+import bindings.Binding;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+import wacc.error.WACCErrorHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParallelTypeCheckingTest {
+
+  private static final Path EXAMPLES = Paths.get("src/test/resources/examples");
+
+  @Test
+  public void testParallelErrorsMatchSequentialErrors() throws IOException {
+    for (Path example : examples()) {
+      String source = new String(Files.readAllBytes(example));
+      assertThat(example.toString(), check(source, 1),
+                 is(check(source, Integer.MAX_VALUE)));
+    }
+  }
+
+  private static List<Path> examples() throws IOException {
+    try (Stream<Path> files = Files.walk(EXAMPLES)) {
+      return files.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static String check(String source, int parallelThreshold) {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    lexer.removeErrorListeners();
+    CommonTokenStream tokens = new CommonTokenStream(lexer);
+    WACCParser parser = new WACCParser(tokens);
+    parser.removeErrorListeners();
+    ParseTree tree = parser.prog();
+    if (parser.getNumberOfSyntaxErrors() > 0) {
+      // the compiler stops before analysis
+      return "syntax error";
+    }
+
+    SymbolTable<String, Binding> top = WACCCompiler.createTopSymbolTable();
+    WACCErrorHandler errorHandler = new WACCErrorHandler(tokens);
+    new WACCTypeChecker(top, errorHandler, parallelThreshold).visit(tree);
+
+    return errorHandler.getSyntacticErrorCount() + " "
+        + errorHandler.getSemanticErrorCount() + "\n" + errorHandler;
+  }
+
+}
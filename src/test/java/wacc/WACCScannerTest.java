@@ -0,0 +1,124 @@
+package wacc;
+
+import antlr.WACCLexer;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.junit.Test;
+import wacc.error.WACCConsoleErrorListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WACCScannerTest {
+
+  private static final Path RESOURCES = Paths.get("src/test/resources");
+
+  private static final String[] FRAGMENTS = {
+      "a", "Z", "_", "9", "int", "integer", "println", "printl", "is", "i",
+      "pair", "newpair", " ", "\t", "\r", "\n", "\r\n", "#", "# x", "'",
+      "\"", "\\", "\\n", "\\q", "|", "||", "&", "&&", "=", "==", "!", "!=",
+      "<", "<=", ">", ">=", "(", ")", "[", "]", ";", ",", "+", "-", "*",
+      "/", "%", "$", "~", "."
+  };
+
+  @Test
+  public void testCorpusIsScannedLikeTheGeneratedLexer() throws IOException {
+    for (Path file : sources()) {
+      String source = new String(Files.readAllBytes(file));
+      assertThat(file.toString(), scan(source), is(lex(source)));
+    }
+  }
+
+  @Test
+  public void testEdgeCasesAreScannedLikeTheGeneratedLexer() {
+    String[] sources = {
+        "", "begin end", "beginning _end end_ int1 1int", "123 0012",
+        "'a' '\\n' '\\'' 'ab' '' '\"' '\n' '\\q'",
+        "\"abc\" \"a\\\"b\" \"it's\" \"unclosed", "\"line\nbreak\"",
+        "# comment\nx # at the end", "# carriage\r\nx", "# lone\r\rx\n",
+        "a|b |\nc ||| $x\n@", "|", "x == = != ! <= < >= > && &",
+        "a\r\n  b\t\tc\n\n   d", "zz\n\"abc\ndef\"", " '\n'", "\"a\nb\" "
+    };
+    for (String source : sources) {
+      assertThat(source, scan(source), is(lex(source)));
+    }
+  }
+
+  @Test
+  public void testRandomInputsAreScannedLikeTheGeneratedLexer() {
+    Random random = new Random(16);
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder source = new StringBuilder();
+      for (int n = random.nextInt(30); n > 0; n--) {
+        source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+      assertThat(source.toString(), scan(source.toString()),
+                 is(lex(source.toString())));
+    }
+  }
+
+  @Test
+  public void testOnlyAsciiSourcesAreHeldAsBytes() {
+    assertThat(AsciiCharStream.of("begin skip end"),
+               instanceOf(AsciiCharStream.class));
+    assertThat(AsciiCharStream.of("begin println \"é\" end"),
+               instanceOf(ANTLRInputStream.class));
+  }
+
+  private static List<Path> sources() throws IOException {
+    try (Stream<Path> files = Files.walk(RESOURCES)) {
+      return files.filter(file -> file.toString().endsWith(".wacc"))
+                  .sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static String lex(String source) {
+    WACCLexer lexer = new WACCLexer(new ANTLRInputStream(source));
+    lexer.removeErrorListeners();
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    lexer.addErrorListener(recordTo(errors));
+    return describe(lexer, errors);
+  }
+
+  private static String scan(String source) {
+    WACCScanner scanner
+        = new WACCScanner((AsciiCharStream) AsciiCharStream.of(source));
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    scanner.addErrorListener(recordTo(errors));
+    return describe(scanner, errors);
+  }
+
+  private static String describe(TokenSource lexer,
+                                  ByteArrayOutputStream errors) {
+    StringBuilder tokens = new StringBuilder();
+    Token token;
+    do {
+      token = lexer.nextToken();
+      tokens.append(token.getType()).append(' ').append(token.getText())
+            .append(' ').append(token.getLine()).append(':')
+            .append(token.getCharPositionInLine()).append(' ')
+            .append(token.getStartIndex()).append('-')
+            .append(token.getStopIndex()).append('\n');
+    } while (token.getType() != Token.EOF);
+    return tokens.append(errors).toString();
+  }
+
+  private static WACCConsoleErrorListener recordTo(
+      ByteArrayOutputStream errors) {
+    return new WACCConsoleErrorListener(new PrintStream(errors, true));
+  }
+
+}